@@ -3,9 +3,11 @@ package com.swiftlogistics.esb;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableDiscoveryClient
+@EnableScheduling
 public class EsbApplication {
     public static void main(String[] args) {
         SpringApplication.run(EsbApplication.class, args);
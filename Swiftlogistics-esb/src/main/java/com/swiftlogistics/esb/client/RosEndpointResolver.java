@@ -0,0 +1,174 @@
+package com.swiftlogistics.esb.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Learns which of several candidate URL templates the ROS actually serves for an operation.
+ * The template that answered last is tried first; templates the server does not route
+ * (404/405 from the framework rather than the application) are skipped until the TTL expires.
+ * Exposed through the {@code rosendpoints} actuator endpoint.
+ */
+@Component
+public class RosEndpointResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(RosEndpointResolver.class);
+
+    private final Map<String, OperationState> operations = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    public RosEndpointResolver(@Value("${esb.ros.endpoint-cache-ttl-ms:600000}") long ttlMs) {
+        this(Duration.ofMillis(ttlMs), System::nanoTime);
+    }
+
+    RosEndpointResolver(Duration ttl, LongSupplier clock) {
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * Calls the templates in learned order until one answers.
+     * Returns null when none did, including when every template is known to be missing.
+     */
+    public <T> T resolve(String operation, List<String> templates, Function<String, T> call) {
+        try {
+            return resolveOrThrow(operation, templates, call);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Like {@link #resolve}, but when no template answered because the ROS failed (rather than because
+     * the template or the entity does not exist) the last failure is thrown instead of returning null.
+     */
+    public <T> T resolveOrThrow(String operation, List<String> templates, Function<String, T> call) {
+        OperationState state = operations.computeIfAbsent(operation, k -> new OperationState());
+        state.calls.increment();
+
+        RuntimeException failure = null;
+        for (String template : probeOrder(state, templates)) {
+            state.requests.increment();
+            try {
+                T result = call.apply(template);
+                state.preferred = template;
+                state.missingUntil.remove(template);
+                return result;
+            } catch (HttpClientErrorException e) {
+                if (isApplicationNotFound(e)) {
+                    // The endpoint exists; the entity asked for does not
+                    state.preferred = template;
+                    return null;
+                }
+                if (e.getStatusCode() == HttpStatus.NOT_FOUND || e.getStatusCode() == HttpStatus.METHOD_NOT_ALLOWED) {
+                    state.missingUntil.put(template, clock.getAsLong() + ttlNanos);
+                    if (template.equals(state.preferred)) {
+                        state.preferred = null;
+                    }
+                } else {
+                    failure = e;
+                }
+                logger.debug("ROS {} via {} failed: {}", operation, template, e.getStatusCode());
+            } catch (RuntimeException e) {
+                // Server errors and transport failures say nothing about whether the template exists
+                failure = e;
+                logger.debug("ROS {} via {} failed: {}", operation, template, e.getMessage());
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return null;
+    }
+
+    /** True when every template of the operation answered 404/405 recently, i.e. the ROS does not serve it. */
+    public boolean isUnsupported(String operation, List<String> templates) {
+        OperationState state = operations.get(operation);
+        if (state == null) {
+            return false;
+        }
+        long now = clock.getAsLong();
+        for (String template : templates) {
+            Long until = state.missingUntil.get(template);
+            if (until == null || until <= now) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** What has been learned per operation, for the actuator endpoint. */
+    public Map<String, Object> snapshot() {
+        long now = clock.getAsLong();
+        Map<String, Object> result = new LinkedHashMap<>();
+        operations.forEach((operation, state) -> {
+            Map<String, Object> missing = new LinkedHashMap<>();
+            state.missingUntil.forEach((template, until) -> {
+                if (until > now) {
+                    missing.put(template, Duration.ofNanos(until - now).toMillis());
+                }
+            });
+            Map<String, Object> view = new LinkedHashMap<>();
+            view.put("preferred", state.preferred);
+            view.put("missingTemplatesExpireInMs", missing);
+            view.put("calls", state.calls.sum());
+            view.put("httpRequests", state.requests.sum());
+            result.put(operation, view);
+        });
+        return result;
+    }
+
+    public void reset() {
+        operations.clear();
+    }
+
+    private List<String> probeOrder(OperationState state, List<String> templates) {
+        long now = clock.getAsLong();
+        List<String> order = new ArrayList<>(templates.size());
+        String preferred = state.preferred;
+        if (preferred != null && templates.contains(preferred)) {
+            order.add(preferred);
+        }
+        for (String template : templates) {
+            if (template.equals(preferred)) {
+                continue;
+            }
+            Long until = state.missingUntil.get(template);
+            if (until != null && until > now) {
+                continue;
+            }
+            order.add(template);
+        }
+        return order;
+    }
+
+    // Flask answers unrouted paths with an HTML page; the ROS API itself returns JSON errors
+    private static boolean isApplicationNotFound(HttpClientErrorException e) {
+        MediaType contentType = e.getResponseHeaders() != null ? e.getResponseHeaders().getContentType() : null;
+        return e.getStatusCode() == HttpStatus.NOT_FOUND
+                && contentType != null && MediaType.APPLICATION_JSON.isCompatibleWith(contentType);
+    }
+
+    private static final class OperationState {
+        private volatile String preferred;
+        private final Map<String, Long> missingUntil = new ConcurrentHashMap<>();
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder requests = new LongAdder();
+    }
+}
@@ -0,0 +1,359 @@
+package com.swiftlogistics.esb.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Non-blocking client for the WMS TCP protocol (8-byte type + length header, JSON payload),
+ * built on a Netty NIO event loop. Keeps a small pool of persistent channels; requests are
+ * pipelined on a channel and responses are matched to callers by the request_id WMS echoes back.
+ * Frames without a request_id are matched in FIFO order, and PACKAGE_UPDATE broadcasts are skipped.
+ * A closed channel fails its in-flight requests and is re-connected on the next call.
+ * <p>
+ * Futures are completed on the event loop, so callers must not block inside dependent stages.
+ */
+@Component
+public class WmsClient implements DisposableBean {
+
+    public static final int ERROR = 0xFF;
+    // WMS pushes package updates to every connected client with this message type
+    private static final int PACKAGE_UPDATE_BROADCAST = 0x02;
+    private static final int HEADER_LENGTH = 8;
+    private static final int MAX_FRAME_LENGTH = 1024 * 1024;
+
+    private static final Logger logger = LoggerFactory.getLogger(WmsClient.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong requestIds = new AtomicLong();
+    private final AtomicInteger nextConnection = new AtomicInteger();
+    private final long requestTimeoutMs;
+    private final EventLoopGroup eventLoop;
+    private final Bootstrap bootstrap;
+    private final Connection[] connections;
+    private volatile boolean closed;
+
+    public WmsClient(@Value("${esb.wms.host:localhost}") String host,
+            @Value("${esb.wms.port:5003}") int port,
+            @Value("${esb.wms.pool-size:4}") int poolSize,
+            @Value("${esb.wms.connect-timeout-ms:3000}") int connectTimeoutMs,
+            @Value("${esb.wms.request-timeout-ms:5000}") long requestTimeoutMs,
+            @Value("${esb.wms.event-loop-threads:1}") int eventLoopThreads) {
+        this.requestTimeoutMs = requestTimeoutMs;
+        this.eventLoop = new NioEventLoopGroup(eventLoopThreads, new DefaultThreadFactory("wms-event-loop", true));
+        this.bootstrap = new Bootstrap()
+                .group(eventLoop)
+                .channel(NioSocketChannel.class)
+                .remoteAddress(host, port)
+                .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .option(ChannelOption.SO_KEEPALIVE, true);
+        this.connections = new Connection[poolSize];
+        for (int i = 0; i < poolSize; i++) {
+            connections[i] = new Connection(i);
+        }
+    }
+
+    public CompletableFuture<Response> sendAsync(int type, Map<String, Object> payload) {
+        return sendAsync(type, payload, requestTimeoutMs);
+    }
+
+    public CompletableFuture<Response> sendAsync(int type, Map<String, Object> payload, long timeoutMs) {
+        long requestId = requestIds.incrementAndGet();
+        Map<String, Object> body = new HashMap<>(payload);
+        body.put("request_id", requestId);
+
+        Request request;
+        try {
+            request = new Request(requestId, type, objectMapper.writeValueAsBytes(body));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        Connection connection = connections[Math.floorMod(nextConnection.getAndIncrement(), connections.length)];
+        CompletableFuture<Response> response = new CompletableFuture<>();
+        response.orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+        connection.send(request, response, true);
+        return response;
+    }
+
+    // Blocking convenience for synchronous callers
+    public Response send(int type, Map<String, Object> payload) throws IOException, TimeoutException {
+        return send(type, payload, requestTimeoutMs);
+    }
+
+    public Response send(int type, Map<String, Object> payload, long timeoutMs) throws IOException, TimeoutException {
+        try {
+            return sendAsync(type, payload, timeoutMs).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TimeoutException) {
+                throw new TimeoutException("No WMS response within " + timeoutMs + "ms");
+            }
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for WMS response", e);
+        }
+    }
+
+    // Requests the channels still track, abandoned ones included; for tests
+    int inFlightRequests() throws ExecutionException, InterruptedException {
+        int count = 0;
+        for (Connection connection : connections) {
+            count += connection.inFlightRequests();
+        }
+        return count;
+    }
+
+    @Override
+    public void destroy() {
+        closed = true;
+        for (Connection connection : connections) {
+            connection.close();
+        }
+        eventLoop.shutdownGracefully(0, 2, TimeUnit.SECONDS);
+    }
+
+    public record Response(int type, byte[] payload) {
+
+        public boolean isError() {
+            return type == ERROR;
+        }
+
+        public String payloadAsString() {
+            return new String(payload, StandardCharsets.UTF_8);
+        }
+    }
+
+    private record Request(long requestId, int type, byte[] json) {
+    }
+
+    private final class Connection {
+
+        private final int index;
+        private ChannelFuture channelFuture;
+
+        Connection(int index) {
+            this.index = index;
+        }
+
+        void send(Request request, CompletableFuture<Response> response, boolean retry) {
+            if (closed) {
+                response.completeExceptionally(new IOException("WMS client closed"));
+                return;
+            }
+            channel().addListener((ChannelFuture connected) -> {
+                if (!connected.isSuccess()) {
+                    response.completeExceptionally(new IOException("Cannot connect to WMS", connected.cause()));
+                    return;
+                }
+                Channel channel = connected.channel();
+                ResponseHandler handler = channel.pipeline().get(ResponseHandler.class);
+                // register on the event loop so inFlight order matches write order
+                channel.eventLoop().execute(() -> {
+                    handler.register(request.requestId(), response);
+                    channel.writeAndFlush(request).addListener((ChannelFuture written) -> {
+                        if (written.isSuccess()) {
+                            return;
+                        }
+                        handler.unregister(request.requestId());
+                        if (retry && !closed) {
+                            // Most likely WMS dropped an idle connection; the request never went out, so resend once
+                            logger.debug("WMS connection {} failed on write ({}), reconnecting", index,
+                                    written.cause().getMessage());
+                            send(request, response, false);
+                        } else {
+                            response.completeExceptionally(new IOException("WMS write failed", written.cause()));
+                        }
+                    });
+                });
+            });
+        }
+
+        int inFlightRequests() throws ExecutionException, InterruptedException {
+            ChannelFuture current = currentChannel();
+            if (current == null || !current.isSuccess()) {
+                return 0;
+            }
+            Channel channel = current.channel();
+            ResponseHandler handler = channel.pipeline().get(ResponseHandler.class);
+            return handler == null ? 0 : channel.eventLoop().submit(handler.inFlight::size).get();
+        }
+
+        void close() {
+            ChannelFuture current = currentChannel();
+            if (current != null) {
+                current.channel().close();
+            }
+        }
+
+        private synchronized ChannelFuture currentChannel() {
+            return channelFuture;
+        }
+
+        private synchronized ChannelFuture channel() {
+            if (channelFuture == null || (channelFuture.isDone() && !channelFuture.channel().isActive())) {
+                channelFuture = bootstrap.clone()
+                        .handler(new ChannelInitializer<SocketChannel>() {
+                            @Override
+                            protected void initChannel(SocketChannel ch) {
+                                ch.pipeline()
+                                        .addLast(new LengthFieldBasedFrameDecoder(MAX_FRAME_LENGTH + HEADER_LENGTH, 4, 4))
+                                        .addLast(new FrameEncoder())
+                                        .addLast(new ResponseHandler(index));
+                            }
+                        })
+                        .connect();
+                channelFuture.addListener((ChannelFuture f) -> {
+                    if (f.isSuccess()) {
+                        logger.info("Opened WMS connection {} to {}", index, f.channel().remoteAddress());
+                    }
+                });
+            }
+            return channelFuture;
+        }
+    }
+
+    // Writes header + payload straight into a pooled direct buffer
+    private static final class FrameEncoder extends MessageToByteEncoder<Request> {
+
+        @Override
+        protected void encode(ChannelHandlerContext ctx, Request request, ByteBuf out) {
+            out.writeInt(request.type());
+            out.writeInt(request.json().length);
+            out.writeBytes(request.json());
+        }
+
+        @Override
+        protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, Request request, boolean preferDirect) {
+            return ctx.alloc().directBuffer(HEADER_LENGTH + request.json().length);
+        }
+    }
+
+    private final class ResponseHandler extends SimpleChannelInboundHandler<ByteBuf> {
+
+        private final int index;
+        // Callers by request id, in the order their requests were written (for responses that carry
+        // no request_id). Only touched on the event loop. A caller that timed out keeps its entry, so
+        // FIFO matching stays aligned if the response shows up late; it is dropped once a later request
+        // has been answered.
+        private final Map<Long, CompletableFuture<Response>> inFlight = new LinkedHashMap<>();
+
+        ResponseHandler(int index) {
+            this.index = index;
+        }
+
+        void register(long requestId, CompletableFuture<Response> response) {
+            inFlight.put(requestId, response);
+        }
+
+        void unregister(long requestId) {
+            inFlight.remove(requestId);
+        }
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, ByteBuf frame) throws Exception {
+            int type = frame.readInt();
+            int length = frame.readInt();
+            JsonNode json = parse(frame, length);
+
+            if (type == PACKAGE_UPDATE_BROADCAST && json != null && "PACKAGE_UPDATE".equals(json.path("type").asText())) {
+                logger.debug("Skipping WMS package update broadcast on connection {}", index);
+                return;
+            }
+
+            CompletableFuture<Response> response;
+            if (json != null && json.hasNonNull("request_id") && json.get("request_id").canConvertToLong()) {
+                long requestId = json.get("request_id").asLong();
+                response = inFlight.remove(requestId);
+                if (response == null) {
+                    logger.debug("Dropping WMS response for unknown request {}", requestId);
+                    return;
+                }
+                dropAbandoned();
+            } else {
+                Iterator<CompletableFuture<Response>> oldest = inFlight.values().iterator();
+                if (!oldest.hasNext()) {
+                    logger.debug("Dropping unsolicited WMS frame of type {}", type);
+                    return;
+                }
+                response = oldest.next();
+                oldest.remove();
+            }
+
+            if (!response.isDone()) {
+                byte[] payload = new byte[length];
+                frame.getBytes(HEADER_LENGTH, payload);
+                response.complete(new Response(type, payload));
+            }
+        }
+
+        // WMS answered a later request, so it is not going to answer the timed-out ones written before it
+        private void dropAbandoned() {
+            Iterator<CompletableFuture<Response>> oldest = inFlight.values().iterator();
+            while (oldest.hasNext() && oldest.next().isDone()) {
+                oldest.remove();
+            }
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) {
+            if (!closed) {
+                logger.warn("WMS connection {} closed with {} requests in flight", index, inFlight.size());
+            }
+            IOException cause = new IOException("WMS connection closed");
+            inFlight.values().forEach(response -> response.completeExceptionally(cause));
+            inFlight.clear();
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            logger.warn("WMS connection {} failed: {}", index, cause.getMessage());
+            ctx.close();
+        }
+
+        private JsonNode parse(ByteBuf frame, int length) {
+            try {
+                return objectMapper.readTree(new ByteBufInputStream(frame.slice(HEADER_LENGTH, length)));
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+}
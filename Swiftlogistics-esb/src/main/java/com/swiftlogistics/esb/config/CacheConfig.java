@@ -0,0 +1,63 @@
+package com.swiftlogistics.esb.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.swiftlogistics.esb.service.CmsService.ClientInfoLookup;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+
+    // CMS GetClientInfo results by client id. Unknown clients are cached too, for a shorter time,
+    // so a batch for a bad client id does not hit the CMS once per order.
+    // Meters: cache.gets{cache=esb.cms.client-info,result=hit|miss}, cache.evictions, cache.size
+    @Bean
+    public Cache<String, ClientInfoLookup> cmsClientInfoCache(
+            @Value("${esb.cms.client-cache.max-size:10000}") long maxSize,
+            @Value("${esb.cms.client-cache.ttl-ms:300000}") long ttlMs,
+            @Value("${esb.cms.client-cache.negative-ttl-ms:30000}") long negativeTtlMs,
+            MeterRegistry meterRegistry) {
+        Cache<String, ClientInfoLookup> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new KnownClientExpiry(Duration.ofMillis(ttlMs), Duration.ofMillis(negativeTtlMs)))
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "esb.cms.client-info");
+    }
+
+    // Entries live for a fixed time from when they were loaded; reads do not extend them
+    private static final class KnownClientExpiry implements Expiry<String, ClientInfoLookup> {
+
+        private final long knownNanos;
+        private final long unknownNanos;
+
+        KnownClientExpiry(Duration known, Duration unknown) {
+            this.knownNanos = known.toNanos();
+            this.unknownNanos = unknown.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String clientId, ClientInfoLookup lookup, long currentTime) {
+            return lookup.known() ? knownNanos : unknownNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String clientId, ClientInfoLookup lookup, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(clientId, lookup, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String clientId, ClientInfoLookup lookup, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.swiftlogistics.esb.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class ExecutorConfig {
+
+    // Executor used to fan out CMS / ROS / WMS calls while creating an order.
+    // Bounded on both threads and queue so a slow backend cannot pile up unlimited work;
+    // when saturated a submission is rejected and callers report that backend as failed,
+    // rather than running it on the request thread past its deadline.
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService orderFanOutExecutor(
+            @Value("${esb.orders.scatter-gather.pool-size:16}") int poolSize,
+            @Value("${esb.orders.scatter-gather.queue-capacity:256}") int queueCapacity) {
+        return new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                namedThreadFactory("esb-fanout-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Executor for the ROS / WMS status lookups of OrderStatusEnricher (client order listings).
+    // Separate from orderFanOutExecutor so dashboard reads can never fill the pool that order
+    // registration needs; sized for max-in-flight-per-backend lookups against each of the two backends.
+    // When saturated a lookup is rejected and its page gets "unknown" statuses.
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService orderEnrichmentExecutor(
+            @Value("${esb.orders.enrichment.pool-size:8}") int poolSize,
+            @Value("${esb.orders.enrichment.queue-capacity:16}") int queueCapacity) {
+        return new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                namedThreadFactory("esb-enrichment-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Executor for the parallel multicast in the Camel order-processing-route
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService orderMulticastExecutor(
+            @Value("${esb.routes.multicast.pool-size:12}") int poolSize,
+            @Value("${esb.routes.multicast.queue-capacity:512}") int queueCapacity) {
+        return new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                namedThreadFactory("esb-multicast-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
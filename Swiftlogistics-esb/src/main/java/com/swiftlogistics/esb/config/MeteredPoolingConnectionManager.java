@@ -0,0 +1,81 @@
+package com.swiftlogistics.esb.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Connection pool that records how long callers wait to lease a connection, how long they hold it,
+ * and how often a lease times out because the pool is exhausted. Pool sizes themselves are
+ * published by Micrometer's PoolingHttpClientConnectionManagerMetricsBinder.
+ */
+public class MeteredPoolingConnectionManager extends PoolingHttpClientConnectionManager {
+
+    private final Timer leaseWait;
+    private final Timer leaseDuration;
+    private final Counter leaseTimeouts;
+    private final Map<ConnectionEndpoint, Long> leasedAt = new ConcurrentHashMap<>();
+
+    public MeteredPoolingConnectionManager(String poolName, MeterRegistry registry) {
+        this.leaseWait = Timer.builder("esb.http.pool.lease.wait")
+                .description("Time spent waiting for a pooled connection")
+                .tag("httpclient", poolName)
+                .register(registry);
+        this.leaseDuration = Timer.builder("esb.http.pool.lease.duration")
+                .description("Time a connection was held between lease and release")
+                .tag("httpclient", poolName)
+                .register(registry);
+        this.leaseTimeouts = Counter.builder("esb.http.pool.lease.timeouts")
+                .description("Leases that gave up because the pool was exhausted")
+                .tag("httpclient", poolName)
+                .register(registry);
+    }
+
+    @Override
+    public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+        LeaseRequest delegate = super.lease(id, route, requestTimeout, state);
+        long requestedAt = System.nanoTime();
+        return new LeaseRequest() {
+            @Override
+            public ConnectionEndpoint get(Timeout timeout)
+                    throws InterruptedException, ExecutionException, TimeoutException {
+                try {
+                    ConnectionEndpoint endpoint = delegate.get(timeout);
+                    leasedAt.put(endpoint, System.nanoTime());
+                    return endpoint;
+                } catch (TimeoutException e) {
+                    leaseTimeouts.increment();
+                    throw e;
+                } finally {
+                    leaseWait.record(System.nanoTime() - requestedAt, TimeUnit.NANOSECONDS);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return delegate.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void release(ConnectionEndpoint endpoint, Object state, TimeValue keepAlive) {
+        Long start = leasedAt.remove(endpoint);
+        if (start != null) {
+            leaseDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        super.release(endpoint, state, keepAlive);
+    }
+}
@@ -1,17 +1,45 @@
 package com.swiftlogistics.esb.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.retry.MessageBatchRecoverer;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 public class RabbitMQConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(RabbitMQConfig.class);
+
+    // Every order event is published once, to the hub; the broker fans it out from there
+    public static final String ORDER_EVENTS_EXCHANGE = "order.events.exchange";
+    public static final String ORDER_CREATED_KEY = "order.created";
+    public static final String ORDER_CANCELLED_KEY = "order.cancelled";
+    public static final String ORDER_STATUS_UPDATED_KEY = "order.status.updated";
+
+    // Batches of esb.orders.incoming that still fail after esb.batch.max-attempts end up here
+    public static final String ORDERS_INCOMING_DLQ = "esb.orders.incoming.dlq";
+
     // Exchanges
     @Bean
+    public TopicExchange orderEventsExchange() {
+        return new TopicExchange(ORDER_EVENTS_EXCHANGE);
+    }
+
+    // Per-service exchanges hang off the hub and only see the events their service handles
+    @Bean
     public TopicExchange orderNotificationsExchange() {
         return new TopicExchange("order.notifications.exchange");
     }
@@ -26,11 +54,6 @@ public class RabbitMQConfig {
         return new TopicExchange("order.warehouse.exchange");
     }
 
-    @Bean
-    public TopicExchange orderEventsExchange() {
-        return new TopicExchange("order.events.exchange");
-    }
-
     // Queues
     @Bean
     public Queue notificationQueue() {
@@ -47,11 +70,28 @@ public class RabbitMQConfig {
         return QueueBuilder.durable("order.warehouse.queue").build();
     }
 
+    @Bean
+    public Queue ordersIncomingDeadLetterQueue() {
+        return QueueBuilder.durable(ORDERS_INCOMING_DLQ).build();
+    }
+
     @Bean
     public Queue orderLifecycleQueue() {
         return QueueBuilder.durable("order.events.queue").build();
     }
 
+    // Exchange-to-exchange bindings from the hub
+    @Bean
+    public Declarables orderEventFanOut() {
+        List<Declarable> bindings = new ArrayList<>();
+        for (TopicExchange service : List.of(orderNotificationsExchange(), orderRoutingExchange(),
+                orderWarehouseExchange())) {
+            bindings.add(BindingBuilder.bind(service).to(orderEventsExchange()).with(ORDER_CREATED_KEY));
+            bindings.add(BindingBuilder.bind(service).to(orderEventsExchange()).with(ORDER_CANCELLED_KEY));
+        }
+        return new Declarables(bindings);
+    }
+
     // Bindings
     @Bean
     public Binding notificationBinding() {
@@ -64,16 +104,18 @@ public class RabbitMQConfig {
     public Binding routeBinding() {
         return BindingBuilder.bind(routeQueue())
                 .to(orderRoutingExchange())
-                .with("route.*");
+                .with("order.*");
     }
 
     @Bean
     public Binding warehouseBinding() {
         return BindingBuilder.bind(warehouseQueue())
                 .to(orderWarehouseExchange())
-                .with("package.*");
+                .with("order.*");
     }
 
+    // order.created and order.cancelled only; notification-service's lifecycle handler has no use for
+    // order.status.updated, which matches the status view binding below instead
     @Bean
     public Binding orderEventsBinding() {
         return BindingBuilder.bind(orderLifecycleQueue())
@@ -81,19 +123,88 @@ public class RabbitMQConfig {
                 .with("order.*");
     }
 
-    // Message converter
+    // Per-instance queue feeding the in-memory OrderStatusView; removed when the instance disconnects
     @Bean
-    public Jackson2JsonMessageConverter messageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public Queue orderStatusViewQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy("esb.status-view."));
     }
 
     @Bean
-    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
+    public Binding orderStatusViewBinding() {
+        return BindingBuilder.bind(orderStatusViewQueue())
+                .to(orderEventsExchange())
+                .with("order.#");
+    }
+
+    // Message converter: consumers decode JSON or CBOR by each message's content type, so publishers
+    // can switch esb.messaging.content-type once every consumer runs a converter like this one
+    @Bean
+    public ContentTypeDelegatingMessageConverter messageConverter(
+            @Value("${esb.messaging.content-type:" + MessageProperties.CONTENT_TYPE_JSON + "}") String contentType) {
+        Jackson2JsonMessageConverter json = new Jackson2JsonMessageConverter();
+        Jackson2CborMessageConverter cbor = new Jackson2CborMessageConverter();
+        MessageConverter publishing = switch (contentType) {
+            case MessageProperties.CONTENT_TYPE_JSON -> json;
+            case Jackson2CborMessageConverter.CONTENT_TYPE_CBOR -> cbor;
+            default -> throw new IllegalArgumentException("Unsupported esb.messaging.content-type: " + contentType);
+        };
+
+        // Messages without a known content type go to the publishing format
+        ContentTypeDelegatingMessageConverter converter = new ContentTypeDelegatingMessageConverter(publishing);
+        converter.addDelegate(MessageProperties.CONTENT_TYPE_JSON, json);
+        converter.addDelegate(Jackson2CborMessageConverter.CONTENT_TYPE_CBOR, cbor);
+        return converter;
+    }
+
+    @Bean
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter messageConverter) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
-        template.setMessageConverter(messageConverter());
+        template.setMessageConverter(messageConverter);
         return template;
     }
 
+    // Batch consumer of esb.orders.incoming (see OrderBatchListener): hands over up to esb.batch.size
+    // messages, or what arrived within esb.batch.timeout-ms, and acks them only after the listener
+    // returns, i.e. after the batch was dispatched. A failed batch is retried in place up to
+    // esb.batch.max-attempts times with backoff, then moved to esb.orders.incoming.dlq and acked, so a
+    // batch that keeps failing is not redelivered forever. It is only requeued if that move fails.
+    @Bean
+    public SimpleRabbitListenerContainerFactory orderBatchContainerFactory(ConnectionFactory connectionFactory,
+            RabbitTemplate rabbitTemplate,
+            @Value("${esb.batch.size:100}") int batchSize,
+            @Value("${esb.batch.timeout-ms:500}") long batchTimeoutMs,
+            @Value("${esb.batch.prefetch:200}") int prefetch,
+            @Value("${esb.batch.max-attempts:3}") int maxAttempts,
+            @Value("${esb.batch.retry-backoff-ms:1000}") long retryBackoffMs) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        factory.setDefaultRequeueRejected(true);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(batchTimeoutMs);
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        factory.setAdviceChain(RetryInterceptorBuilder.stateless()
+                .maxAttempts(Math.max(1, maxAttempts))
+                .backOffOptions(retryBackoffMs, 2.0, retryBackoffMs * 10)
+                .recoverer(deadLetter(rabbitTemplate))
+                .build());
+        return factory;
+    }
+
+    // Publishes the messages unchanged, plus the failure, to the DLQ through the default exchange
+    static MessageBatchRecoverer deadLetter(RabbitTemplate rabbitTemplate) {
+        return (messages, cause) -> {
+            logger.error("Order batch of {} messages failed every attempt, moving it to {}", messages.size(),
+                    ORDERS_INCOMING_DLQ, cause);
+            for (Message message : messages) {
+                message.getMessageProperties().setHeader("x-exception-message", String.valueOf(cause.getMessage()));
+                rabbitTemplate.send("", ORDERS_INCOMING_DLQ, message);
+            }
+        };
+    }
+
     // NEW: Order Cancellation Exchange
     @Bean
     public TopicExchange orderCancellationExchange() {
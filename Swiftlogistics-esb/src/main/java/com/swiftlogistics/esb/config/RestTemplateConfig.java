@@ -1,13 +1,117 @@
 package com.swiftlogistics.esb.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+// One keep-alive connection pool per backend, so a slow CMS cannot starve ROS calls of connections.
+// Pool limits and timeouts come from esb.http.<backend>.* and fall back to esb.http.defaults.*.
+// The clients are closed on shutdown, which stops their eviction threads and closes pooled sockets.
 @Configuration
-public class RestTemplateConfig {
+public class RestTemplateConfig implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(RestTemplateConfig.class);
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final List<CloseableHttpClient> httpClients = new CopyOnWriteArrayList<>();
+
+    public RestTemplateConfig(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
     @Bean
+    @Primary
     public RestTemplate restTemplate() {
-        return new RestTemplate();
+        return pooledRestTemplate("default");
+    }
+
+    @Bean
+    public RestTemplate cmsRestTemplate() {
+        return pooledRestTemplate("cms");
+    }
+
+    @Bean
+    public RestTemplate rosRestTemplate() {
+        return pooledRestTemplate("ros");
+    }
+
+    private RestTemplate pooledRestTemplate(String backend) {
+        MeteredPoolingConnectionManager connectionManager = new MeteredPoolingConnectionManager(backend, meterRegistry);
+        connectionManager.setMaxTotal(property(backend, "max-connections", 50));
+        connectionManager.setDefaultMaxPerRoute(property(backend, "max-connections-per-route", 20));
+        connectionManager.setDefaultSocketConfig(SocketConfig.custom()
+                .setSoTimeout(Timeout.ofMilliseconds(property(backend, "read-timeout-ms", 10000)))
+                .setTcpNoDelay(true)
+                .build());
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(property(backend, "connect-timeout-ms", 2000)))
+                .setSocketTimeout(Timeout.ofMilliseconds(property(backend, "read-timeout-ms", 10000)))
+                .setTimeToLive(TimeValue.ofMilliseconds(property(backend, "time-to-live-ms", 300000)))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build());
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, backend).bindTo(meterRegistry);
+
+        long maxKeepAliveMs = property(backend, "keep-alive-ms", 30000);
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(property(backend, "lease-timeout-ms", 1000)))
+                        .setResponseTimeout(Timeout.ofMilliseconds(property(backend, "read-timeout-ms", 10000)))
+                        .build())
+                // Honour the server's Keep-Alive header but never keep an idle connection longer than configured
+                .setKeepAliveStrategy((response, context) -> {
+                    TimeValue serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return TimeValue.ofMilliseconds(Math.min(serverKeepAlive.toMilliseconds(), maxKeepAliveMs));
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(maxKeepAliveMs, TimeUnit.MILLISECONDS))
+                .build();
+        httpClients.add(httpClient);
+
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    }
+
+    @Override
+    public void destroy() {
+        // Closing a client also shuts down its connection manager
+        for (CloseableHttpClient httpClient : httpClients) {
+            try {
+                httpClient.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close pooled HTTP client: {}", e.getMessage());
+            }
+        }
+        httpClients.clear();
+    }
+
+    private int property(String backend, String name, int defaultValue) {
+        Integer value = environment.getProperty("esb.http." + backend + "." + name, Integer.class);
+        if (value == null) {
+            value = environment.getProperty("esb.http.defaults." + name, Integer.class, defaultValue);
+        }
+        return value;
     }
 }
@@ -0,0 +1,31 @@
+package com.swiftlogistics.esb.config;
+
+import com.swiftlogistics.esb.client.RosEndpointResolver;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// /actuator/rosendpoints: which ROS URL templates work per operation; DELETE forgets everything
+@Component
+@Endpoint(id = "rosendpoints")
+public class RosEndpointsEndpoint {
+
+    private final RosEndpointResolver resolver;
+
+    public RosEndpointsEndpoint(RosEndpointResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    @ReadOperation
+    public Map<String, Object> learned() {
+        return resolver.snapshot();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        resolver.reset();
+    }
+}
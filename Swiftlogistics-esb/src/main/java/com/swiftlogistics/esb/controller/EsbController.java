@@ -1,32 +1,93 @@
 package com.swiftlogistics.esb.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiftlogistics.esb.config.RabbitMQConfig;
 import com.swiftlogistics.esb.model.DeliveryOrder;
+import com.swiftlogistics.esb.outbox.OrderEventOutbox;
+import com.swiftlogistics.esb.outbox.OrderEventOutbox.OutboxMessage;
+import com.swiftlogistics.esb.outbox.OrderEvents;
 import com.swiftlogistics.esb.service.CmsService;
+import com.swiftlogistics.esb.service.OrderStatusEnricher;
+import com.swiftlogistics.esb.service.OrderStatusView;
 import com.swiftlogistics.esb.service.RosService;
 import com.swiftlogistics.esb.service.WmsService;
+import com.swiftlogistics.esb.soap.CmsResponseParser.OrdersPage;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 @RestController
 public class EsbController {
 
     private static final Logger logger = LoggerFactory.getLogger(EsbController.class);
+    private static final String NDJSON = "application/x-ndjson";
 
     private final CmsService cmsService;
     private final RosService rosService;
     private final WmsService wmsService;
 
     @Autowired
-    private RabbitTemplate rabbitTemplate;
+    private OrderEventOutbox orderEventOutbox;
+
+    @Autowired
+    private OrderEvents orderEvents;
+
+    @Autowired
+    @Qualifier("orderFanOutExecutor")
+    private ExecutorService orderFanOutExecutor;
+
+    @Autowired
+    private OrderStatusEnricher orderStatusEnricher;
+
+    @Autowired
+    private OrderStatusView orderStatusView;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${esb.orders.client-orders.page-size:100}")
+    private int clientOrdersPageSize;
+
+    @Value("${esb.orders.client-orders.max-page-size:500}")
+    private int clientOrdersMaxPageSize;
+
+    @Value("${esb.orders.scatter-gather.enabled:false}")
+    private boolean scatterGatherEnabled;
+
+    @Value("${esb.orders.scatter-gather.cms-deadline-ms:5000}")
+    private long cmsDeadlineMs;
+
+    @Value("${esb.orders.scatter-gather.ros-deadline-ms:5000}")
+    private long rosDeadlineMs;
+
+    @Value("${esb.orders.scatter-gather.wms-deadline-ms:5000}")
+    private long wmsDeadlineMs;
 
     public EsbController(CmsService cmsService, RosService rosService, WmsService wmsService) {
         this.cmsService = cmsService;
@@ -96,7 +157,9 @@ public class EsbController {
             response.put("wmsStatus", wmsResponse);
 
             // 🚀 PUBLISH ORDER CREATED EVENT TO RABBITMQ
-            publishOrderCreatedEvent(order, response);
+            if (!publishOrderCreatedEvent(order, routeId)) {
+                return eventNotRecorded(response);
+            }
 
             return ResponseEntity.ok(response);
 
@@ -109,28 +172,47 @@ public class EsbController {
         }
     }
 
-    // 3. Get order status from all systems
+    // 3. Get order status from all systems.
+    // Served from the materialized status view when the order is in it; consistent=true, or a miss,
+    // reads the three systems live and refreshes the view. A system that could not be read shows
+    // "unknown", and such a partial read is not stored in the view.
     @GetMapping("/orders/{orderId}/status")
-    public ResponseEntity<Map<String, Object>> getOrderStatus(@PathVariable("orderId") String orderId) {
+    public ResponseEntity<Map<String, Object>> getOrderStatus(@PathVariable("orderId") String orderId,
+            @RequestParam(value = "consistent", defaultValue = "false") boolean consistent) {
         logger.info("Getting status for order: {}", orderId);
 
         try {
             Map<String, Object> status = new HashMap<>();
+            long now = System.currentTimeMillis();
 
-            // Get status from CMS
-            String cmsStatus = cmsService.getOrderStatus(orderId);
+            OrderStatusView.Entry entry = consistent ? null : orderStatusView.get(orderId);
+            if (entry != null) {
+                status.put("source", "view");
+            } else {
+                // Get status from CMS
+                String cmsStatus = cmsService.getOrderStatus(orderId);
 
-            // Get route status from ROS
-            String routeStatus = rosService.getRouteStatus(orderId);
+                // Get route status from ROS
+                String routeStatus = rosService.getRouteStatus(orderId);
 
-            // Get package status from WMS
-            String packageStatus = wmsService.getPackageStatus(orderId);
+                // Get package status from WMS
+                String packageStatus = wmsService.getPackageStatus(orderId);
+
+                if (cmsStatus != null && routeStatus != null && packageStatus != null) {
+                    orderStatusView.put(orderId, cmsStatus, routeStatus, packageStatus, now);
+                }
+                entry = new OrderStatusView.Entry(knownOrUnknown(cmsStatus), knownOrUnknown(routeStatus),
+                        knownOrUnknown(packageStatus), now);
+                status.put("source", "live");
+            }
 
             status.put("orderId", orderId);
-            status.put("cmsStatus", cmsStatus);
-            status.put("routeStatus", routeStatus);
-            status.put("packageStatus", packageStatus);
-            status.put("timestamp", System.currentTimeMillis());
+            status.put("cmsStatus", entry.cmsStatus());
+            status.put("routeStatus", entry.routeStatus());
+            status.put("packageStatus", entry.packageStatus());
+            status.put("asOf", entry.asOf());
+            status.put("ageMs", Math.max(0, now - entry.asOf()));
+            status.put("timestamp", now);
 
             return ResponseEntity.ok(status);
 
@@ -142,6 +224,26 @@ public class EsbController {
         }
     }
 
+    // Items of one order, read from CMS. ORDER_CREATED events point here (itemsRef)
+    // rather than carrying large item lists.
+    @GetMapping("/orders/{orderId}/items")
+    public ResponseEntity<Map<String, Object>> getOrderItems(@PathVariable("orderId") String orderId) {
+        logger.info("Getting items for order: {}", orderId);
+
+        List<Map<String, Object>> items = cmsService.getOrderItems(orderId);
+        Map<String, Object> response = new HashMap<>();
+        response.put("orderId", orderId);
+        if (items == null) {
+            response.put("success", false);
+            response.put("error", "Items not available for order " + orderId);
+            return ResponseEntity.status(404).body(response);
+        }
+        response.put("success", true);
+        response.put("items", items);
+        response.put("totalItems", items.size());
+        return ResponseEntity.ok(response);
+    }
+
     // 4. Update order status
     @PutMapping("/orders/{orderId}/status")
     public ResponseEntity<Map<String, Object>> updateOrderStatus(
@@ -154,26 +256,51 @@ public class EsbController {
 
         try {
             Map<String, Object> response = new HashMap<>();
+            List<String> confirmed = new ArrayList<>();
+            List<String> failed = new ArrayList<>();
 
             if ("CMS".equalsIgnoreCase(system) || system == null) {
                 String cmsResponse = cmsService.updateOrderStatus(orderId, status);
-                response.put("cmsUpdate", cmsResponse);
+                response.put("cmsUpdate", recordUpdate("CMS", cmsResponse, confirmed, failed));
             }
 
             if ("ROS".equalsIgnoreCase(system) || system == null) {
                 String rosResponse = rosService.updateRouteStatus(orderId, status);
-                response.put("rosUpdate", rosResponse);
+                response.put("rosUpdate", recordUpdate("ROS", rosResponse, confirmed, failed));
             }
 
             if ("WMS".equalsIgnoreCase(system) || system == null) {
                 String wmsResponse = wmsService.updatePackageStatus(orderId, status);
-                response.put("wmsUpdate", wmsResponse);
+                response.put("wmsUpdate", recordUpdate("WMS", wmsResponse, confirmed, failed));
             }
 
-            response.put("success", true);
+            // Only writes a backend confirmed reach the status views
+            long updatedAt = System.currentTimeMillis();
+            boolean eventsRecorded = true;
+            if (failed.isEmpty()) {
+                orderStatusView.update(orderId, system, status, updatedAt);
+                eventsRecorded = publishOrderStatusUpdatedEvent(orderId, system, status, updatedAt);
+            } else {
+                for (String confirmedSystem : confirmed) {
+                    orderStatusView.update(orderId, confirmedSystem, status, updatedAt);
+                    eventsRecorded &= publishOrderStatusUpdatedEvent(orderId, confirmedSystem, status, updatedAt);
+                }
+            }
+
+            response.put("success", failed.isEmpty());
             response.put("orderId", orderId);
             response.put("newStatus", status);
-            response.put("timestamp", System.currentTimeMillis());
+            response.put("timestamp", updatedAt);
+            if (!failed.isEmpty()) {
+                response.put("failedSystems", failed);
+                if (!eventsRecorded) {
+                    response.put("eventRecorded", false);
+                }
+                return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(response);
+            }
+            if (!eventsRecorded) {
+                return eventNotRecorded(response);
+            }
 
             return ResponseEntity.ok(response);
 
@@ -188,6 +315,19 @@ public class EsbController {
         }
     }
 
+    private static String recordUpdate(String system, String result, List<String> confirmed, List<String> failed) {
+        if (result == null) {
+            failed.add(system);
+            return system + " did not confirm the update";
+        }
+        confirmed.add(system);
+        return result;
+    }
+
+    private static String knownOrUnknown(String status) {
+        return status != null ? status : "unknown";
+    }
+
     // Add Map support for Order Service
     @PostMapping("/orders/map")
     public ResponseEntity<Map<String, Object>> createOrderFromMap(@RequestBody Map<String, Object> orderData) {
@@ -220,6 +360,15 @@ public class EsbController {
             order.setNotes(notes);
             order.setTotalWeight(totalWeight);
             order.setTotalItems(totalItems);
+            // Optional pickup coordinates travel in the metadata; ORDER_CREATED carries them for
+            // nearest-driver assignment
+            if (orderData.get("pickupLat") instanceof Number pickupLat
+                    && orderData.get("pickupLng") instanceof Number pickupLng) {
+                Map<String, Object> metadata = new HashMap<>();
+                metadata.put("pickupLat", pickupLat.doubleValue());
+                metadata.put("pickupLng", pickupLng.doubleValue());
+                order.setMetadata(metadata);
+            }
 
             // Map items from request
             List<DeliveryOrder.OrderItem> orderItems = null;
@@ -241,46 +390,36 @@ public class EsbController {
             Map<String, Object> response = new HashMap<>();
             Map<String, Boolean> registrationResults = new HashMap<>();
 
-            // 1. Validate client and create order in CMS
-            String clientValidation = cmsService.fetchClientData(clientId);
-            logger.info("Client validation result: {}", clientValidation);
-
-            if (!clientValidation.contains("Invalid") && !clientValidation.contains("Error")) {
-                try {
-                    String cmsOrderResult = cmsService.createOrder(order);
-                    logger.info("CMS order creation result: {}", cmsOrderResult);
-                    registrationResults.put("CMS", true);
-                } catch (Exception e) {
-                    logger.warn("Failed to create order in CMS: {}", e.getMessage());
-                    registrationResults.put("CMS", false);
-                }
+            // 1. CMS (validate client + create order), 2. ROS route, 3. WMS package.
+            // The three systems are independent, so in scatter-gather mode they run concurrently
+            // and each one is bounded by its own deadline.
+            RegistrationOutcome cmsOutcome;
+            RegistrationOutcome rosOutcome;
+            RegistrationOutcome wmsOutcome;
+
+            if (scatterGatherEnabled && orderFanOutExecutor != null) {
+                CompletableFuture<RegistrationOutcome> cmsFuture = scatter(() -> registerWithCms(order),
+                        cmsDeadlineMs, "Error: CMS did not respond within " + cmsDeadlineMs + "ms");
+                CompletableFuture<RegistrationOutcome> rosFuture = scatter(() -> registerWithRos(order),
+                        rosDeadlineMs, "Route creation failed: no response within " + rosDeadlineMs + "ms");
+                CompletableFuture<RegistrationOutcome> wmsFuture = scatter(() -> registerWithWms(order),
+                        wmsDeadlineMs, "Package registration failed: no response within " + wmsDeadlineMs + "ms");
+
+                cmsOutcome = cmsFuture.join();
+                rosOutcome = rosFuture.join();
+                wmsOutcome = wmsFuture.join();
             } else {
-                registrationResults.put("CMS", false);
+                cmsOutcome = registerWithCms(order);
+                rosOutcome = registerWithRos(order);
+                wmsOutcome = registerWithWms(order);
             }
 
-            // 2. Create optimized route with ROS
-            try {
-                String routeResult = rosService.createOptimizedRoute(deliveryAddress, orderId, totalWeight);
-                logger.info("ROS route creation result: {}", routeResult);
-                response.put("routeId", routeResult);
-                registrationResults.put("ROS", true);
-            } catch (Exception e) {
-                logger.warn("Failed to create route in ROS: {}", e.getMessage());
-                response.put("routeId", "Route creation failed: " + e.getMessage());
-                registrationResults.put("ROS", false);
-            }
-
-            // 3. Register package with WMS
-            try {
-                String wmsResult = wmsService.registerPackage(order);
-                logger.info("WMS package registration result: {}", wmsResult);
-                response.put("wmsStatus", wmsResult);
-                registrationResults.put("WMS", true);
-            } catch (Exception e) {
-                logger.warn("Failed to register package in WMS: {}", e.getMessage());
-                response.put("wmsStatus", "Package registration failed: " + e.getMessage());
-                registrationResults.put("WMS", false);
-            }
+            String clientValidation = cmsOutcome.detail();
+            registrationResults.put("CMS", cmsOutcome.success());
+            registrationResults.put("ROS", rosOutcome.success());
+            registrationResults.put("WMS", wmsOutcome.success());
+            response.put("routeId", rosOutcome.detail());
+            response.put("wmsStatus", wmsOutcome.detail());
 
             // Determine overall success
             long successfulRegistrations = registrationResults.values().stream().filter(b -> b).count();
@@ -297,7 +436,9 @@ public class EsbController {
             response.put("timestamp", System.currentTimeMillis());
 
             if (overallSuccess) {
-                publishOrderCreatedEvent(order, response);
+                if (!publishOrderCreatedEvent(order, rosOutcome.success() ? rosOutcome.detail() : null)) {
+                    return eventNotRecorded(response);
+                }
                 logger.info("Order {} successfully created with {} items ({}kg) for {}",
                         orderId, totalItems, totalWeight, recipientName);
             }
@@ -314,6 +455,79 @@ public class EsbController {
         }
     }
 
+    // Outcome of registering an order with one backend system; detail is what goes into the response
+    private record RegistrationOutcome(boolean success, String detail) {
+    }
+
+    // A call that misses its deadline is interrupted, so it gives its pool thread back; when the pool is
+    // saturated the call fails at once instead of running on (and outliving the deadline of) the request thread
+    private CompletableFuture<RegistrationOutcome> scatter(Supplier<RegistrationOutcome> call, long deadlineMs,
+            String timeoutDetail) {
+        CompletableFuture<RegistrationOutcome> outcome = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = orderFanOutExecutor.submit(() -> {
+                try {
+                    outcome.complete(call.get());
+                } catch (Throwable e) {
+                    outcome.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("Backend call rejected, fan-out pool saturated: {}", timeoutDetail);
+            return CompletableFuture.completedFuture(
+                    new RegistrationOutcome(false, "Not attempted: ESB fan-out pool is saturated"));
+        }
+        return outcome
+                .orTimeout(deadlineMs, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    task.cancel(true);
+                    logger.warn("Backend call failed or timed out: {}", timeoutDetail);
+                    return new RegistrationOutcome(false, e instanceof TimeoutException
+                            || e.getCause() instanceof TimeoutException ? timeoutDetail : e.getMessage());
+                });
+    }
+
+    private RegistrationOutcome registerWithCms(DeliveryOrder order) {
+        String clientValidation = cmsService.fetchClientData(order.getClientId());
+        logger.info("Client validation result: {}", clientValidation);
+
+        if (clientValidation.contains("Invalid") || clientValidation.contains("Error")) {
+            return new RegistrationOutcome(false, clientValidation);
+        }
+        try {
+            String cmsOrderResult = cmsService.createOrder(order);
+            logger.info("CMS order creation result: {}", cmsOrderResult);
+            return new RegistrationOutcome(true, clientValidation);
+        } catch (Exception e) {
+            logger.warn("Failed to create order in CMS: {}", e.getMessage());
+            return new RegistrationOutcome(false, clientValidation);
+        }
+    }
+
+    private RegistrationOutcome registerWithRos(DeliveryOrder order) {
+        try {
+            String routeResult = rosService.createOptimizedRoute(order.getDeliveryAddress(), order.getOrderId(),
+                    order.getTotalWeight());
+            logger.info("ROS route creation result: {}", routeResult);
+            return new RegistrationOutcome(true, routeResult);
+        } catch (Exception e) {
+            logger.warn("Failed to create route in ROS: {}", e.getMessage());
+            return new RegistrationOutcome(false, "Route creation failed: " + e.getMessage());
+        }
+    }
+
+    private RegistrationOutcome registerWithWms(DeliveryOrder order) {
+        try {
+            String wmsResult = wmsService.registerPackage(order);
+            logger.info("WMS package registration result: {}", wmsResult);
+            return new RegistrationOutcome(true, wmsResult);
+        } catch (Exception e) {
+            logger.warn("Failed to register package in WMS: {}", e.getMessage());
+            return new RegistrationOutcome(false, "Package registration failed: " + e.getMessage());
+        }
+    }
+
     // 5. Health check for all systems : theesh dev
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> healthCheck() {
@@ -479,8 +693,12 @@ public class EsbController {
             response.put("rosResult", rosResult);
             response.put("wmsResult", wmsResult);
 
+            orderStatusView.cancelled(orderId, System.currentTimeMillis());
+
             // 🚀 PUBLISH ORDER CANCELLATION EVENT TO RABBITMQ
-            publishOrderCancellationEvent(orderId, response);
+            if (!publishOrderCancellationEvent(orderId, cmsResult, rosResult, wmsResult)) {
+                return eventNotRecorded(response);
+            }
             logger.info("Order {} cancelled successfully across all systems", orderId);
 
             return ResponseEntity.ok(response);
@@ -495,85 +713,150 @@ public class EsbController {
     }
 
     // 🚀 RabbitMQ Event Publisher
-    private void publishOrderCreatedEvent(DeliveryOrder order, Map<String, Object> processingResult) {
+    // Events go to the local outbox first; OutboxPublisher sends them with publisher confirms.
+    // Each returns false when the event could not be recorded, so nothing downstream will hear of it.
+    private boolean publishOrderCreatedEvent(DeliveryOrder order, String routeId) {
+        // Whatever the view held for this id predates the order; the first status read loads it
+        orderStatusView.evict(order.getOrderId());
         try {
-            Map<String, Object> event = new HashMap<>();
-            event.put("eventType", "ORDER_CREATED");
-            event.put("orderId", order.getOrderId());
-            event.put("clientId", order.getClientId());
-            event.put("deliveryAddress", order.getDeliveryAddress());
-            event.put("pickupAddress", order.getPickupAddress());
-            event.put("processingResult", processingResult);
-            event.put("timestamp", System.currentTimeMillis());
-            event.put("source", "ESB");
-
-            // Publish to different queues for different services
-
-            // 1. Notification Service Queue
-            rabbitTemplate.convertAndSend("order.notifications.exchange", "order.created", event);
-            logger.info("📧 Published ORDER_CREATED event to notification service for order: {}", order.getOrderId());
-
-            // 2. Route Service Queue
-            rabbitTemplate.convertAndSend("order.routing.exchange", "route.optimize", event);
-            logger.info("🛣️ Published ROUTE_OPTIMIZE event to route service for order: {}", order.getOrderId());
-
-            // 3. Warehouse Service Queue
-            rabbitTemplate.convertAndSend("order.warehouse.exchange", "package.register", event);
-            logger.info("📦 Published PACKAGE_REGISTER event to warehouse service for order: {}", order.getOrderId());
-
-            // 4. General Order Events Queue
-            rabbitTemplate.convertAndSend("order.events.exchange", "order.lifecycle", event);
-            logger.info("📋 Published ORDER_LIFECYCLE event for order: {}", order.getOrderId());
+            Map<String, Object> event = orderEvents.orderCreated(order, routeId);
+
+            // Published once; the hub exchange fans it out to notification, routing, warehouse and lifecycle queues
+            orderEventOutbox.append(List.of(
+                    new OutboxMessage(RabbitMQConfig.ORDER_EVENTS_EXCHANGE, RabbitMQConfig.ORDER_CREATED_KEY, event)));
+            logger.info("📋 Queued ORDER_CREATED event for order: {}", order.getOrderId());
+            return true;
 
         } catch (Exception e) {
-            logger.error("Failed to publish order created event: ", e);
-            // Don't fail the order creation if messaging fails
+            logger.error("Failed to record order created event for order {}: ", order.getOrderId(), e);
+            return appendFailed("ORDER_CREATED");
         }
     }
 
-    private void publishOrderCancellationEvent(String orderId, Map<String, Object> cancellationResult) {
+    private boolean publishOrderCancellationEvent(String orderId, String cmsResult, String rosResult, String wmsResult) {
         try {
-            Map<String, Object> event = new HashMap<>();
-            event.put("eventType", "ORDER_CANCELLED");
-            event.put("orderId", orderId);
-            event.put("cancellationResult", cancellationResult);
-            event.put("timestamp", System.currentTimeMillis());
-            event.put("source", "ESB");
-
-            // Publish to different queues for different services
+            Map<String, Object> event = orderEvents.orderCancelled(orderId, cmsResult, rosResult, wmsResult);
 
-            // 1. Notification Service Queue - Send cancellation confirmation
-            rabbitTemplate.convertAndSend("order.notifications.exchange", "order.cancelled", event);
-            logger.info("📧 Published ORDER_CANCELLED event to notification service for order: {}", orderId);
+            // Published once; the hub exchange fans it out to notification, routing, warehouse and lifecycle queues
+            orderEventOutbox.append(List.of(
+                    new OutboxMessage(RabbitMQConfig.ORDER_EVENTS_EXCHANGE, RabbitMQConfig.ORDER_CANCELLED_KEY, event)));
+            logger.info("📋 Queued ORDER_CANCELLED event for order: {}", orderId);
+            return true;
 
-            // 2. Route Service Queue - Stop route optimization
-            rabbitTemplate.convertAndSend("order.routing.exchange", "route.cancelled", event);
-            logger.info("🛣️ Published ROUTE_CANCELLED event to route service for order: {}", orderId);
+        } catch (Exception e) {
+            logger.error("Failed to record order cancellation event for order {}: ", orderId, e);
+            return appendFailed("ORDER_CANCELLED");
+        }
+    }
 
-            // 3. Warehouse Service Queue - Release package resources
-            rabbitTemplate.convertAndSend("order.warehouse.exchange", "package.cancelled", event);
-            logger.info("📦 Published PACKAGE_CANCELLED event to warehouse service for order: {}", orderId);
+    // Lets the status views of all ESB instances pick up a status written through this one
+    private boolean publishOrderStatusUpdatedEvent(String orderId, String system, String status, long timestamp) {
+        try {
+            Map<String, Object> event = orderEvents.orderStatusUpdated(orderId, system, status, timestamp);
 
-            // 4. General Order Events Queue - Track cancellation
-            rabbitTemplate.convertAndSend("order.events.exchange", "order.lifecycle", event);
-            logger.info("📋 Published ORDER_CANCELLATION_LIFECYCLE event for order: {}", orderId);
+            orderEventOutbox.append(List.of(new OutboxMessage(RabbitMQConfig.ORDER_EVENTS_EXCHANGE,
+                    RabbitMQConfig.ORDER_STATUS_UPDATED_KEY, event)));
+            logger.info("📋 Queued ORDER_STATUS_UPDATED event for order: {}", orderId);
+            return true;
 
         } catch (Exception e) {
-            logger.error("Failed to publish order cancellation event: ", e);
-            // Don't fail the cancellation if messaging fails
+            logger.error("Failed to record order status updated event for order {}: ", orderId, e);
+            return appendFailed("ORDER_STATUS_UPDATED");
+        }
+    }
+
+    private boolean appendFailed(String eventType) {
+        meterRegistry.counter("esb.outbox.append.failures", "event", eventType).increment();
+        return false;
+    }
+
+    // The backends already hold the change, so the response keeps their results; the 500 tells the
+    // caller that notification, routing and warehouse services were not told about it
+    private ResponseEntity<Map<String, Object>> eventNotRecorded(Map<String, Object> response) {
+        response.put("success", false);
+        response.put("eventRecorded", false);
+        response.put("error", "Order event could not be recorded; downstream services were not notified");
+        return ResponseEntity.internalServerError().body(response);
+    }
+
+    // Get all orders for a specific client as NDJSON, one enriched order per line.
+    // CMS is read a page at a time and lines are written as enrichment completes,
+    // so memory stays bounded by the page size however many orders the client has.
+    // If CMS fails on the first page the response is a 502; if it fails later the stream
+    // ends with an error line ({"success": false, "error": ...}) instead of simply stopping.
+    @GetMapping(value = "/clients/{clientId}/orders/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamOrdersByClient(@PathVariable("clientId") String clientId) {
+        logger.info("ESB received request to stream all orders for client: {}", clientId);
+
+        OrdersPage firstPage;
+        try {
+            firstPage = cmsService.getOrdersByClientPage(clientId, null, clientOrdersPageSize);
+        } catch (RestClientException e) {
+            logger.error("CMS failed listing orders for client {}: {}", clientId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
         }
+
+        StreamingResponseBody body = out -> {
+            int streamed = 0;
+            OrdersPage page = firstPage;
+            try {
+                while (true) {
+                    orderStatusEnricher.enrich(page.orders(), enriched -> {
+                        try {
+                            for (Map<String, Object> order : enriched) {
+                                writeLine(out, order);
+                            }
+                            out.flush();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    streamed += page.orders().size();
+                    if (page.nextCursor() == null) {
+                        break;
+                    }
+                    page = cmsService.getOrdersByClientPage(clientId, page.nextCursor(), clientOrdersPageSize);
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (RestClientException e) {
+                logger.error("CMS failed after {} orders streamed for client {}: {}", streamed, clientId,
+                        e.getMessage());
+                Map<String, Object> error = new HashMap<>();
+                error.put("success", false);
+                error.put("error", "CMS failed before all orders were streamed: " + e.getMessage());
+                error.put("streamedOrders", streamed);
+                writeLine(out, error);
+                out.flush();
+                return;
+            }
+            logger.info("Streamed {} orders for client: {}", streamed, clientId);
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    private void writeLine(OutputStream out, Map<String, Object> value) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(value));
+        out.write('\n');
     }
 
     // Get all orders for a specific client
+    // One page at a time: pass the returned nextCursor as cursor to get the next page (null on the last page)
     @GetMapping("/clients/{clientId}/orders")
-    public ResponseEntity<Map<String, Object>> getOrdersByClient(@PathVariable("clientId") String clientId) {
+    public ResponseEntity<Map<String, Object>> getOrdersByClient(@PathVariable("clientId") String clientId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "pageSize", required = false) Integer pageSize) {
         logger.info("ESB received request to get all orders for client: {}", clientId);
 
         try {
             Map<String, Object> response = new HashMap<>();
+            int effectivePageSize = pageSize == null || pageSize < 1
+                    ? clientOrdersPageSize
+                    : Math.min(pageSize, clientOrdersMaxPageSize);
 
             // Get orders from CMS (primary source)
-            List<Map<String, Object>> cmsOrders = cmsService.getOrdersByClient(clientId);
+            OrdersPage page = cmsService.getOrdersByClientPage(clientId, cursor, effectivePageSize);
+            List<Map<String, Object>> cmsOrders = page.orders();
 
             // Enhance with data from ROS and WMS
             List<Map<String, Object>> enrichedOrders = enrichOrdersWithSystemData(cmsOrders);
@@ -582,12 +865,22 @@ public class EsbController {
             response.put("clientId", clientId);
             response.put("orders", enrichedOrders);
             response.put("totalOrders", enrichedOrders.size());
+            response.put("pageSize", effectivePageSize);
+            response.put("nextCursor", page.nextCursor());
             response.put("dataSource", "CMS with ROS/WMS enrichment");
             response.put("timestamp", System.currentTimeMillis());
 
             logger.info("Successfully retrieved {} orders for client: {}", enrichedOrders.size(), clientId);
             return ResponseEntity.ok(response);
 
+        } catch (RestClientException e) {
+            logger.error("CMS failed listing orders for client {}: {}", clientId, e.getMessage());
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("clientId", clientId);
+            errorResponse.put("error", "CMS unavailable: " + e.getMessage());
+            errorResponse.put("timestamp", System.currentTimeMillis());
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(errorResponse);
         } catch (Exception e) {
             logger.error("Error getting orders for client {}: ", clientId, e);
             Map<String, Object> errorResponse = new HashMap<>();
@@ -601,57 +894,9 @@ public class EsbController {
 
     // Helper method to enrich orders with ROS and WMS data
     private List<Map<String, Object>> enrichOrdersWithSystemData(List<Map<String, Object>> orders) {
-        List<Map<String, Object>> enrichedOrders = new ArrayList<>();
-
-        for (Map<String, Object> order : orders) {
-            Map<String, Object> enrichedOrder = new HashMap<>(order);
-            String orderId = (String) order.get("orderId");
-
-            try {
-                // Get route information from ROS
-                String routeStatus = rosService.getRouteStatus(orderId);
-                enrichedOrder.put("routeStatus", routeStatus);
-
-                // Get package information from WMS
-                String packageStatus = wmsService.getPackageStatus(orderId);
-                enrichedOrder.put("packageStatus", packageStatus);
-
-                // Add comprehensive status
-                enrichedOrder.put("overallStatus", determineOverallStatus(
-                        (String) order.get("status"), routeStatus, packageStatus));
-
-            } catch (Exception e) {
-                logger.debug("Failed to enrich order {} with system data: {}", orderId, e.getMessage());
-                // Add default values if enrichment fails
-                enrichedOrder.put("routeStatus", "unknown");
-                enrichedOrder.put("packageStatus", "unknown");
-                enrichedOrder.put("overallStatus", order.get("status"));
-            }
-
-            enrichedOrders.add(enrichedOrder);
-        }
-
+        List<Map<String, Object>> enrichedOrders = new ArrayList<>(orders.size());
+        orderStatusEnricher.enrich(orders, enrichedOrders::addAll);
         return enrichedOrders;
     }
 
-    // Helper method to determine overall order status
-    private String determineOverallStatus(String cmsStatus, String routeStatus, String packageStatus) {
-        // Logic to combine statuses from different systems
-        if ("delivered".equalsIgnoreCase(packageStatus) || "completed".equalsIgnoreCase(routeStatus)) {
-            return "DELIVERED";
-        } else if ("in_progress".equalsIgnoreCase(routeStatus) || "LOADED".equalsIgnoreCase(packageStatus)) {
-            return "IN_TRANSIT";
-        } else if ("confirmed".equalsIgnoreCase(cmsStatus) && "READY_FOR_LOADING".equalsIgnoreCase(packageStatus)) {
-            return "READY_FOR_DISPATCH";
-        } else if ("processing".equalsIgnoreCase(cmsStatus) || "PROCESSING".equalsIgnoreCase(packageStatus)) {
-            return "PROCESSING";
-        } else if ("pending".equalsIgnoreCase(cmsStatus)) {
-            return "PENDING";
-        } else if ("CANCELLED".equalsIgnoreCase(cmsStatus) || "cancelled".equalsIgnoreCase(routeStatus)) {
-            return "CANCELLED";
-        } else {
-            return "UNKNOWN";
-        }
-    }
-
 }
\ No newline at end of file
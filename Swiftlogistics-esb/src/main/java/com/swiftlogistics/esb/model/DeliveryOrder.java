@@ -20,6 +20,21 @@ public class DeliveryOrder {
     public DeliveryOrder() {
     }
 
+    // Copy constructor - items are shared, metadata gets its own map
+    public DeliveryOrder(DeliveryOrder other) {
+        this.orderId = other.orderId;
+        this.clientId = other.clientId;
+        this.pickupAddress = other.pickupAddress;
+        this.deliveryAddress = other.deliveryAddress;
+        this.recipientName = other.recipientName;
+        this.recipientPhone = other.recipientPhone;
+        this.items = other.items;
+        this.notes = other.notes;
+        this.totalWeight = other.totalWeight;
+        this.totalItems = other.totalItems;
+        this.metadata = other.metadata != null ? new HashMap<>(other.metadata) : new HashMap<>();
+    }
+
     // Getters and setters
     public String getOrderId() {
         return orderId;
@@ -0,0 +1,266 @@
+package com.swiftlogistics.esb.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only local log of messages still to be published to RabbitMQ. Request threads append
+ * (and by default fsync) the messages of an event in one write; {@link OutboxPublisher} reads
+ * them in order and moves a checkpoint past each batch once the broker has confirmed it.
+ * After a crash everything past the checkpoint is published again, so delivery is at-least-once.
+ * <p>
+ * Files: {@code outbox-<generation>.log} holds one JSON message per line, {@code outbox.checkpoint}
+ * the log's generation and the byte offset of the first unconfirmed line. Once the confirmed part of
+ * the log has grown past {@code compact-threshold-bytes}, the unconfirmed tail is copied to the log
+ * of the next generation and the old log is deleted, so the log stays small under steady traffic.
+ */
+@Component
+public class OrderEventOutbox implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventOutbox.class);
+    private static final byte NEWLINE = '\n';
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Path directory;
+    private final Path checkpointFile;
+    private final boolean fsync;
+    private final long compactThresholdBytes;
+    private long generation;
+    private FileChannel channel;
+    private long checkpoint;
+
+    public OrderEventOutbox(@Value("${esb.outbox.dir:data/outbox}") String dir,
+                            @Value("${esb.outbox.fsync:true}") boolean fsync,
+                            @Value("${esb.outbox.compact-threshold-bytes:16777216}") long compactThresholdBytes)
+            throws IOException {
+        this.directory = Paths.get(dir);
+        Files.createDirectories(directory);
+        this.checkpointFile = directory.resolve("outbox.checkpoint");
+        this.fsync = fsync;
+        this.compactThresholdBytes = compactThresholdBytes;
+        readCheckpoint();
+        deleteLogsExcept(generation);
+        this.channel = openLog(generation);
+        truncateTornTail();
+        logger.info("Outbox {} opened with {} bytes pending", logFile(generation), channel.size() - checkpoint);
+    }
+
+    /** Durably records the messages of one event, in order. */
+    public synchronized void append(List<OutboxMessage> messages) throws IOException {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(512 * messages.size());
+        for (OutboxMessage message : messages) {
+            objectMapper.writeValue(lines, message);
+            lines.write(NEWLINE);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+        long position = channel.size();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+
+    /** Up to maxMessages unconfirmed messages, oldest first, with the offset just past the last one. */
+    public synchronized Batch read(int maxMessages) throws IOException {
+        List<OutboxMessage> messages = new ArrayList<>();
+        long offset = checkpoint;
+        long end = channel.size();
+        ByteArrayOutputStream line = new ByteArrayOutputStream(512);
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long position = offset;
+
+        while (position < end && messages.size() < maxMessages) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            buffer.flip();
+            while (buffer.hasRemaining() && messages.size() < maxMessages) {
+                byte b = buffer.get();
+                position++;
+                if (b != NEWLINE) {
+                    line.write(b);
+                    continue;
+                }
+                try {
+                    messages.add(objectMapper.readValue(line.toByteArray(), OutboxMessage.class));
+                } catch (IOException e) {
+                    // Skipped rather than retried forever; it would block every message behind it
+                    logger.error("Dropping undecodable outbox line at offset {}: {}", offset, e.getMessage());
+                }
+                line.reset();
+                offset = position;
+            }
+        }
+        // A trailing unterminated line is an append in progress (or torn by a crash); it is read next time
+        return new Batch(messages, offset);
+    }
+
+    /** Marks everything before the batch's end offset as published. */
+    public synchronized void confirm(Batch batch) throws IOException {
+        if (batch.endOffset() <= checkpoint) {
+            return;
+        }
+        checkpoint = batch.endOffset();
+        if (checkpoint >= compactThresholdBytes) {
+            compact();
+        } else {
+            writeCheckpoint(generation, checkpoint);
+        }
+    }
+
+    /** Bytes appended but not yet confirmed. */
+    public synchronized long pendingBytes() throws IOException {
+        return channel.size() - checkpoint;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        channel.close();
+    }
+
+    // Copies the unconfirmed tail to the next generation's log. The checkpoint switches to the new log
+    // only once it is complete, so a crash at any point leaves one consistent log/checkpoint pair;
+    // a half-written or superseded log is deleted on the next open.
+    private void compact() throws IOException {
+        long confirmed = checkpoint;
+        long size = channel.size();
+        long next = generation + 1;
+        FileChannel compacted = FileChannel.open(logFile(next), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long position = confirmed;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, compacted);
+            }
+            compacted.force(true);
+            writeCheckpoint(next, 0);
+        } catch (IOException e) {
+            compacted.close();
+            Files.deleteIfExists(logFile(next));
+            writeCheckpoint(generation, checkpoint);
+            throw e;
+        }
+        channel.close();
+        Files.deleteIfExists(logFile(generation));
+        channel = compacted;
+        generation = next;
+        checkpoint = 0;
+        logger.info("Outbox compacted: dropped {} confirmed bytes, kept {}", confirmed, size - confirmed);
+    }
+
+    private FileChannel openLog(long logGeneration) throws IOException {
+        return FileChannel.open(logFile(logGeneration), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+    }
+
+    private Path logFile(long logGeneration) {
+        return directory.resolve("outbox-" + logGeneration + ".log");
+    }
+
+    private void deleteLogsExcept(long current) throws IOException {
+        try (var logs = Files.newDirectoryStream(directory, "outbox-*.log")) {
+            for (Path log : logs) {
+                if (!log.equals(logFile(current))) {
+                    logger.info("Deleting outbox log {} left by an interrupted compaction", log);
+                    Files.delete(log);
+                }
+            }
+        }
+    }
+
+    // A crash in the middle of an append leaves a partial last line; later appends must not extend it
+    private void truncateTornTail() throws IOException {
+        long size = channel.size();
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long end = size;
+        while (end > 0) {
+            long start = Math.max(0, end - buffer.capacity());
+            buffer.clear().limit((int) (end - start));
+            channel.read(buffer, start);
+            for (int i = buffer.position() - 1; i >= 0; i--) {
+                if (buffer.get(i) == NEWLINE) {
+                    truncateTo(start + i + 1, size);
+                    return;
+                }
+            }
+            end = start;
+        }
+        truncateTo(0, size);
+    }
+
+    private void truncateTo(long length, long size) throws IOException {
+        if (length < size) {
+            logger.warn("Outbox ends in a partial message; discarding its last {} bytes", size - length);
+            channel.truncate(length);
+            channel.force(true);
+        }
+    }
+
+    // "<generation> <offset>"
+    private void readCheckpoint() throws IOException {
+        generation = 0;
+        checkpoint = 0;
+        if (!Files.exists(checkpointFile)) {
+            return;
+        }
+        String[] value = Files.readString(checkpointFile, StandardCharsets.UTF_8).trim().split(" ");
+        if (value.length == 2) {
+            generation = Long.parseLong(value[0]);
+            checkpoint = Long.parseLong(value[1]);
+        } else if (!value[0].isEmpty()) {
+            // Outbox written before logs had generations: a single outbox.log and a bare offset
+            checkpoint = Long.parseLong(value[0]);
+            Path legacyLog = directory.resolve("outbox.log");
+            if (Files.exists(legacyLog)) {
+                Files.move(legacyLog, logFile(0), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    // Written to a temp file and renamed, so a crash leaves either the old or the new checkpoint
+    private void writeCheckpoint(long logGeneration, long offset) throws IOException {
+        Path temp = checkpointFile.resolveSibling("outbox.checkpoint.tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.write(ByteBuffer.wrap((logGeneration + " " + offset).getBytes(StandardCharsets.UTF_8)));
+            if (fsync) {
+                out.force(false);
+            }
+        }
+        Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** One message as it will be sent: exchange, routing key and the JSON body. */
+    public record OutboxMessage(String exchange, String routingKey, Map<String, Object> payload) {
+    }
+
+    /** Messages read from the outbox and the log offset that confirming them moves the checkpoint to. */
+    public record Batch(List<OutboxMessage> messages, long endOffset) {
+
+        public boolean isEmpty() {
+            return messages.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.swiftlogistics.esb.outbox;
+
+import com.swiftlogistics.esb.model.DeliveryOrder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Payloads of the order events published on {@code order.events.exchange}.
+ * <p>
+ * Schema version 2 carries only what consumers act on. The order's items travel inline
+ * only for small orders; every ORDER_CREATED event has {@code itemsRef}, the ESB path
+ * that returns the items on demand. Version 1 events embedded the whole create response
+ * ({@code processingResult}) instead.
+ */
+@Component
+public class OrderEvents {
+
+    public static final int SCHEMA_VERSION = 2;
+
+    private final int inlineItemsMax;
+
+    public OrderEvents(@Value("${esb.events.inline-items-max:10}") int inlineItemsMax) {
+        this.inlineItemsMax = inlineItemsMax;
+    }
+
+    /** routeId may be null when ROS did not register the order. */
+    public Map<String, Object> orderCreated(DeliveryOrder order, String routeId) {
+        Map<String, Object> event = event("ORDER_CREATED", order.getOrderId());
+        event.put("clientId", order.getClientId());
+        event.put("recipientName", order.getRecipientName());
+        event.put("recipientPhone", order.getRecipientPhone());
+        event.put("deliveryAddress", order.getDeliveryAddress());
+        event.put("pickupAddress", order.getPickupAddress());
+        event.put("totalItems", order.getTotalItems());
+        event.put("totalWeight", order.getTotalWeight());
+        if (routeId != null) {
+            event.put("routeId", routeId);
+        }
+        // Optional pickup coordinates from the client, for nearest-driver assignment
+        Map<String, Object> metadata = order.getMetadata();
+        if (metadata != null && metadata.get("pickupLat") instanceof Number lat
+                && metadata.get("pickupLng") instanceof Number lng) {
+            event.put("pickupLat", lat.doubleValue());
+            event.put("pickupLng", lng.doubleValue());
+        }
+        event.put("itemsRef", "/orders/" + order.getOrderId() + "/items");
+
+        List<DeliveryOrder.OrderItem> items = order.getItems();
+        if (items != null && items.size() <= inlineItemsMax) {
+            List<Map<String, Object>> inline = new ArrayList<>(items.size());
+            for (DeliveryOrder.OrderItem item : items) {
+                Map<String, Object> entry = new HashMap<>();
+                entry.put("itemId", item.getItemId());
+                entry.put("description", item.getDescription());
+                entry.put("quantity", item.getQuantity());
+                entry.put("weightKg", item.getWeightKg());
+                inline.add(entry);
+            }
+            event.put("items", inline);
+        }
+        return event;
+    }
+
+    public Map<String, Object> orderCancelled(String orderId, String cmsResult, String rosResult, String wmsResult) {
+        Map<String, Object> cancellationResult = new HashMap<>();
+        cancellationResult.put("cmsResult", cmsResult);
+        cancellationResult.put("rosResult", rosResult);
+        cancellationResult.put("wmsResult", wmsResult);
+
+        Map<String, Object> event = event("ORDER_CANCELLED", orderId);
+        event.put("cancellationResult", cancellationResult);
+        return event;
+    }
+
+    public Map<String, Object> orderStatusUpdated(String orderId, String system, String status, long timestamp) {
+        Map<String, Object> event = event("ORDER_STATUS_UPDATED", orderId);
+        event.put("system", system);
+        event.put("status", status);
+        event.put("timestamp", timestamp);
+        return event;
+    }
+
+    private static Map<String, Object> event(String eventType, String orderId) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("schemaVersion", SCHEMA_VERSION);
+        event.put("eventType", eventType);
+        event.put("orderId", orderId);
+        event.put("timestamp", System.currentTimeMillis());
+        event.put("source", "ESB");
+        return event;
+    }
+}
@@ -0,0 +1,64 @@
+package com.swiftlogistics.esb.processor;
+
+import com.swiftlogistics.esb.model.DeliveryOrder;
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Validates a batch of incoming orders (the message bodies of one OrderBatchListener batch) in one
+ * pass. Valid orders become the new body; rejected ones are kept in {@link #REJECTED_PROPERTY} with
+ * the reason in their metadata, so the route can send them to the failed queue individually.
+ */
+public class BatchValidationProcessor implements Processor {
+
+    public static final String REJECTED_PROPERTY = "esbBatchRejected";
+
+    @Override
+    public void process(Exchange exchange) throws Exception {
+        List<?> bodies = exchange.getIn().getBody(List.class);
+        List<DeliveryOrder> valid = new ArrayList<>();
+        List<DeliveryOrder> rejected = new ArrayList<>();
+        Set<String> seenOrderIds = new HashSet<>();
+
+        if (bodies != null) {
+            for (Object body : bodies) {
+                DeliveryOrder d = toOrder(exchange, body);
+                if (!ValidationProcessor.isValid(d)) {
+                    rejected.add(reject(d, "Missing required fields"));
+                } else if (!seenOrderIds.add(d.getOrderId())) {
+                    // The same order redelivered within one batch would otherwise be routed twice
+                    rejected.add(reject(d, "Duplicate orderId in batch"));
+                } else {
+                    valid.add(d);
+                }
+            }
+        }
+
+        exchange.setProperty(REJECTED_PROPERTY, rejected);
+        exchange.getIn().setHeader("batch.size", valid.size() + rejected.size());
+        exchange.getIn().setHeader("batch.rejected", rejected.size());
+        exchange.getIn().setBody(valid);
+    }
+
+    private DeliveryOrder toOrder(Exchange exchange, Object body) {
+        if (body == null || body instanceof DeliveryOrder) {
+            return (DeliveryOrder) body;
+        }
+        return exchange.getContext().getTypeConverter().tryConvertTo(DeliveryOrder.class, exchange, body);
+    }
+
+    private DeliveryOrder reject(DeliveryOrder d, String reason) {
+        DeliveryOrder rejected = d != null ? d : new DeliveryOrder();
+        if (rejected.getMetadata() == null) {
+            rejected.setMetadata(new HashMap<>());
+        }
+        rejected.getMetadata().put("validationError", reason);
+        return rejected;
+    }
+}
@@ -0,0 +1,142 @@
+package com.swiftlogistics.esb.processor;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.swiftlogistics.esb.model.DeliveryOrder;
+import com.swiftlogistics.esb.service.CmsService;
+import com.swiftlogistics.esb.service.RosService;
+import com.swiftlogistics.esb.service.WmsService;
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+/**
+ * Sends a validated batch of orders to ROS and WMS with one bulk call each and registers every
+ * order with CMS (one call per order, CMS has no bulk operation), all three concurrently, and
+ * writes the results back into every order's metadata, using the same keys as the per-order
+ * multicast ("route", "wmsPackageId", "cmsOrderId", "failedBranches").
+ * <p>
+ * Batches are delivered at least once, so the same order can come through again after a failed
+ * attempt. Each system's result is remembered per order for a while, and an order already
+ * registered with a system is not sent to it again; only the systems that failed are retried.
+ * The memory is per ESB instance.
+ */
+public class BulkDispatchProcessor implements Processor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkDispatchProcessor.class);
+
+    private final CmsService cmsService;
+    private final RosService rosService;
+    private final WmsService wmsService;
+    private final ExecutorService executor;
+    // Order id -> system ("ROS", "WMS", "CMS") -> the id that system gave the order
+    private final Cache<String, Map<String, String>> registered;
+
+    public BulkDispatchProcessor(CmsService cmsService, RosService rosService, WmsService wmsService,
+                                 ExecutorService executor) {
+        this(cmsService, rosService, wmsService, executor, 100_000, Duration.ofHours(1));
+    }
+
+    public BulkDispatchProcessor(CmsService cmsService, RosService rosService, WmsService wmsService,
+                                 ExecutorService executor, long maxRemembered, Duration rememberFor) {
+        this.cmsService = cmsService;
+        this.rosService = rosService;
+        this.wmsService = wmsService;
+        this.executor = executor;
+        this.registered = Caffeine.newBuilder()
+                .maximumSize(maxRemembered)
+                .expireAfterWrite(rememberFor)
+                .build();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void process(Exchange exchange) throws Exception {
+        List<DeliveryOrder> orders = exchange.getIn().getBody(List.class);
+        if (orders == null || orders.isEmpty()) {
+            return;
+        }
+
+        List<DeliveryOrder> forCms = unregistered(orders, "CMS");
+        List<DeliveryOrder> forRos = unregistered(orders, "ROS");
+        List<DeliveryOrder> forWms = unregistered(orders, "WMS");
+        CompletableFuture<Map<String, String>> cms =
+                CompletableFuture.supplyAsync(() -> register(forCms, cmsService::createOrders), executor);
+        CompletableFuture<Map<String, String>> routes =
+                CompletableFuture.supplyAsync(() -> register(forRos, rosService::createOptimizedRoutes), executor);
+        Map<String, String> packages = register(forWms, wmsService::registerPackages);
+        Map<String, String> routeIds = routes.join();
+        Map<String, String> cmsOrderIds = cms.join();
+        remember("CMS", cmsOrderIds);
+        remember("ROS", routeIds);
+        remember("WMS", packages);
+
+        for (DeliveryOrder order : orders) {
+            Map<String, Object> meta = order.getMetadata() != null ? order.getMetadata() : new HashMap<>();
+            Map<String, String> ids = registered.asMap().getOrDefault(order.getOrderId(), Map.of());
+            List<String> failed = new ArrayList<>();
+
+            String routeId = ids.get("ROS");
+            if (routeId != null) {
+                meta.put("route", routeId);
+            } else {
+                failed.add("ROS");
+            }
+            String packageId = ids.get("WMS");
+            if (packageId != null) {
+                meta.put("wmsPackageId", packageId);
+            } else {
+                failed.add("WMS");
+            }
+            String cmsOrderId = ids.get("CMS");
+            if (cmsOrderId != null) {
+                meta.put("cmsOrderId", cmsOrderId);
+            } else {
+                failed.add("CMS");
+            }
+            if (!failed.isEmpty()) {
+                meta.put("failedBranches", failed);
+            }
+            order.setMetadata(meta);
+        }
+
+        LOG.info("Bulk dispatched {} orders: {} registered in CMS, {} routed, {} packages registered "
+                        + "({} / {} / {} already were)",
+                orders.size(), cmsOrderIds.size(), routeIds.size(), packages.size(),
+                orders.size() - forCms.size(), orders.size() - forRos.size(), orders.size() - forWms.size());
+    }
+
+    private List<DeliveryOrder> unregistered(List<DeliveryOrder> orders, String system) {
+        List<DeliveryOrder> pending = new ArrayList<>();
+        for (DeliveryOrder order : orders) {
+            Map<String, String> ids = registered.getIfPresent(order.getOrderId());
+            if (ids == null || !ids.containsKey(system)) {
+                pending.add(order);
+            }
+        }
+        return pending;
+    }
+
+    private static Map<String, String> register(List<DeliveryOrder> orders,
+                                                Function<List<DeliveryOrder>, Map<String, String>> call) {
+        return orders.isEmpty() ? Map.of() : call.apply(orders);
+    }
+
+    private void remember(String system, Map<String, String> ids) {
+        ids.forEach((orderId, id) -> registered.asMap().compute(orderId, (key, known) -> {
+            Map<String, String> updated = known != null ? new HashMap<>(known) : new HashMap<>();
+            updated.put(system, id);
+            return updated;
+        }));
+    }
+}
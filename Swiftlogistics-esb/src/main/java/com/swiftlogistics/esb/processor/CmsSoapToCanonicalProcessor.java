@@ -5,6 +5,9 @@ import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
 import org.w3c.dom.Node;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public class CmsSoapToCanonicalProcessor implements Processor {
     @Override
     public void process(Exchange exchange) throws Exception {
@@ -23,6 +26,11 @@ public class CmsSoapToCanonicalProcessor implements Processor {
         d.setClientId(clientId);
         d.setPickupAddress(pickup);
         d.setDeliveryAddress(delivery);
+        if (orderId != null) {
+            Map<String, Object> meta = new HashMap<>();
+            meta.put("cmsOrderId", orderId);
+            d.setMetadata(meta);
+        }
 
         exchange.getIn().setBody(d);
     }
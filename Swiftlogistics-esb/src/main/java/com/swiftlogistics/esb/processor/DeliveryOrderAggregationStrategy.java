@@ -0,0 +1,109 @@
+package com.swiftlogistics.esb.processor;
+
+import com.swiftlogistics.esb.model.DeliveryOrder;
+import org.apache.camel.AggregationStrategy;
+import org.apache.camel.Exchange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges the results of the ROS / WMS / CMS branches of the order multicast back into the
+ * canonical {@link DeliveryOrder} that entered the multicast.
+ * Each branch route tags its exchange with {@link #BRANCH_HEADER} so the result can be matched
+ * regardless of the order in which parallel branches complete.
+ */
+public class DeliveryOrderAggregationStrategy implements AggregationStrategy {
+
+    public static final String BRANCH_HEADER = "esbBranch";
+    public static final String CANONICAL_ORDER_PROPERTY = "esbCanonicalOrder";
+
+    private static final Logger LOG = LoggerFactory.getLogger(DeliveryOrderAggregationStrategy.class);
+
+    @Override
+    public Exchange aggregate(Exchange oldExchange, Exchange newExchange) {
+        Exchange result = oldExchange != null ? oldExchange : newExchange;
+        DeliveryOrder canonical = canonicalOrder(result);
+
+        Object branchHeader = newExchange.getIn().getHeader(BRANCH_HEADER);
+        String branch = branchHeader != null ? branchHeader.toString() : null;
+        Exception failure = newExchange.getException();
+        if (failure != null) {
+            // A failed branch must not fail the whole order; record it and keep what the others produced
+            LOG.warn("Branch {} failed for order {}: {}", branch, canonical.getOrderId(), failure.getMessage());
+            failedBranches(canonical).add(branch);
+            newExchange.setException(null);
+        } else {
+            merge(canonical, branch, newExchange.getIn().getBody(DeliveryOrder.class));
+        }
+
+        result.getIn().setBody(canonical);
+        return result;
+    }
+
+    @Override
+    public void timeout(Exchange oldExchange, int index, int total, long timeout) {
+        if (oldExchange == null) {
+            return;
+        }
+        DeliveryOrder canonical = canonicalOrder(oldExchange);
+        LOG.warn("Multicast for order {} timed out after {}ms with {} of {} branches completed",
+                canonical.getOrderId(), timeout, index, total);
+        canonical.getMetadata().put("timedOut", true);
+        oldExchange.getIn().setBody(canonical);
+    }
+
+    private void merge(DeliveryOrder canonical, String branch, DeliveryOrder branchResult) {
+        if (branch == null) {
+            return;
+        }
+        Map<String, Object> branchMeta = branchResult != null && branchResult.getMetadata() != null
+                ? branchResult.getMetadata() : Map.of();
+        Map<String, Object> meta = canonical.getMetadata();
+
+        switch (branch) {
+            case "ROS":
+                if (branchMeta.get("route") != null) {
+                    meta.put("route", branchMeta.get("route"));
+                }
+                break;
+            case "WMS":
+                if (branchMeta.get("packageId") != null) {
+                    meta.put("wmsPackageId", branchMeta.get("packageId"));
+                }
+                break;
+            case "CMS":
+                // Without an id from CMS the order is not registered there; the branch's orderId may be made up
+                if (branchMeta.get("cmsOrderId") != null) {
+                    meta.put("cmsOrderId", branchMeta.get("cmsOrderId"));
+                } else {
+                    LOG.warn("CMS returned no order id for order {}", canonical.getOrderId());
+                    failedBranches(canonical).add("CMS");
+                }
+                break;
+            default:
+                LOG.debug("Ignoring result of unknown branch {}", branch);
+        }
+    }
+
+    private DeliveryOrder canonicalOrder(Exchange exchange) {
+        DeliveryOrder canonical = exchange.getProperty(CANONICAL_ORDER_PROPERTY, DeliveryOrder.class);
+        if (canonical == null) {
+            canonical = new DeliveryOrder();
+            exchange.setProperty(CANONICAL_ORDER_PROPERTY, canonical);
+        }
+        if (canonical.getMetadata() == null) {
+            canonical.setMetadata(new HashMap<>());
+        }
+        return canonical;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> failedBranches(DeliveryOrder canonical) {
+        return (List<String>) canonical.getMetadata().computeIfAbsent("failedBranches", k -> new ArrayList<String>());
+    }
+}
@@ -8,10 +8,14 @@ public class ValidationProcessor implements Processor {
     @Override
     public void process(Exchange exchange) throws Exception {
         DeliveryOrder d = exchange.getIn().getBody(DeliveryOrder.class);
-        boolean valid = d != null && d.getOrderId() != null && d.getDeliveryAddress() != null;
+        boolean valid = isValid(d);
         exchange.getIn().setHeader("valid", valid);
         if (!valid) {
             exchange.getIn().setHeader("validation.error", "Missing required fields");
         }
     }
+
+    static boolean isValid(DeliveryOrder d) {
+        return d != null && d.getOrderId() != null && d.getDeliveryAddress() != null;
+    }
 }
@@ -5,6 +5,7 @@ import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -25,6 +26,11 @@ public class WmsTcpParserProcessor implements Processor {
         d.setPickupAddress(parts.get("PICKUP"));
         d.setDeliveryAddress(parts.get("DELIVERY"));
         d.setClientId(parts.get("CLIENT_ID"));
+        if (parts.containsKey("PACKAGE_ID")) {
+            Map<String, Object> meta = new HashMap<>();
+            meta.put("packageId", parts.get("PACKAGE_ID"));
+            d.setMetadata(meta);
+        }
 
         exchange.getIn().setBody(d);
     }
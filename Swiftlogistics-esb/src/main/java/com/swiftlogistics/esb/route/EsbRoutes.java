@@ -1,45 +1,90 @@
 package com.swiftlogistics.esb.route;
 
+import com.swiftlogistics.esb.model.DeliveryOrder;
+import com.swiftlogistics.esb.processor.BatchValidationProcessor;
+import com.swiftlogistics.esb.processor.BulkDispatchProcessor;
 import com.swiftlogistics.esb.processor.CmsSoapToCanonicalProcessor;
+import com.swiftlogistics.esb.processor.DeliveryOrderAggregationStrategy;
 import com.swiftlogistics.esb.processor.EnrichmentProcessor;
 import com.swiftlogistics.esb.processor.ValidationProcessor;
 import com.swiftlogistics.esb.processor.WmsTcpParserProcessor;
+import com.swiftlogistics.esb.service.CmsService;
+import com.swiftlogistics.esb.service.RosService;
+import com.swiftlogistics.esb.service.WmsService;
 import org.apache.camel.builder.RouteBuilder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.ExecutorService;
+
 @Component
 public class EsbRoutes extends RouteBuilder {
 
+    public static final String ORDER_BATCH_ENDPOINT = "direct:orderBatch";
+
+    private final ExecutorService multicastExecutor;
+    private final long branchTimeoutMs;
+    private final CmsService cmsService;
+    private final RosService rosService;
+    private final WmsService wmsService;
+
+    @Value("${esb.batch.enabled:false}")
+    private boolean batchEnabled;
+
+    public EsbRoutes(@Qualifier("orderMulticastExecutor") ExecutorService multicastExecutor,
+            @Value("${esb.routes.multicast.branch-timeout-ms:10000}") long branchTimeoutMs,
+            CmsService cmsService, RosService rosService, WmsService wmsService) {
+        this.multicastExecutor = multicastExecutor;
+        this.branchTimeoutMs = branchTimeoutMs;
+        this.cmsService = cmsService;
+        this.rosService = rosService;
+        this.wmsService = wmsService;
+    }
+
     @Override
     public void configure() throws Exception {
         
-        // Main integration route
-        from("rabbitmq:esb.orders.incoming")
-            .routeId("main-integration-route")
-            .log("Processing incoming order: ${body}")
-            .process(new ValidationProcessor())
-            .choice()
-                .when(header("valid").isEqualTo(true))
-                    .to("direct:processOrder")
-                .otherwise()
-                    .log("Invalid order: ${header.validation.error}")
-                    .to("rabbitmq:esb.orders.failed")
-            .end();
+        if (batchEnabled) {
+            configureBatchRoute();
+        } else {
+            // Main integration route
+            from("rabbitmq:esb.orders.incoming")
+                .routeId("main-integration-route")
+                .log("Processing incoming order: ${body}")
+                .process(new ValidationProcessor())
+                .choice()
+                    .when(header("valid").isEqualTo(true))
+                        .to("direct:processOrder")
+                    .otherwise()
+                        .log("Invalid order: ${header.validation.error}")
+                        .to("rabbitmq:esb.orders.failed")
+                .end();
+        }
 
-        // Order processing route
+        // Order processing route - branches run in parallel and their results are merged back
+        // into one canonical DeliveryOrder. All branches start together, so the multicast timeout
+        // acts as the deadline of every branch; late branches are left out of the merged order.
         from("direct:processOrder")
             .routeId("order-processing-route")
             .log("Processing valid order")
-            .multicast()
+            .process(exchange -> exchange.setProperty(DeliveryOrderAggregationStrategy.CANONICAL_ORDER_PROPERTY,
+                    new DeliveryOrder(exchange.getIn().getBody(DeliveryOrder.class))))
+            .multicast(new DeliveryOrderAggregationStrategy())
+                .parallelProcessing()
+                .executorService(multicastExecutor)
+                .timeout(branchTimeoutMs)
                 .to("direct:enrichWithRos")
                 .to("direct:notifyWms")
                 .to("direct:updateCms")
             .end()
+            .log("Merged order: ${body}")
             .to("rabbitmq:esb.orders.processed");
 
         // ROS enrichment route
         from("direct:enrichWithRos")
             .routeId("ros-enrichment-route")
+            .setHeader(DeliveryOrderAggregationStrategy.BRANCH_HEADER, constant("ROS"))
             .log("Enriching with ROS data")
             .process(new EnrichmentProcessor())
             .log("ROS enrichment completed");
@@ -47,6 +92,7 @@ public class EsbRoutes extends RouteBuilder {
         // WMS notification route
         from("direct:notifyWms")
             .routeId("wms-notification-route")
+            .setHeader(DeliveryOrderAggregationStrategy.BRANCH_HEADER, constant("WMS"))
             .log("Notifying WMS")
             .process(new WmsTcpParserProcessor())
             .log("WMS notification sent");
@@ -54,6 +100,7 @@ public class EsbRoutes extends RouteBuilder {
         // CMS update route
         from("direct:updateCms")
             .routeId("cms-update-route")
+            .setHeader(DeliveryOrderAggregationStrategy.BRANCH_HEADER, constant("CMS"))
             .log("Updating CMS")
             .process(new CmsSoapToCanonicalProcessor())
             .log("CMS update completed");
@@ -72,4 +119,23 @@ public class EsbRoutes extends RouteBuilder {
             .end()
             .log("Health check completed");
     }
-}
\ No newline at end of file
+
+    // Batch integration route - replaces main-integration-route when esb.batch.enabled is set.
+    // OrderBatchListener consumes esb.orders.incoming in batches and sends each batch here
+    // synchronously; the batch is validated together and registered with one ROS and one WMS call
+    // (and per order with CMS).
+    private void configureBatchRoute() {
+        from(ORDER_BATCH_ENDPOINT)
+            .routeId("batch-integration-route")
+            .log("Processing batch of ${body.size} orders")
+            .process(new BatchValidationProcessor())
+            .split(exchangeProperty(BatchValidationProcessor.REJECTED_PROPERTY))
+                .log("Invalid order: ${body.metadata[validationError]}")
+                .to("rabbitmq:esb.orders.failed")
+            .end()
+            .process(new BulkDispatchProcessor(cmsService, rosService, wmsService, multicastExecutor))
+            .split(body())
+                .to("rabbitmq:esb.orders.processed")
+            .end();
+    }
+}
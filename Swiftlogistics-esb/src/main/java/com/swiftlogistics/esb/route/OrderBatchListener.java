@@ -0,0 +1,57 @@
+package com.swiftlogistics.esb.route;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiftlogistics.esb.model.DeliveryOrder;
+import org.apache.camel.ProducerTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consumes esb.orders.incoming in batches when esb.batch.enabled is set and runs each batch through
+ * the batch-integration-route synchronously. The container acks the batch only when this method
+ * returns, so orders are not lost if the ESB stops with a batch in flight; if the route fails the
+ * whole batch is retried, and moved to the dead-letter queue once its attempts are used up (see
+ * RabbitMQConfig.orderBatchContainerFactory). Delivery is at-least-once; BulkDispatchProcessor does
+ * not register an order again with a system that already has it.
+ */
+@Component
+public class OrderBatchListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderBatchListener.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final ProducerTemplate producerTemplate;
+
+    public OrderBatchListener(ProducerTemplate producerTemplate) {
+        this.producerTemplate = producerTemplate;
+    }
+
+    @RabbitListener(id = "orderBatchListener", queues = "esb.orders.incoming",
+            containerFactory = "orderBatchContainerFactory", autoStartup = "${esb.batch.enabled:false}")
+    public void onBatch(List<Message> messages) {
+        List<Object> bodies = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            bodies.add(toOrder(message.getBody()));
+        }
+        logger.debug("Received batch of {} orders", bodies.size());
+        producerTemplate.requestBody(EsbRoutes.ORDER_BATCH_ENDPOINT, bodies);
+    }
+
+    // Bodies that are not a JSON order go through as they are; the route rejects what it cannot convert
+    private Object toOrder(byte[] body) {
+        try {
+            return objectMapper.readValue(body, DeliveryOrder.class);
+        } catch (IOException e) {
+            return body;
+        }
+    }
+}
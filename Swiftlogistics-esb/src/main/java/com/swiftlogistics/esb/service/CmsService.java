@@ -1,51 +1,84 @@
 package com.swiftlogistics.esb.service;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import com.swiftlogistics.esb.model.DeliveryOrder;
-
+import com.swiftlogistics.esb.soap.CmsResponseParser;
+import com.swiftlogistics.esb.soap.CmsResponseParser.OrdersPage;
+import com.swiftlogistics.esb.soap.CmsResponseParser.SoapValues;
+import com.swiftlogistics.esb.soap.CmsEnvelopes;
+import com.swiftlogistics.esb.soap.SoapEnvelopeWriter;
+import com.swiftlogistics.esb.soap.SoapVariantCache;
+
+import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResponseExtractor;
 
 @Service
 public class CmsService {
 
     private final RestTemplate restTemplate;
+    private final CmsResponseParser responseParser = new CmsResponseParser();
+    private final SoapVariantCache variantCache;
+    private final Cache<String, ClientInfoLookup> clientInfoCache;
+    private final RequestCoalescer requestCoalescer;
     private static final String CMS_SOAP_URL = "http://localhost:5001/cms/soap";
     private static final Logger logger = LoggerFactory.getLogger(CmsService.class);
 
-    public CmsService(RestTemplate restTemplate) {
+    public CmsService(@Qualifier("cmsRestTemplate") RestTemplate restTemplate,
+                      @Value("${esb.cms.variant-cache-ttl-ms:600000}") long variantCacheTtlMs,
+                      @Qualifier("cmsClientInfoCache") Cache<String, ClientInfoLookup> clientInfoCache,
+                      RequestCoalescer requestCoalescer) {
         this.restTemplate = restTemplate;
+        this.variantCache = new SoapVariantCache(Duration.ofMillis(variantCacheTtlMs));
+        this.clientInfoCache = clientInfoCache;
+        this.requestCoalescer = requestCoalescer;
     }
 
     public String fetchClientData(String clientId) {
         try {
-            logger.info("Fetching client data for: {}", clientId);
-            String soapRequest = createGetClientInfoSoapRequest(clientId);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.TEXT_XML);
-            headers.set("SOAPAction", "GetClientInfo");
-
-            HttpEntity<String> request = new HttpEntity<>(soapRequest, headers);
-            String response = restTemplate.postForObject(CMS_SOAP_URL, request, String.class);
-
-            return extractClientInfo(response);
+            // Concurrent misses for the same client wait for a single CMS call
+            return clientInfoCache.get(clientId, this::loadClientInfo).clientData();
         } catch (Exception e) {
             logger.error("Error fetching client data: ", e);
             return "Error fetching client data: " + e.getMessage();
         }
     }
 
+    // Failures other than "client not found" propagate, so they are never cached
+    private ClientInfoLookup loadClientInfo(String clientId) {
+        logger.info("Fetching client data for: {}", clientId);
+        try {
+            SoapValues response = postSoap("GetClientInfo",
+                    out -> CmsEnvelopes.getClientInfo(out, clientId), this::readValues);
+
+            String name = response != null ? response.get("Name") : null;
+            return new ClientInfoLookup(extractClientInfo(response), name != null && !name.isEmpty());
+        } catch (HttpClientErrorException.NotFound e) {
+            return new ClientInfoLookup("Error fetching client data: " + e.getMessage(), false);
+        }
+    }
+
     public String validateClient(String clientId) {
         try {
             logger.info("Validating client: {}", clientId);
@@ -65,15 +98,8 @@ public class CmsService {
         try {
             logger.info("Creating order in CMS for: {}", order.getOrderId());
 
-            String soapRequest = createOrderSoapRequest(order);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.TEXT_XML);
-            headers.set("SOAPAction", "CreateOrder");
-
-            HttpEntity<String> request = new HttpEntity<>(soapRequest, headers);
-            String response = restTemplate.postForObject(CMS_SOAP_URL, request, String.class);
-            logger.debug("SOAP Response: {}", response);
+            SoapValues response = postSoap("CreateOrder",
+                    out -> CmsEnvelopes.createOrder(out, order), this::readValues);
 
             return extractOrderId(response);
         } catch (Exception e) {
@@ -82,95 +108,102 @@ public class CmsService {
         }
     }
 
+    /**
+     * Registers each order of a batch with CMS and returns the CMS order id of every order that was
+     * registered. CMS has no bulk operation, so this is one CreateOrder call per order.
+     */
+    public Map<String, String> createOrders(List<DeliveryOrder> orders) {
+        Map<String, String> cmsOrderIds = new HashMap<>();
+        for (DeliveryOrder order : orders) {
+            try {
+                SoapValues response = postSoap("CreateOrder",
+                        out -> CmsEnvelopes.createOrder(out, order), this::readValues);
+                String cmsOrderId = response != null ? response.get("OrderId") : null;
+                if (cmsOrderId != null && !cmsOrderId.isEmpty()) {
+                    cmsOrderIds.put(order.getOrderId(), cmsOrderId);
+                } else {
+                    logger.warn("CMS returned no order id for {}", order.getOrderId());
+                }
+            } catch (Exception e) {
+                logger.error("Error creating order {} in CMS: {}", order.getOrderId(), e.getMessage());
+            }
+        }
+        return cmsOrderIds;
+    }
+
     // private helper methods
-    private String createGetClientInfoSoapRequest(String clientId) {
-        return String.format(
-                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
-                        "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"\n" +
-                        "               xmlns:cms=\"http://swiftlogistics.lk/cms\">\n" +
-                        "    <soap:Header/>\n" +
-                        "    <soap:Body>\n" +
-                        "        <cms:GetClientInfo>\n" +
-                        "            <cms:ClientId>%s</cms:ClientId>\n" +
-                        "        </cms:GetClientInfo>\n" +
-                        "    </soap:Body>\n" +
-                        "</soap:Envelope>\n",
-                clientId);
-    }
-
-//    private String createOrderSoapRequest(DeliveryOrder order) {
-//        return String.format(
-//                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
-//                        "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"\n" +
-//                        "               xmlns:cms=\"http://swiftlogistics.lk/cms\">\n" +
-//                        "    <soap:Header/>\n" +
-//                        "    <soap:Body>\n" +
-//                        "        <cms:CreateOrder>\n" +
-//                        "            <cms:ClientId>%s</cms:ClientId>\n" +
-//                        "            <cms:RecipientName>Customer</cms:RecipientName>\n" +
-//                        "            <cms:RecipientAddress>%s</cms:RecipientAddress>\n" +
-//                        "            <cms:OrderId>%s</cms:OrderId>\n" +
-//                        "            <cms:RecipientPhone>0771234567</cms:RecipientPhone>\n" +
-//                        "            <cms:PackageDetails>Package for %s</cms:PackageDetails>\n" +
-//                        "        </cms:CreateOrder>\n" +
-//                        "    </soap:Body>\n" +
-//                        "</soap:Envelope>\n",
-//                order.getClientId(), order.getDeliveryAddress(), order.getOrderId(), order.getOrderId());
-//    }
 
-    private String createOrderSoapRequest(DeliveryOrder order) {
-        // Build XML for each item
-//        logger.debug("Order {} has items: {}", order.getOrderId(), order.getItems());
-
-        StringBuilder itemsXml = new StringBuilder();
-        if (order.getItems() != null && !order.getItems().isEmpty()) {
-            for (DeliveryOrder.OrderItem item : order.getItems()) {
-                itemsXml.append("<cms:Item>")
-                        .append("<cms:ItemId>").append(item.getItemId()).append("</cms:ItemId>")
-                        .append("<cms:Description>").append(item.getDescription()).append("</cms:Description>")
-                        .append("<cms:Quantity>").append(item.getQuantity()).append("</cms:Quantity>")
-                        .append("<cms:WeightKg>").append(item.getWeightKg()).append("</cms:WeightKg>")
-                        .append("</cms:Item>");
+    // The envelope is encoded into this thread's reusable buffer and streamed as the request body;
+    // responses are parsed straight off the HTTP stream instead of being buffered into a String first
+    private <T> T postSoap(String soapAction, Consumer<SoapEnvelopeWriter> envelope, ResponseExtractor<T> extractor) {
+        return restTemplate.execute(CMS_SOAP_URL, HttpMethod.POST, request -> {
+            SoapEnvelopeWriter body = SoapEnvelopeWriter.acquire();
+            envelope.accept(body);
+
+            request.getHeaders().setContentType(MediaType.TEXT_XML);
+            request.getHeaders().set("SOAPAction", soapAction);
+            request.getHeaders().setContentLength(body.size());
+            if (request instanceof StreamingHttpOutputMessage streaming) {
+                streaming.setBody(body::writeTo);
+            } else {
+                body.writeTo(request.getBody());
             }
+        }, extractor);
+    }
+
+    // Sends the request in the variant the CMS accepted last time. Other variants are only probed when
+    // nothing is cached, the entry expired, or the cached variant faulted. Returns null when no variant
+    // produced a usable response.
+    private SoapValues negotiate(String operation, List<SoapVariant> variants) {
+        Integer known = variantCache.lookup(CMS_SOAP_URL, operation);
+        if (known != null && known == SoapVariantCache.NONE_SUPPORTED) {
+            logger.debug("CMS rejected every {} variant recently, not probing again yet", operation);
+            return null;
         }
 
-        // Construct final SOAP request
-        String soapRequest = String.format(
-                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
-                        "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"\n" +
-                        "               xmlns:cms=\"http://swiftlogistics.lk/cms\">\n" +
-                        "  <soap:Header/>\n" +
-                        "  <soap:Body>\n" +
-                        "    <cms:CreateOrder>\n" +
-                        "      <cms:OrderId>%s</cms:OrderId>\n" +
-                        "      <cms:ClientId>%s</cms:ClientId>\n" +
-                        "      <cms:PickupAddress>%s</cms:PickupAddress>\n" +
-                        "      <cms:DeliveryAddress>%s</cms:DeliveryAddress>\n" +
-                        "      <cms:RecipientName>%s</cms:RecipientName>\n" +
-                        "      <cms:RecipientPhone>%s</cms:RecipientPhone>\n" +
-                        "      <cms:Notes>%s</cms:Notes>\n" +
-                        "      <cms:TotalWeight>%s</cms:TotalWeight>\n" +
-                        "      <cms:TotalItems>%s</cms:TotalItems>\n" +
-                        "      <cms:Items>%s</cms:Items>\n" +
-                        "    </cms:CreateOrder>\n" +
-                        "  </soap:Body>\n" +
-                        "</soap:Envelope>\n",
-                order.getOrderId(),
-                order.getClientId(),
-                order.getPickupAddress(),
-                order.getDeliveryAddress(),
-                order.getRecipientName(),
-                order.getRecipientPhone(),
-                order.getNotes() != null ? order.getNotes() : "",
-                order.getTotalWeight(),
-                order.getTotalItems(),
-                itemsXml.toString()
-        );
-
-        // Optional debug log
-        logger.debug("Generated SOAP Request:\n{}", soapRequest);
-
-        return soapRequest;
+        boolean allRejected = true;
+        for (int index : SoapVariantCache.probeOrder(known, variants.size())) {
+            SoapVariant variant = variants.get(index);
+            try {
+                SoapValues response = postSoap(variant.soapAction(), variant.envelope(), this::readValues);
+                if (response != null && !response.isFault()) {
+                    variantCache.remember(CMS_SOAP_URL, operation, index);
+                    return response;
+                }
+            } catch (HttpClientErrorException.NotFound e) {
+                // The CMS understood this variant; the entity simply does not exist
+                variantCache.remember(CMS_SOAP_URL, operation, index);
+                return null;
+            } catch (HttpStatusCodeException e) {
+                if (e.getStatusCode().is4xxClientError() || isSoapFault(e)) {
+                    logger.debug("CMS {} variant {} faulted: {}", operation, index, e.getStatusCode());
+                } else {
+                    // A 5xx without a SOAP fault is the CMS being unwell, not a verdict on the variant
+                    allRejected = false;
+                    logger.debug("CMS {} variant {} failed: {}", operation, index, e.getStatusCode());
+                }
+            } catch (Exception e) {
+                // A transport failure says nothing about whether the variant is supported
+                allRejected = false;
+                logger.debug("CMS {} variant {} failed: {}", operation, index, e.getMessage());
+            }
+        }
+
+        if (allRejected) {
+            variantCache.remember(CMS_SOAP_URL, operation, SoapVariantCache.NONE_SUPPORTED);
+        } else {
+            variantCache.invalidate(CMS_SOAP_URL, operation);
+        }
+        return null;
+    }
+
+    private static boolean isSoapFault(HttpStatusCodeException e) {
+        String body = e.getResponseBodyAsString();
+        return body.contains(":Fault>") || body.contains("<Fault>");
+    }
+
+    private SoapValues readValues(ClientHttpResponse response) throws IOException {
+        return responseParser.readValues(response.getBody());
     }
 
     //    private String extractClientInfo(String soapResponse) {
@@ -184,13 +217,11 @@ public class CmsService {
 //        }
 //        return "Client data retrieved";
 //    }
-    private String extractClientInfo(String soapResponse) {
+    private String extractClientInfo(SoapValues soapResponse) {
         try {
-            if (soapResponse != null && soapResponse.contains("<cms:Name>")) {
-                int start = soapResponse.indexOf("<cms:Name>") + "<cms:Name>".length();
-                int end = soapResponse.indexOf("</cms:Name>");
-                if (end > start) {
-                    String name = soapResponse.substring(start, end);
+            if (soapResponse != null) {
+                String name = soapResponse.get("Name");
+                if (name != null && !name.isEmpty()) {
 
                     // Build JSON-like response
                     Map<String, Object> response = new HashMap<>();
@@ -229,13 +260,11 @@ public class CmsService {
 //        return "ORDER_" + System.currentTimeMillis();
 //    }
 //
-    private String extractOrderId(String soapResponse) {
+    private String extractOrderId(SoapValues soapResponse) {
         try {
-            if (soapResponse != null && soapResponse.contains("<cms:OrderId>")) {
-                int start = soapResponse.indexOf("<cms:OrderId>") + "<cms:OrderId>".length();
-                int end = soapResponse.indexOf("</cms:OrderId>");
-                if (end > start) {
-                    String orderId = soapResponse.substring(start, end);
+            if (soapResponse != null) {
+                String orderId = soapResponse.get("OrderId");
+                if (orderId != null && !orderId.isEmpty()) {
 
                     // Structured JSON-like response
                     Map<String, Object> response = new HashMap<>();
@@ -265,160 +294,60 @@ public class CmsService {
     }
 
     // added missing methods on cmsService.getOrderStatus(orderId):dev theesh
+    // Returns null when CMS could not be read, so callers never mistake a guess for the real status
     public String getOrderStatus(String orderId) {
+        // Tracking pages poll this heavily; concurrent reads of one order share a CMS call
+        return requestCoalescer.execute("cms.getOrderStatus", orderId, () -> loadOrderStatus(orderId));
+    }
+
+    private String loadOrderStatus(String orderId) {
         try {
             logger.info("Getting order status for: {}", orderId);
 
-            // Try multiple SOAP request formats to ensure compatibility
-            String[] soapFormats = {
-                    createGetOrderStatusSoapRequest(orderId),
-                    createSimpleGetOrderStatusSoapRequest(orderId),
-                    createBasicGetOrderStatusSoapRequest(orderId)
-            };
-
-            for (String soapRequest : soapFormats) {
-                try {
-                    logger.debug("Trying SOAP request format: {}", soapRequest);
+            // CMS builds differ in the envelope shape they accept; the cache remembers which one works
+            List<SoapVariant> soapFormats = List.of(
+                    new SoapVariant("GetOrderStatus", out -> CmsEnvelopes.getOrderStatus(out, orderId)),
+                    new SoapVariant("GetOrderStatus", out -> CmsEnvelopes.getOrderStatusUnqualified(out, orderId)),
+                    new SoapVariant("GetOrderStatus", out -> CmsEnvelopes.getOrderStatusBasic(out, orderId)));
 
-                    HttpHeaders headers = new HttpHeaders();
-                    headers.setContentType(MediaType.TEXT_XML);
-                    headers.set("SOAPAction", "GetOrderStatus");
-                    headers.set("charset", "utf-8");
-
-                    HttpEntity<String> request = new HttpEntity<>(soapRequest, headers);
-                    String response = restTemplate.postForObject(CMS_SOAP_URL, request, String.class);
-
-                    logger.debug("Received SOAP response: {}", response);
-
-                    if (response != null && !response.contains("soap:Fault")) {
-                        return extractOrderStatus(response);
-                    }
-
-                } catch (Exception e) {
-                    logger.debug("SOAP request format failed, trying next: {}", e.getMessage());
-                }
-            }
-
-            // If all formats fail, return mock status based on order ID
-            return getMockOrderStatus(orderId);
+            SoapValues response = negotiate("GetOrderStatus", soapFormats);
+            return response != null ? extractOrderStatus(response) : null;
 
         } catch (Exception e) {
-            logger.error("Error getting order status, returning mock data: ", e);
-            return getMockOrderStatus(orderId);
+            logger.error("Error getting order status: ", e);
+            return null;
         }
     }
 
-    private String createGetOrderStatusSoapRequest(String orderId) {
-        return String.format(
-                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
-                        "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"\n" +
-                        "               xmlns:cms=\"http://swiftlogistics.lk/cms\">\n" +
-                        "    <soap:Header/>\n" +
-                        "    <soap:Body>\n" +
-                        "        <cms:GetOrderStatus>\n" +
-                        "            <cms:OrderId>%s</cms:OrderId>\n" +
-                        "        </cms:GetOrderStatus>\n" +
-                        "    </soap:Body>\n" +
-                        "</soap:Envelope>",
-                orderId);
-    }
-
-    private String createSimpleGetOrderStatusSoapRequest(String orderId) {
-        return String.format(
-                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
-                        "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\">\n" +
-                        "    <soap:Header/>\n" +
-                        "    <soap:Body>\n" +
-                        "        <GetOrderStatus>\n" +
-                        "            <orderId>%s</orderId>\n" +
-                        "        </GetOrderStatus>\n" +
-                        "    </soap:Body>\n" +
-                        "</soap:Envelope>",
-                orderId);
-    }
-
-    private String createBasicGetOrderStatusSoapRequest(String orderId) {
-        return String.format(
-                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
-                        "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\">\n" +
-                        "    <soap:Body>\n" +
-                        "        <GetOrderStatus>\n" +
-                        "            <OrderId>%s</OrderId>\n" +
-                        "        </GetOrderStatus>\n" +
-                        "    </soap:Body>\n" +
-                        "</soap:Envelope>",
-                orderId);
-    }
-
-    private String extractOrderStatus(String soapResponse) {
+    private String extractOrderStatus(SoapValues soapResponse) {
         if (soapResponse != null) {
-            logger.debug("Parsing SOAP response for status: {}", soapResponse);
-
-            // Try multiple patterns for status extraction
-            String[] statusPatterns = {
-                    "<cms:Status>(.*?)</cms:Status>",
-                    "<status>(.*?)</status>",
-                    "<orderStatus>(.*?)</orderStatus>",
-                    "<cms:OrderStatus>(.*?)</cms:OrderStatus>",
-                    "<Status>(.*?)</Status>",
-                    "<OrderStatus>(.*?)</OrderStatus>"
-            };
-
-            for (String pattern : statusPatterns) {
-                java.util.regex.Pattern p = java.util.regex.Pattern.compile(pattern,
-                        java.util.regex.Pattern.CASE_INSENSITIVE);
-                java.util.regex.Matcher m = p.matcher(soapResponse);
-                if (m.find()) {
-                    String status = m.group(1).trim();
+            // CMS variants disagree on the element name and its case
+            for (String element : new String[] {"Status", "OrderStatus"}) {
+                String status = soapResponse.getIgnoreCase(element);
+                if (status != null) {
                     logger.info("Extracted order status: {}", status);
                     return status;
                 }
             }
 
             // Check for successful response without explicit status
-            if (soapResponse.contains("success") || soapResponse.contains("Success")) {
+            if (soapResponse.anyValueContainsIgnoreCase("success")) {
                 return "confirmed";
             }
         }
 
-        logger.warn("Could not extract status from response, returning default");
-        return "pending";
-    }
-
-    private String getMockOrderStatus(String orderId) {
-        // Return realistic mock statuses based on order ID pattern
-        logger.info("Using mock order status for orderId: {}", orderId);
-
-        if (orderId == null) {
-            return "invalid";
-        }
-
-        // Use hash of orderId to get consistent mock status
-        int hash = Math.abs(orderId.hashCode()) % 5;
-
-        switch (hash) {
-            case 0:
-                return "pending";
-            case 1:
-                return "confirmed";
-            case 2:
-                return "processing";
-            case 3:
-                return "shipped";
-            case 4:
-                return "delivered";
-            default:
-                return "pending";
-        }
+        logger.warn("Could not extract status from CMS response");
+        return null;
     }
 
     // method 4 dev: theesh
+    // Returns null unless CMS confirmed the update
     public String updateOrderStatus(String orderId, String status) {
         try {
             logger.info("Updating order status for: {} to: {}", orderId, status);
 
             // Try multiple SOAP operation names since the mock might support different
-            // operations
+            // operations; the cache remembers which one works (or that none does)
             String[] operationNames = {
                     "UpdateOrderStatus",
                     "SetOrderStatus",
@@ -426,120 +355,42 @@ public class CmsService {
                     "ModifyOrderStatus",
                     "UpdateStatus"
             };
-
+            List<SoapVariant> variants = new ArrayList<>(operationNames.length);
             for (String operation : operationNames) {
-                try {
-                    String soapRequest = createUpdateOrderStatusSoapRequest(orderId, status, operation);
-                    logger.debug("Trying SOAP operation: {} with request: {}", operation, soapRequest);
-
-                    HttpHeaders headers = new HttpHeaders();
-                    headers.setContentType(MediaType.TEXT_XML);
-                    headers.set("SOAPAction", operation);
-                    headers.set("charset", "utf-8");
-
-                    HttpEntity<String> request = new HttpEntity<>(soapRequest, headers);
-                    String response = restTemplate.postForObject(CMS_SOAP_URL, request, String.class);
-
-                    logger.debug("Received SOAP response for {}: {}", operation, response);
-
-                    // If we get a response without a SOAP fault, consider it successful
-                    if (response != null && !response.contains("soap:Fault")
-                            && !response.contains("Unknown operation")) {
-                        return extractUpdateResponse(response);
-                    }
-
-                } catch (Exception e) {
-                    logger.debug("SOAP operation {} failed: {}", operation, e.getMessage());
-                }
-            }
-
-            // If all SOAP operations fail, try to use the GET operation to verify the order
-            // exists
-            // and then return a mock success response
-            logger.info("All SOAP update operations failed, checking if order exists and returning mock response");
-
-            try {
-                String currentStatus = getOrderStatus(orderId);
-                if (currentStatus != null && !currentStatus.startsWith("Error")) {
-                    // Order exists, return mock success
-                    return getMockUpdateResponse(orderId, status, "CMS");
-                }
-            } catch (Exception e) {
-                logger.debug("Failed to verify order existence: {}", e.getMessage());
+                variants.add(new SoapVariant(operation,
+                        out -> CmsEnvelopes.updateOrderStatus(out, operation, orderId, status)));
             }
 
-            // Fallback to mock response
-            return getMockUpdateResponse(orderId, status, "CMS");
+            SoapValues response = negotiate("UpdateOrderStatus", variants);
+            return response != null ? extractUpdateResponse(response) : null;
 
         } catch (Exception e) {
-            logger.error("Error updating order status, returning mock response: ", e);
-            return getMockUpdateResponse(orderId, status, "CMS");
+            logger.error("Error updating order status: ", e);
+            return null;
         }
     }
 
-    private String createUpdateOrderStatusSoapRequest(String orderId, String status, String operation) {
-        return String.format(
-                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
-                        "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"\n" +
-                        "               xmlns:cms=\"http://swiftlogistics.lk/cms\">\n" +
-                        "    <soap:Header/>\n" +
-                        "    <soap:Body>\n" +
-                        "        <cms:%s>\n" +
-                        "            <cms:OrderId>%s</cms:OrderId>\n" +
-                        "            <cms:Status>%s</cms:Status>\n" +
-                        "        </cms:%s>\n" +
-                        "    </soap:Body>\n" +
-                        "</soap:Envelope>",
-                operation, orderId, status, operation);
-    }
-
-    private String extractUpdateResponse(String soapResponse) {
+    private String extractUpdateResponse(SoapValues soapResponse) {
         if (soapResponse != null) {
-            logger.debug("Parsing SOAP update response: {}", soapResponse);
-
-            // Try multiple patterns for success extraction
-            String[] successPatterns = {
-                    "<cms:UpdateResult>(.*?)</cms:UpdateResult>",
-                    "<cms:Result>(.*?)</cms:Result>",
-                    "<updateResult>(.*?)</updateResult>",
-                    "<result>(.*?)</result>",
-                    "<success>(.*?)</success>",
-                    "<status>(.*?)</status>"
-            };
-
-            for (String pattern : successPatterns) {
-                java.util.regex.Pattern p = java.util.regex.Pattern.compile(pattern,
-                        java.util.regex.Pattern.CASE_INSENSITIVE);
-                java.util.regex.Matcher m = p.matcher(soapResponse);
-                if (m.find()) {
-                    String result = m.group(1).trim();
+            for (String element : new String[] {"UpdateResult", "Result", "success", "status"}) {
+                String result = soapResponse.getIgnoreCase(element);
+                if (result != null) {
                     logger.info("Extracted update result: {}", result);
                     return "Order status updated successfully: " + result;
                 }
             }
 
             // Check for successful response indicators
-            if (soapResponse.contains("success") || soapResponse.contains("Success") ||
-                    soapResponse.contains("updated") || soapResponse.contains("Updated") ||
-                    soapResponse.contains("confirmed") || soapResponse.contains("Confirmed")) {
+            if (soapResponse.anyValueContainsIgnoreCase("success") ||
+                    soapResponse.anyValueContainsIgnoreCase("updated") ||
+                    soapResponse.anyValueContainsIgnoreCase("confirmed")) {
                 return "Order status updated successfully";
             }
-
-            // If no fault and no explicit success, assume it worked
-            if (!soapResponse.contains("soap:Fault") && !soapResponse.contains("error")) {
-                return "Order status update completed";
-            }
         }
 
         return "Order status update completed";
     }
 
-    private String getMockUpdateResponse(String orderId, String status, String system) {
-        logger.info("Using mock update response for orderId: {} with status: {} in system: {}", orderId, status,
-                system);
-        return String.format("%s order %s status updated to %s successfully (mock response)", system, orderId, status);
-    }
-
     // theesh: dev
     public boolean isHealthy() {
         try {
@@ -586,16 +437,9 @@ public class CmsService {
             // Convert packageId to orderId for CMS lookup
             String orderId = mapPackageIdToOrderId(packageId);
 
-            String soapRequest = createGetPackageOrderInfoSoapRequest(packageId, orderId);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.TEXT_XML);
-            headers.set("SOAPAction", "GetPackageOrderInfo");
-
-            HttpEntity<String> request = new HttpEntity<>(soapRequest, headers);
-
             try {
-                String response = restTemplate.postForObject(CMS_SOAP_URL, request, String.class);
+                SoapValues response = postSoap("GetPackageOrderInfo",
+                        out -> CmsEnvelopes.getPackageOrderInfo(out, packageId, orderId), this::readValues);
                 return extractPackageOrderInfo(response);
             } catch (Exception e) {
                 logger.debug("SOAP request failed, returning mock data: ", e);
@@ -608,39 +452,23 @@ public class CmsService {
         }
     }
 
-    private String createGetPackageOrderInfoSoapRequest(String packageId, String orderId) {
-        return String.format(
-                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
-                        "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"\n" +
-                        "               xmlns:cms=\"http://swiftlogistics.lk/cms\">\n" +
-                        "    <soap:Header/>\n" +
-                        "    <soap:Body>\n" +
-                        "        <cms:GetPackageOrderInfo>\n" +
-                        "            <cms:PackageId>%s</cms:PackageId>\n" +
-                        "            <cms:OrderId>%s</cms:OrderId>\n" +
-                        "        </cms:GetPackageOrderInfo>\n" +
-                        "    </soap:Body>\n" +
-                        "</soap:Envelope>",
-                packageId, orderId);
-    }
-
-    private String extractPackageOrderInfo(String soapResponse) {
+    private String extractPackageOrderInfo(SoapValues soapResponse) {
         if (soapResponse != null) {
             // Try to extract order information from SOAP response
             StringBuilder info = new StringBuilder();
 
-            if (soapResponse.contains("<cms:ClientId>")) {
-                String clientId = extractXmlValue(soapResponse, "cms:ClientId");
+            String clientId = soapResponse.get("ClientId");
+            if (clientId != null) {
                 info.append("Client: ").append(clientId);
             }
 
-            if (soapResponse.contains("<cms:RecipientName>")) {
-                String recipient = extractXmlValue(soapResponse, "cms:RecipientName");
+            String recipient = soapResponse.get("RecipientName");
+            if (recipient != null) {
                 info.append(", Recipient: ").append(recipient);
             }
 
-            if (soapResponse.contains("<cms:Status>")) {
-                String status = extractXmlValue(soapResponse, "cms:Status");
+            String status = soapResponse.get("Status");
+            if (status != null) {
                 info.append(", Order Status: ").append(status);
             }
 
@@ -652,22 +480,6 @@ public class CmsService {
         return getMockPackageOrderInfo(null);
     }
 
-    private String extractXmlValue(String xml, String tagName) {
-        try {
-            String startTag = "<" + tagName + ">";
-            String endTag = "</" + tagName + ">";
-            int start = xml.indexOf(startTag);
-            int end = xml.indexOf(endTag);
-
-            if (start != -1 && end != -1 && end > start) {
-                return xml.substring(start + startTag.length(), end).trim();
-            }
-        } catch (Exception e) {
-            logger.debug("Failed to extract XML value for tag: {}", tagName);
-        }
-        return "";
-    }
-
     private String getMockPackageOrderInfo(String packageId) {
         logger.info("Using mock package order info for packageId: {}", packageId);
 
@@ -703,206 +515,83 @@ public class CmsService {
         try {
             logger.info("Cancelling CMS order: {}", orderId);
 
-            String soapRequest = createCancelOrderSoapRequest(orderId); // implement SOAP XML
-            logger.info("SOAP Request: {}", soapRequest);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.TEXT_XML);
-            headers.set("SOAPAction", "CancelOrder");
+            SoapValues response = postSoap("CancelOrder",
+                    out -> CmsEnvelopes.cancelOrder(out, orderId), this::readValues);
 
-            HttpEntity<String> request = new HttpEntity<>(soapRequest, headers);
-            String response = restTemplate.postForObject(CMS_SOAP_URL, request, String.class);
-
-            return extractCancelOrderResult(response); // parse SOAP response
+            return extractCancelOrderResult(response);
         } catch (Exception e) {
             logger.error("Error cancelling CMS order: ", e);
             return "Error cancelling CMS order: " + e.getMessage();
         }
     }
 
-    private String createCancelOrderSoapRequest(String orderId) {
-        return String.format(
-                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
-                        "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"\n" +
-                        "               xmlns:cms=\"http://swiftlogistics.lk/cms\">\n" +
-                        "    <soap:Header/>\n" +
-                        "    <soap:Body>\n" +
-                        "        <cms:CancelOrder>\n" +
-                        "            <cms:OrderId>%s</cms:OrderId>\n" +
-                        "        </cms:CancelOrder>\n" +
-                        "    </soap:Body>\n" +
-                        "</soap:Envelope>\n",
-                orderId);
-    }
-
-    private String extractCancelOrderResult(String soapResponse) {
-        if (soapResponse != null && soapResponse.contains("<cms:CancelResult>")) {
-            int start = soapResponse.indexOf("<cms:CancelResult>") + 18;
-            int end = soapResponse.indexOf("</cms:CancelResult>");
-            if (end > start) {
-                String result = soapResponse.substring(start, end);
-                return "Order cancelled successfully: " + result;
-            }
+    private String extractCancelOrderResult(SoapValues soapResponse) {
+        String result = soapResponse != null ? soapResponse.get("CancelResult") : null;
+        if (result != null && !result.isEmpty()) {
+            return "Order cancelled successfully: " + result;
         }
         return "Order cancellation confirmed";
 
     }
 
-    // Get all orders for a specific client
-    public List<Map<String, Object>> getOrdersByClient(String clientId) {
+    /**
+     * Items of one order (CMS or external order id), or null when CMS does not know the order
+     * or cannot be reached.
+     */
+    public List<Map<String, Object>> getOrderItems(String orderId) {
         try {
-            logger.info("Getting all orders for client: {}", clientId);
-
-            String soapRequest = createGetOrdersByClientSoapRequest(clientId);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.TEXT_XML);
-            headers.set("SOAPAction", "GetOrdersByClient");
-
-            HttpEntity<String> request = new HttpEntity<>(soapRequest, headers);
-
-            try {
-                String response = restTemplate.postForObject(CMS_SOAP_URL, request, String.class);
-                logger.debug("SOAP Response: {}", response);
-
-                List<Map<String, Object>> orders = parseOrdersFromSoapResponse(response);
-
-                if (orders != null && !orders.isEmpty()) {
-                    logger.info("Successfully retrieved {} real orders from CMS for client: {}", orders.size(),
-                            clientId);
-                    return orders;
-                } else {
-                    logger.warn("No orders found in CMS response for client: {}", clientId);
-                    return new ArrayList<>();
-                }
-
-            } catch (Exception e) {
-                logger.warn("SOAP request failed, returning empty list: ", e);
-                return new ArrayList<>();
+            List<Map<String, Object>> orders = postSoap("GetOrderItems",
+                    out -> CmsEnvelopes.getOrderItems(out, orderId),
+                    response -> completeOrders(responseParser.parseOrders(response.getBody())));
+            if (orders == null || orders.isEmpty()) {
+                return null;
             }
-
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> items = (List<Map<String, Object>>) orders.get(0).get("items");
+            return items;
         } catch (Exception e) {
-            logger.error("Error getting orders for client: ", e);
-            return new ArrayList<>();
+            logger.warn("Could not get items for order {}: {}", orderId, e.getMessage());
+            return null;
         }
     }
 
-    private String createGetOrdersByClientSoapRequest(String clientId) {
-        return String.format(
-                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
-                        "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"\n" +
-                        "               xmlns:cms=\"http://swiftlogistics.lk/cms\">\n" +
-                        "    <soap:Header/>\n" +
-                        "    <soap:Body>\n" +
-                        "        <cms:GetOrdersByClient>\n" +
-                        "            <cms:ClientId>%s</cms:ClientId>\n" +
-                        "        </cms:GetOrdersByClient>\n" +
-                        "    </soap:Body>\n" +
-                        "</soap:Envelope>",
-                clientId);
-    }
+    /**
+     * One page of a client's orders. Pass the previous page's next cursor to continue;
+     * the returned next cursor is null on the last page. Throws a RestClientException when CMS
+     * cannot be reached or fails, so a failure is never mistaken for the end of the orders.
+     */
+    public OrdersPage getOrdersByClientPage(String clientId, String cursor, int pageSize) {
+        logger.info("Getting orders for client: {} (cursor: {}, page size: {})", clientId, cursor, pageSize);
 
-    private List<Map<String, Object>> parseOrdersFromSoapResponse(String soapResponse) {
-        List<Map<String, Object>> orders = new ArrayList<>();
-
-        try {
-            if (soapResponse != null && soapResponse.contains("<cms:Order>")) {
-                logger.info("Parsing SOAP response with real order data");
-
-                // Split by order blocks
-                String[] orderBlocks = soapResponse.split("<cms:Order>");
-
-                for (int i = 1; i < orderBlocks.length; i++) {
-                    String orderBlock = "<cms:Order>" + orderBlocks[i].split("</cms:Order>")[0] + "</cms:Order>";
-                    Map<String, Object> order = new HashMap<>();
-
-                    // Extract basic order data
-                    order.put("orderId", extractXmlValue(orderBlock, "cms:OrderId"));
-                    order.put("internalOrderId", extractXmlValue(orderBlock, "cms:InternalOrderId"));
-                    order.put("status", extractXmlValue(orderBlock, "cms:Status"));
-                    order.put("createdAt", extractXmlValue(orderBlock, "cms:CreatedAt"));
-                    order.put("recipient", extractXmlValue(orderBlock, "cms:RecipientName"));
-                    order.put("address", extractXmlValue(orderBlock, "cms:RecipientAddress"));
-                    order.put("phone", extractXmlValue(orderBlock, "cms:RecipientPhone"));
-
-                    // Parse billing amount as double
-                    String billingStr = extractXmlValue(orderBlock, "cms:BillingAmount");
-                    try {
-                        order.put("billingAmount", Double.parseDouble(billingStr));
-                    } catch (NumberFormatException e) {
-                        order.put("billingAmount", 0.0);
-                    }
-
-                    order.put("packageDetails", extractXmlValue(orderBlock, "cms:PackageDetails"));
-
-                    // ADD: Parse items from SOAP response
-                    List<Map<String, Object>> items = parseItemsFromSoapResponse(orderBlock);
-                    order.put("items", items);
-
-                    // Calculate derived fields from actual items
-                    order.put("totalWeight", calculateTotalWeight(items));
-                    order.put("totalItems", calculateTotalItems(items));
-
-                    orders.add(order);
-                    logger.info("Parsed order: {} with {} items", order.get("orderId"), items.size());
-                }
-            }
-        } catch (Exception e) {
-            logger.error("Error parsing SOAP orders response: ", e);
+        OrdersPage page = postSoap("GetOrdersByClient",
+                out -> CmsEnvelopes.getOrdersByClient(out, clientId, cursor, pageSize),
+                response -> responseParser.parseOrdersPage(response.getBody()));
+        if (page == null) {
+            return new OrdersPage(new ArrayList<>(), null);
         }
-
-        logger.info("Parsed {} orders from SOAP response", orders.size());
-        return orders;
+        completeOrders(page.orders());
+        return page;
     }
 
-    private List<Map<String, Object>> parseItemsFromSoapResponse(String orderBlock) {
-        List<Map<String, Object>> items = new ArrayList<>();
-
-        try {
-            if (orderBlock.contains("<cms:Items>")) {
-                String itemsSection = orderBlock.substring(
-                        orderBlock.indexOf("<cms:Items>") + 11,
-                        orderBlock.indexOf("</cms:Items>"));
-
-                // Split by item blocks
-                String[] itemBlocks = itemsSection.split("<cms:Item>");
-
-                for (int i = 1; i < itemBlocks.length; i++) {
-                    String itemBlock = "<cms:Item>" + itemBlocks[i].split("</cms:Item>")[0] + "</cms:Item>";
-
-                    Map<String, Object> item = new HashMap<>();
-                    item.put("itemId", extractXmlValue(itemBlock, "cms:ItemId"));
-                    item.put("description", extractXmlValue(itemBlock, "cms:Description"));
-
-                    String quantityStr = extractXmlValue(itemBlock, "cms:Quantity");
-                    try {
-                        item.put("quantity", Integer.parseInt(quantityStr));
-                    } catch (NumberFormatException e) {
-                        item.put("quantity", 1);
-                    }
-
-                    String weightStr = extractXmlValue(itemBlock, "cms:WeightKg");
-                    try {
-                        item.put("weightKg", Double.parseDouble(weightStr));
-                    } catch (NumberFormatException e) {
-                        item.put("weightKg", 0.0);
-                    }
+    private List<Map<String, Object>> completeOrders(List<Map<String, Object>> orders) {
+        for (Map<String, Object> order : orders) {
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> items = (List<Map<String, Object>>) order.get("items");
 
-                    items.add(item);
-                    logger.debug("Parsed item: {} (ID: {})", item.get("description"), item.get("itemId"));
-                }
+            // Fallback: if no items parsed, try to parse from packageDetails
+            if (items.isEmpty()) {
+                items = parseItemsFromPackageDetails((String) order.get("packageDetails"));
+                order.put("items", items);
             }
-        } catch (Exception e) {
-            logger.debug("Error parsing items from SOAP response: ", e);
-        }
 
-        // Fallback: if no items parsed, try to parse from packageDetails
-        if (items.isEmpty()) {
-            String packageDetails = extractXmlValue(orderBlock, "cms:PackageDetails");
-            items = parseItemsFromPackageDetails(packageDetails);
+            // Calculate derived fields from actual items
+            order.put("totalWeight", calculateTotalWeight(items));
+            order.put("totalItems", calculateTotalItems(items));
+            logger.debug("Parsed order: {} with {} items", order.get("orderId"), items.size());
         }
 
-        return items;
+        logger.info("Parsed {} orders from SOAP response", orders.size());
+        return orders;
     }
 
     // ADD: Fallback method to parse items from packageDetails string
@@ -993,4 +682,11 @@ public class CmsService {
                 })
                 .sum();
     }
-}
\ No newline at end of file
+
+    /** A cached GetClientInfo result; {@code known} is false for clients the CMS does not have. */
+    public record ClientInfoLookup(String clientData, boolean known) {
+    }
+
+    private record SoapVariant(String soapAction, Consumer<SoapEnvelopeWriter> envelope) {
+    }
+}
@@ -0,0 +1,199 @@
+package com.swiftlogistics.esb.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Adds ROS route status and WMS package status to CMS orders. Orders are looked up a page at a
+ * time, with up to {@code max-in-flight-per-backend} page lookups running against each backend
+ * (shared by all requests), and pages are handed to the caller in CMS order as soon as they are
+ * done, so a caller can stream the first orders while later pages are still being looked up.
+ */
+@Component
+public class OrderStatusEnricher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatusEnricher.class);
+
+    private final RosService rosService;
+    private final WmsService wmsService;
+    private final ExecutorService executor;
+    private final int pageSize;
+    private final int maxInFlight;
+    private final long pageTimeoutMs;
+    private final long permitTimeoutMs;
+    private final Semaphore rosPermits;
+    private final Semaphore wmsPermits;
+
+    public OrderStatusEnricher(RosService rosService, WmsService wmsService,
+                               @Qualifier("orderEnrichmentExecutor") ExecutorService executor,
+                               @Value("${esb.orders.enrichment.page-size:50}") int pageSize,
+                               @Value("${esb.orders.enrichment.max-in-flight-per-backend:4}") int maxInFlight,
+                               @Value("${esb.orders.enrichment.page-timeout-ms:10000}") long pageTimeoutMs,
+                               @Value("${esb.orders.enrichment.permit-timeout-ms:2000}") long permitTimeoutMs) {
+        this.rosService = rosService;
+        this.wmsService = wmsService;
+        this.executor = executor;
+        this.pageSize = Math.max(1, pageSize);
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.pageTimeoutMs = pageTimeoutMs;
+        this.permitTimeoutMs = permitTimeoutMs;
+        this.rosPermits = new Semaphore(this.maxInFlight);
+        this.wmsPermits = new Semaphore(this.maxInFlight);
+    }
+
+    /**
+     * Enriches the orders and passes them to the sink one page at a time, in the order given.
+     * Orders whose lookups failed or timed out get "unknown" route and package status.
+     */
+    public void enrich(List<Map<String, Object>> orders, Consumer<List<Map<String, Object>>> pageSink) {
+        Deque<Page> pending = new ArrayDeque<>();
+        for (int from = 0; from < orders.size(); from += pageSize) {
+            List<Map<String, Object>> orderPage = orders.subList(from, Math.min(from + pageSize, orders.size()));
+            List<String> orderIds = orderIds(orderPage);
+            pending.add(new Page(orderPage,
+                    lookup(rosPermits, "ROS", () -> rosService.getRouteStatuses(orderIds)),
+                    lookup(wmsPermits, "WMS", () -> wmsService.getPackageStatuses(orderIds))));
+
+            // Hand over whatever is finished at the head; never let finished pages pile up behind a slow one
+            while (!pending.isEmpty() && (pending.peek().isDone() || pending.size() > 2 * maxInFlight)) {
+                pageSink.accept(pending.poll().enriched());
+            }
+        }
+        while (!pending.isEmpty()) {
+            pageSink.accept(pending.poll().enriched());
+        }
+    }
+
+    /** Combines the statuses of the three systems into one dashboard status. */
+    public static String determineOverallStatus(String cmsStatus, String routeStatus, String packageStatus) {
+        // Logic to combine statuses from different systems
+        if ("delivered".equalsIgnoreCase(packageStatus) || "completed".equalsIgnoreCase(routeStatus)) {
+            return "DELIVERED";
+        } else if ("in_progress".equalsIgnoreCase(routeStatus) || "LOADED".equalsIgnoreCase(packageStatus)) {
+            return "IN_TRANSIT";
+        } else if ("confirmed".equalsIgnoreCase(cmsStatus) && "READY_FOR_LOADING".equalsIgnoreCase(packageStatus)) {
+            return "READY_FOR_DISPATCH";
+        } else if ("processing".equalsIgnoreCase(cmsStatus) || "PROCESSING".equalsIgnoreCase(packageStatus)) {
+            return "PROCESSING";
+        } else if ("pending".equalsIgnoreCase(cmsStatus)) {
+            return "PENDING";
+        } else if ("CANCELLED".equalsIgnoreCase(cmsStatus) || "cancelled".equalsIgnoreCase(routeStatus)) {
+            return "CANCELLED";
+        } else {
+            return "UNKNOWN";
+        }
+    }
+
+    // Waits up to permitTimeoutMs while the backend already has maxInFlight lookups running, then gives
+    // up on the page. The permit is returned when the lookup finishes or when the page stops waiting for
+    // it, in which case the lookup is cancelled as well.
+    private CompletableFuture<Map<String, String>> lookup(Semaphore permits, String backend,
+                                                          Supplier<Map<String, String>> call) {
+        try {
+            if (!permits.tryAcquire(permitTimeoutMs, TimeUnit.MILLISECONDS)) {
+                logger.debug("No {} lookup slot free within {}ms, page statuses unknown", backend, permitTimeoutMs);
+                return CompletableFuture.completedFuture(Map.of());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.completedFuture(Map.of());
+        }
+
+        AtomicBoolean held = new AtomicBoolean(true);
+        Runnable release = () -> {
+            if (held.compareAndSet(true, false)) {
+                permits.release();
+            }
+        };
+        CompletableFuture<Map<String, String>> statuses = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                try {
+                    statuses.complete(call.get());
+                } catch (Throwable e) {
+                    statuses.completeExceptionally(e);
+                } finally {
+                    release.run();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Enrichment pool saturated: the page degrades to "unknown" statuses
+            release.run();
+            logger.debug("{} status lookup rejected, enrichment pool saturated", backend);
+            return CompletableFuture.completedFuture(Map.of());
+        }
+        return statuses
+                .orTimeout(pageTimeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    task.cancel(true);
+                    release.run();
+                    logger.debug("{} status lookup failed: {}", backend, e.getMessage());
+                    return Map.of();
+                });
+    }
+
+    private static List<String> orderIds(List<Map<String, Object>> orders) {
+        List<String> orderIds = new ArrayList<>(orders.size());
+        for (Map<String, Object> order : orders) {
+            if (order.get("orderId") != null) {
+                orderIds.add((String) order.get("orderId"));
+            }
+        }
+        return orderIds;
+    }
+
+    private record Page(List<Map<String, Object>> orders,
+                        CompletableFuture<Map<String, String>> routeStatuses,
+                        CompletableFuture<Map<String, String>> packageStatuses) {
+
+        boolean isDone() {
+            return routeStatuses.isDone() && packageStatuses.isDone();
+        }
+
+        List<Map<String, Object>> enriched() {
+            Map<String, String> routes = routeStatuses.join();
+            Map<String, String> packages = packageStatuses.join();
+            List<Map<String, Object>> enrichedOrders = new ArrayList<>(orders.size());
+            for (Map<String, Object> order : orders) {
+                Map<String, Object> enrichedOrder = new HashMap<>(order);
+                String orderId = (String) order.get("orderId");
+                String routeStatus = routes.get(orderId);
+                String packageStatus = packages.get(orderId);
+
+                if (routeStatus != null && packageStatus != null) {
+                    enrichedOrder.put("routeStatus", routeStatus);
+                    enrichedOrder.put("packageStatus", packageStatus);
+                    enrichedOrder.put("overallStatus", determineOverallStatus(
+                            (String) order.get("status"), routeStatus, packageStatus));
+                } else {
+                    // Add default values if enrichment fails
+                    enrichedOrder.put("routeStatus", "unknown");
+                    enrichedOrder.put("packageStatus", "unknown");
+                    enrichedOrder.put("overallStatus", order.get("status"));
+                }
+                enrichedOrders.add(enrichedOrder);
+            }
+            return enrichedOrders;
+        }
+    }
+}
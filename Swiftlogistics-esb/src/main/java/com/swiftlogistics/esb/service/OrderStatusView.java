@@ -0,0 +1,109 @@
+package com.swiftlogistics.esb.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Materialized CMS / ROS / WMS status per order, so status polls need no backend calls.
+ * Filled by live reads and kept current by the ESB's own writes and by the order lifecycle events
+ * on {@code order.events.exchange} (which also carry writes made through other ESB instances).
+ * Entries expire after a TTL because backends also change status on their own, e.g. as a route
+ * progresses, without the ESB seeing it.
+ */
+@Component
+public class OrderStatusView {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatusView.class);
+
+    private final Cache<String, Entry> entries;
+
+    public OrderStatusView(@Value("${esb.status-view.max-size:100000}") long maxSize,
+                           @Value("${esb.status-view.ttl-ms:300000}") long ttlMs,
+                           MeterRegistry meterRegistry) {
+        Cache<String, Entry> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        this.entries = CaffeineCacheMetrics.monitor(meterRegistry, cache, "esb.order-status-view");
+    }
+
+    /** The materialized status, or null when the order is not in the view. */
+    public Entry get(String orderId) {
+        return entries.getIfPresent(orderId);
+    }
+
+    /** Stores the result of a live read of all three systems. */
+    public void put(String orderId, String cmsStatus, String routeStatus, String packageStatus, long asOf) {
+        entries.asMap().merge(orderId, new Entry(cmsStatus, routeStatus, packageStatus, asOf), OrderStatusView::newer);
+    }
+
+    /**
+     * Applies a status written to one system ("CMS", "ROS" or "WMS"), or to all of them when system is null.
+     * Orders not in the view are left out; their next read goes to the backends.
+     */
+    public void update(String orderId, String system, String status, long asOf) {
+        entries.asMap().computeIfPresent(orderId, (id, current) -> {
+            if (current.asOf() > asOf) {
+                return current;
+            }
+            return new Entry(
+                    system == null || "CMS".equalsIgnoreCase(system) ? status : current.cmsStatus(),
+                    system == null || "ROS".equalsIgnoreCase(system) ? status : current.routeStatus(),
+                    system == null || "WMS".equalsIgnoreCase(system) ? status : current.packageStatus(),
+                    asOf);
+        });
+    }
+
+    /** Records an order cancelled in every system. */
+    public void cancelled(String orderId, long asOf) {
+        put(orderId, "CANCELLED", "cancelled", "CANCELLED", asOf);
+    }
+
+    public void evict(String orderId) {
+        entries.invalidate(orderId);
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    // Events are at-least-once and may arrive after a newer live read; Entry.asOf keeps the newest
+    @RabbitListener(queues = "#{orderStatusViewQueue.name}")
+    public void onOrderEvent(Map<String, Object> event) {
+        Object orderId = event.get("orderId");
+        if (orderId == null) {
+            return;
+        }
+        long asOf = event.get("timestamp") instanceof Number timestamp
+                ? timestamp.longValue()
+                : System.currentTimeMillis();
+
+        switch (String.valueOf(event.get("eventType"))) {
+            // Backends assign their initial statuses themselves; the first read loads them
+            case "ORDER_CREATED" -> evict(orderId.toString());
+            case "ORDER_CANCELLED" -> cancelled(orderId.toString(), asOf);
+            case "ORDER_STATUS_UPDATED" -> update(orderId.toString(), (String) event.get("system"),
+                    (String) event.get("status"), asOf);
+            default -> logger.debug("Order status view ignores {} event", event.get("eventType"));
+        }
+    }
+
+    private static Entry newer(Entry current, Entry candidate) {
+        return candidate.asOf() >= current.asOf() ? candidate : current;
+    }
+
+    /** Statuses of one order; asOf is when they were read or written (epoch millis). */
+    public record Entry(String cmsStatus, String routeStatus, String packageStatus, long asOf) {
+    }
+}
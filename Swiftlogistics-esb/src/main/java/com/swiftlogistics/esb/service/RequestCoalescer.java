@@ -0,0 +1,66 @@
+package com.swiftlogistics.esb.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for backend reads: while a call for an operation and key is in flight, identical
+ * calls wait for its result instead of issuing their own. Nothing is cached once the call completes.
+ * Meter: esb.coalescer.calls{operation, result=executed|joined}; joined calls are the ones collapsed.
+ */
+@Component
+public class RequestCoalescer {
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public RequestCoalescer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, String key, Supplier<T> call) {
+        String flightKey = operation + ':' + key;
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(flightKey, flight);
+        if (leader != null) {
+            counter(operation, "joined").increment();
+            try {
+                return (T) leader.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw e;
+            }
+        }
+
+        counter(operation, "executed").increment();
+        try {
+            T result = call.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    private Counter counter(String operation, String result) {
+        return counters.computeIfAbsent(operation + '/' + result, k -> Counter.builder("esb.coalescer.calls")
+                .description("Backend reads by whether they ran or joined an identical in-flight read")
+                .tag("operation", operation)
+                .tag("result", result)
+                .register(meterRegistry));
+    }
+}
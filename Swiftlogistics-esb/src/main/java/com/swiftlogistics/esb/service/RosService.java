@@ -1,6 +1,9 @@
 package com.swiftlogistics.esb.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiftlogistics.esb.client.RosEndpointResolver;
+import com.swiftlogistics.esb.model.DeliveryOrder;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.slf4j.Logger;
@@ -9,7 +12,10 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -19,10 +25,32 @@ public class RosService {
     private final ObjectMapper objectMapper;
     private static final String ROS_API_URL = "http://localhost:5002/api/v1";
     private static final Logger logger = LoggerFactory.getLogger(RosService.class);
-
-    public RosService(RestTemplate restTemplate) {
+    // Max stops per route for each ROS vehicle; ROS rejects larger optimize requests
+    private static final Map<String, Integer> VEHICLE_CAPACITY = Map.of("VEH001", 50, "VEH002", 100, "VEH003", 10);
+
+    // Candidate URL templates (relative to ROS_API_URL) for operations whose ROS path varies between builds
+    private static final List<String> ROUTE_STATUS_URLS = List.of(
+            "/route-status/{orderId}", "/routes/{orderId}/status", "/orders/{orderId}/route", "/status/{orderId}");
+    private static final List<String> UPDATE_ROUTE_STATUS_URLS = List.of(
+            "/routes/{orderId}/status", "/orders/{orderId}/route-status", "/update-route-status/{orderId}",
+            "/routes/update");
+    private static final List<String> ROUTE_STATUS_BATCH_URLS = List.of("/routes/status/batch");
+    // Orders per batch status request; keeps the request body and the ROS scan bounded
+    static final int STATUS_BATCH_SIZE = 200;
+    private static final List<String> HEALTH_URLS = List.of("/health", "/status", "/");
+    private static final List<String> PACKAGE_ROUTE_URLS = List.of(
+            "/packages/{packageId}/route", "/routes/package/{packageId}", "/orders/{orderId}/route",
+            "/tracking/{packageId}");
+
+    private final RosEndpointResolver endpointResolver;
+    private final RequestCoalescer requestCoalescer;
+
+    public RosService(@Qualifier("rosRestTemplate") RestTemplate restTemplate, RosEndpointResolver endpointResolver,
+                      RequestCoalescer requestCoalescer) {
         this.restTemplate = restTemplate;
         this.objectMapper = new ObjectMapper();
+        this.endpointResolver = endpointResolver;
+        this.requestCoalescer = requestCoalescer;
     }
 
     public String optimizeRoute(String address) {
@@ -82,6 +110,76 @@ public class RosService {
         return createOptimizedRoute(deliveryAddress, orderId, 0.0); // Default weight
     }
 
+    /**
+     * Creates routes for a batch of orders. Orders are grouped by the vehicle their weight needs
+     * and each group is sent as one optimize request per vehicle-capacity chunk, instead of one
+     * request per order. Returns order ID -> route ID for the orders that got a route.
+     */
+    public Map<String, String> createOptimizedRoutes(List<DeliveryOrder> orders) {
+        Map<String, String> routed = new HashMap<>();
+        if (orders == null || orders.isEmpty()) {
+            return routed;
+        }
+
+        Map<String, List<DeliveryOrder>> byVehicle = new LinkedHashMap<>();
+        for (DeliveryOrder order : orders) {
+            byVehicle.computeIfAbsent(selectVehicleByWeight(order.getTotalWeight()), k -> new ArrayList<>()).add(order);
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        for (Map.Entry<String, List<DeliveryOrder>> entry : byVehicle.entrySet()) {
+            String vehicleId = entry.getKey();
+            List<DeliveryOrder> group = entry.getValue();
+            int capacity = VEHICLE_CAPACITY.getOrDefault(vehicleId, 10);
+
+            for (int from = 0; from < group.size(); from += capacity) {
+                List<DeliveryOrder> chunk = group.subList(from, Math.min(from + capacity, group.size()));
+                try {
+                    List<Map<String, Object>> addresses = new ArrayList<>(chunk.size());
+                    double heaviest = 0.0;
+                    for (DeliveryOrder order : chunk) {
+                        addresses.add(deliveryAddressFor(order));
+                        heaviest = Math.max(heaviest, order.getTotalWeight());
+                    }
+
+                    Map<String, Object> requestBody = new HashMap<>();
+                    requestBody.put("vehicle_id", vehicleId);
+                    requestBody.put("delivery_addresses", addresses);
+                    requestBody.put("priority", determinePriorityByWeight(heaviest));
+
+                    HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
+                    String response = restTemplate.postForObject(ROS_API_URL + "/routes/optimize", request, String.class);
+
+                    Map<String, Object> body = objectMapper.readValue(response,
+                            new com.fasterxml.jackson.core.type.TypeReference<Map<String, Object>>() {
+                            });
+                    Object routeId = body.get("route_id");
+                    if (routeId != null) {
+                        chunk.forEach(order -> routed.put(order.getOrderId(), routeId.toString()));
+                    }
+                    logger.info("Route {} created for {} orders on vehicle {}", routeId, chunk.size(), vehicleId);
+                } catch (Exception e) {
+                    logger.error("Error creating batch route for {} orders on vehicle {}: {}",
+                            chunk.size(), vehicleId, e.getMessage());
+                }
+            }
+        }
+        return routed;
+    }
+
+    private Map<String, Object> deliveryAddressFor(DeliveryOrder order) {
+        Map<String, Object> deliveryAddress = new HashMap<>();
+        deliveryAddress.put("address", order.getDeliveryAddress());
+        deliveryAddress.put("lat", 6.9271);
+        deliveryAddress.put("lng", 79.8612);
+        deliveryAddress.put("order_id", order.getOrderId());
+        deliveryAddress.put("package_weight", order.getTotalWeight());
+        deliveryAddress.put("delivery_type", determinePriorityByWeight(order.getTotalWeight()));
+        return deliveryAddress;
+    }
+
     // Helper method to select vehicle based on weight
     private String selectVehicleByWeight(Double weight) {
         if (weight == null || weight <= 0) {
@@ -208,31 +306,88 @@ public class RosService {
 
     // added missing methods on rosService.getRouteStatus(orderId) : dev theesh
     // Add this method to RosService.java
+    // Returns null when ROS could not be read, so callers never mistake a guess for the real status
     public String getRouteStatus(String orderId) {
+        // Concurrent reads of one order's route status share a ROS call
+        return requestCoalescer.execute("ros.getRouteStatus", orderId, () -> loadRouteStatus(orderId));
+    }
+
+    /**
+     * Route status for many orders, one ROS request per {@link #STATUS_BATCH_SIZE} orders.
+     * Orders ROS has no route for map to "route_not_found", as with {@link #getRouteStatus}.
+     * A ROS without the batch endpoint is answered order by order; a chunk that failed or timed out
+     * maps to "unknown".
+     */
+    public Map<String, String> getRouteStatuses(List<String> orderIds) {
+        Map<String, String> statuses = new HashMap<>();
+        if (orderIds == null || orderIds.isEmpty()) {
+            return statuses;
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        for (int from = 0; from < orderIds.size(); from += STATUS_BATCH_SIZE) {
+            List<String> chunk = orderIds.subList(from, Math.min(from + STATUS_BATCH_SIZE, orderIds.size()));
+            HttpEntity<Map<String, Object>> request = new HttpEntity<>(Map.of("order_ids", chunk), headers);
+
+            String response = endpointResolver.resolve("getRouteStatuses", ROUTE_STATUS_BATCH_URLS,
+                    template -> restTemplate.postForObject(ROS_API_URL + template, request, String.class));
+            if (response != null && collectRouteStatuses(response, chunk, statuses)) {
+                continue;
+            }
+            if (response != null || endpointResolver.isUnsupported("getRouteStatuses", ROUTE_STATUS_BATCH_URLS)) {
+                logger.warn("ROS has no batch route status, querying {} orders individually", chunk.size());
+                chunk.forEach(orderId -> {
+                    String status = getRouteStatus(orderId);
+                    statuses.put(orderId, status != null ? status : "unknown");
+                });
+            } else {
+                // ROS failing or slow: per-order calls would only multiply the load on it
+                logger.warn("ROS batch route status failed, {} orders left unknown", chunk.size());
+                chunk.forEach(orderId -> statuses.put(orderId, "unknown"));
+            }
+        }
+        return statuses;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean collectRouteStatuses(String jsonResponse, List<String> orderIds, Map<String, String> statuses) {
         try {
-            logger.info("Getting route status for order: {}", orderId);
+            Map<String, Object> response = objectMapper.readValue(jsonResponse,
+                    new com.fasterxml.jackson.core.type.TypeReference<Map<String, Object>>() {
+                    });
+            if (!(response.get("statuses") instanceof Map)) {
+                return false;
+            }
+            Map<String, Object> found = (Map<String, Object>) response.get("statuses");
+            for (String orderId : orderIds) {
+                Object entry = found.get(orderId);
+                Object status = entry instanceof Map ? ((Map<String, Object>) entry).get("status") : entry;
+                statuses.put(orderId, status != null ? status.toString() : "route_not_found");
+            }
+            return true;
+        } catch (Exception e) {
+            logger.warn("Failed to parse batch route status response", e);
+            return false;
+        }
+    }
 
-            // Try different possible endpoints
-            String[] possibleUrls = {
-                    ROS_API_URL + "/route-status/" + orderId,
-                    ROS_API_URL + "/routes/" + orderId + "/status",
-                    ROS_API_URL + "/orders/" + orderId + "/route",
-                    ROS_API_URL + "/status/" + orderId
-            };
+    private String loadRouteStatus(String orderId) {
+        try {
+            logger.info("Getting route status for order: {}", orderId);
 
-            for (String url : possibleUrls) {
-                try {
-                    String response = restTemplate.getForObject(url, String.class);
-                    return extractRouteStatus(response);
-                } catch (Exception e) {
-                    logger.debug("Failed to get route status from: {}", url);
-                }
+            // Try different possible endpoints; the resolver remembers which one the ROS serves
+            String response = endpointResolver.resolveOrThrow("getRouteStatus", ROUTE_STATUS_URLS,
+                    template -> restTemplate.getForObject(ROS_API_URL + template, String.class, orderId));
+            if (response != null) {
+                return extractRouteStatus(response);
             }
 
             return "route_not_found";
         } catch (Exception e) {
             logger.error("Error getting route status: ", e);
-            return "in_progress"; // Return default status on error
+            return null;
         }
     }
 
@@ -248,26 +403,20 @@ public class RosService {
             if (response.containsKey("route_status")) {
                 return (String) response.get("route_status");
             }
-            return "in_progress";
+            logger.warn("ROS route status response has no status: {}", jsonResponse);
+            return null;
         } catch (Exception e) {
-            logger.warn("Failed to parse route status response, returning default", e);
-            return "in_progress";
+            logger.warn("Failed to parse route status response", e);
+            return null;
         }
     }
 
     // method 4 dev: theesh
+    // Returns null unless ROS confirmed the update
     public String updateRouteStatus(String orderId, String status) {
         try {
             logger.info("Updating route status for order: {} to: {}", orderId, status);
 
-            // Try different possible endpoints for updating route status
-            String[] possibleUrls = {
-                    ROS_API_URL + "/routes/" + orderId + "/status",
-                    ROS_API_URL + "/orders/" + orderId + "/route-status",
-                    ROS_API_URL + "/update-route-status/" + orderId,
-                    ROS_API_URL + "/routes/update"
-            };
-
             Map<String, Object> updateRequest = new HashMap<>();
             updateRequest.put("orderId", orderId);
             updateRequest.put("status", status);
@@ -278,22 +427,13 @@ public class RosService {
 
             HttpEntity<Map<String, Object>> request = new HttpEntity<>(updateRequest, headers);
 
-            for (String url : possibleUrls) {
-                try {
-                    logger.debug("Trying to update route status at: {}", url);
-                    String response = restTemplate.postForObject(url, request, String.class);
-                    return extractRouteUpdateResponse(response);
-                } catch (Exception e) {
-                    logger.debug("Failed to update route status at: {}, trying next endpoint", url);
-                }
-            }
-
-            // If all endpoints fail, return mock response
-            return getMockUpdateResponse(orderId, status, "ROS");
+            String response = endpointResolver.resolve("updateRouteStatus", UPDATE_ROUTE_STATUS_URLS,
+                    template -> restTemplate.postForObject(ROS_API_URL + template, request, String.class, orderId));
+            return response != null ? extractRouteUpdateResponse(response) : null;
 
         } catch (Exception e) {
-            logger.error("Error updating route status, returning mock response: ", e);
-            return getMockUpdateResponse(orderId, status, "ROS");
+            logger.error("Error updating route status: ", e);
+            return null;
         }
     }
 
@@ -303,8 +443,8 @@ public class RosService {
                     new com.fasterxml.jackson.core.type.TypeReference<Map<String, Object>>() {
                     });
 
-            if (response.containsKey("success") && Boolean.TRUE.equals(response.get("success"))) {
-                return "Route status updated successfully";
+            if (response.containsKey("success")) {
+                return Boolean.TRUE.equals(response.get("success")) ? "Route status updated successfully" : null;
             }
 
             if (response.containsKey("message")) {
@@ -322,34 +462,17 @@ public class RosService {
         }
     }
 
-    private String getMockUpdateResponse(String orderId, String status, String system) {
-        logger.info("Using mock update response for orderId: {} with status: {} in system: {}", orderId, status,
-                system);
-        return String.format("%s route for order %s updated to %s successfully", system, orderId, status);
-    }
-
     // theesh:dev
     public boolean isHealthy() {
         try {
             logger.info("Checking ROS health");
 
             // Try to access the ROS API health endpoint or base URL
-            String[] healthUrls = {
-                    ROS_API_URL + "/health",
-                    ROS_API_URL + "/status",
-                    ROS_API_URL + "/"
-            };
-
-            for (String url : healthUrls) {
-                try {
-                    String response = restTemplate.getForObject(url, String.class);
-                    if (response != null) {
-                        logger.info("ROS health check: HEALTHY");
-                        return true;
-                    }
-                } catch (Exception e) {
-                    logger.debug("Health check failed for URL: {}", url);
-                }
+            String response = endpointResolver.resolve("health", HEALTH_URLS,
+                    template -> restTemplate.getForObject(ROS_API_URL + template, String.class));
+            if (response != null) {
+                logger.info("ROS health check: HEALTHY");
+                return true;
             }
 
             logger.warn("ROS health check: UNHEALTHY");
@@ -370,20 +493,11 @@ public class RosService {
             // Convert packageId to orderId for ROS lookup
             String orderId = mapPackageIdToOrderId(packageId);
 
-            String[] possibleUrls = {
-                    ROS_API_URL + "/packages/" + packageId + "/route",
-                    ROS_API_URL + "/routes/package/" + packageId,
-                    ROS_API_URL + "/orders/" + orderId + "/route",
-                    ROS_API_URL + "/tracking/" + packageId
-            };
-
-            for (String url : possibleUrls) {
-                try {
-                    String response = restTemplate.getForObject(url, String.class);
-                    return extractPackageRouteInfo(response);
-                } catch (Exception e) {
-                    logger.debug("Failed to get package route info from: {}", url);
-                }
+            Map<String, String> uriVariables = Map.of("packageId", packageId, "orderId", orderId);
+            String response = endpointResolver.resolve("getPackageRouteInfo", PACKAGE_ROUTE_URLS,
+                    template -> restTemplate.getForObject(ROS_API_URL + template, String.class, uriVariables));
+            if (response != null) {
+                return extractPackageRouteInfo(response);
             }
 
             return getMockPackageRouteInfo(packageId);
@@ -1,25 +1,22 @@
 package com.swiftlogistics.esb.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiftlogistics.esb.client.WmsClient;
 import com.swiftlogistics.esb.model.DeliveryOrder;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
-import java.net.Socket;
-import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class WmsService {
 
-    private static final String WMS_HOST = "localhost";
-    private static final int WMS_PORT = 5003;
     private static final int WAREHOUSE_STATUS_REQ = 0x06;
     private static final int WAREHOUSE_STATUS_RESP = 0x07;
     private static final int PACKAGE_RECEIVED = 0x01;
@@ -34,61 +31,42 @@ public class WmsService {
     private static final int WMS_CANCEL_PACKAGE_REQ = 0x10;
     private static final int WMS_CANCEL_PACKAGE_RESP = 0x11;
 
+    // batch registration: many packages in one frame
+    private static final int PACKAGE_BATCH_RECEIVED = 0x20;
+    private static final int PACKAGE_BATCH_RESP = 0x21;
+    // batch status lookup: many orders in one frame
+    private static final int PACKAGE_BATCH_STATUS_REQ = 0x22;
+    private static final int PACKAGE_BATCH_STATUS_RESP = 0x23;
+    static final int STATUS_BATCH_SIZE = 200;
+
     // theesh
     private static final Logger logger = LoggerFactory.getLogger(WmsService.class);
     // // theesh on method 7
     // private static final int PACKAGE_INFO_REQ = 0x12;
     // private static final int PACKAGE_INFO_RESP = 0x13;
 
+    private final WmsClient wmsClient;
     private final ObjectMapper objectMapper;
     private final Map<String, String> orderToPackageMap;
+    private final RequestCoalescer requestCoalescer;
 
-    public WmsService() {
+    public WmsService(WmsClient wmsClient, RequestCoalescer requestCoalescer) {
+        this.wmsClient = wmsClient;
         this.objectMapper = new ObjectMapper();
         this.orderToPackageMap = new ConcurrentHashMap<>();
+        this.requestCoalescer = requestCoalescer;
     }
 
     public String checkWarehouseStatus() {
         try {
             logger.info("Checking warehouse status");
 
-            try (Socket socket = new Socket(WMS_HOST, WMS_PORT)) {
+            WmsClient.Response response = wmsClient.send(WAREHOUSE_STATUS_REQ, new HashMap<>());
 
-                // Prepare request
-                Map<String, Object> requestData = new HashMap<>();
-                requestData.put("request_id", System.currentTimeMillis());
-
-                String jsonPayload = objectMapper.writeValueAsString(requestData);
-                byte[] payloadBytes = jsonPayload.getBytes("UTF-8");
-
-                // Create header (message type + payload length)
-                ByteBuffer header = ByteBuffer.allocate(8);
-                header.putInt(WAREHOUSE_STATUS_REQ);
-                header.putInt(payloadBytes.length);
-
-                // Send message
-                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
-                out.write(header.array());
-                out.write(payloadBytes);
-                out.flush();
-
-                // Read response
-                DataInputStream in = new DataInputStream(socket.getInputStream());
-
-                // Read header
-                int responseType = in.readInt();
-                int responseLength = in.readInt();
-
-                // Read payload
-                byte[] responsePayload = new byte[responseLength];
-                in.readFully(responsePayload);
-
-                if (responseType == WAREHOUSE_STATUS_RESP) {
-                    String responseJson = new String(responsePayload, "UTF-8");
-                    return extractWarehouseInfo(responseJson);
-                } else {
-                    return "Unexpected response from WMS";
-                }
+            if (response.type() == WAREHOUSE_STATUS_RESP) {
+                return extractWarehouseInfo(response.payloadAsString());
+            } else {
+                return "Unexpected response from WMS";
             }
 
         } catch (Exception e) {
@@ -101,53 +79,95 @@ public class WmsService {
         try {
             logger.info("Registering package for order: {}", order.getOrderId());
 
-            try (Socket socket = new Socket(WMS_HOST, WMS_PORT)) {
+            // Prepare package data
+            Map<String, Object> packageData = new HashMap<>();
+            String packageId = "PKG" + System.currentTimeMillis();
+            packageData.put("package_id", packageId);
+            packageData.put("order_id", order.getOrderId());
+            packageData.put("client_id", order.getClientId());
+            packageData.put("weight", 2.5);
+            packageData.put("dimensions", "30x20x15");
+            packageData.put("special_handling", false);
 
-                // Prepare package data
-                Map<String, Object> packageData = new HashMap<>();
-                String packageId = "PKG" + System.currentTimeMillis();
-                packageData.put("package_id", packageId);
-                packageData.put("order_id", order.getOrderId());
-                packageData.put("client_id", order.getClientId());
-                packageData.put("weight", 2.5);
-                packageData.put("dimensions", "30x20x15");
-                packageData.put("special_handling", false);
-
-                // Store the mapping between order ID and package ID
-                orderToPackageMap.put(order.getOrderId(), packageId);
-                logger.info("Stored mapping: Order {} -> Package {}", order.getOrderId(), packageId);
+            // Store the mapping between order ID and package ID
+            orderToPackageMap.put(order.getOrderId(), packageId);
+            logger.info("Stored mapping: Order {} -> Package {}", order.getOrderId(), packageId);
 
-                String jsonPayload = objectMapper.writeValueAsString(packageData);
-                byte[] payloadBytes = jsonPayload.getBytes("UTF-8");
+            WmsClient.Response response = wmsClient.send(PACKAGE_RECEIVED, packageData);
+            logger.info("Registering package response type & response: {} {}",
+                    response.type(), response.payloadAsString());
 
-                // Create header
-                ByteBuffer header = ByteBuffer.allocate(8);
-                header.putInt(PACKAGE_RECEIVED);
-                header.putInt(payloadBytes.length);
+            return "Package registered: " + packageId;
 
-                // Send message
-                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
-                out.write(header.array());
-                out.write(payloadBytes);
-                out.flush();
+        } catch (Exception e) {
+            logger.error("Error registering package: ", e);
+            return "Package registration failed: " + e.getMessage();
+        }
+    }
 
-                // Read response
-                DataInputStream in = new DataInputStream(socket.getInputStream());
-                int responseType = in.readInt();
-                int responseLength = in.readInt();
+    /**
+     * Registers a batch of packages with a single WMS message.
+     * Returns order ID -> package ID for every package WMS accepted; orders missing from the
+     * result were rejected or the whole batch failed.
+     */
+    public Map<String, String> registerPackages(List<DeliveryOrder> orders) {
+        Map<String, String> registered = new HashMap<>();
+        if (orders == null || orders.isEmpty()) {
+            return registered;
+        }
 
-                byte[] responsePayload = new byte[responseLength];
-                in.readFully(responsePayload);
+        try {
+            logger.info("Registering batch of {} packages", orders.size());
 
-                String responseJson = new String(responsePayload, "UTF-8");
-                logger.info("Registering package response type & response: {} {}", responseType, responseJson);
+            String batchPrefix = "PKG" + System.currentTimeMillis() + "-";
+            List<Map<String, Object>> packages = new ArrayList<>(orders.size());
+            for (int i = 0; i < orders.size(); i++) {
+                DeliveryOrder order = orders.get(i);
+                Map<String, Object> packageData = new HashMap<>();
+                packageData.put("package_id", batchPrefix + i);
+                packageData.put("order_id", order.getOrderId());
+                packageData.put("client_id", order.getClientId());
+                packageData.put("weight", order.getTotalWeight() > 0 ? order.getTotalWeight() : 2.5);
+                packageData.put("dimensions", "30x20x15");
+                packageData.put("special_handling", false);
+                packages.add(packageData);
+            }
 
-                return "Package registered: " + packageId;
+            Map<String, Object> batch = new HashMap<>();
+            batch.put("packages", packages);
+
+            WmsClient.Response response = wmsClient.send(PACKAGE_BATCH_RECEIVED, batch, 10000);
+            if (response.type() == PACKAGE_BATCH_RESP) {
+                Map<String, Object> result = objectMapper.readValue(response.payload(),
+                        new com.fasterxml.jackson.core.type.TypeReference<Map<String, Object>>() {
+                        });
+                collectBatchResults(result, registered);
+            } else {
+                logger.error("WMS rejected package batch: {}", response.payloadAsString());
             }
 
+            orderToPackageMap.putAll(registered);
+            logger.info("Registered {} of {} packages in batch", registered.size(), orders.size());
+
         } catch (Exception e) {
-            logger.error("Error registering package: ", e);
-            return "Package registration failed: " + e.getMessage();
+            logger.error("Error registering package batch: ", e);
+        }
+        return registered;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void collectBatchResults(Map<String, Object> response, Map<String, String> registered) {
+        Object results = response.get("results");
+        if (!(results instanceof List)) {
+            return;
+        }
+        for (Object item : (List<Object>) results) {
+            Map<String, Object> result = (Map<String, Object>) item;
+            if ("RECEIVED".equals(result.get("status")) && result.get("order_id") != null) {
+                registered.put(String.valueOf(result.get("order_id")), String.valueOf(result.get("package_id")));
+            } else {
+                logger.warn("WMS rejected package for order {}: {}", result.get("order_id"), result.get("error"));
+            }
         }
     }
 
@@ -166,55 +186,89 @@ public class WmsService {
     }
 
     // added missing methods on wmsService.getPackageStatus(orderId):dev theesh
+    // Returns null when WMS could not be read, so callers never mistake a guess for the real status
     public String getPackageStatus(String orderId) {
-        try {
-            logger.info("Getting package status for order: {}", orderId);
+        // Concurrent reads of one order's package status share a WMS round-trip
+        return requestCoalescer.execute("wms.getPackageStatus", orderId, () -> loadPackageStatus(orderId));
+    }
 
-            try (Socket socket = new Socket(WMS_HOST, WMS_PORT)) {
-                socket.setSoTimeout(5000); // 5 second timeout
+    /**
+     * Package status for many orders, one WMS message per {@link #STATUS_BATCH_SIZE} orders.
+     * Orders WMS holds no package for map to "not_found". A WMS that rejects the batch message is
+     * answered order by order; a chunk that failed or timed out maps to "unknown".
+     */
+    public Map<String, String> getPackageStatuses(List<String> orderIds) {
+        Map<String, String> statuses = new HashMap<>();
+        if (orderIds == null || orderIds.isEmpty()) {
+            return statuses;
+        }
 
+        for (int from = 0; from < orderIds.size(); from += STATUS_BATCH_SIZE) {
+            List<String> chunk = orderIds.subList(from, Math.min(from + STATUS_BATCH_SIZE, orderIds.size()));
+            try {
                 Map<String, Object> requestData = new HashMap<>();
-                requestData.put("order_id", orderId);
-                requestData.put("action", "get_package_status");
-                requestData.put("request_id", System.currentTimeMillis());
-
-                String jsonPayload = objectMapper.writeValueAsString(requestData);
-                byte[] payloadBytes = jsonPayload.getBytes("UTF-8");
-
-                ByteBuffer header = ByteBuffer.allocate(8);
-                header.putInt(PACKAGE_STATUS_REQ);
-                header.putInt(payloadBytes.length);
-
-                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
-                out.write(header.array());
-                out.write(payloadBytes);
-                out.flush();
-
-                DataInputStream in = new DataInputStream(socket.getInputStream());
-
-                // Read response with timeout handling
-                int responseType = in.readInt();
-                int responseLength = in.readInt();
+                requestData.put("order_ids", chunk);
+
+                WmsClient.Response response = wmsClient.send(PACKAGE_BATCH_STATUS_REQ, requestData);
+                if (response.type() == PACKAGE_BATCH_STATUS_RESP) {
+                    Map<String, Object> result = objectMapper.readValue(response.payload(),
+                            new com.fasterxml.jackson.core.type.TypeReference<Map<String, Object>>() {
+                            });
+                    collectPackageStatuses(result, chunk, statuses);
+                    continue;
+                }
+                // Older WMS builds answer the batch frame with an ERROR reply; they only know per-order lookups
+                logger.warn("WMS rejected package status batch: {}", response.payloadAsString());
+                chunk.forEach(orderId -> {
+                    String status = getPackageStatus(orderId);
+                    statuses.put(orderId, status != null ? status : "unknown");
+                });
+            } catch (Exception e) {
+                // WMS failing or slow: per-order calls would only multiply the load on it
+                logger.warn("Error getting package status batch, {} orders left unknown: {}",
+                        chunk.size(), e.getMessage());
+                chunk.forEach(orderId -> statuses.put(orderId, "unknown"));
+            }
+        }
+        return statuses;
+    }
 
-                logger.info("WMS Response - Type: {}, Length: {}", responseType, responseLength);
+    @SuppressWarnings("unchecked")
+    private void collectPackageStatuses(Map<String, Object> response, List<String> orderIds,
+                                        Map<String, String> statuses) {
+        Map<String, Object> found = response.get("statuses") instanceof Map
+                ? (Map<String, Object>) response.get("statuses")
+                : Map.of();
+        for (String orderId : orderIds) {
+            Object entry = found.get(orderId);
+            Object status = entry instanceof Map ? ((Map<String, Object>) entry).get("status") : entry;
+            statuses.put(orderId, status != null ? status.toString() : "not_found");
+        }
+    }
 
-                if (responseLength > 0 && responseLength < 10000) { // Sanity check
-                    byte[] responsePayload = new byte[responseLength];
-                    in.readFully(responsePayload);
+    private String loadPackageStatus(String orderId) {
+        try {
+            logger.info("Getting package status for order: {}", orderId);
 
-                    String responseJson = new String(responsePayload, "UTF-8");
-                    logger.info("WMS Response JSON: {}", responseJson);
+            Map<String, Object> requestData = new HashMap<>();
+            requestData.put("order_id", orderId);
+            requestData.put("action", "get_package_status");
 
-                    return extractPackageStatus(responseJson);
-                } else {
-                    return "invalid_response_length";
-                }
+            WmsClient.Response response = wmsClient.send(PACKAGE_STATUS_REQ, requestData);
+            logger.info("WMS Response - Type: {}, Length: {}", response.type(), response.payload().length);
 
+            if (response.isError() || response.payload().length == 0) {
+                logger.warn("WMS gave no package status for {}: {}", orderId, response.payloadAsString());
+                return null;
             }
+            String responseJson = response.payloadAsString();
+            logger.info("WMS Response JSON: {}", responseJson);
+
+            return extractPackageStatus(responseJson);
 
         } catch (Exception e) {
             logger.error("Error getting package status: ", e);
-            return "in_warehouse"; // Return default status on error
+            return null;
         }
     }
 
@@ -230,68 +284,40 @@ public class WmsService {
             if (response.containsKey("package_status")) {
                 return (String) response.get("package_status");
             }
-            return "in_warehouse";
+            logger.warn("WMS package status response has no status: {}", jsonResponse);
+            return null;
         } catch (Exception e) {
-            logger.warn("Failed to parse package status response, returning default", e);
-            return "in_warehouse";
+            logger.warn("Failed to parse package status response", e);
+            return null;
         }
     }
 
     // method 4 dev : theesh
+    // Returns null unless WMS confirmed the update
     public String updatePackageStatus(String orderId, String status) {
         try {
             logger.info("Updating package status for order: {} to: {}", orderId, status);
 
-            try (Socket socket = new Socket(WMS_HOST, WMS_PORT)) {
-                socket.setSoTimeout(5000); // 5 second timeout
-
-                Map<String, Object> requestData = new HashMap<>();
-                requestData.put("order_id", orderId);
-                requestData.put("status", status);
-                requestData.put("action", "update_package_status");
-                requestData.put("request_id", System.currentTimeMillis());
-
-                String jsonPayload = objectMapper.writeValueAsString(requestData);
-                byte[] payloadBytes = jsonPayload.getBytes("UTF-8");
-
-                ByteBuffer header = ByteBuffer.allocate(8);
-                header.putInt(PACKAGE_UPDATE_REQ);
-                header.putInt(payloadBytes.length);
-
-                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
-                out.write(header.array());
-                out.write(payloadBytes);
-                out.flush();
-
-                DataInputStream in = new DataInputStream(socket.getInputStream());
-
-                // Read response
-                int responseType = in.readInt();
-                int responseLength = in.readInt();
+            Map<String, Object> requestData = new HashMap<>();
+            requestData.put("order_id", orderId);
+            requestData.put("status", status);
+            requestData.put("action", "update_package_status");
 
-                logger.info("WMS Update Response - Type: {}, Length: {}", responseType, responseLength);
-
-                if (responseLength > 0 && responseLength < 10000) { // Sanity check
-                    byte[] responsePayload = new byte[responseLength];
-                    in.readFully(responsePayload);
-
-                    if (responseType == PACKAGE_UPDATE_RESP) {
-                        String responseJson = new String(responsePayload, "UTF-8");
-                        logger.info("WMS Update Response JSON: {}", responseJson);
-
-                        return extractPackageUpdateResponse(responseJson);
-                    } else {
-                        return "Unknown package update response type: " + responseType;
-                    }
-                } else {
-                    return "Invalid response length: " + responseLength;
-                }
+            WmsClient.Response response = wmsClient.send(PACKAGE_UPDATE_REQ, requestData);
+            logger.info("WMS Update Response - Type: {}, Length: {}", response.type(), response.payload().length);
 
+            if (response.type() != PACKAGE_UPDATE_RESP || response.payload().length == 0) {
+                logger.warn("WMS did not confirm package update for {}: type {}", orderId, response.type());
+                return null;
             }
+            String responseJson = response.payloadAsString();
+            logger.info("WMS Update Response JSON: {}", responseJson);
+
+            return extractPackageUpdateResponse(responseJson);
 
         } catch (Exception e) {
-            logger.error("Error updating package status, returning mock response: ", e);
-            return getMockUpdateResponse(orderId, status, "WMS");
+            logger.error("Error updating package status: ", e);
+            return null;
         }
     }
 
@@ -301,8 +327,8 @@ public class WmsService {
                     new com.fasterxml.jackson.core.type.TypeReference<Map<String, Object>>() {
                     });
 
-            if (response.containsKey("success") && Boolean.TRUE.equals(response.get("success"))) {
-                return "Package status updated successfully";
+            if (response.containsKey("success")) {
+                return Boolean.TRUE.equals(response.get("success")) ? "Package status updated successfully" : null;
             }
 
             if (response.containsKey("message")) {
@@ -320,48 +346,21 @@ public class WmsService {
         }
     }
 
-    private String getMockUpdateResponse(String orderId, String status, String system) {
-        logger.info("Using mock update response for orderId: {} with status: {} in system: {}", orderId, status,
-                system);
-        return String.format("%s package for order %s updated to %s successfully", system, orderId, status);
-    }
-
     // theesh : dev methd 5
     public boolean isHealthy() {
         try {
             logger.info("Checking WMS health");
 
-            try (Socket socket = new Socket()) {
-                // Set a short timeout for health check
-                socket.connect(new java.net.InetSocketAddress(WMS_HOST, WMS_PORT), 3000);
-                socket.setSoTimeout(3000);
-
-                // Send a simple health check message
-                Map<String, Object> healthRequest = new HashMap<>();
-                healthRequest.put("action", "health_check");
-                healthRequest.put("timestamp", System.currentTimeMillis());
-
-                String jsonPayload = objectMapper.writeValueAsString(healthRequest);
-                byte[] payloadBytes = jsonPayload.getBytes("UTF-8");
-
-                ByteBuffer header = ByteBuffer.allocate(8);
-                header.putInt(HEALTH_CHECK_REQ);
-                header.putInt(payloadBytes.length);
-
-                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
-                out.write(header.array());
-                out.write(payloadBytes);
-                out.flush();
+            // Send a simple health check message; any response within the timeout means WMS is up
+            Map<String, Object> healthRequest = new HashMap<>();
+            healthRequest.put("action", "health_check");
+            healthRequest.put("timestamp", System.currentTimeMillis());
 
-                // Try to read response
-                DataInputStream in = new DataInputStream(socket.getInputStream());
-                int responseType = in.readInt();
-                int responseLength = in.readInt();
+            WmsClient.Response response = wmsClient.send(HEALTH_CHECK_REQ, healthRequest, 3000);
 
-                logger.info("WMS health check: HEALTHY (Response type: {}, length: {})", responseType, responseLength);
-                return true;
-
-            }
+            logger.info("WMS health check: HEALTHY (Response type: {}, length: {})",
+                    response.type(), response.payload().length);
+            return true;
 
         } catch (Exception e) {
             logger.warn("WMS health check failed: {}", e.getMessage());
@@ -374,43 +373,21 @@ public class WmsService {
         try {
             logger.info("Getting package info for package: {}", packageId);
 
-            try (Socket socket = new Socket(WMS_HOST, WMS_PORT)) {
-                socket.setSoTimeout(5000);
-
-                Map<String, Object> requestData = new HashMap<>();
-                requestData.put("package_id", packageId);
-                requestData.put("action", "get_package_info");
-                requestData.put("request_id", System.currentTimeMillis());
-
-                String jsonPayload = objectMapper.writeValueAsString(requestData);
-                byte[] payloadBytes = jsonPayload.getBytes("UTF-8");
+            Map<String, Object> requestData = new HashMap<>();
+            requestData.put("package_id", packageId);
+            requestData.put("action", "get_package_info");
 
-                ByteBuffer header = ByteBuffer.allocate(8);
-                header.putInt(PACKAGE_STATUS_REQ); // Reuse existing constant
-                header.putInt(payloadBytes.length);
+            // Reuse existing constant
+            WmsClient.Response response = wmsClient.send(PACKAGE_STATUS_REQ, requestData);
+            logger.info("WMS Package Info responseType: {}", response.type());
 
-                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
-                out.write(header.array());
-                out.write(payloadBytes);
-                out.flush();
-
-                DataInputStream in = new DataInputStream(socket.getInputStream());
-                int responseType = in.readInt();
-                int responseLength = in.readInt();
-                logger.info("WMS Package Info responseType: {}", responseType);
-
-                if (responseLength > 0 && responseLength < 10000) {
-                    byte[] responsePayload = new byte[responseLength];
-                    in.readFully(responsePayload);
-
-                    String responseJson = new String(responsePayload, "UTF-8");
-                    logger.info("WMS Package Info Response: {}", responseJson);
-
-                    return extractPackageInfo(responseJson);
-                } else {
-                    return getMockPackageInfo(packageId);
-                }
+            if (response.payload().length > 0) {
+                String responseJson = response.payloadAsString();
+                logger.info("WMS Package Info Response: {}", responseJson);
 
+                return extractPackageInfo(responseJson);
+            } else {
+                return getMockPackageInfo(packageId);
             }
 
         } catch (Exception e) {
@@ -484,45 +461,24 @@ public class WmsService {
         try {
             logger.info("Cancelling WMS package for order: {}", orderId);
 
-            try (Socket socket = new Socket(WMS_HOST, WMS_PORT)) {
-                // Map order ID to package ID for WMS
-                String packageId = mapOrderIdToPackageId(orderId);
+            // Map order ID to package ID for WMS
+            String packageId = mapOrderIdToPackageId(orderId);
 
-                Map<String, Object> requestData = new HashMap<>();
-                requestData.put("package_id", packageId);
-
-                String jsonPayload = objectMapper.writeValueAsString(requestData);
-                byte[] payloadBytes = jsonPayload.getBytes("UTF-8");
-
-                ByteBuffer header = ByteBuffer.allocate(8);
-                header.putInt(WMS_CANCEL_PACKAGE_REQ); // some constant for cancel request
-                header.putInt(payloadBytes.length);
-                logger.info("Cancel package header: type {} length {}", WMS_CANCEL_PACKAGE_RESP, payloadBytes.length);
-
-                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
-                out.write(header.array());
-                out.write(payloadBytes);
-                out.flush();
-
-                DataInputStream in = new DataInputStream(socket.getInputStream());
-                logger.info("Input stream {}", in);
-                int responseType = in.readInt();
-                int responseLength = in.readInt();
-                byte[] responsePayload = new byte[responseLength];
-                in.readFully(responsePayload);
-
-                logger.info("Cancel package response type: {} (expected: {}), length: {}",
-                        responseType, WMS_CANCEL_PACKAGE_RESP, responseLength);
-                logger.info("Response payload: {}", new String(responsePayload, "UTF-8"));
-
-                if (responseType == WMS_CANCEL_PACKAGE_RESP) {
-                    String responseJson = new String(responsePayload, "UTF-8");
-                    return extractCancelPackageResult(responseJson); // parse JSON
-                } else {
-                    String responseJson = new String(responsePayload, "UTF-8");
-                    logger.warn("Unexpected response type {}, but parsing anyway: {}", responseType, responseJson);
-                    return "Unexpected WMS response: " + responseJson;
-                }
+            Map<String, Object> requestData = new HashMap<>();
+            requestData.put("package_id", packageId);
+
+            WmsClient.Response response = wmsClient.send(WMS_CANCEL_PACKAGE_REQ, requestData);
+            String responseJson = response.payloadAsString();
+
+            logger.info("Cancel package response type: {} (expected: {}), length: {}",
+                    response.type(), WMS_CANCEL_PACKAGE_RESP, response.payload().length);
+            logger.info("Response payload: {}", responseJson);
+
+            if (response.type() == WMS_CANCEL_PACKAGE_RESP) {
+                return extractCancelPackageResult(responseJson); // parse JSON
+            } else {
+                logger.warn("Unexpected response type {}, but parsing anyway: {}", response.type(), responseJson);
+                return "Unexpected WMS response: " + responseJson;
             }
 
         } catch (Exception e) {
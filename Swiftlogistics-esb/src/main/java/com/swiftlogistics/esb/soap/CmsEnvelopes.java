@@ -0,0 +1,154 @@
+package com.swiftlogistics.esb.soap;
+
+import com.swiftlogistics.esb.model.DeliveryOrder;
+import com.swiftlogistics.esb.soap.SoapEnvelopeWriter.Element;
+
+import static com.swiftlogistics.esb.soap.SoapEnvelopeWriter.fragment;
+
+/**
+ * Precompiled CMS request envelopes. All markup is encoded once at class load; each method only
+ * copies fragments and writes the escaped field values into the given writer.
+ */
+public final class CmsEnvelopes {
+
+    public static final String SOAP_NS = "http://schemas.xmlsoap.org/soap/envelope/";
+    public static final String CMS_NS = "http://swiftlogistics.lk/cms";
+
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n";
+
+    private static final byte[] CMS_ENVELOPE_START = fragment(XML_DECLARATION
+            + "<soap:Envelope xmlns:soap=\"" + SOAP_NS + "\" xmlns:cms=\"" + CMS_NS + "\">\n"
+            + "<soap:Header/>\n<soap:Body>\n");
+    private static final byte[] PLAIN_ENVELOPE_START = fragment(XML_DECLARATION
+            + "<soap:Envelope xmlns:soap=\"" + SOAP_NS + "\">\n<soap:Header/>\n<soap:Body>\n");
+    private static final byte[] ENVELOPE_END = fragment("\n</soap:Body>\n</soap:Envelope>\n");
+
+    private static final Element GET_CLIENT_INFO = Element.of("cms:GetClientInfo");
+    private static final Element CREATE_ORDER = Element.of("cms:CreateOrder");
+    private static final Element GET_ORDER_STATUS = Element.of("cms:GetOrderStatus");
+    private static final Element PLAIN_GET_ORDER_STATUS = Element.of("GetOrderStatus");
+    private static final Element GET_PACKAGE_ORDER_INFO = Element.of("cms:GetPackageOrderInfo");
+    private static final Element CANCEL_ORDER = Element.of("cms:CancelOrder");
+    private static final Element GET_ORDERS_BY_CLIENT = Element.of("cms:GetOrdersByClient");
+    private static final Element GET_ORDER_ITEMS = Element.of("cms:GetOrderItems");
+
+    private static final Element CLIENT_ID = Element.of("cms:ClientId");
+    private static final Element ORDER_ID = Element.of("cms:OrderId");
+    private static final Element PACKAGE_ID = Element.of("cms:PackageId");
+    private static final Element STATUS = Element.of("cms:Status");
+    private static final Element PICKUP_ADDRESS = Element.of("cms:PickupAddress");
+    private static final Element DELIVERY_ADDRESS = Element.of("cms:DeliveryAddress");
+    private static final Element RECIPIENT_NAME = Element.of("cms:RecipientName");
+    private static final Element RECIPIENT_PHONE = Element.of("cms:RecipientPhone");
+    private static final Element NOTES = Element.of("cms:Notes");
+    private static final Element TOTAL_WEIGHT = Element.of("cms:TotalWeight");
+    private static final Element TOTAL_ITEMS = Element.of("cms:TotalItems");
+    private static final Element ITEMS = Element.of("cms:Items");
+    private static final Element ITEM = Element.of("cms:Item");
+    private static final Element ITEM_ID = Element.of("cms:ItemId");
+    private static final Element DESCRIPTION = Element.of("cms:Description");
+    private static final Element QUANTITY = Element.of("cms:Quantity");
+    private static final Element WEIGHT_KG = Element.of("cms:WeightKg");
+    private static final Element PLAIN_ORDER_ID_LOWER = Element.of("orderId");
+    private static final Element PLAIN_ORDER_ID = Element.of("OrderId");
+    private static final Element CURSOR = Element.of("cms:Cursor");
+    private static final Element PAGE_SIZE = Element.of("cms:PageSize");
+
+    private static final byte[] CMS_OPERATION_OPEN = fragment("<cms:");
+    private static final byte[] CMS_OPERATION_CLOSE = fragment("</cms:");
+    private static final byte[] TAG_END = fragment(">");
+
+    private CmsEnvelopes() {
+    }
+
+    public static void getClientInfo(SoapEnvelopeWriter out, String clientId) {
+        out.raw(CMS_ENVELOPE_START).raw(GET_CLIENT_INFO.open())
+                .element(CLIENT_ID, clientId)
+                .raw(GET_CLIENT_INFO.close()).raw(ENVELOPE_END);
+    }
+
+    public static void createOrder(SoapEnvelopeWriter out, DeliveryOrder order) {
+        out.raw(CMS_ENVELOPE_START).raw(CREATE_ORDER.open())
+                .element(ORDER_ID, order.getOrderId())
+                .element(CLIENT_ID, order.getClientId())
+                .element(PICKUP_ADDRESS, order.getPickupAddress())
+                .element(DELIVERY_ADDRESS, order.getDeliveryAddress())
+                .element(RECIPIENT_NAME, order.getRecipientName())
+                .element(RECIPIENT_PHONE, order.getRecipientPhone())
+                .element(NOTES, order.getNotes())
+                .element(TOTAL_WEIGHT, order.getTotalWeight())
+                .element(TOTAL_ITEMS, order.getTotalItems())
+                .raw(ITEMS.open());
+        if (order.getItems() != null) {
+            for (DeliveryOrder.OrderItem item : order.getItems()) {
+                out.raw(ITEM.open())
+                        .element(ITEM_ID, item.getItemId())
+                        .element(DESCRIPTION, item.getDescription())
+                        .element(QUANTITY, item.getQuantity())
+                        .element(WEIGHT_KG, item.getWeightKg())
+                        .raw(ITEM.close());
+            }
+        }
+        out.raw(ITEMS.close()).raw(CREATE_ORDER.close()).raw(ENVELOPE_END);
+    }
+
+    public static void getOrderStatus(SoapEnvelopeWriter out, String orderId) {
+        out.raw(CMS_ENVELOPE_START).raw(GET_ORDER_STATUS.open())
+                .element(ORDER_ID, orderId)
+                .raw(GET_ORDER_STATUS.close()).raw(ENVELOPE_END);
+    }
+
+    /** GetOrderStatus without the cms namespace, for CMS builds that ignore it. */
+    public static void getOrderStatusUnqualified(SoapEnvelopeWriter out, String orderId) {
+        out.raw(PLAIN_ENVELOPE_START).raw(PLAIN_GET_ORDER_STATUS.open())
+                .element(PLAIN_ORDER_ID_LOWER, orderId)
+                .raw(PLAIN_GET_ORDER_STATUS.close()).raw(ENVELOPE_END);
+    }
+
+    /** Unqualified GetOrderStatus with a capitalised OrderId element. */
+    public static void getOrderStatusBasic(SoapEnvelopeWriter out, String orderId) {
+        out.raw(PLAIN_ENVELOPE_START).raw(PLAIN_GET_ORDER_STATUS.open())
+                .element(PLAIN_ORDER_ID, orderId)
+                .raw(PLAIN_GET_ORDER_STATUS.close()).raw(ENVELOPE_END);
+    }
+
+    /** Status update under a caller-chosen operation name; CMS builds differ in what they call it. */
+    public static void updateOrderStatus(SoapEnvelopeWriter out, String operation, String orderId, String status) {
+        out.raw(CMS_ENVELOPE_START)
+                .raw(CMS_OPERATION_OPEN).text(operation).raw(TAG_END)
+                .element(ORDER_ID, orderId)
+                .element(STATUS, status)
+                .raw(CMS_OPERATION_CLOSE).text(operation).raw(TAG_END)
+                .raw(ENVELOPE_END);
+    }
+
+    public static void getPackageOrderInfo(SoapEnvelopeWriter out, String packageId, String orderId) {
+        out.raw(CMS_ENVELOPE_START).raw(GET_PACKAGE_ORDER_INFO.open())
+                .element(PACKAGE_ID, packageId)
+                .element(ORDER_ID, orderId)
+                .raw(GET_PACKAGE_ORDER_INFO.close()).raw(ENVELOPE_END);
+    }
+
+    public static void cancelOrder(SoapEnvelopeWriter out, String orderId) {
+        out.raw(CMS_ENVELOPE_START).raw(CANCEL_ORDER.open())
+                .element(ORDER_ID, orderId)
+                .raw(CANCEL_ORDER.close()).raw(ENVELOPE_END);
+    }
+
+    /** One page of GetOrdersByClient; the cursor is the previous page's NextCursor, null for the first page. */
+    public static void getOrdersByClient(SoapEnvelopeWriter out, String clientId, String cursor, int pageSize) {
+        out.raw(CMS_ENVELOPE_START).raw(GET_ORDERS_BY_CLIENT.open())
+                .element(CLIENT_ID, clientId);
+        if (cursor != null) {
+            out.element(CURSOR, cursor);
+        }
+        out.element(PAGE_SIZE, pageSize)
+                .raw(GET_ORDERS_BY_CLIENT.close()).raw(ENVELOPE_END);
+    }
+
+    public static void getOrderItems(SoapEnvelopeWriter out, String orderId) {
+        out.raw(CMS_ENVELOPE_START).raw(GET_ORDER_ITEMS.open())
+                .element(ORDER_ID, orderId)
+                .raw(GET_ORDER_ITEMS.close()).raw(ENVELOPE_END);
+    }
+}
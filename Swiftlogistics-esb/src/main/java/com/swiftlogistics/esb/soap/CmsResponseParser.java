@@ -0,0 +1,286 @@
+package com.swiftlogistics.esb.soap;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single-pass StAX reader for CMS SOAP responses. Reads straight from the HTTP response stream,
+ * so a response is never materialised as a String and never re-scanned per field.
+ * Elements are matched by local name; the cms/soap prefixes are not significant.
+ */
+public class CmsResponseParser {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createFactory();
+    // Pseudo field for the page cursor, read outside any Order element
+    private static final String NEXT_CURSOR = "nextCursor";
+
+    /**
+     * Collects the text of every leaf element (first occurrence per local name) and whether the
+     * response is a SOAP fault. Enough for the single-value CMS responses.
+     */
+    public SoapValues readValues(InputStream in) throws IOException {
+        SoapValues values = new SoapValues();
+        XMLStreamReader reader = open(in);
+        try {
+            StringBuilder text = new StringBuilder();
+            boolean leaf = false;
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        if ("Fault".equals(reader.getLocalName())) {
+                            values.fault = true;
+                        }
+                        leaf = true;
+                        text.setLength(0);
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                        if (leaf) {
+                            text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        if (leaf) {
+                            values.values.putIfAbsent(reader.getLocalName(), text.toString().trim());
+                        }
+                        leaf = false;
+                        break;
+                    default:
+                        break;
+                }
+            }
+            return values;
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed CMS response", e);
+        } finally {
+            close(reader);
+        }
+    }
+
+    /**
+     * Parses a GetOrdersByClient (or GetOrderItems) response into the order maps returned by the ESB API.
+     * Missing text fields become "", unparseable numbers fall back to the same defaults the
+     * API has always used. Item fallbacks and totals are left to the caller.
+     */
+    public List<Map<String, Object>> parseOrders(InputStream in) throws IOException {
+        return parseOrdersPage(in).orders();
+    }
+
+    /**
+     * Like {@link #parseOrders}, also returning the NextCursor of a paginated response
+     * (null when the response has no further page).
+     */
+    public OrdersPage parseOrdersPage(InputStream in) throws IOException {
+        List<Map<String, Object>> orders = new ArrayList<>();
+        String nextCursor = null;
+        XMLStreamReader reader = open(in);
+        try {
+            Map<String, Object> order = null;
+            List<Map<String, Object>> items = null;
+            Map<String, Object> item = null;
+            // API key of the field being read; text outside mapped fields is never buffered
+            String field = null;
+            StringBuilder text = new StringBuilder();
+
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        String started = reader.getLocalName();
+                        if ("Order".equals(started)) {
+                            order = new HashMap<>();
+                            items = new ArrayList<>();
+                        } else if ("Item".equals(started) && items != null) {
+                            item = new HashMap<>();
+                        } else if (item != null) {
+                            field = itemField(started);
+                        } else if (order != null) {
+                            field = orderField(started);
+                        } else if ("NextCursor".equals(started)) {
+                            field = NEXT_CURSOR;
+                        }
+                        text.setLength(0);
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                        if (field != null) {
+                            text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        if (NEXT_CURSOR.equals(field)) {
+                            String value = text.toString().trim();
+                            nextCursor = value.isEmpty() ? null : value;
+                            field = null;
+                        } else if (field != null) {
+                            String value = text.toString().trim();
+                            if (item != null) {
+                                item.putIfAbsent(field, convert(field, value));
+                            } else {
+                                order.putIfAbsent(field, convert(field, value));
+                            }
+                            field = null;
+                        } else if (item != null && "Item".equals(reader.getLocalName())) {
+                            items.add(item);
+                            item = null;
+                        } else if (order != null && "Order".equals(reader.getLocalName())) {
+                            completeOrder(order, items);
+                            orders.add(order);
+                            order = null;
+                            items = null;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            return new OrdersPage(orders, nextCursor);
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed CMS orders response", e);
+        } finally {
+            close(reader);
+        }
+    }
+
+    private static String orderField(String element) {
+        switch (element) {
+            case "OrderId": return "orderId";
+            case "InternalOrderId": return "internalOrderId";
+            case "Status": return "status";
+            case "CreatedAt": return "createdAt";
+            case "RecipientName": return "recipient";
+            case "RecipientAddress": return "address";
+            case "RecipientPhone": return "phone";
+            case "BillingAmount": return "billingAmount";
+            case "PackageDetails": return "packageDetails";
+            default: return null;
+        }
+    }
+
+    private static String itemField(String element) {
+        switch (element) {
+            case "ItemId": return "itemId";
+            case "Description": return "description";
+            case "Quantity": return "quantity";
+            case "WeightKg": return "weightKg";
+            default: return null;
+        }
+    }
+
+    private static Object convert(String field, String value) {
+        switch (field) {
+            case "billingAmount":
+            case "weightKg":
+                return parseDouble(value, 0.0);
+            case "quantity":
+                return parseInt(value, 1);
+            default:
+                return value;
+        }
+    }
+
+    private void completeOrder(Map<String, Object> order, List<Map<String, Object>> items) {
+        for (String key : new String[] {"orderId", "internalOrderId", "status", "createdAt", "recipient",
+                "address", "phone", "packageDetails"}) {
+            order.putIfAbsent(key, "");
+        }
+        order.putIfAbsent("billingAmount", 0.0);
+        for (Map<String, Object> item : items) {
+            item.putIfAbsent("itemId", "");
+            item.putIfAbsent("description", "");
+            item.putIfAbsent("quantity", 1);
+            item.putIfAbsent("weightKg", 0.0);
+        }
+        order.put("items", items);
+    }
+
+    private static double parseDouble(String value, double defaultValue) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static XMLStreamReader open(InputStream in) throws IOException {
+        try {
+            return XML_INPUT_FACTORY.createXMLStreamReader(in);
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot read CMS response", e);
+        }
+    }
+
+    private static void close(XMLStreamReader reader) {
+        try {
+            reader.close();
+        } catch (XMLStreamException ignored) {
+            // the underlying stream is owned by the HTTP client
+        }
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        // CMS responses never need a DTD; refusing them also rules out XXE
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        return factory;
+    }
+
+    /** One page of a GetOrdersByClient response. */
+    public record OrdersPage(List<Map<String, Object>> orders, String nextCursor) {
+    }
+
+    /** Leaf element values of a CMS response, keyed by local name. */
+    public static class SoapValues {
+
+        private final Map<String, String> values = new HashMap<>();
+        private boolean fault;
+
+        public boolean isFault() {
+            return fault;
+        }
+
+        public String get(String localName) {
+            return values.get(localName);
+        }
+
+        public String getIgnoreCase(String localName) {
+            String exact = values.get(localName);
+            if (exact != null) {
+                return exact;
+            }
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                if (entry.getKey().equalsIgnoreCase(localName)) {
+                    return entry.getValue();
+                }
+            }
+            return null;
+        }
+
+        public boolean anyValueContainsIgnoreCase(String fragment) {
+            String lower = fragment.toLowerCase();
+            for (String value : values.values()) {
+                if (value.toLowerCase().contains(lower)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
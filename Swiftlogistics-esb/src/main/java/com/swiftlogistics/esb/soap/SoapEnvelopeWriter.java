@@ -0,0 +1,192 @@
+package com.swiftlogistics.esb.soap;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reusable UTF-8 output buffer for SOAP envelopes. Static markup is written as pre-encoded
+ * byte fragments; field values are XML-escaped and UTF-8 encoded straight into the buffer,
+ * so building an envelope creates no intermediate Strings.
+ * Not thread-safe; {@link #acquire()} hands out one writer per thread.
+ */
+public final class SoapEnvelopeWriter {
+
+    private static final int INITIAL_CAPACITY = 2048;
+    // Writers that grew for an unusually large order are not kept around
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private static final ThreadLocal<SoapEnvelopeWriter> CURRENT = ThreadLocal.withInitial(SoapEnvelopeWriter::new);
+
+    private static final byte[] AMP = fragment("&amp;");
+    private static final byte[] LT = fragment("&lt;");
+    private static final byte[] GT = fragment("&gt;");
+    private static final byte[] QUOT = fragment("&quot;");
+    private static final byte[] APOS = fragment("&apos;");
+
+    private byte[] buf = new byte[INITIAL_CAPACITY];
+    private int count;
+
+    /** The calling thread's writer, emptied. Valid until the next acquire() on the same thread. */
+    public static SoapEnvelopeWriter acquire() {
+        SoapEnvelopeWriter writer = CURRENT.get();
+        writer.reset();
+        return writer;
+    }
+
+    public static byte[] fragment(String markup) {
+        return markup.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public SoapEnvelopeWriter raw(byte[] fragment) {
+        ensureCapacity(fragment.length);
+        System.arraycopy(fragment, 0, buf, count, fragment.length);
+        count += fragment.length;
+        return this;
+    }
+
+    /** Writes the value as escaped character data; null writes nothing. */
+    public SoapEnvelopeWriter text(String value) {
+        if (value == null) {
+            return this;
+        }
+        int length = value.length();
+        // Worst case 3 bytes per char (surrogate pairs take 4 bytes for 2 chars), entities handled separately
+        ensureCapacity(length * 3);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                switch (c) {
+                    case '&' -> raw(AMP);
+                    case '<' -> raw(LT);
+                    case '>' -> raw(GT);
+                    case '"' -> raw(QUOT);
+                    case '\'' -> raw(APOS);
+                    default -> {
+                        ensureCapacity(1);
+                        // Control characters other than tab/CR/LF are not allowed in XML 1.0 at all
+                        buf[count++] = c < 0x20 && c != '\t' && c != '\n' && c != '\r' ? (byte) ' ' : (byte) c;
+                    }
+                }
+            } else {
+                ensureCapacity(4);
+                if (c < 0x800) {
+                    buf[count++] = (byte) (0xC0 | (c >> 6));
+                    buf[count++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, value.charAt(++i));
+                    buf[count++] = (byte) (0xF0 | (cp >> 18));
+                    buf[count++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    buf[count++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    buf[count++] = (byte) (0x80 | (cp & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    buf[count++] = '?';
+                } else {
+                    buf[count++] = (byte) (0xE0 | (c >> 12));
+                    buf[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    buf[count++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+        return this;
+    }
+
+    public SoapEnvelopeWriter number(long value) {
+        if (value < 0) {
+            ensureCapacity(1);
+            buf[count++] = '-';
+            if (value == Long.MIN_VALUE) {
+                return raw(fragment("9223372036854775808"));
+            }
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        ensureCapacity(digits);
+        for (int i = count + digits - 1; i >= count; i--) {
+            buf[i] = (byte) ('0' + (value % 10));
+            value /= 10;
+        }
+        count += digits;
+        return this;
+    }
+
+    public SoapEnvelopeWriter number(double value) {
+        // Same rendering String.format("%s") produced; doubles are rare enough not to hand-roll
+        String text = Double.toString(value);
+        ensureCapacity(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            buf[count++] = (byte) text.charAt(i);
+        }
+        return this;
+    }
+
+    public SoapEnvelopeWriter element(Element element, String value) {
+        return raw(element.open).text(value).raw(element.close);
+    }
+
+    public SoapEnvelopeWriter element(Element element, long value) {
+        return raw(element.open).number(value).raw(element.close);
+    }
+
+    public SoapEnvelopeWriter element(Element element, double value) {
+        return raw(element.open).number(value).raw(element.close);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buf, 0, count);
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buf, count);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buf, 0, count, StandardCharsets.UTF_8);
+    }
+
+    private void reset() {
+        if (buf.length > MAX_RETAINED_CAPACITY) {
+            buf = new byte[INITIAL_CAPACITY];
+        }
+        count = 0;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (count + extra > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, count + extra));
+        }
+    }
+
+    /** Pre-encoded open and close tags of one element. */
+    public static final class Element {
+
+        private final byte[] open;
+        private final byte[] close;
+
+        private Element(String qualifiedName) {
+            this.open = fragment("<" + qualifiedName + ">");
+            this.close = fragment("</" + qualifiedName + ">");
+        }
+
+        public static Element of(String qualifiedName) {
+            return new Element(qualifiedName);
+        }
+
+        public byte[] open() {
+            return open;
+        }
+
+        public byte[] close() {
+            return close;
+        }
+    }
+}
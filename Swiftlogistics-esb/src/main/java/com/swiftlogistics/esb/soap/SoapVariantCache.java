@@ -0,0 +1,74 @@
+package com.swiftlogistics.esb.soap;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers which request variant (envelope shape or operation name) a SOAP endpoint accepted for an
+ * operation, so steady-state calls need a single round-trip. Entries expire after a TTL; callers drop
+ * them when the remembered variant faults and probe again.
+ * {@link #NONE_SUPPORTED} records that the endpoint rejected every variant.
+ */
+public class SoapVariantCache {
+
+    public static final int NONE_SUPPORTED = -1;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    public SoapVariantCache(Duration ttl) {
+        this(ttl, System::nanoTime);
+    }
+
+    SoapVariantCache(Duration ttl, LongSupplier clock) {
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+    }
+
+    /** The remembered variant index, {@link #NONE_SUPPORTED}, or null when unknown or expired. */
+    public Integer lookup(String endpoint, String operation) {
+        String key = key(endpoint, operation);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.getAsLong() - entry.storedAt >= ttlNanos) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.variant;
+    }
+
+    public void remember(String endpoint, String operation, int variant) {
+        entries.put(key(endpoint, operation), new Entry(variant, clock.getAsLong()));
+    }
+
+    public void invalidate(String endpoint, String operation) {
+        entries.remove(key(endpoint, operation));
+    }
+
+    /** Variant indexes in the order they should be tried: the remembered one first, then the rest. */
+    public static int[] probeOrder(Integer known, int variantCount) {
+        int[] order = new int[variantCount];
+        int next = 0;
+        if (known != null && known >= 0 && known < variantCount) {
+            order[next++] = known;
+        }
+        for (int i = 0; i < variantCount; i++) {
+            if (known == null || i != known) {
+                order[next++] = i;
+            }
+        }
+        return order;
+    }
+
+    private static String key(String endpoint, String operation) {
+        return endpoint + '#' + operation;
+    }
+
+    private record Entry(int variant, long storedAt) {
+    }
+}
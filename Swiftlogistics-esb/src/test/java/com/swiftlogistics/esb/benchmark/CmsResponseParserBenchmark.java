@@ -0,0 +1,172 @@
+package com.swiftlogistics.esb.benchmark;
+
+import com.swiftlogistics.esb.soap.CmsResponseParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the streaming {@link CmsResponseParser} with the split/indexOf extraction CmsService used
+ * before, on GetOrdersByClient responses shaped like the CMS stand-in's.
+ * The legacy path includes decoding the body into a String, as postForObject(..., String.class) did.
+ *
+ * Not a unit test; run after mvn test-compile with the test classpath, e.g.
+ * java -cp target/test-classes:target/classes:$(test classpath) org.openjdk.jmh.Main CmsResponseParserBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CmsResponseParserBenchmark {
+
+    @Param({"50", "500", "2000"})
+    int orders;
+
+    private final CmsResponseParser parser = new CmsResponseParser();
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        body = ordersResponse(orders, 5).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> streaming() throws IOException {
+        return parser.parseOrders(new ByteArrayInputStream(body));
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> legacyIndexOf() {
+        return LegacyExtraction.parseOrders(new String(body, StandardCharsets.UTF_8));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CmsResponseParserBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    public static String ordersResponse(int orderCount, int itemsPerOrder) {
+        StringBuilder xml = new StringBuilder()
+                .append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                .append("<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\" ")
+                .append("xmlns:cms=\"http://swiftlogistics.lk/cms\">\n<soap:Header/>\n<soap:Body>\n")
+                .append("<cms:GetOrdersByClientResponse>\n<cms:ClientId>CLIENT001</cms:ClientId>\n")
+                .append("<cms:TotalOrders>").append(orderCount).append("</cms:TotalOrders>\n<cms:Orders>");
+        for (int o = 0; o < orderCount; o++) {
+            xml.append("\n  <cms:Order>")
+                    .append("\n    <cms:OrderId>ORD").append(100000 + o).append("</cms:OrderId>")
+                    .append("\n    <cms:InternalOrderId>INT-").append(o).append("</cms:InternalOrderId>")
+                    .append("\n    <cms:Status>confirmed</cms:Status>")
+                    .append("\n    <cms:CreatedAt>2024-01-15T10:30:00</cms:CreatedAt>")
+                    .append("\n    <cms:RecipientName>Recipient ").append(o).append("</cms:RecipientName>")
+                    .append("\n    <cms:RecipientAddress>").append(o).append(" Galle Road, Colombo</cms:RecipientAddress>")
+                    .append("\n    <cms:RecipientPhone>+94771234567</cms:RecipientPhone>")
+                    .append("\n    <cms:BillingAmount>").append(1250.5 + o).append("</cms:BillingAmount>")
+                    .append("\n    <cms:PackageDetails>Standard package</cms:PackageDetails>")
+                    .append("\n    <cms:Items>");
+            for (int i = 0; i < itemsPerOrder; i++) {
+                xml.append("\n      <cms:Item>")
+                        .append("<cms:ItemId>ITEM").append(i).append("</cms:ItemId>")
+                        .append("<cms:Description>Item number ").append(i).append("</cms:Description>")
+                        .append("<cms:Quantity>").append(i + 1).append("</cms:Quantity>")
+                        .append("<cms:WeightKg>0.").append(i + 1).append("</cms:WeightKg>")
+                        .append("</cms:Item>");
+            }
+            xml.append("\n    </cms:Items>\n  </cms:Order>");
+        }
+        return xml.append("\n</cms:Orders>\n</cms:GetOrdersByClientResponse>\n</soap:Body>\n</soap:Envelope>")
+                .toString();
+    }
+
+    /** The extraction code CmsService used before the streaming parser, minus logging. */
+    public static final class LegacyExtraction {
+
+        public static List<Map<String, Object>> parseOrders(String soapResponse) {
+            List<Map<String, Object>> orders = new ArrayList<>();
+            if (soapResponse != null && soapResponse.contains("<cms:Order>")) {
+                String[] orderBlocks = soapResponse.split("<cms:Order>");
+                for (int i = 1; i < orderBlocks.length; i++) {
+                    String orderBlock = "<cms:Order>" + orderBlocks[i].split("</cms:Order>")[0] + "</cms:Order>";
+                    Map<String, Object> order = new HashMap<>();
+                    order.put("orderId", extractXmlValue(orderBlock, "cms:OrderId"));
+                    order.put("internalOrderId", extractXmlValue(orderBlock, "cms:InternalOrderId"));
+                    order.put("status", extractXmlValue(orderBlock, "cms:Status"));
+                    order.put("createdAt", extractXmlValue(orderBlock, "cms:CreatedAt"));
+                    order.put("recipient", extractXmlValue(orderBlock, "cms:RecipientName"));
+                    order.put("address", extractXmlValue(orderBlock, "cms:RecipientAddress"));
+                    order.put("phone", extractXmlValue(orderBlock, "cms:RecipientPhone"));
+                    String billingStr = extractXmlValue(orderBlock, "cms:BillingAmount");
+                    try {
+                        order.put("billingAmount", Double.parseDouble(billingStr));
+                    } catch (NumberFormatException e) {
+                        order.put("billingAmount", 0.0);
+                    }
+                    order.put("packageDetails", extractXmlValue(orderBlock, "cms:PackageDetails"));
+                    order.put("items", parseItems(orderBlock));
+                    orders.add(order);
+                }
+            }
+            return orders;
+        }
+
+        private static List<Map<String, Object>> parseItems(String orderBlock) {
+            List<Map<String, Object>> items = new ArrayList<>();
+            if (orderBlock.contains("<cms:Items>")) {
+                String itemsSection = orderBlock.substring(
+                        orderBlock.indexOf("<cms:Items>") + 11,
+                        orderBlock.indexOf("</cms:Items>"));
+                String[] itemBlocks = itemsSection.split("<cms:Item>");
+                for (int i = 1; i < itemBlocks.length; i++) {
+                    String itemBlock = "<cms:Item>" + itemBlocks[i].split("</cms:Item>")[0] + "</cms:Item>";
+                    Map<String, Object> item = new HashMap<>();
+                    item.put("itemId", extractXmlValue(itemBlock, "cms:ItemId"));
+                    item.put("description", extractXmlValue(itemBlock, "cms:Description"));
+                    try {
+                        item.put("quantity", Integer.parseInt(extractXmlValue(itemBlock, "cms:Quantity")));
+                    } catch (NumberFormatException e) {
+                        item.put("quantity", 1);
+                    }
+                    try {
+                        item.put("weightKg", Double.parseDouble(extractXmlValue(itemBlock, "cms:WeightKg")));
+                    } catch (NumberFormatException e) {
+                        item.put("weightKg", 0.0);
+                    }
+                    items.add(item);
+                }
+            }
+            return items;
+        }
+
+        private static String extractXmlValue(String xml, String tagName) {
+            String startTag = "<" + tagName + ">";
+            String endTag = "</" + tagName + ">";
+            int start = xml.indexOf(startTag);
+            int end = xml.indexOf(endTag);
+            if (start != -1 && end != -1 && end > start) {
+                return xml.substring(start + startTag.length(), end).trim();
+            }
+            return "";
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.swiftlogistics.esb.benchmark;
+
+import com.swiftlogistics.esb.config.Jackson2CborMessageConverter;
+import com.swiftlogistics.esb.model.DeliveryOrder;
+import com.swiftlogistics.esb.outbox.OrderEvents;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of an ORDER_CREATED event through the AMQP message converters, JSON against
+ * CBOR, with the event's items inline. Payload sizes are printed once per trial ("payload bytes").
+ * Decoding goes to Map like the consumers' listeners. Run like {@link CmsResponseParserBenchmark},
+ * with -prof gc for allocation per message.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderEventCodecBenchmark {
+
+    @Param({"json", "cbor"})
+    String format;
+
+    @Param({"5", "50"})
+    int items;
+
+    private MessageConverter converter;
+    private Map<String, Object> event;
+    private Message encoded;
+
+    @Setup
+    public void setUp() {
+        converter = "cbor".equals(format) ? new Jackson2CborMessageConverter() : new Jackson2JsonMessageConverter();
+        event = new OrderEvents(Integer.MAX_VALUE).orderCreated(order(items), "RT-1700000000000");
+        encoded = converter.toMessage(event, new MessageProperties());
+        System.out.printf("%n%s, %d items: payload bytes=%d%n", format, items, encoded.getBody().length);
+    }
+
+    @Benchmark
+    public Message encode() {
+        return converter.toMessage(event, new MessageProperties());
+    }
+
+    @Benchmark
+    public Object decode() {
+        return converter.fromMessage(encoded);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(OrderEventCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static DeliveryOrder order(int itemCount) {
+        DeliveryOrder order = new DeliveryOrder();
+        order.setOrderId("ORD1700000000000");
+        order.setClientId("CLIENT001");
+        order.setPickupAddress("Warehouse 3, Colombo Port");
+        order.setDeliveryAddress("45 Galle Road, Colombo 03");
+        order.setRecipientName("Nimal Perera");
+        order.setRecipientPhone("+94771234567");
+        List<DeliveryOrder.OrderItem> orderItems = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            orderItems.add(new DeliveryOrder.OrderItem("ITEM" + i, "Wireless mouse model " + i, i + 1, 0.25 * (i + 1)));
+        }
+        order.setItems(orderItems);
+        order.setTotalItems(itemCount);
+        order.setTotalWeight(0.25 * itemCount);
+        return order;
+    }
+}
@@ -0,0 +1,134 @@
+package com.swiftlogistics.esb.benchmark;
+
+import com.swiftlogistics.esb.controller.EsbController;
+import com.swiftlogistics.esb.model.DeliveryOrder;
+import com.swiftlogistics.esb.outbox.OrderEventOutbox;
+import com.swiftlogistics.esb.outbox.OrderEvents;
+import com.swiftlogistics.esb.service.CmsService;
+import com.swiftlogistics.esb.service.OrderStatusView;
+import com.swiftlogistics.esb.service.RosService;
+import com.swiftlogistics.esb.service.WmsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.stubbing.Answer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * End-to-end latency of one POST /orders/map (createOrderFromMap) against stand-ins of CMS, ROS and
+ * WMS that answer after a fixed delay, with the three registrations run one after another (the
+ * default) and scatter-gathered on the fan-out pool. Sequential mode takes about the sum of the
+ * delays (CMS counts twice: client lookup, then CreateOrder), scatter-gather about the largest.
+ *
+ * Not a unit test; run after mvn test-compile with the test classpath, e.g.
+ * java -cp target/test-classes:target/classes:$(test classpath) org.openjdk.jmh.Main ScatterGatherBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScatterGatherBenchmark {
+
+    // Per CMS call; createOrderFromMap makes two
+    @Param({"150"})
+    long cmsLatencyMs;
+
+    @Param({"250"})
+    long rosLatencyMs;
+
+    @Param({"180"})
+    long wmsLatencyMs;
+
+    private static final Map<String, Object> ORDER = Map.of(
+            "orderId", "ORD-BENCH-1", "clientId", "CLIENT001", "deliveryAddress", "45 Galle Road, Colombo 03",
+            "recipientName", "John", "totalWeight", 2.5, "totalItems", 1);
+
+    private ExecutorService executor;
+    private EsbController sequential;
+    private EsbController scatterGather;
+
+    @Setup
+    public void setUp() {
+        CmsService cmsService = mock(CmsService.class);
+        RosService rosService = mock(RosService.class);
+        WmsService wmsService = mock(WmsService.class);
+        when(cmsService.fetchClientData(anyString())).thenAnswer(delayed(cmsLatencyMs, "{\"success\":true}"));
+        when(cmsService.createOrder(any(DeliveryOrder.class))).thenAnswer(delayed(cmsLatencyMs, "{\"order_id\":\"X\"}"));
+        when(rosService.createOptimizedRoute(anyString(), anyString(), anyDouble()))
+                .thenAnswer(delayed(rosLatencyMs, "Route optimized: RT1"));
+        when(wmsService.registerPackage(any(DeliveryOrder.class)))
+                .thenAnswer(delayed(wmsLatencyMs, "Package registered: PKG1"));
+
+        executor = Executors.newFixedThreadPool(16);
+        sequential = controller(cmsService, rosService, wmsService, false);
+        scatterGather = controller(cmsService, rosService, wmsService, true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> sequential() {
+        return sequential.createOrderFromMap(ORDER);
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> scatterGather() {
+        return scatterGather.createOrderFromMap(ORDER);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ScatterGatherBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private EsbController controller(CmsService cmsService, RosService rosService, WmsService wmsService,
+                                     boolean scatterGatherEnabled) {
+        EsbController controller = new EsbController(cmsService, rosService, wmsService);
+        ReflectionTestUtils.setField(controller, "orderEventOutbox", mock(OrderEventOutbox.class));
+        ReflectionTestUtils.setField(controller, "orderEvents", new OrderEvents(10));
+        ReflectionTestUtils.setField(controller, "orderFanOutExecutor", executor);
+        ReflectionTestUtils.setField(controller, "orderStatusView",
+                new OrderStatusView(1000, 60_000, new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(controller, "scatterGatherEnabled", scatterGatherEnabled);
+        ReflectionTestUtils.setField(controller, "cmsDeadlineMs", 5000L);
+        ReflectionTestUtils.setField(controller, "rosDeadlineMs", 5000L);
+        ReflectionTestUtils.setField(controller, "wmsDeadlineMs", 5000L);
+        return controller;
+    }
+
+    private static Answer<String> delayed(long latencyMs, String result) {
+        return invocation -> {
+            Thread.sleep(latencyMs);
+            return result;
+        };
+    }
+}
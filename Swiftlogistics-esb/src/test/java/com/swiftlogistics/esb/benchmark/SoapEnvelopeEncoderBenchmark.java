@@ -0,0 +1,137 @@
+package com.swiftlogistics.esb.benchmark;
+
+import com.swiftlogistics.esb.model.DeliveryOrder;
+import com.swiftlogistics.esb.soap.CmsEnvelopes;
+import com.swiftlogistics.esb.soap.SoapEnvelopeWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-envelope cost of the precompiled {@link CmsEnvelopes} against the String.format builders
+ * CmsService used before. Legacy variants include the String-to-bytes step the message converter did.
+ * Run like {@link CmsResponseParserBenchmark}, with -prof gc for gc.alloc.rate.norm (bytes per envelope).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SoapEnvelopeEncoderBenchmark {
+
+    private DeliveryOrder order;
+
+    @Setup
+    public void setUp() {
+        order = new DeliveryOrder();
+        order.setOrderId("ORD1700000000000");
+        order.setClientId("CLIENT001");
+        order.setPickupAddress("Warehouse 3, Colombo Port");
+        order.setDeliveryAddress("45 Galle Road, Colombo 03");
+        order.setRecipientName("Nimal Perera");
+        order.setRecipientPhone("+94771234567");
+        order.setNotes("Leave at reception");
+        List<DeliveryOrder.OrderItem> items = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            DeliveryOrder.OrderItem item = new DeliveryOrder.OrderItem();
+            item.setItemId("ITEM00" + i);
+            item.setDescription("Wireless mouse model " + i);
+            item.setQuantity(i + 1);
+            item.setWeightKg(0.25 * (i + 1));
+            items.add(item);
+        }
+        order.setItems(items);
+        order.setTotalWeight(3.75);
+        order.setTotalItems(15);
+    }
+
+    @Benchmark
+    public void createOrderEncoder(Blackhole bh) {
+        SoapEnvelopeWriter out = SoapEnvelopeWriter.acquire();
+        CmsEnvelopes.createOrder(out, order);
+        bh.consume(out.size());
+    }
+
+    @Benchmark
+    public byte[] createOrderLegacy() {
+        return legacyCreateOrder(order).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void getOrderStatusEncoder(Blackhole bh) {
+        SoapEnvelopeWriter out = SoapEnvelopeWriter.acquire();
+        CmsEnvelopes.getOrderStatus(out, order.getOrderId());
+        bh.consume(out.size());
+    }
+
+    @Benchmark
+    public byte[] getOrderStatusLegacy() {
+        return legacyGetOrderStatus(order.getOrderId()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String legacyCreateOrder(DeliveryOrder order) {
+        StringBuilder itemsXml = new StringBuilder();
+        if (order.getItems() != null && !order.getItems().isEmpty()) {
+            for (DeliveryOrder.OrderItem item : order.getItems()) {
+                itemsXml.append("<cms:Item>")
+                        .append("<cms:ItemId>").append(item.getItemId()).append("</cms:ItemId>")
+                        .append("<cms:Description>").append(item.getDescription()).append("</cms:Description>")
+                        .append("<cms:Quantity>").append(item.getQuantity()).append("</cms:Quantity>")
+                        .append("<cms:WeightKg>").append(item.getWeightKg()).append("</cms:WeightKg>")
+                        .append("</cms:Item>");
+            }
+        }
+        return String.format(
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                        "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"\n" +
+                        "               xmlns:cms=\"http://swiftlogistics.lk/cms\">\n" +
+                        "  <soap:Header/>\n" +
+                        "  <soap:Body>\n" +
+                        "    <cms:CreateOrder>\n" +
+                        "      <cms:OrderId>%s</cms:OrderId>\n" +
+                        "      <cms:ClientId>%s</cms:ClientId>\n" +
+                        "      <cms:PickupAddress>%s</cms:PickupAddress>\n" +
+                        "      <cms:DeliveryAddress>%s</cms:DeliveryAddress>\n" +
+                        "      <cms:RecipientName>%s</cms:RecipientName>\n" +
+                        "      <cms:RecipientPhone>%s</cms:RecipientPhone>\n" +
+                        "      <cms:Notes>%s</cms:Notes>\n" +
+                        "      <cms:TotalWeight>%s</cms:TotalWeight>\n" +
+                        "      <cms:TotalItems>%s</cms:TotalItems>\n" +
+                        "      <cms:Items>%s</cms:Items>\n" +
+                        "    </cms:CreateOrder>\n" +
+                        "  </soap:Body>\n" +
+                        "</soap:Envelope>\n",
+                order.getOrderId(), order.getClientId(), order.getPickupAddress(), order.getDeliveryAddress(),
+                order.getRecipientName(), order.getRecipientPhone(), order.getNotes() != null ? order.getNotes() : "",
+                order.getTotalWeight(), order.getTotalItems(), itemsXml.toString());
+    }
+
+    private static String legacyGetOrderStatus(String orderId) {
+        return String.format(
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                        "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"\n" +
+                        "               xmlns:cms=\"http://swiftlogistics.lk/cms\">\n" +
+                        "    <soap:Header/>\n" +
+                        "    <soap:Body>\n" +
+                        "        <cms:GetOrderStatus>\n" +
+                        "            <cms:OrderId>%s</cms:OrderId>\n" +
+                        "        </cms:GetOrderStatus>\n" +
+                        "    </soap:Body>\n" +
+                        "</soap:Envelope>",
+                orderId);
+    }
+}
@@ -0,0 +1,99 @@
+package com.swiftlogistics.esb.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RosEndpointResolverTest {
+
+    private static final List<String> TEMPLATES = List.of("/a/{id}", "/b/{id}", "/c/{id}");
+
+    private final AtomicLong now = new AtomicLong();
+    private final RosEndpointResolver resolver = new RosEndpointResolver(Duration.ofSeconds(60), now::get);
+    private final List<String> calls = new ArrayList<>();
+
+    @Test
+    void resolve_ShouldGoStraightToTheTemplateThatWorked() {
+        Function<String, String> ros = serving("/c/{id}");
+
+        assertEquals("ok /c/{id}", resolver.resolve("op", TEMPLATES, ros));
+        assertEquals(List.of("/a/{id}", "/b/{id}", "/c/{id}"), calls);
+
+        calls.clear();
+        assertEquals("ok /c/{id}", resolver.resolve("op", TEMPLATES, ros));
+        assertEquals(List.of("/c/{id}"), calls);
+    }
+
+    @Test
+    void resolve_KnownMissingTemplates_ShouldBeSkippedUntilTtl() {
+        Function<String, String> ros = serving(null);
+
+        assertNull(resolver.resolve("op", TEMPLATES, ros));
+        calls.clear();
+        assertNull(resolver.resolve("op", TEMPLATES, ros));
+        assertEquals(List.of(), calls);
+
+        now.addAndGet(Duration.ofSeconds(60).toNanos());
+        assertNull(resolver.resolve("op", TEMPLATES, ros));
+        assertEquals(3, calls.size());
+    }
+
+    @Test
+    void resolve_ServerErrors_ShouldNotBeLearnedAsMissing() {
+        Function<String, String> failing = template -> {
+            calls.add(template);
+            throw HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "down", null, null, null);
+        };
+
+        resolver.resolve("op", TEMPLATES, failing);
+        calls.clear();
+        resolver.resolve("op", TEMPLATES, failing);
+
+        assertEquals(3, calls.size());
+    }
+
+    @Test
+    void resolve_JsonNotFound_ShouldCountAsAnAnswer() {
+        HttpHeaders json = new HttpHeaders();
+        json.setContentType(MediaType.APPLICATION_JSON);
+        Function<String, String> ros = template -> {
+            calls.add(template);
+            if (template.equals("/a/{id}")) {
+                throw HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", json,
+                        "{\"error\":\"Route not found\"}".getBytes(), null);
+            }
+            return "unexpected";
+        };
+
+        assertNull(resolver.resolve("op", TEMPLATES, ros));
+        assertEquals(List.of("/a/{id}"), calls);
+        assertEquals("/a/{id}", ((Map<?, ?>) resolver.snapshot().get("op")).get("preferred"));
+    }
+
+    // Like Flask: unrouted paths get an HTML 404 (or 405 for a wrong method)
+    private Function<String, String> serving(String served) {
+        return template -> {
+            calls.add(template);
+            if (template.equals(served)) {
+                return "ok " + template;
+            }
+            HttpStatus status = template.equals("/b/{id}") ? HttpStatus.METHOD_NOT_ALLOWED : HttpStatus.NOT_FOUND;
+            HttpHeaders html = new HttpHeaders();
+            html.setContentType(MediaType.TEXT_HTML);
+            throw HttpClientErrorException.create(status, status.getReasonPhrase(), html, new byte[0], null);
+        };
+    }
+}
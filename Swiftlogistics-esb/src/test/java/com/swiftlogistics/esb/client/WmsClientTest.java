@@ -0,0 +1,202 @@
+package com.swiftlogistics.esb.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WmsClientTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ExecutorService serverThreads = Executors.newCachedThreadPool();
+    private final AtomicInteger acceptedConnections = new AtomicInteger();
+    private ServerSocket server;
+    private WmsClient client;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (client != null) {
+            client.destroy();
+        }
+        server.close();
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    void send_PipelinedRequests_ShouldBeMatchedByRequestIdOnOneConnection() throws Exception {
+        // Answers every pair of requests in reverse order, with a broadcast in between
+        startServer(connection -> {
+            while (true) {
+                Frame first = read(connection);
+                Frame second = read(connection);
+                write(connection, 0x02, "{\"type\":\"PACKAGE_UPDATE\",\"package\":{}}");
+                write(connection, 0x05, echo(second));
+                write(connection, 0x05, echo(first));
+            }
+        });
+        client = new WmsClient("localhost", server.getLocalPort(), 1, 1000, 2000, 1);
+
+        List<CompletableFuture<WmsClient.Response>> responses = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            String orderId = "ORD-" + i;
+            responses.add(CompletableFuture.supplyAsync(() -> sendQuietly(Map.of("order_id", orderId))));
+        }
+
+        for (int i = 0; i < 20; i++) {
+            JsonNode body = mapper.readTree(responses.get(i).get().payload());
+            assertEquals("ORD-" + i, body.get("order_id").asText());
+        }
+        assertEquals(1, acceptedConnections.get());
+    }
+
+    @Test
+    void sendAsync_ThousandsInFlight_ShouldCompleteOnSingleEventLoopThread() throws Exception {
+        startServer(connection -> {
+            while (true) {
+                write(connection, 0x05, echo(read(connection)));
+            }
+        });
+        client = new WmsClient("localhost", server.getLocalPort(), 1, 1000, 10000, 1);
+
+        List<CompletableFuture<WmsClient.Response>> responses = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            responses.add(client.sendAsync(0x04, Map.of("order_id", "ORD-" + i)));
+        }
+
+        CompletableFuture.allOf(responses.toArray(new CompletableFuture[0])).get();
+        for (int i = 0; i < 2000; i += 250) {
+            assertEquals("ORD-" + i, mapper.readTree(responses.get(i).get().payload()).get("order_id").asText());
+        }
+        assertEquals(1, acceptedConnections.get());
+    }
+
+    @Test
+    void send_ResponsesWithoutRequestId_ShouldBeMatchedInOrder() throws Exception {
+        startServer(connection -> {
+            while (true) {
+                Frame request = read(connection);
+                write(connection, 0x05, "{\"order_id\":\"" + request.json.get("order_id").asText() + "\"}");
+            }
+        });
+        client = new WmsClient("localhost", server.getLocalPort(), 1, 1000, 2000, 1);
+
+        for (int i = 0; i < 5; i++) {
+            WmsClient.Response response = client.send(0x04, Map.of("order_id", "ORD-" + i));
+            assertEquals("ORD-" + i, mapper.readTree(response.payload()).get("order_id").asText());
+        }
+    }
+
+    @Test
+    void send_AfterServerDropsConnection_ShouldReconnect() throws Exception {
+        // Answers one request per connection, then hangs up
+        startServer(connection -> {
+            Frame request = read(connection);
+            write(connection, 0x05, echo(request));
+        });
+        client = new WmsClient("localhost", server.getLocalPort(), 1, 1000, 2000, 1);
+
+        for (int i = 0; i < 3; i++) {
+            WmsClient.Response response = client.send(0x04, Map.of("order_id", "ORD-" + i));
+            assertEquals("ORD-" + i, mapper.readTree(response.payload()).get("order_id").asText());
+            // let the reader notice the hang-up before the next call
+            Thread.sleep(100);
+        }
+        assertEquals(3, acceptedConnections.get());
+    }
+
+    @Test
+    void send_AfterTimedOutRequests_ShouldForgetThemOnceALaterRequestIsAnswered() throws Exception {
+        // Ignores the first three requests, echoes the rest
+        startServer(connection -> {
+            for (int i = 0; ; i++) {
+                Frame request = read(connection);
+                if (i >= 3) {
+                    write(connection, 0x05, echo(request));
+                }
+            }
+        });
+        client = new WmsClient("localhost", server.getLocalPort(), 1, 1000, 2000, 1);
+
+        for (int i = 0; i < 3; i++) {
+            CompletableFuture<WmsClient.Response> ignored = client.sendAsync(0x04, Map.of("order_id", "ORD-" + i), 100);
+            assertThrows(ExecutionException.class, ignored::get);
+        }
+        assertEquals(3, client.inFlightRequests());
+
+        WmsClient.Response response = client.send(0x04, Map.of("order_id", "ORD-3"));
+        assertEquals("ORD-3", mapper.readTree(response.payload()).get("order_id").asText());
+        assertEquals(0, client.inFlightRequests());
+    }
+
+    private WmsClient.Response sendQuietly(Map<String, Object> payload) {
+        try {
+            return client.send(0x04, payload);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void startServer(ConnectionHandler handler) throws IOException {
+        server = new ServerSocket(0);
+        serverThreads.submit(() -> {
+            while (!server.isClosed()) {
+                Socket socket = server.accept();
+                acceptedConnections.incrementAndGet();
+                serverThreads.submit(() -> {
+                    try (socket) {
+                        handler.handle(socket);
+                    }
+                    return null;
+                });
+            }
+            return null;
+        });
+    }
+
+    private Frame read(Socket socket) throws IOException {
+        DataInputStream in = new DataInputStream(socket.getInputStream());
+        int type = in.readInt();
+        byte[] payload = new byte[in.readInt()];
+        in.readFully(payload);
+        return new Frame(type, mapper.readTree(payload));
+    }
+
+    private void write(Socket socket, int type, String json) throws IOException {
+        byte[] payload = json.getBytes(StandardCharsets.UTF_8);
+        DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+        out.writeInt(type);
+        out.writeInt(payload.length);
+        out.write(payload);
+        out.flush();
+    }
+
+    private String echo(Frame request) {
+        return "{\"request_id\":" + request.json.get("request_id").asLong()
+                + ",\"order_id\":\"" + request.json.get("order_id").asText() + "\"}";
+    }
+
+    private record Frame(int type, JsonNode json) {
+    }
+
+    private interface ConnectionHandler {
+        void handle(Socket socket) throws IOException;
+    }
+}
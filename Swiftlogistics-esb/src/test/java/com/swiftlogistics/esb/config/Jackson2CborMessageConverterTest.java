@@ -0,0 +1,33 @@
+package com.swiftlogistics.esb.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class Jackson2CborMessageConverterTest {
+
+    private final Jackson2CborMessageConverter converter = new Jackson2CborMessageConverter();
+
+    @Test
+    void fromMessage_ShouldDecodeOrderEventMaps() {
+        Map<String, Object> event = new HashMap<>(Map.of("eventType", "ORDER_CREATED", "orderId", "ORD1"));
+
+        Message message = converter.toMessage(event, new MessageProperties());
+
+        assertEquals(event, converter.fromMessage(message));
+    }
+
+    @Test
+    void fromMessage_ShouldRefuseTypesOutsideTrustedPackages() {
+        Message message = converter.toMessage(new HashMap<>(Map.of("orderId", "ORD1")), new MessageProperties());
+        message.getMessageProperties().setHeader("__TypeId__", "com.swiftlogistics.esb.model.DeliveryOrder");
+
+        assertThrows(IllegalArgumentException.class, () -> converter.fromMessage(message));
+    }
+}
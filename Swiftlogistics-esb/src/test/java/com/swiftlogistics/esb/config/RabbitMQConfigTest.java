@@ -0,0 +1,114 @@
+package com.swiftlogistics.esb.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class RabbitMQConfigTest {
+
+    private final RabbitMQConfig config = new RabbitMQConfig();
+    // Each call outside a Spring context names a new anonymous queue, so keep one binding
+    private final Binding statusViewBinding = config.orderStatusViewBinding();
+    private final String statusViewQueue = statusViewBinding.getDestination();
+
+    @Test
+    void orderCreated_ShouldReachEveryServiceQueueFromOnePublish() {
+        assertEquals(Set.of("order.notifications.queue", "order.routing.queue", "order.warehouse.queue",
+                        "order.events.queue", statusViewQueue),
+                route(RabbitMQConfig.ORDER_EVENTS_EXCHANGE, RabbitMQConfig.ORDER_CREATED_KEY));
+        assertEquals(Set.of("order.notifications.queue", "order.routing.queue", "order.warehouse.queue",
+                        "order.events.queue", statusViewQueue),
+                route(RabbitMQConfig.ORDER_EVENTS_EXCHANGE, RabbitMQConfig.ORDER_CANCELLED_KEY));
+    }
+
+    @Test
+    void statusUpdated_ShouldOnlyReachStatusViewQueues() {
+        assertEquals(Set.of(statusViewQueue),
+                route(RabbitMQConfig.ORDER_EVENTS_EXCHANGE, RabbitMQConfig.ORDER_STATUS_UPDATED_KEY));
+    }
+
+    @Test
+    void messageConverter_ShouldDecodeJsonAndCborWhicheverItPublishes() {
+        Map<String, Object> event = Map.of("eventType", "ORDER_CREATED", "orderId", "ORD1", "totalItems", 3);
+        MessageConverter jsonPublisher = config.messageConverter(MessageProperties.CONTENT_TYPE_JSON);
+        MessageConverter cborPublisher = config.messageConverter(Jackson2CborMessageConverter.CONTENT_TYPE_CBOR);
+
+        Message json = jsonPublisher.toMessage(event, new MessageProperties());
+        Message cbor = cborPublisher.toMessage(event, new MessageProperties());
+
+        assertEquals(MessageProperties.CONTENT_TYPE_JSON, json.getMessageProperties().getContentType());
+        assertEquals(Jackson2CborMessageConverter.CONTENT_TYPE_CBOR, cbor.getMessageProperties().getContentType());
+        assertTrue(cbor.getBody().length < json.getBody().length);
+        // Old and new consumers coexist: either converter reads either format
+        assertEquals(event, jsonPublisher.fromMessage(cbor));
+        assertEquals(event, cborPublisher.fromMessage(json));
+    }
+
+    @Test
+    void deadLetter_ShouldMoveEveryMessageOfTheFailedBatchToTheDlq() {
+        RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+        Message first = new Message("{\"orderId\":\"ORD1\"}".getBytes(), new MessageProperties());
+        Message second = new Message("{\"orderId\":\"ORD2\"}".getBytes(), new MessageProperties());
+
+        RabbitMQConfig.deadLetter(rabbitTemplate).recover(List.of(first, second), new IllegalStateException("ROS down"));
+
+        verify(rabbitTemplate).send("", RabbitMQConfig.ORDERS_INCOMING_DLQ, first);
+        verify(rabbitTemplate).send("", RabbitMQConfig.ORDERS_INCOMING_DLQ, second);
+        assertEquals("ROS down", second.getMessageProperties().getHeader("x-exception-message"));
+    }
+
+    // Follows the declared bindings the way the broker does, through exchange-to-exchange bindings
+    private Set<String> route(String exchange, String routingKey) {
+        Set<String> queues = new TreeSet<>();
+        for (Binding binding : bindings()) {
+            if (!binding.getExchange().equals(exchange) || !matches(binding.getRoutingKey(), routingKey)) {
+                continue;
+            }
+            if (binding.isDestinationQueue()) {
+                queues.add(binding.getDestination());
+            } else {
+                queues.addAll(route(binding.getDestination(), routingKey));
+            }
+        }
+        return queues;
+    }
+
+    private List<Binding> bindings() {
+        List<Binding> bindings = new ArrayList<>(List.of(config.notificationBinding(), config.routeBinding(),
+                config.warehouseBinding(), config.orderEventsBinding(), statusViewBinding));
+        for (Declarable declarable : config.orderEventFanOut().getDeclarables()) {
+            bindings.add((Binding) declarable);
+        }
+        return bindings;
+    }
+
+    // Topic patterns as used here: literal words, '*' for one word and a trailing '#'
+    private static boolean matches(String pattern, String routingKey) {
+        String[] patternWords = pattern.split("\\.");
+        String[] keyWords = routingKey.split("\\.");
+        for (int i = 0; i < patternWords.length; i++) {
+            if (patternWords[i].equals("#")) {
+                return true;
+            }
+            if (i >= keyWords.length || !(patternWords[i].equals("*") || patternWords[i].equals(keyWords[i]))) {
+                return false;
+            }
+        }
+        return patternWords.length == keyWords.length;
+    }
+}
@@ -0,0 +1,73 @@
+package com.swiftlogistics.esb.config;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RestTemplateConfigTest {
+
+    private HttpServer server;
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/ping", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            byte[] body = "pong".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void cmsRestTemplate_ShouldReuseConnectionsAndPublishPoolMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("esb.http.cms.max-connections", "4");
+        RestTemplate restTemplate = new RestTemplateConfig(environment, registry).cmsRestTemplate();
+
+        String url = "http://localhost:" + server.getAddress().getPort() + "/ping";
+        for (int i = 0; i < 5; i++) {
+            assertEquals("pong", restTemplate.getForObject(url, String.class));
+        }
+
+        // Sequential calls ride the same kept-alive connection
+        assertEquals(1, clientPorts.size());
+        assertEquals(5, registry.get("esb.http.pool.lease.duration").tag("httpclient", "cms").timer().count());
+        assertEquals(5, registry.get("esb.http.pool.lease.wait").tag("httpclient", "cms").timer().count());
+        assertEquals(4.0, registry.get("httpcomponents.httpclient.pool.total.max").tag("httpclient", "cms").gauge().value());
+    }
+
+    @Test
+    void destroy_ShouldShutDownConnectionPools() {
+        RestTemplateConfig config = new RestTemplateConfig(new MockEnvironment(), new SimpleMeterRegistry());
+        RestTemplate restTemplate = config.rosRestTemplate();
+        String url = "http://localhost:" + server.getAddress().getPort() + "/ping";
+        assertEquals("pong", restTemplate.getForObject(url, String.class));
+
+        config.destroy();
+
+        // A closed pool refuses new leases instead of opening sockets
+        assertThrows(RuntimeException.class, () -> restTemplate.getForObject(url, String.class));
+    }
+}
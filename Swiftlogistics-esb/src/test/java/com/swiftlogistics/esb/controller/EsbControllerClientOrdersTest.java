@@ -0,0 +1,121 @@
+package com.swiftlogistics.esb.controller;
+
+import com.swiftlogistics.esb.service.CmsService;
+import com.swiftlogistics.esb.service.OrderStatusEnricher;
+import com.swiftlogistics.esb.service.RosService;
+import com.swiftlogistics.esb.service.WmsService;
+import com.swiftlogistics.esb.soap.CmsResponseParser.OrdersPage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class EsbControllerClientOrdersTest {
+
+    @Mock
+    private CmsService cmsService;
+
+    @Mock
+    private RosService rosService;
+
+    @Mock
+    private WmsService wmsService;
+
+    private ExecutorService executor;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        EsbController esbController = new EsbController(cmsService, rosService, wmsService);
+        ReflectionTestUtils.setField(esbController, "orderStatusEnricher",
+                new OrderStatusEnricher(rosService, wmsService, executor, 50, 2, 5000, 5000));
+        ReflectionTestUtils.setField(esbController, "clientOrdersPageSize", 2);
+        ReflectionTestUtils.setField(esbController, "clientOrdersMaxPageSize", 10);
+        mockMvc = MockMvcBuilders.standaloneSetup(esbController).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void getOrdersByClient_CmsDown_ShouldAnswerBadGateway() throws Exception {
+        when(cmsService.getOrdersByClientPage(eq("CLIENT001"), isNull(), anyInt()))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+
+        mockMvc.perform(get("/clients/CLIENT001/orders"))
+                .andExpect(status().isBadGateway())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    void streamOrdersByClient_CmsFailsMidway_ShouldEndWithErrorLine() throws Exception {
+        when(cmsService.getOrdersByClientPage(eq("CLIENT001"), isNull(), anyInt()))
+                .thenReturn(new OrdersPage(orders("ORD1", "ORD2"), "CUR-2"));
+        when(cmsService.getOrdersByClientPage(eq("CLIENT001"), eq("CUR-2"), anyInt()))
+                .thenThrow(new ResourceAccessException("Read timed out"));
+        when(rosService.getRouteStatuses(anyList())).thenReturn(Map.of());
+        when(wmsService.getPackageStatuses(anyList())).thenReturn(Map.of());
+
+        MvcResult pending = mockMvc.perform(get("/clients/CLIENT001/orders/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(pending)).andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].contains("\"ORD1\""));
+        assertTrue(lines[2].contains("\"success\":false"));
+        assertTrue(lines[2].contains("\"streamedOrders\":2"));
+    }
+
+    @Test
+    void streamOrdersByClient_CmsDownOnFirstPage_ShouldAnswerBadGateway() throws Exception {
+        when(cmsService.getOrdersByClientPage(eq("CLIENT001"), isNull(), anyInt()))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+
+        mockMvc.perform(get("/clients/CLIENT001/orders/stream"))
+                .andExpect(status().isBadGateway());
+    }
+
+    private static List<Map<String, Object>> orders(String... orderIds) {
+        List<Map<String, Object>> orders = new ArrayList<>();
+        for (String orderId : orderIds) {
+            Map<String, Object> order = new HashMap<>();
+            order.put("orderId", orderId);
+            order.put("status", "confirmed");
+            orders.add(order);
+        }
+        return orders;
+    }
+}
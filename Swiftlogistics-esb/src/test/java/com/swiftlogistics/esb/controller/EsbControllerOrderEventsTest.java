@@ -0,0 +1,126 @@
+package com.swiftlogistics.esb.controller;
+
+import com.swiftlogistics.esb.model.DeliveryOrder;
+import com.swiftlogistics.esb.outbox.OrderEventOutbox;
+import com.swiftlogistics.esb.outbox.OrderEventOutbox.OutboxMessage;
+import com.swiftlogistics.esb.outbox.OrderEvents;
+import com.swiftlogistics.esb.service.CmsService;
+import com.swiftlogistics.esb.service.OrderStatusView;
+import com.swiftlogistics.esb.service.RosService;
+import com.swiftlogistics.esb.service.WmsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The ORDER_CREATED event createOrderFromMap records in the outbox
+@ExtendWith(MockitoExtension.class)
+class EsbControllerOrderEventsTest {
+
+    private static final String ORDER_FIELDS = "\"orderId\":\"ORD-EV-1\",\"clientId\":\"CLIENT001\","
+            + "\"deliveryAddress\":\"123 Main St\",\"recipientName\":\"John\",\"totalWeight\":2.5,\"totalItems\":1";
+
+    @Mock
+    private CmsService cmsService;
+
+    @Mock
+    private RosService rosService;
+
+    @Mock
+    private WmsService wmsService;
+
+    @Mock
+    private OrderEventOutbox orderEventOutbox;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        EsbController esbController = new EsbController(cmsService, rosService, wmsService);
+        ReflectionTestUtils.setField(esbController, "orderEventOutbox", orderEventOutbox);
+        ReflectionTestUtils.setField(esbController, "orderEvents", new OrderEvents(10));
+        ReflectionTestUtils.setField(esbController, "orderStatusView",
+                new OrderStatusView(1000, 60_000, new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(esbController, "meterRegistry", meterRegistry);
+        mockMvc = MockMvcBuilders.standaloneSetup(esbController).build();
+
+        when(cmsService.fetchClientData(anyString())).thenReturn("{\"success\":true}");
+        when(cmsService.createOrder(any(DeliveryOrder.class))).thenReturn("{\"order_id\":\"X\"}");
+        when(rosService.createOptimizedRoute(anyString(), anyString(), anyDouble())).thenReturn("Route optimized: RT1");
+        when(wmsService.registerPackage(any(DeliveryOrder.class))).thenReturn("Package registered: PKG1");
+    }
+
+    @Test
+    void createOrderFromMap_WithPickupCoordinates_ShouldPassThemToOrderCreated() throws Exception {
+        createOrder("{" + ORDER_FIELDS + ",\"pickupLat\":6.9319,\"pickupLng\":79.8478}");
+
+        Map<String, Object> event = recordedEvent();
+        assertEquals(6.9319, event.get("pickupLat"));
+        assertEquals(79.8478, event.get("pickupLng"));
+    }
+
+    @Test
+    void createOrderFromMap_WithoutPickupCoordinates_ShouldLeaveThemOut() throws Exception {
+        createOrder("{" + ORDER_FIELDS + "}");
+
+        Map<String, Object> event = recordedEvent();
+        assertFalse(event.containsKey("pickupLat"));
+        assertFalse(event.containsKey("pickupLng"));
+    }
+
+    @Test
+    void createOrderFromMap_OutboxAppendFails_ShouldReturn500AndCountTheFailure() throws Exception {
+        doThrow(new IOException("disk full")).when(orderEventOutbox).append(anyList());
+
+        mockMvc.perform(post("/orders/map")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{" + ORDER_FIELDS + "}"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.eventRecorded").value(false))
+                .andExpect(jsonPath("$.orderId").value("ORD-EV-1"));
+
+        assertEquals(1.0, meterRegistry.counter("esb.outbox.append.failures", "event", "ORDER_CREATED").count());
+    }
+
+    private void createOrder(String json) throws Exception {
+        mockMvc.perform(post("/orders/map")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> recordedEvent() throws Exception {
+        ArgumentCaptor<List<OutboxMessage>> appended = ArgumentCaptor.forClass(List.class);
+        verify(orderEventOutbox).append(appended.capture());
+        return appended.getValue().get(0).payload();
+    }
+}
@@ -0,0 +1,147 @@
+package com.swiftlogistics.esb.controller;
+
+import com.swiftlogistics.esb.outbox.OrderEventOutbox;
+import com.swiftlogistics.esb.outbox.OrderEvents;
+import com.swiftlogistics.esb.service.CmsService;
+import com.swiftlogistics.esb.service.OrderStatusView;
+import com.swiftlogistics.esb.service.RosService;
+import com.swiftlogistics.esb.service.WmsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class EsbControllerOrderStatusViewTest {
+
+    @Mock
+    private CmsService cmsService;
+
+    @Mock
+    private RosService rosService;
+
+    @Mock
+    private WmsService wmsService;
+
+    @Mock
+    private OrderEventOutbox orderEventOutbox;
+
+    private OrderStatusView orderStatusView;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        EsbController esbController = new EsbController(cmsService, rosService, wmsService);
+        orderStatusView = new OrderStatusView(1000, 60_000, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(esbController, "orderEventOutbox", orderEventOutbox);
+        ReflectionTestUtils.setField(esbController, "orderEvents", new OrderEvents(10));
+        ReflectionTestUtils.setField(esbController, "orderStatusView", orderStatusView);
+        mockMvc = MockMvcBuilders.standaloneSetup(esbController).build();
+    }
+
+    @Test
+    void getOrderStatus_ShouldServeRepeatReadsFromView() throws Exception {
+        stubBackends("confirmed", "planned", "RECEIVED");
+
+        mockMvc.perform(get("/orders/ORD1/status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.source").value("live"))
+                .andExpect(jsonPath("$.routeStatus").value("planned"));
+        mockMvc.perform(get("/orders/ORD1/status"))
+                .andExpect(jsonPath("$.source").value("view"))
+                .andExpect(jsonPath("$.cmsStatus").value("confirmed"))
+                .andExpect(jsonPath("$.asOf").isNumber());
+        mockMvc.perform(get("/orders/ORD1/status").param("consistent", "true"))
+                .andExpect(jsonPath("$.source").value("live"));
+
+        verify(cmsService, times(2)).getOrderStatus("ORD1");
+        verify(rosService, times(2)).getRouteStatus("ORD1");
+        verify(wmsService, times(2)).getPackageStatus("ORD1");
+    }
+
+    @Test
+    void updateOrderStatus_ShouldWriteThroughToView() throws Exception {
+        stubBackends("confirmed", "planned", "RECEIVED");
+        when(rosService.updateRouteStatus("ORD1", "in_progress")).thenReturn("Route status updated");
+
+        mockMvc.perform(get("/orders/ORD1/status"));
+        mockMvc.perform(put("/orders/ORD1/status").param("status", "in_progress").param("system", "ROS"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/orders/ORD1/status"))
+                .andExpect(jsonPath("$.source").value("view"))
+                .andExpect(jsonPath("$.cmsStatus").value("confirmed"))
+                .andExpect(jsonPath("$.routeStatus").value("in_progress"));
+    }
+
+    @Test
+    void getOrderStatus_BackendUnreadable_ShouldShowUnknownAndNotStoreIt() throws Exception {
+        stubBackends("confirmed", null, "RECEIVED");
+
+        mockMvc.perform(get("/orders/ORD1/status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.source").value("live"))
+                .andExpect(jsonPath("$.routeStatus").value("unknown"));
+
+        assertNull(orderStatusView.get("ORD1"));
+    }
+
+    @Test
+    void updateOrderStatus_Unconfirmed_ShouldNotWriteThroughToView() throws Exception {
+        stubBackends("confirmed", "planned", "RECEIVED");
+        when(rosService.updateRouteStatus("ORD1", "in_progress")).thenReturn(null);
+
+        mockMvc.perform(get("/orders/ORD1/status"));
+        mockMvc.perform(put("/orders/ORD1/status").param("status", "in_progress").param("system", "ROS"))
+                .andExpect(status().isBadGateway())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.failedSystems[0]").value("ROS"));
+
+        assertEquals("planned", orderStatusView.get("ORD1").routeStatus());
+        verify(orderEventOutbox, never()).append(any());
+    }
+
+    @Test
+    void orderEvent_ShouldUpdateViewButNotResurrectNewerState() throws Exception {
+        stubBackends("confirmed", "planned", "RECEIVED");
+        mockMvc.perform(get("/orders/ORD1/status"));
+        long readAt = orderStatusView.get("ORD1").asOf();
+
+        orderStatusView.onOrderEvent(Map.of("eventType", "ORDER_STATUS_UPDATED", "orderId", "ORD1",
+                "system", "WMS", "status", "LOADED", "timestamp", readAt - 1));
+        assertEquals("RECEIVED", orderStatusView.get("ORD1").packageStatus());
+
+        orderStatusView.onOrderEvent(Map.of("eventType", "ORDER_CANCELLED", "orderId", "ORD1",
+                "timestamp", readAt + 1));
+
+        mockMvc.perform(get("/orders/ORD1/status"))
+                .andExpect(jsonPath("$.source").value("view"))
+                .andExpect(jsonPath("$.packageStatus").value("CANCELLED"))
+                .andExpect(jsonPath("$.routeStatus").value("cancelled"));
+    }
+
+    private void stubBackends(String cmsStatus, String routeStatus, String packageStatus) {
+        when(cmsService.getOrderStatus("ORD1")).thenReturn(cmsStatus);
+        when(rosService.getRouteStatus("ORD1")).thenReturn(routeStatus);
+        when(wmsService.getPackageStatus("ORD1")).thenReturn(packageStatus);
+    }
+}
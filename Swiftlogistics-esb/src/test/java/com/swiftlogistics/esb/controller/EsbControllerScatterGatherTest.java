@@ -0,0 +1,187 @@
+package com.swiftlogistics.esb.controller;
+
+import com.swiftlogistics.esb.model.DeliveryOrder;
+import com.swiftlogistics.esb.outbox.OrderEventOutbox;
+import com.swiftlogistics.esb.outbox.OrderEvents;
+import com.swiftlogistics.esb.service.CmsService;
+import com.swiftlogistics.esb.service.OrderStatusView;
+import com.swiftlogistics.esb.service.RosService;
+import com.swiftlogistics.esb.service.WmsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Scatter-gather order registration: concurrency of the CMS / ROS / WMS calls, per-backend
+// deadlines and behaviour when the fan-out pool is saturated. Latency numbers belong in a benchmark.
+@ExtendWith(MockitoExtension.class)
+class EsbControllerScatterGatherTest {
+
+    private static final long CMS_LATENCY_MS = 300;
+
+    private static final String ORDER_JSON = "{\"orderId\":\"ORD-SG-1\",\"clientId\":\"CLIENT001\","
+            + "\"deliveryAddress\":\"123 Main St\",\"recipientName\":\"John\",\"totalWeight\":2.5,\"totalItems\":1}";
+
+    @Mock
+    private CmsService cmsService;
+
+    @Mock
+    private RosService rosService;
+
+    @Mock
+    private WmsService wmsService;
+
+    @Mock
+    private OrderEventOutbox orderEventOutbox;
+
+    private ExecutorService executor;
+    private EsbController esbController;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(8);
+        esbController = new EsbController(cmsService, rosService, wmsService);
+        ReflectionTestUtils.setField(esbController, "orderEventOutbox", orderEventOutbox);
+        ReflectionTestUtils.setField(esbController, "orderEvents", new OrderEvents(10));
+        ReflectionTestUtils.setField(esbController, "orderFanOutExecutor", executor);
+        ReflectionTestUtils.setField(esbController, "orderStatusView",
+                new OrderStatusView(1000, 60_000, new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(esbController, "cmsDeadlineMs", 2000L);
+        ReflectionTestUtils.setField(esbController, "rosDeadlineMs", 2000L);
+        ReflectionTestUtils.setField(esbController, "wmsDeadlineMs", 2000L);
+        mockMvc = MockMvcBuilders.standaloneSetup(esbController).build();
+
+        lenient().when(cmsService.fetchClientData(anyString())).thenReturn("{\"success\":true}");
+        lenient().when(cmsService.createOrder(any(DeliveryOrder.class))).thenReturn("{\"order_id\":\"X\"}");
+        lenient().when(rosService.createOptimizedRoute(anyString(), anyString(), anyDouble()))
+                .thenReturn("Route optimized: RT1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void createOrderFromMap_ScatterGather_ShouldCallBackendsConcurrently() throws Exception {
+        // Each backend waits until all three have been called; run one after another they never would
+        CountDownLatch allCalled = new CountDownLatch(3);
+        AtomicInteger overlapping = new AtomicInteger();
+        when(cmsService.fetchClientData(anyString())).thenAnswer(meet(allCalled, overlapping, "{\"success\":true}"));
+        when(rosService.createOptimizedRoute(anyString(), anyString(), anyDouble()))
+                .thenAnswer(meet(allCalled, overlapping, "Route optimized: RT1"));
+        when(wmsService.registerPackage(any(DeliveryOrder.class)))
+                .thenAnswer(meet(allCalled, overlapping, "Package registered: PKG1"));
+        ReflectionTestUtils.setField(esbController, "scatterGatherEnabled", true);
+
+        createOrder()
+                .andExpect(jsonPath("$.registrationResults.CMS").value(true))
+                .andExpect(jsonPath("$.registrationResults.ROS").value(true))
+                .andExpect(jsonPath("$.registrationResults.WMS").value(true));
+
+        assertEquals(3, overlapping.get());
+    }
+
+    @Test
+    void createOrderFromMap_BackendMissesDeadline_ShouldStillSucceedWithTwoOfThree() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(wmsService.registerPackage(any(DeliveryOrder.class))).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(30_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return "Package registered: PKG1";
+        });
+        ReflectionTestUtils.setField(esbController, "scatterGatherEnabled", true);
+        ReflectionTestUtils.setField(esbController, "wmsDeadlineMs", 500L);
+
+        createOrder()
+                .andExpect(jsonPath("$.registrationResults.CMS").value(true))
+                .andExpect(jsonPath("$.registrationResults.ROS").value(true))
+                .andExpect(jsonPath("$.registrationResults.WMS").value(false))
+                .andExpect(jsonPath("$.wmsStatus").value("Package registration failed: no response within 500ms"));
+
+        // The timed-out call is cancelled rather than left holding a pool thread
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void createOrderFromMap_PoolSaturated_ShouldFailFastInsteadOfRunningOnRequestThread() throws Exception {
+        // One worker, no queue: ROS and WMS are rejected while CMS holds the only thread
+        ExecutorService saturated = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                new ThreadPoolExecutor.AbortPolicy());
+        ReflectionTestUtils.setField(esbController, "orderFanOutExecutor", saturated);
+        ReflectionTestUtils.setField(esbController, "scatterGatherEnabled", true);
+        when(cmsService.fetchClientData(anyString())).thenAnswer(slow(CMS_LATENCY_MS, "{\"success\":true}"));
+
+        try {
+            mockMvc.perform(post("/orders/map")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(ORDER_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.success").value(false))
+                    .andExpect(jsonPath("$.registrationResults.ROS").value(false))
+                    .andExpect(jsonPath("$.wmsStatus").value("Not attempted: ESB fan-out pool is saturated"));
+            verifyNoInteractions(rosService, wmsService);
+        } finally {
+            saturated.shutdownNow();
+        }
+    }
+
+    private ResultActions createOrder() throws Exception {
+        return mockMvc.perform(post("/orders/map")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(ORDER_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true));
+    }
+
+    private static Answer<String> meet(CountDownLatch allCalled, AtomicInteger overlapping, String result) {
+        return invocation -> {
+            allCalled.countDown();
+            if (allCalled.await(5, TimeUnit.SECONDS)) {
+                overlapping.incrementAndGet();
+            }
+            return result;
+        };
+    }
+
+    private static Answer<String> slow(long latencyMs, String result) {
+        return invocation -> {
+            Thread.sleep(latencyMs);
+            return result;
+        };
+    }
+}
@@ -0,0 +1,139 @@
+package com.swiftlogistics.esb.outbox;
+
+import com.swiftlogistics.esb.outbox.OrderEventOutbox.Batch;
+import com.swiftlogistics.esb.outbox.OrderEventOutbox.OutboxMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderEventOutboxTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void confirmedMessages_ShouldNotBeReadAgainAfterRestart() throws IOException {
+        OrderEventOutbox outbox = open(Long.MAX_VALUE);
+        outbox.append(List.of(message("ORD1", "order.created"), message("ORD1", "route.creation")));
+        outbox.append(List.of(message("ORD2", "order.created")));
+
+        Batch first = outbox.read(2);
+        assertEquals(List.of("ORD1", "ORD1"), orderIds(first));
+        outbox.confirm(first);
+        outbox.destroy();
+
+        // The unconfirmed message is redelivered after a restart, the confirmed ones are not
+        OrderEventOutbox reopened = open(Long.MAX_VALUE);
+        Batch rest = reopened.read(10);
+        assertEquals(List.of("ORD2"), orderIds(rest));
+        assertEquals("order.created", rest.messages().get(0).routingKey());
+        reopened.confirm(rest);
+        assertTrue(reopened.read(10).isEmpty());
+        assertEquals(0, reopened.pendingBytes());
+        reopened.destroy();
+    }
+
+    @Test
+    void tornTail_ShouldBeDiscardedOnOpen() throws IOException {
+        OrderEventOutbox outbox = open(Long.MAX_VALUE);
+        outbox.append(List.of(message("ORD1", "order.created")));
+        outbox.destroy();
+        Files.writeString(dir.resolve("outbox-0.log"), "{\"exchange\":\"order.events.exch",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        OrderEventOutbox reopened = open(Long.MAX_VALUE);
+        reopened.append(List.of(message("ORD2", "order.created")));
+
+        assertEquals(List.of("ORD1", "ORD2"), orderIds(reopened.read(10)));
+        reopened.destroy();
+    }
+
+    @Test
+    void confirm_ShouldCompactFullyPublishedLog() throws IOException {
+        OrderEventOutbox outbox = open(1);
+        outbox.append(List.of(message("ORD1", "order.created")));
+        outbox.confirm(outbox.read(10));
+
+        assertFalse(Files.exists(dir.resolve("outbox-0.log")));
+        assertEquals(0, Files.size(dir.resolve("outbox-1.log")));
+        outbox.append(List.of(message("ORD2", "order.created")));
+        outbox.destroy();
+
+        OrderEventOutbox reopened = open(1);
+        assertEquals(List.of("ORD2"), orderIds(reopened.read(10)));
+        reopened.destroy();
+    }
+
+    @Test
+    void confirm_WhileAppending_ShouldKeepLogBoundedAndLoseNothing() throws IOException {
+        OrderEventOutbox outbox = open(4096);
+        List<Object> published = new ArrayList<>();
+        outbox.append(List.of(message("ORD0", "order.created")));
+
+        // The publisher always lags one event behind, so the log is never fully confirmed
+        for (int i = 1; i <= 1000; i++) {
+            outbox.append(List.of(message("ORD" + i, "order.created")));
+            Batch batch = outbox.read(1);
+            published.addAll(orderIds(batch));
+            outbox.confirm(batch);
+            assertTrue(Files.size(currentLog()) < 4096 + 1024, "log grew to " + Files.size(currentLog()));
+        }
+        outbox.destroy();
+
+        OrderEventOutbox reopened = open(4096);
+        published.addAll(orderIds(reopened.read(10)));
+        reopened.destroy();
+
+        List<Object> expected = new ArrayList<>();
+        for (int i = 0; i <= 1000; i++) {
+            expected.add("ORD" + i);
+        }
+        assertEquals(expected, published);
+    }
+
+    @Test
+    void open_ShouldDeleteLogLeftByInterruptedCompaction() throws IOException {
+        OrderEventOutbox outbox = open(Long.MAX_VALUE);
+        outbox.append(List.of(message("ORD1", "order.created")));
+        outbox.destroy();
+        // The next generation was being written when the process died; the checkpoint never moved to it
+        Files.writeString(dir.resolve("outbox-1.log"), "{}\n", StandardCharsets.UTF_8);
+
+        OrderEventOutbox reopened = open(Long.MAX_VALUE);
+
+        assertFalse(Files.exists(dir.resolve("outbox-1.log")));
+        assertEquals(List.of("ORD1"), orderIds(reopened.read(10)));
+        reopened.destroy();
+    }
+
+    private Path currentLog() throws IOException {
+        try (var logs = Files.list(dir)) {
+            return logs.filter(file -> file.getFileName().toString().matches("outbox-\\d+\\.log"))
+                    .findFirst().orElseThrow();
+        }
+    }
+
+    private OrderEventOutbox open(long compactThresholdBytes) throws IOException {
+        return new OrderEventOutbox(dir.toString(), false, compactThresholdBytes);
+    }
+
+    private static OutboxMessage message(String orderId, String routingKey) {
+        return new OutboxMessage("order.events.exchange", routingKey, Map.of("orderId", orderId));
+    }
+
+    private static List<Object> orderIds(Batch batch) {
+        return batch.messages().stream().map(message -> message.payload().get("orderId")).toList();
+    }
+}
@@ -0,0 +1,71 @@
+package com.swiftlogistics.esb.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiftlogistics.esb.model.DeliveryOrder;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderEventsTest {
+
+    private final OrderEvents orderEvents = new OrderEvents(3);
+
+    @Test
+    void orderCreated_SmallOrder_ShouldCarryItemsInline() throws Exception {
+        Map<String, Object> event = orderEvents.orderCreated(order(2), "RT1");
+
+        assertEquals(OrderEvents.SCHEMA_VERSION, event.get("schemaVersion"));
+        assertEquals("ORDER_CREATED", event.get("eventType"));
+        assertEquals("John", event.get("recipientName"));
+        assertEquals("RT1", event.get("routeId"));
+        assertEquals("/orders/ORD1/items", event.get("itemsRef"));
+        assertFalse(event.containsKey("pickupLat"));
+        assertEquals(2, ((List<?>) event.get("items")).size());
+        assertFalse(event.containsKey("processingResult"));
+        // Serializes the way OutboxPublisher's converter will
+        assertTrue(new ObjectMapper().writeValueAsString(event).contains("\"itemId\":\"ITEM1\""));
+    }
+
+    @Test
+    void orderCreated_LargeOrder_ShouldOnlyReferenceItems() {
+        Map<String, Object> event = orderEvents.orderCreated(order(50), null);
+
+        assertNull(event.get("items"));
+        assertFalse(event.containsKey("routeId"));
+        assertEquals(50, event.get("totalItems"));
+        assertEquals("/orders/ORD1/items", event.get("itemsRef"));
+    }
+
+    @Test
+    void orderCreated_WithPickupCoordinates_ShouldCarryThem() {
+        DeliveryOrder order = order(1);
+        order.setMetadata(Map.of("pickupLat", 6.9319, "pickupLng", 79.8478));
+
+        Map<String, Object> event = orderEvents.orderCreated(order, null);
+
+        assertEquals(6.9319, event.get("pickupLat"));
+        assertEquals(79.8478, event.get("pickupLng"));
+    }
+
+    private static DeliveryOrder order(int itemCount) {
+        DeliveryOrder order = new DeliveryOrder();
+        order.setOrderId("ORD1");
+        order.setClientId("CLIENT001");
+        order.setRecipientName("John");
+        order.setDeliveryAddress("123 Main St");
+        order.setTotalItems(itemCount);
+        List<DeliveryOrder.OrderItem> items = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            items.add(new DeliveryOrder.OrderItem("ITEM" + (i + 1), "Item " + (i + 1), 1, 0.5));
+        }
+        order.setItems(items);
+        return order;
+    }
+}
@@ -0,0 +1,42 @@
+package com.swiftlogistics.esb.outbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class OutboxPublisherTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void drain_OnlyUndecodableLinesPending_ShouldStillMoveTheCheckpointPastThem() throws IOException {
+        new OrderEventOutbox(dir.toString(), false, Long.MAX_VALUE).destroy();
+        // More bad lines than one batch holds
+        Files.writeString(dir.resolve("outbox-0.log"), "not json\n".repeat(5),
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        OrderEventOutbox reopened = new OrderEventOutbox(dir.toString(), false, Long.MAX_VALUE);
+        RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+        OutboxPublisher publisher = new OutboxPublisher(reopened, rabbitTemplate, new SimpleMeterRegistry(), 2, 1000);
+
+        publisher.drain();
+
+        verify(rabbitTemplate, never()).invoke(any());
+        assertEquals(0, reopened.pendingBytes());
+        reopened.destroy();
+    }
+}
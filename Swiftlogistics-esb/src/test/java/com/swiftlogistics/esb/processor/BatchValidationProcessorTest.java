@@ -0,0 +1,50 @@
+package com.swiftlogistics.esb.processor;
+
+import com.swiftlogistics.esb.model.DeliveryOrder;
+import org.apache.camel.Exchange;
+import org.apache.camel.ExtendedCamelContext;
+import org.apache.camel.impl.engine.DefaultHeadersMapFactory;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BatchValidationProcessorTest {
+
+    @Test
+    void process_ShouldSplitBatchIntoValidAndRejectedOrders() throws Exception {
+        ExtendedCamelContext context = mock(ExtendedCamelContext.class);
+        when(context.adapt(ExtendedCamelContext.class)).thenReturn(context);
+        when(context.getHeadersMapFactory()).thenReturn(new DefaultHeadersMapFactory());
+
+        DeliveryOrder first = order("ORD-1", "123 Main St");
+        DeliveryOrder missingAddress = order("ORD-2", null);
+        DeliveryOrder duplicate = order("ORD-1", "123 Main St");
+        DeliveryOrder second = order("ORD-3", "9 Lake Rd");
+
+        Exchange exchange = new DefaultExchange(context);
+        exchange.getIn().setBody(Arrays.asList(first, missingAddress, duplicate, second, null));
+
+        new BatchValidationProcessor().process(exchange);
+
+        assertEquals(List.of(first, second), exchange.getIn().getBody(List.class));
+        List<?> rejected = exchange.getProperty(BatchValidationProcessor.REJECTED_PROPERTY, List.class);
+        assertEquals(3, rejected.size());
+        assertEquals("Missing required fields", missingAddress.getMetadata().get("validationError"));
+        assertEquals("Duplicate orderId in batch", duplicate.getMetadata().get("validationError"));
+        assertEquals(5, exchange.getIn().getHeader("batch.size"));
+        assertEquals(3, exchange.getIn().getHeader("batch.rejected"));
+    }
+
+    private DeliveryOrder order(String orderId, String deliveryAddress) {
+        DeliveryOrder order = new DeliveryOrder();
+        order.setOrderId(orderId);
+        order.setDeliveryAddress(deliveryAddress);
+        return order;
+    }
+}
@@ -0,0 +1,115 @@
+package com.swiftlogistics.esb.processor;
+
+import com.swiftlogistics.esb.model.DeliveryOrder;
+import com.swiftlogistics.esb.service.CmsService;
+import com.swiftlogistics.esb.service.RosService;
+import com.swiftlogistics.esb.service.WmsService;
+import org.apache.camel.Exchange;
+import org.apache.camel.ExtendedCamelContext;
+import org.apache.camel.impl.engine.DefaultHeadersMapFactory;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkDispatchProcessorTest {
+
+    private final CmsService cmsService = mock(CmsService.class);
+    private final RosService rosService = mock(RosService.class);
+    private final WmsService wmsService = mock(WmsService.class);
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void process_ShouldRecordEachSystemsResultAndFailedBranches() throws Exception {
+        DeliveryOrder registered = order("ORD-1");
+        DeliveryOrder notInCms = order("ORD-2");
+        when(cmsService.createOrders(anyList())).thenReturn(Map.of("ORD-1", "CMS-1"));
+        when(rosService.createOptimizedRoutes(anyList())).thenReturn(Map.of("ORD-1", "RT1", "ORD-2", "RT1"));
+        when(wmsService.registerPackages(anyList())).thenReturn(Map.of("ORD-1", "PKG1", "ORD-2", "PKG2"));
+
+        new BulkDispatchProcessor(cmsService, rosService, wmsService, executor)
+                .process(exchange(List.of(registered, notInCms)));
+
+        assertEquals("CMS-1", registered.getMetadata().get("cmsOrderId"));
+        assertEquals("RT1", registered.getMetadata().get("route"));
+        assertEquals("PKG1", registered.getMetadata().get("wmsPackageId"));
+        assertFalse(registered.getMetadata().containsKey("failedBranches"));
+
+        // CMS did not register ORD-2: no CMS id is made up for it
+        assertFalse(notInCms.getMetadata().containsKey("cmsOrderId"));
+        assertEquals(List.of("CMS"), notInCms.getMetadata().get("failedBranches"));
+    }
+
+    @Test
+    void process_AllSystemsFail_ShouldListEveryBranch() throws Exception {
+        DeliveryOrder order = order("ORD-1");
+        when(cmsService.createOrders(anyList())).thenReturn(Map.of());
+        when(rosService.createOptimizedRoutes(anyList())).thenReturn(Map.of());
+        when(wmsService.registerPackages(anyList())).thenReturn(Map.of());
+
+        new BulkDispatchProcessor(cmsService, rosService, wmsService, executor).process(exchange(List.of(order)));
+
+        assertEquals(List.of("ROS", "WMS", "CMS"), order.getMetadata().get("failedBranches"));
+    }
+
+    @Test
+    void process_SameOrdersAgain_ShouldOnlyRetryTheSystemsThatFailed() throws Exception {
+        when(cmsService.createOrders(anyList()))
+                .thenReturn(Map.of("ORD-1", "CMS-1"))
+                .thenReturn(Map.of("ORD-2", "CMS-2"));
+        when(rosService.createOptimizedRoutes(anyList())).thenReturn(Map.of("ORD-1", "RT1", "ORD-2", "RT1"));
+        when(wmsService.registerPackages(anyList())).thenReturn(Map.of("ORD-1", "PKG1", "ORD-2", "PKG2"));
+        BulkDispatchProcessor processor = new BulkDispatchProcessor(cmsService, rosService, wmsService, executor);
+
+        processor.process(exchange(List.of(order("ORD-1"), order("ORD-2"))));
+        // The batch is redelivered, e.g. because publishing the processed orders failed
+        DeliveryOrder redelivered = order("ORD-2");
+        processor.process(exchange(List.of(order("ORD-1"), redelivered)));
+
+        verify(cmsService).createOrders(argThat(orders -> orderIds(orders).equals(List.of("ORD-1", "ORD-2"))));
+        verify(cmsService).createOrders(argThat(orders -> orderIds(orders).equals(List.of("ORD-2"))));
+        verify(rosService, times(1)).createOptimizedRoutes(anyList());
+        verify(wmsService, times(1)).registerPackages(anyList());
+        assertEquals("CMS-2", redelivered.getMetadata().get("cmsOrderId"));
+        assertEquals("PKG2", redelivered.getMetadata().get("wmsPackageId"));
+        assertFalse(redelivered.getMetadata().containsKey("failedBranches"));
+    }
+
+    private static Exchange exchange(List<DeliveryOrder> orders) {
+        ExtendedCamelContext context = mock(ExtendedCamelContext.class);
+        when(context.adapt(ExtendedCamelContext.class)).thenReturn(context);
+        when(context.getHeadersMapFactory()).thenReturn(new DefaultHeadersMapFactory());
+        Exchange exchange = new DefaultExchange(context);
+        exchange.getIn().setBody(orders);
+        return exchange;
+    }
+
+    private static List<String> orderIds(List<DeliveryOrder> orders) {
+        return orders.stream().map(DeliveryOrder::getOrderId).toList();
+    }
+
+    private static DeliveryOrder order(String orderId) {
+        DeliveryOrder order = new DeliveryOrder();
+        order.setOrderId(orderId);
+        order.setDeliveryAddress("123 Main St");
+        return order;
+    }
+}
@@ -0,0 +1,108 @@
+package com.swiftlogistics.esb.processor;
+
+import com.swiftlogistics.esb.model.DeliveryOrder;
+import org.apache.camel.Exchange;
+import org.apache.camel.ExtendedCamelContext;
+import org.apache.camel.impl.engine.DefaultHeadersMapFactory;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DeliveryOrderAggregationStrategyTest {
+
+    private final ExtendedCamelContext context = mock(ExtendedCamelContext.class);
+    private DeliveryOrderAggregationStrategy strategy;
+    private DeliveryOrder canonical;
+
+    @BeforeEach
+    void setUp() {
+        // A full DefaultCamelContext drags in every component on the classpath; exchanges only need headers
+        when(context.adapt(ExtendedCamelContext.class)).thenReturn(context);
+        when(context.getHeadersMapFactory()).thenReturn(new DefaultHeadersMapFactory());
+        strategy = new DeliveryOrderAggregationStrategy();
+        canonical = new DeliveryOrder();
+        canonical.setOrderId("ORD-1");
+        canonical.setDeliveryAddress("123 Main St");
+    }
+
+    @Test
+    void aggregate_AllBranches_ShouldMergeIntoCanonicalOrder() {
+        // Parallel branches may complete in any order
+        Exchange result = strategy.aggregate(null, branch("CMS", order("ORD-1", "cmsOrderId", "ORD-1")));
+        result = strategy.aggregate(result, branch("WMS", order("X", "packageId", "PKG42")));
+        result = strategy.aggregate(result, branch("ROS", order("ORD-1", "route", "RT7")));
+
+        DeliveryOrder merged = result.getIn().getBody(DeliveryOrder.class);
+        assertSame(canonical, merged);
+        assertEquals("RT7", merged.getMetadata().get("route"));
+        assertEquals("PKG42", merged.getMetadata().get("wmsPackageId"));
+        assertEquals("ORD-1", merged.getMetadata().get("cmsOrderId"));
+        assertEquals("123 Main St", merged.getDeliveryAddress());
+    }
+
+    @Test
+    void aggregate_FailedBranch_ShouldBeRecordedWithoutFailingTheExchange() {
+        Exchange failed = branch("WMS", order("X", "packageId", "PKG42"));
+        failed.setException(new IllegalStateException("WMS down"));
+
+        Exchange result = strategy.aggregate(null, failed);
+        result = strategy.aggregate(result, branch("ROS", order("ORD-1", "route", "RT7")));
+
+        DeliveryOrder merged = result.getIn().getBody(DeliveryOrder.class);
+        assertNull(result.getException());
+        assertEquals(List.of("WMS"), merged.getMetadata().get("failedBranches"));
+        assertNull(merged.getMetadata().get("wmsPackageId"));
+        assertEquals("RT7", merged.getMetadata().get("route"));
+    }
+
+    @Test
+    void aggregate_CmsWithoutOrderId_ShouldFailTheBranchInsteadOfUsingAMadeUpId() {
+        // CmsSoapToCanonicalProcessor gives the branch order a random id when CMS returned none
+        DeliveryOrder noCmsId = new DeliveryOrder();
+        noCmsId.setOrderId("3f2b7c9e-random");
+
+        Exchange result = strategy.aggregate(null, branch("CMS", noCmsId));
+        result = strategy.aggregate(result, branch("ROS", order("ORD-1", "route", "RT7")));
+
+        DeliveryOrder merged = result.getIn().getBody(DeliveryOrder.class);
+        assertNull(merged.getMetadata().get("cmsOrderId"));
+        assertEquals(List.of("CMS"), merged.getMetadata().get("failedBranches"));
+        assertEquals("RT7", merged.getMetadata().get("route"));
+    }
+
+    @Test
+    void timeout_ShouldFlagMergedOrder() {
+        Exchange result = strategy.aggregate(null, branch("ROS", order("ORD-1", "route", "RT7")));
+
+        strategy.timeout(result, 1, 3, 1000);
+
+        assertEquals(true, result.getIn().getBody(DeliveryOrder.class).getMetadata().get("timedOut"));
+    }
+
+    private Exchange branch(String name, DeliveryOrder body) {
+        Exchange exchange = new DefaultExchange(context);
+        exchange.setProperty(DeliveryOrderAggregationStrategy.CANONICAL_ORDER_PROPERTY, canonical);
+        exchange.getIn().setHeader(DeliveryOrderAggregationStrategy.BRANCH_HEADER, name);
+        exchange.getIn().setBody(body);
+        return exchange;
+    }
+
+    private DeliveryOrder order(String orderId, String metaKey, Object metaValue) {
+        DeliveryOrder order = new DeliveryOrder();
+        order.setOrderId(orderId);
+        Map<String, Object> meta = new HashMap<>();
+        meta.put(metaKey, metaValue);
+        order.setMetadata(meta);
+        return order;
+    }
+}
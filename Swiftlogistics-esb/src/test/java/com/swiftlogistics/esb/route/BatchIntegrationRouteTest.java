@@ -0,0 +1,110 @@
+package com.swiftlogistics.esb.route;
+
+import com.swiftlogistics.esb.model.DeliveryOrder;
+import com.swiftlogistics.esb.service.CmsService;
+import com.swiftlogistics.esb.service.RosService;
+import com.swiftlogistics.esb.service.WmsService;
+import org.apache.camel.CamelExecutionException;
+import org.apache.camel.TypeConverter;
+import org.apache.camel.component.mock.MockComponent;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.impl.converter.DefaultTypeConverter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// batch-integration-route driven through OrderBatchListener; RabbitMQ and HTTP endpoints are mocks
+class BatchIntegrationRouteTest {
+
+    private final CmsService cmsService = mock(CmsService.class);
+    private final RosService rosService = mock(RosService.class);
+    private final WmsService wmsService = mock(WmsService.class);
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private DefaultCamelContext context;
+    private OrderBatchListener listener;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        context = new DefaultCamelContext() {
+            // camel-cxf's converter loader needs javax.xml.soap, which the Boot 3 classpath does not have
+            @Override
+            protected TypeConverter createTypeConverter() {
+                return new DefaultTypeConverter(this, getPackageScanClassResolver(), getInjector(), false) {
+                    @Override
+                    protected Collection<String> findTypeConverterLoaderClasses() throws IOException {
+                        return super.findTypeConverterLoaderClasses().stream()
+                                .filter(loader -> !loader.contains(".cxf."))
+                                .toList();
+                    }
+                };
+            }
+        };
+        context.addComponent("rabbitmq", new MockComponent());
+        context.addComponent("http", new MockComponent());
+        EsbRoutes routes = new EsbRoutes(executor, 1000, cmsService, rosService, wmsService);
+        ReflectionTestUtils.setField(routes, "batchEnabled", true);
+        context.addRoutes(routes);
+        context.start();
+        listener = new OrderBatchListener(context.createProducerTemplate());
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.stop();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void onBatch_ShouldDispatchValidOrdersAndFailInvalidOnes() throws Exception {
+        when(cmsService.createOrders(anyList())).thenReturn(Map.of("ORD-1", "CMS-1", "ORD-2", "CMS-2"));
+        when(rosService.createOptimizedRoutes(anyList())).thenReturn(Map.of("ORD-1", "RT1", "ORD-2", "RT1"));
+        when(wmsService.registerPackages(anyList())).thenReturn(Map.of("ORD-1", "PKG1", "ORD-2", "PKG2"));
+        MockEndpoint processed = context.getEndpoint("rabbitmq:esb.orders.processed", MockEndpoint.class);
+        MockEndpoint failed = context.getEndpoint("rabbitmq:esb.orders.failed", MockEndpoint.class);
+        processed.expectedMessageCount(2);
+        failed.expectedMessageCount(1);
+
+        listener.onBatch(List.of(order("ORD-1", "123 Main St"), order("ORD-2", "9 Lake Rd"), order("ORD-3", null)));
+
+        processed.assertIsSatisfied();
+        failed.assertIsSatisfied();
+        DeliveryOrder first = processed.getExchanges().get(0).getIn().getBody(DeliveryOrder.class);
+        assertEquals("RT1", first.getMetadata().get("route"));
+        assertEquals("CMS-" + first.getOrderId().substring(4), first.getMetadata().get("cmsOrderId"));
+    }
+
+    @Test
+    void onBatch_DispatchFails_ShouldThrowSoTheContainerRequeuesTheBatch() {
+        when(rosService.createOptimizedRoutes(anyList())).thenThrow(new IllegalStateException("ROS down"));
+        when(wmsService.registerPackages(anyList())).thenReturn(Map.of());
+
+        // The container acks only when onBatch returns; an exception nacks and requeues every message
+        assertThrows(CamelExecutionException.class,
+                () -> listener.onBatch(List.of(order("ORD-1", "123 Main St"))));
+        assertEquals(0, context.getEndpoint("rabbitmq:esb.orders.processed", MockEndpoint.class).getReceivedCounter());
+    }
+
+    private static Message order(String orderId, String deliveryAddress) {
+        String json = "{\"orderId\":\"" + orderId + "\",\"clientId\":\"CLIENT001\",\"deliveryAddress\":"
+                + (deliveryAddress == null ? "null" : "\"" + deliveryAddress + "\"") + ",\"unknownField\":1}";
+        return new Message(json.getBytes(StandardCharsets.UTF_8), new MessageProperties());
+    }
+}
@@ -0,0 +1,76 @@
+package com.swiftlogistics.esb.service;
+
+import com.swiftlogistics.esb.config.CacheConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.ExpectedCount.twice;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class CmsServiceClientInfoCacheTest {
+
+    private static final String URL = "http://localhost:5001/cms/soap";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MockRestServiceServer server;
+    private CmsService cmsService;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        cmsService = new CmsService(restTemplate, 600_000,
+                new CacheConfig().cmsClientInfoCache(100, 60_000, 10_000, meterRegistry),
+                new RequestCoalescer(meterRegistry));
+    }
+
+    @Test
+    void fetchClientData_RepeatCustomer_ShouldCallCmsOnce() {
+        server.expect(once(), requestTo(URL)).andRespond(withSuccess(
+                "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\" "
+                        + "xmlns:cms=\"http://swiftlogistics.lk/cms\"><soap:Body><cms:GetClientInfoResponse>"
+                        + "<cms:ClientId>CLIENT001</cms:ClientId><cms:Name>TechMart</cms:Name>"
+                        + "</cms:GetClientInfoResponse></soap:Body></soap:Envelope>", MediaType.TEXT_XML));
+
+        String first = cmsService.fetchClientData("CLIENT001");
+        for (int i = 0; i < 499; i++) {
+            assertEquals(first, cmsService.fetchClientData("CLIENT001"));
+        }
+
+        server.verify();
+        assertTrue(first.contains("TechMart"));
+        assertEquals(499.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void fetchClientData_UnknownClient_ShouldBeCachedNegatively() {
+        server.expect(once(), requestTo(URL)).andRespond(withStatus(HttpStatus.NOT_FOUND).body("Client not found"));
+
+        String first = cmsService.fetchClientData("NOPE");
+        String second = cmsService.fetchClientData("NOPE");
+
+        server.verify();
+        assertTrue(first.startsWith("Error"));
+        assertEquals(first, second);
+    }
+
+    @Test
+    void fetchClientData_CmsFailure_ShouldNotBeCached() {
+        server.expect(twice(), requestTo(URL)).andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+
+        assertTrue(cmsService.fetchClientData("CLIENT001").startsWith("Error"));
+        assertTrue(cmsService.fetchClientData("CLIENT001").startsWith("Error"));
+
+        server.verify();
+    }
+}
@@ -0,0 +1,110 @@
+package com.swiftlogistics.esb.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class CmsServiceVariantNegotiationTest {
+
+    private static final String URL = "http://localhost:5001/cms/soap";
+    private static final String FAULT = "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\">"
+            + "<soap:Body><soap:Fault><faultstring>Unknown operation</faultstring></soap:Fault></soap:Body></soap:Envelope>";
+
+    private MockRestServiceServer server;
+    private CmsService cmsService;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        cmsService = new CmsService(restTemplate, 600_000, Caffeine.newBuilder().build(),
+                new RequestCoalescer(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void getOrderStatus_ShouldOnlyProbeUntilAVariantIsKnown() {
+        // Like the CMS stand-in: only the unqualified <OrderId> envelope is understood
+        server.expect(once(), requestTo(URL)).andExpect(content().string(containsString("<cms:OrderId>")))
+                .andRespond(withStatus(HttpStatus.INTERNAL_SERVER_ERROR).body(FAULT));
+        server.expect(once(), requestTo(URL)).andExpect(content().string(containsString("<orderId>")))
+                .andRespond(withStatus(HttpStatus.INTERNAL_SERVER_ERROR).body(FAULT));
+        server.expect(once(), requestTo(URL)).andExpect(content().string(containsString("<OrderId>")))
+                .andRespond(withSuccess(statusResponse("confirmed"), MediaType.TEXT_XML));
+        server.expect(once(), requestTo(URL)).andExpect(content().string(containsString("<OrderId>")))
+                .andRespond(withSuccess(statusResponse("in_transit"), MediaType.TEXT_XML));
+
+        assertEquals("confirmed", cmsService.getOrderStatus("ORD1"));
+        assertEquals("in_transit", cmsService.getOrderStatus("ORD1"));
+
+        server.verify();
+    }
+
+    @Test
+    void getOrderStatus_FaultOnKnownVariant_ShouldReprobe() {
+        server.expect(once(), requestTo(URL)).andRespond(withSuccess(statusResponse("confirmed"), MediaType.TEXT_XML));
+        server.expect(once(), requestTo(URL)).andExpect(content().string(containsString("<cms:OrderId>")))
+                .andRespond(withStatus(HttpStatus.BAD_REQUEST).body(FAULT));
+        server.expect(once(), requestTo(URL)).andExpect(content().string(containsString("<orderId>")))
+                .andRespond(withSuccess(statusResponse("delivered"), MediaType.TEXT_XML));
+
+        assertEquals("confirmed", cmsService.getOrderStatus("ORD1"));
+        assertEquals("delivered", cmsService.getOrderStatus("ORD1"));
+
+        server.verify();
+    }
+
+    @Test
+    void updateOrderStatus_NoOperationSupported_ShouldNotProbeAgain() {
+        for (int i = 0; i < 5; i++) {
+            server.expect(once(), requestTo(URL)).andExpect(method(HttpMethod.POST))
+                    .andRespond(withStatus(HttpStatus.BAD_REQUEST).body(FAULT));
+        }
+
+        String first = cmsService.updateOrderStatus("ORD1", "delivered");
+        String second = cmsService.updateOrderStatus("ORD1", "delivered");
+
+        // Five probes for the first call, none for the second; neither update was confirmed
+        server.verify();
+        assertNull(first);
+        assertNull(second);
+    }
+
+    @Test
+    void getOrderStatus_ServerErrorWithoutFault_ShouldProbeAgainOnRetry() {
+        // The CMS is down for the first call: every variant gets a bare 503
+        for (int i = 0; i < 3; i++) {
+            server.expect(once(), requestTo(URL))
+                    .andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE).body("upstream unavailable"));
+        }
+        server.expect(once(), requestTo(URL)).andExpect(content().string(containsString("<cms:OrderId>")))
+                .andRespond(withSuccess(statusResponse("in_transit"), MediaType.TEXT_XML));
+
+        assertNull(cmsService.getOrderStatus("ORD1"));
+        assertEquals("in_transit", cmsService.getOrderStatus("ORD1"));
+
+        server.verify();
+    }
+
+    private static String statusResponse(String status) {
+        return "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\" "
+                + "xmlns:cms=\"http://swiftlogistics.lk/cms\"><soap:Body><cms:GetOrderStatusResponse>"
+                + "<cms:OrderId>ORD1</cms:OrderId><cms:Status>" + status + "</cms:Status>"
+                + "</cms:GetOrderStatusResponse></soap:Body></soap:Envelope>";
+    }
+}
@@ -0,0 +1,176 @@
+package com.swiftlogistics.esb.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderStatusEnricherTest {
+
+    private static final int PAGE_SIZE = 10;
+    private static final int MAX_IN_FLIGHT = 2;
+
+    @Mock
+    private RosService rosService;
+
+    @Mock
+    private WmsService wmsService;
+
+    private ExecutorService executor;
+    private OrderStatusEnricher enricher;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(8);
+        enricher = new OrderStatusEnricher(rosService, wmsService, executor, PAGE_SIZE, MAX_IN_FLIGHT, 5000, 5000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void enrich_ShouldKeepOrderAndBoundLookupsInFlightPerBackend() {
+        AtomicInteger rosInFlight = new AtomicInteger();
+        AtomicInteger rosPeak = new AtomicInteger();
+        AtomicInteger wmsInFlight = new AtomicInteger();
+        AtomicInteger wmsPeak = new AtomicInteger();
+        when(rosService.getRouteStatuses(anyList())).thenAnswer(slowStatuses(rosInFlight, rosPeak, "in_progress"));
+        when(wmsService.getPackageStatuses(anyList())).thenAnswer(slowStatuses(wmsInFlight, wmsPeak, "PROCESSING"));
+
+        List<Map<String, Object>> orders = orders(8 * PAGE_SIZE);
+        List<Map<String, Object>> enriched = new ArrayList<>();
+        AtomicInteger pages = new AtomicInteger();
+        enricher.enrich(orders, page -> {
+            pages.incrementAndGet();
+            enriched.addAll(page);
+        });
+
+        assertEquals(8, pages.get());
+        assertEquals(orders.size(), enriched.size());
+        for (int i = 0; i < orders.size(); i++) {
+            assertEquals("ORD" + i, enriched.get(i).get("orderId"));
+            assertEquals("IN_TRANSIT", enriched.get(i).get("overallStatus"));
+        }
+        // Pages are looked up concurrently, but never more than MAX_IN_FLIGHT at a time per backend
+        assertEquals(MAX_IN_FLIGHT, rosPeak.get());
+        assertEquals(MAX_IN_FLIGHT, wmsPeak.get());
+    }
+
+    @Test
+    void enrich_NoPermitWithinTimeout_ShouldMarkPageUnknown() throws Exception {
+        OrderStatusEnricher singleSlot = new OrderStatusEnricher(rosService, wmsService, executor, PAGE_SIZE, 1, 5000, 50);
+        CountDownLatch secondPageStarted = new CountDownLatch(1);
+        // The first page's ROS lookup holds the only slot until the second page has given up on ROS
+        when(rosService.getRouteStatuses(anyList())).thenAnswer(invocation -> {
+            secondPageStarted.await(5, TimeUnit.SECONDS);
+            return statuses(invocation.getArgument(0), "in_progress");
+        });
+        when(wmsService.getPackageStatuses(anyList())).thenAnswer(invocation -> {
+            List<String> orderIds = invocation.getArgument(0);
+            if (orderIds.contains("ORD" + PAGE_SIZE)) {
+                secondPageStarted.countDown();
+            }
+            return statuses(orderIds, "PROCESSING");
+        });
+
+        List<Map<String, Object>> enriched = new ArrayList<>();
+        singleSlot.enrich(orders(2 * PAGE_SIZE), enriched::addAll);
+
+        assertEquals("in_progress", enriched.get(0).get("routeStatus"));
+        assertEquals("unknown", enriched.get(PAGE_SIZE).get("routeStatus"));
+        verify(rosService, times(1)).getRouteStatuses(anyList());
+    }
+
+    @Test
+    void enrich_PageTimeout_ShouldCancelLookupAndFreeItsPermit() throws Exception {
+        OrderStatusEnricher singleSlot = new OrderStatusEnricher(rosService, wmsService, executor, PAGE_SIZE, 1, 100, 5000);
+        AtomicInteger rosCalls = new AtomicInteger();
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(rosService.getRouteStatuses(anyList())).thenAnswer(invocation -> {
+            if (rosCalls.getAndIncrement() == 0) {
+                try {
+                    new CountDownLatch(1).await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw e;
+                }
+            }
+            return statuses(invocation.getArgument(0), "in_progress");
+        });
+        when(wmsService.getPackageStatuses(anyList()))
+                .thenAnswer(invocation -> statuses(invocation.getArgument(0), "PROCESSING"));
+
+        List<Map<String, Object>> enriched = new ArrayList<>();
+        singleSlot.enrich(orders(2 * PAGE_SIZE), enriched::addAll);
+
+        // The second page got the slot back once the first gave up, not after the hung call returned
+        assertEquals("unknown", enriched.get(0).get("routeStatus"));
+        assertEquals("in_progress", enriched.get(PAGE_SIZE).get("routeStatus"));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void enrich_FailedLookup_ShouldMarkOrdersUnknown() {
+        when(rosService.getRouteStatuses(anyList())).thenThrow(new IllegalStateException("ROS down"));
+        when(wmsService.getPackageStatuses(anyList())).thenReturn(Map.of("ORD0", "LOADED"));
+
+        List<Map<String, Object>> enriched = new ArrayList<>();
+        enricher.enrich(orders(1), enriched::addAll);
+
+        assertEquals("unknown", enriched.get(0).get("routeStatus"));
+        assertEquals("unknown", enriched.get(0).get("packageStatus"));
+        assertEquals("confirmed", enriched.get(0).get("overallStatus"));
+    }
+
+    private static Answer<Map<String, String>> slowStatuses(AtomicInteger inFlight, AtomicInteger peak, String status) {
+        return invocation -> {
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return statuses(invocation.getArgument(0), status);
+        };
+    }
+
+    private static Map<String, String> statuses(List<String> orderIds, String status) {
+        Map<String, String> statuses = new HashMap<>();
+        orderIds.forEach(orderId -> statuses.put(orderId, status));
+        return statuses;
+    }
+
+    private static List<Map<String, Object>> orders(int count) {
+        List<Map<String, Object>> orders = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> order = new HashMap<>();
+            order.put("orderId", "ORD" + i);
+            order.put("status", "confirmed");
+            orders.add(order);
+        }
+        return orders;
+    }
+}
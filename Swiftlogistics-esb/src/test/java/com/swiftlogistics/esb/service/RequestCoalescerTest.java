@@ -0,0 +1,87 @@
+package com.swiftlogistics.esb.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestCoalescer coalescer = new RequestCoalescer(meterRegistry);
+
+    @Test
+    void execute_ConcurrentIdenticalReads_ShouldShareOneCall() throws Exception {
+        int callers = 8;
+        AtomicInteger backendCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> coalescer.execute("cms.getOrderStatus", "ORD1", () -> {
+                    backendCalls.incrementAndGet();
+                    await(release);
+                    return "in_transit";
+                })));
+            }
+            // Let every caller reach the coalescer before the backend answers
+            while (joined() < callers - 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("in_transit", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, backendCalls.get());
+        assertEquals(callers - 1, joined());
+    }
+
+    @Test
+    void execute_AfterCompletion_ShouldCallAgain() {
+        AtomicInteger backendCalls = new AtomicInteger();
+
+        coalescer.execute("ros.getRouteStatus", "ORD1", backendCalls::incrementAndGet);
+        coalescer.execute("ros.getRouteStatus", "ORD1", backendCalls::incrementAndGet);
+        coalescer.execute("ros.getRouteStatus", "ORD2", backendCalls::incrementAndGet);
+
+        assertEquals(3, backendCalls.get());
+    }
+
+    @Test
+    void execute_Failure_ShouldPropagateAndNotStick() {
+        assertThrows(IllegalStateException.class, () -> coalescer.execute("wms.getPackageStatus", "ORD1", () -> {
+            throw new IllegalStateException("WMS down");
+        }));
+
+        assertEquals("ok", coalescer.execute("wms.getPackageStatus", "ORD1", () -> "ok"));
+    }
+
+    private double joined() {
+        var counter = meterRegistry.find("esb.coalescer.calls").tag("result", "joined").counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
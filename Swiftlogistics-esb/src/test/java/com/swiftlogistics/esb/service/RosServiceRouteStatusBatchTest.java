@@ -0,0 +1,80 @@
+package com.swiftlogistics.esb.service;
+
+import com.swiftlogistics.esb.client.RosEndpointResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.ExpectedCount.times;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class RosServiceRouteStatusBatchTest {
+
+    private static final String BATCH_URL = "http://localhost:5002/api/v1/routes/status/batch";
+
+    private MockRestServiceServer server;
+    private RosService rosService;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        rosService = new RosService(restTemplate, new RosEndpointResolver(600_000),
+                new RequestCoalescer(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void getRouteStatuses_ShouldSendOneRequestPerChunk() {
+        List<String> orderIds = new ArrayList<>();
+        for (int i = 0; i < RosService.STATUS_BATCH_SIZE * 2 + 50; i++) {
+            orderIds.add("ORD" + i);
+        }
+        server.expect(times(3), requestTo(BATCH_URL)).andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess("{\"success\":true,\"statuses\":{\"ORD0\":{\"route_id\":\"RT1\","
+                        + "\"status\":\"in_progress\"}},\"not_found\":[]}", MediaType.APPLICATION_JSON));
+
+        Map<String, String> statuses = rosService.getRouteStatuses(orderIds);
+
+        assertEquals(orderIds.size(), statuses.size());
+        assertEquals("in_progress", statuses.get("ORD0"));
+        assertEquals("route_not_found", statuses.get("ORD1"));
+        server.verify();
+    }
+
+    @Test
+    void getRouteStatuses_WithoutBatchEndpoint_ShouldFallBackPerOrderAndStopProbing() {
+        server.expect(once(), requestTo(BATCH_URL))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND).contentType(MediaType.TEXT_HTML).body("<html/>"));
+        server.expect(times(2), requestTo("http://localhost:5002/api/v1/route-status/ORD1"))
+                .andRespond(withSuccess("{\"status\":\"completed\"}", MediaType.APPLICATION_JSON));
+
+        assertEquals("completed", rosService.getRouteStatuses(List.of("ORD1")).get("ORD1"));
+        assertEquals("completed", rosService.getRouteStatuses(List.of("ORD1")).get("ORD1"));
+
+        server.verify();
+    }
+
+    @Test
+    void getRouteStatuses_BatchServerError_ShouldMarkChunkUnknownWithoutPerOrderCalls() {
+        server.expect(once(), requestTo(BATCH_URL)).andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+
+        Map<String, String> statuses = rosService.getRouteStatuses(List.of("ORD1", "ORD2"));
+
+        assertEquals(Map.of("ORD1", "unknown", "ORD2", "unknown"), statuses);
+        server.verify();
+    }
+}
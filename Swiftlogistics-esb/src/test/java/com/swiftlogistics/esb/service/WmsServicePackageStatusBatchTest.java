@@ -0,0 +1,75 @@
+package com.swiftlogistics.esb.service;
+
+import com.swiftlogistics.esb.client.WmsClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WmsServicePackageStatusBatchTest {
+
+    private static final int PACKAGE_STATUS_REQ = 0x04;
+    private static final int PACKAGE_BATCH_STATUS_REQ = 0x22;
+    private static final int PACKAGE_BATCH_STATUS_RESP = 0x23;
+
+    private WmsClient wmsClient;
+    private WmsService wmsService;
+
+    @BeforeEach
+    void setUp() {
+        wmsClient = mock(WmsClient.class);
+        wmsService = new WmsService(wmsClient, new RequestCoalescer(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void getPackageStatuses_ShouldAnswerFromOneBatchMessage() throws Exception {
+        when(wmsClient.send(eq(PACKAGE_BATCH_STATUS_REQ), anyMap())).thenReturn(response(PACKAGE_BATCH_STATUS_RESP,
+                "{\"statuses\":{\"ORD1\":{\"status\":\"LOADED\"}}}"));
+
+        Map<String, String> statuses = wmsService.getPackageStatuses(List.of("ORD1", "ORD2"));
+
+        assertEquals(Map.of("ORD1", "LOADED", "ORD2", "not_found"), statuses);
+        verify(wmsClient, never()).send(eq(PACKAGE_STATUS_REQ), anyMap());
+    }
+
+    @Test
+    void getPackageStatuses_BatchRejected_ShouldFallBackPerOrder() throws Exception {
+        when(wmsClient.send(eq(PACKAGE_BATCH_STATUS_REQ), anyMap()))
+                .thenReturn(response(WmsClient.ERROR, "{\"error\":\"unknown message type\"}"));
+        when(wmsClient.send(eq(PACKAGE_STATUS_REQ), anyMap()))
+                .thenReturn(response(0x05, "{\"status\":\"READY_FOR_LOADING\"}"));
+
+        Map<String, String> statuses = wmsService.getPackageStatuses(List.of("ORD1", "ORD2"));
+
+        assertEquals(Map.of("ORD1", "READY_FOR_LOADING", "ORD2", "READY_FOR_LOADING"), statuses);
+        verify(wmsClient, times(2)).send(eq(PACKAGE_STATUS_REQ), anyMap());
+    }
+
+    @Test
+    void getPackageStatuses_BatchTimedOut_ShouldMarkChunkUnknownWithoutPerOrderCalls() throws Exception {
+        when(wmsClient.send(eq(PACKAGE_BATCH_STATUS_REQ), anyMap()))
+                .thenThrow(new TimeoutException("No WMS response within 5000ms"));
+
+        Map<String, String> statuses = wmsService.getPackageStatuses(List.of("ORD1", "ORD2"));
+
+        assertEquals(Map.of("ORD1", "unknown", "ORD2", "unknown"), statuses);
+        verify(wmsClient, never()).send(eq(PACKAGE_STATUS_REQ), anyMap());
+    }
+
+    private static WmsClient.Response response(int type, String json) {
+        return new WmsClient.Response(type, json.getBytes(StandardCharsets.UTF_8));
+    }
+}
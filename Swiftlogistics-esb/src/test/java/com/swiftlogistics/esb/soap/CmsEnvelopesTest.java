@@ -0,0 +1,75 @@
+package com.swiftlogistics.esb.soap;
+
+import com.swiftlogistics.esb.model.DeliveryOrder;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CmsEnvelopesTest {
+
+    @Test
+    void createOrder_ShouldEscapeFieldsAndItems() throws IOException {
+        DeliveryOrder order = new DeliveryOrder();
+        order.setOrderId("ORD-1");
+        order.setClientId("CLIENT001");
+        order.setDeliveryAddress("12 <Main> St & Co");
+        order.setRecipientName("O'Brien \"Jr\"");
+        order.setTotalWeight(1.5);
+        order.setTotalItems(3);
+        DeliveryOrder.OrderItem item = new DeliveryOrder.OrderItem();
+        item.setItemId("ITEM1");
+        item.setDescription("Cables & <adapters>");
+        item.setQuantity(3);
+        item.setWeightKg(0.5);
+        order.setItems(List.of(item));
+
+        SoapEnvelopeWriter out = SoapEnvelopeWriter.acquire();
+        CmsEnvelopes.createOrder(out, order);
+
+        // Must be well-formed and read back to the original values
+        CmsResponseParser.SoapValues values = new CmsResponseParser().readValues(
+                new ByteArrayInputStream(out.toByteArray()));
+        assertEquals("12 <Main> St & Co", values.get("DeliveryAddress"));
+        assertEquals("O'Brien \"Jr\"", values.get("RecipientName"));
+        assertEquals("Cables & <adapters>", values.get("Description"));
+        assertEquals("3", values.get("Quantity"));
+        assertEquals("1.5", values.get("TotalWeight"));
+        assertEquals("", values.get("Notes"));
+        assertFalse(out.toString().contains("null"));
+    }
+
+    @Test
+    void getOrdersByClient_FirstPage_ShouldOmitCursor() throws IOException {
+        SoapEnvelopeWriter out = SoapEnvelopeWriter.acquire();
+        CmsEnvelopes.getOrdersByClient(out, "CLIENT001", null, 50);
+        CmsResponseParser.SoapValues first = new CmsResponseParser().readValues(
+                new ByteArrayInputStream(out.toByteArray()));
+
+        out = SoapEnvelopeWriter.acquire();
+        CmsEnvelopes.getOrdersByClient(out, "CLIENT001", "INT-7", 50);
+        CmsResponseParser.SoapValues next = new CmsResponseParser().readValues(
+                new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals("50", first.get("PageSize"));
+        assertNull(first.get("Cursor"));
+        assertEquals("INT-7", next.get("Cursor"));
+    }
+
+    @Test
+    void text_ShouldEncodeUtf8LikeTheJdk() {
+        String value = "Kandy ශ්‍රී café 🚚";
+
+        SoapEnvelopeWriter out = SoapEnvelopeWriter.acquire();
+        out.text(value).number(-42L);
+
+        assertArrayEquals((value + "-42").getBytes(StandardCharsets.UTF_8), out.toByteArray());
+    }
+}
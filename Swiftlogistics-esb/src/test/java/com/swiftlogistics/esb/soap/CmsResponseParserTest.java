@@ -0,0 +1,95 @@
+package com.swiftlogistics.esb.soap;
+
+import com.swiftlogistics.esb.benchmark.CmsResponseParserBenchmark;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CmsResponseParserTest {
+
+    private final CmsResponseParser parser = new CmsResponseParser();
+
+    @Test
+    void parseOrders_ShouldMatchLegacyExtraction() throws IOException {
+        String response = CmsResponseParserBenchmark.ordersResponse(20, 3);
+
+        List<Map<String, Object>> streamed = parser.parseOrders(stream(response));
+
+        assertEquals(CmsResponseParserBenchmark.LegacyExtraction.parseOrders(response), streamed);
+        assertEquals(20, streamed.size());
+        assertEquals("ORD100007", streamed.get(7).get("orderId"));
+        assertEquals(3, ((List<?>) streamed.get(7).get("items")).size());
+    }
+
+    @Test
+    void parseOrders_MissingFields_ShouldUseDefaults() throws IOException {
+        List<Map<String, Object>> orders = parser.parseOrders(stream(envelope(
+                "<cms:Orders><cms:Order><cms:OrderId>ORD1</cms:OrderId>"
+                        + "<cms:BillingAmount>n/a</cms:BillingAmount>"
+                        + "<cms:Items><cms:Item><cms:ItemId>I1</cms:ItemId><cms:Quantity>x</cms:Quantity></cms:Item>"
+                        + "</cms:Items></cms:Order></cms:Orders>")));
+
+        Map<String, Object> order = orders.get(0);
+        assertEquals("", order.get("recipient"));
+        assertEquals(0.0, order.get("billingAmount"));
+        Map<?, ?> item = (Map<?, ?>) ((List<?>) order.get("items")).get(0);
+        assertEquals(1, item.get("quantity"));
+        assertEquals(0.0, item.get("weightKg"));
+    }
+
+    @Test
+    void parseOrdersPage_ShouldReturnNextCursorOnlyWhenMorePagesExist() throws IOException {
+        CmsResponseParser.OrdersPage page = parser.parseOrdersPage(stream(envelope(
+                "<cms:Orders><cms:Order><cms:OrderId>ORD1</cms:OrderId></cms:Order></cms:Orders>"
+                        + "<cms:NextCursor> INT-7 </cms:NextCursor>")));
+        CmsResponseParser.OrdersPage last = parser.parseOrdersPage(stream(envelope(
+                "<cms:Orders></cms:Orders><cms:NextCursor></cms:NextCursor>")));
+
+        assertEquals(1, page.orders().size());
+        assertEquals("INT-7", page.nextCursor());
+        assertTrue(last.orders().isEmpty());
+        assertNull(last.nextCursor());
+    }
+
+    @Test
+    void readValues_ShouldExposeLeavesAndFaults() throws IOException {
+        CmsResponseParser.SoapValues values = parser.readValues(stream(envelope(
+                "<cms:GetOrderStatusResponse><cms:OrderId>ORD1</cms:OrderId>"
+                        + "<cms:Status> in_transit </cms:Status></cms:GetOrderStatusResponse>")));
+
+        assertFalse(values.isFault());
+        assertEquals("in_transit", values.get("Status"));
+        assertEquals("in_transit", values.getIgnoreCase("status"));
+        assertNull(values.get("GetOrderStatusResponse"));
+
+        CmsResponseParser.SoapValues fault = parser.readValues(stream(envelope(
+                "<soap:Fault><faultcode>Client</faultcode><faultstring>Unknown operation</faultstring></soap:Fault>")));
+        assertTrue(fault.isFault());
+    }
+
+    @Test
+    void readValues_ShouldRejectDoctype() {
+        String xxe = "<?xml version=\"1.0\"?><!DOCTYPE x [<!ENTITY e SYSTEM \"file:///etc/passwd\">]><x>&e;</x>";
+
+        assertThrows(IOException.class, () -> parser.readValues(stream(xxe)));
+    }
+
+    private static String envelope(String body) {
+        return "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\" "
+                + "xmlns:cms=\"http://swiftlogistics.lk/cms\"><soap:Body>" + body + "</soap:Body></soap:Envelope>";
+    }
+
+    private static ByteArrayInputStream stream(String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+}
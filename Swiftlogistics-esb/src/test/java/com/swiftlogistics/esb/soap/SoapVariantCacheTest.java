@@ -0,0 +1,34 @@
+package com.swiftlogistics.esb.soap;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SoapVariantCacheTest {
+
+    @Test
+    void lookup_ShouldExpireAfterTtl() {
+        AtomicLong now = new AtomicLong();
+        SoapVariantCache cache = new SoapVariantCache(Duration.ofSeconds(10), now::get);
+
+        cache.remember("http://cms", "GetOrderStatus", 2);
+        now.addAndGet(Duration.ofSeconds(9).toNanos());
+        assertEquals(2, cache.lookup("http://cms", "GetOrderStatus"));
+        assertNull(cache.lookup("http://other", "GetOrderStatus"));
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertNull(cache.lookup("http://cms", "GetOrderStatus"));
+    }
+
+    @Test
+    void probeOrder_ShouldTryRememberedVariantFirst() {
+        assertArrayEquals(new int[] {0, 1, 2}, SoapVariantCache.probeOrder(null, 3));
+        assertArrayEquals(new int[] {2, 0, 1}, SoapVariantCache.probeOrder(2, 3));
+        assertArrayEquals(new int[] {0, 1, 2}, SoapVariantCache.probeOrder(SoapVariantCache.NONE_SUPPORTED, 3));
+    }
+}
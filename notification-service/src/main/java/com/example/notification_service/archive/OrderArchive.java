@@ -0,0 +1,330 @@
+package com.example.notification_service.archive;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Append-only on-disk archive of completed driver orders, evicted from memory by
+ * {@link com.example.notification_service.service.DriverOrderService}. Each order is one JSON line
+ * in a segment file {@code orders-NNNNNN.ndjson}. A new segment starts once the current one passes
+ * {@code segment-bytes}.
+ * <p>
+ * A segment that is full gets a Bloom filter of its order ids, kept in memory and next to the
+ * segment in {@code orders-NNNNNN.bloom} (about 10 bits per order). A lookup scans the current
+ * segment and only those older segments whose filter may hold the id, newest first, and parses
+ * only lines that mention the order id.
+ */
+@Component
+public class OrderArchive implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchive.class);
+    private static final byte NEWLINE = '\n';
+    private static final String SEGMENT_PREFIX = "orders-";
+    private static final String SEGMENT_SUFFIX = ".ndjson";
+    private static final String FILTER_SUFFIX = ".bloom";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Path directory;
+    private final boolean fsync;
+    private final long segmentBytes;
+    private final Map<Integer, SegmentFilter> filters = new ConcurrentHashMap<>();
+    private FileChannel segment;
+    private volatile int segmentNumber;
+
+    public OrderArchive(@Value("${notification.archive.dir:data/order-archive}") String dir,
+                        @Value("${notification.archive.fsync:true}") boolean fsync,
+                        @Value("${notification.archive.segment-bytes:67108864}") long segmentBytes)
+            throws IOException {
+        this.directory = Paths.get(dir);
+        Files.createDirectories(directory);
+        this.fsync = fsync;
+        this.segmentBytes = segmentBytes;
+        List<Path> segments = segments();
+        this.segmentNumber = segments.isEmpty() ? 1 : segmentNumber(segments.get(segments.size() - 1));
+        for (Path sealed : segments) {
+            if (segmentNumber(sealed) != segmentNumber) {
+                loadFilter(segmentNumber(sealed));
+            }
+        }
+        this.segment = open(segmentNumber);
+        truncateTornTail();
+        logger.info("Order archive {} opened with {} segment(s)", directory, Math.max(1, segments.size()));
+    }
+
+    /**
+     * Appends one order; call {@link #flush()} once the batch is written. A failed write is cut off
+     * again, so the next append starts on a line of its own.
+     */
+    public synchronized void append(Map<String, Object> order) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(order);
+        ByteBuffer buffer = ByteBuffer.allocate(json.length + 1).put(json).put(NEWLINE).flip();
+        if (segment.size() > 0 && segment.size() + buffer.remaining() > segmentBytes) {
+            roll();
+        }
+        long start = segment.size();
+        long position = start;
+        try {
+            while (buffer.hasRemaining()) {
+                position += segment.write(buffer, position);
+            }
+        } catch (IOException e) {
+            try {
+                segment.truncate(start);
+            } catch (IOException truncateFailure) {
+                // Reopening the archive drops the partial line instead
+                e.addSuppressed(truncateFailure);
+            }
+            throw e;
+        }
+    }
+
+    public synchronized void flush() throws IOException {
+        if (fsync) {
+            segment.force(false);
+        }
+    }
+
+    /** The most recently archived copy of the order. */
+    public Optional<Map<String, Object>> find(String orderId) throws IOException {
+        String needle = "\"orderId\":" + objectMapper.writeValueAsString(orderId);
+        for (Path candidate : candidateSegments(orderId)) {
+            Map<String, Object> found = null;
+            try (BufferedReader reader = Files.newBufferedReader(candidate, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.contains(needle)) {
+                        continue;
+                    }
+                    try {
+                        Map<String, Object> order = objectMapper.readValue(line, new TypeReference<>() { });
+                        if (orderId.equals(order.get("orderId"))) {
+                            found = order;
+                        }
+                    } catch (IOException e) {
+                        // An append in progress; the order is still in memory until it completes
+                    }
+                }
+            }
+            if (found != null) {
+                return Optional.of(found);
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Newest first: the current segment, and sealed ones whose filter may hold the id (all of them
+    // while a filter is missing)
+    List<Path> candidateSegments(String orderId) throws IOException {
+        List<Path> segments = segments();
+        List<Path> candidates = new ArrayList<>();
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            SegmentFilter filter = filters.get(segmentNumber(segments.get(i)));
+            if (filter == null || filter.mightContain(orderId)) {
+                candidates.add(segments.get(i));
+            }
+        }
+        return candidates;
+    }
+
+    @Override
+    public synchronized void destroy() throws IOException {
+        segment.close();
+    }
+
+    private void roll() throws IOException {
+        segment.force(false);
+        segment.close();
+        loadFilter(segmentNumber);
+        segmentNumber++;
+        segment = open(segmentNumber);
+        logger.info("Order archive rolled to segment {}", segmentNumber);
+    }
+
+    private FileChannel open(int number) throws IOException {
+        return FileChannel.open(segmentPath(number),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private Path segmentPath(int number) {
+        return directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    // Reads the sealed segment's filter, building and saving it first if there is none yet (the
+    // segment was sealed by a crash, or by a version without filters). A filter that cannot be
+    // built leaves the segment to be scanned on every lookup.
+    private void loadFilter(int number) {
+        Path file = directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, number, FILTER_SUFFIX));
+        try {
+            if (Files.exists(file)) {
+                try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+                    filters.put(number, SegmentFilter.readFrom(in));
+                    return;
+                } catch (IOException e) {
+                    logger.warn("Order archive filter {} unreadable, rebuilding it: {}", file, e.getMessage());
+                }
+            }
+            SegmentFilter filter = buildFilter(segmentPath(number));
+            Path tmp = directory.resolve(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(tmp))) {
+                filter.writeTo(out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            filters.put(number, filter);
+        } catch (IOException e) {
+            logger.warn("Could not index order archive segment {}: {}", number, e.getMessage());
+        }
+    }
+
+    private SegmentFilter buildFilter(Path segmentFile) throws IOException {
+        List<String> orderIds = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(segmentFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                try {
+                    String orderId = objectMapper.readTree(line).path("orderId").asText(null);
+                    if (orderId != null) {
+                        orderIds.add(orderId);
+                    }
+                } catch (IOException e) {
+                    // A torn line; find skips it too
+                }
+            }
+        }
+        SegmentFilter filter = new SegmentFilter(orderIds.size());
+        orderIds.forEach(filter::add);
+        return filter;
+    }
+
+    // Oldest first
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    private static int segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    // A crash in the middle of an append leaves a partial last line; later appends must not extend it
+    private void truncateTornTail() throws IOException {
+        long size = segment.size();
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long end = size;
+        while (end > 0) {
+            long start = Math.max(0, end - buffer.capacity());
+            buffer.clear().limit((int) (end - start));
+            segment.read(buffer, start);
+            for (int i = buffer.position() - 1; i >= 0; i--) {
+                if (buffer.get(i) == NEWLINE) {
+                    truncateTo(start + i + 1, size);
+                    return;
+                }
+            }
+            end = start;
+        }
+        truncateTo(0, size);
+    }
+
+    private void truncateTo(long length, long size) throws IOException {
+        if (length < size) {
+            logger.warn("Order archive ends in a partial order; discarding its last {} bytes", size - length);
+            segment.truncate(length);
+            segment.force(true);
+        }
+    }
+
+    // Bloom filter sized for a known number of ids: 10 bits and 7 probes per id, about 1% false positives
+    static final class SegmentFilter {
+
+        private static final int BITS_PER_ID = 10;
+        private static final int PROBES = 7;
+
+        private final BitSet bits;
+        private final int size;
+
+        SegmentFilter(int ids) {
+            this(new BitSet(), Math.max(64, ids * BITS_PER_ID));
+        }
+
+        private SegmentFilter(BitSet bits, int size) {
+            this.bits = bits;
+            this.size = size;
+        }
+
+        void add(String orderId) {
+            long hash = hash(orderId);
+            for (int i = 0; i < PROBES; i++) {
+                bits.set(probe(hash, i));
+            }
+        }
+
+        boolean mightContain(String orderId) {
+            long hash = hash(orderId);
+            for (int i = 0; i < PROBES; i++) {
+                if (!bits.get(probe(hash, i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            byte[] bytes = bits.toByteArray();
+            out.writeInt(size);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        static SegmentFilter readFrom(DataInputStream in) throws IOException {
+            int size = in.readInt();
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return new SegmentFilter(BitSet.valueOf(bytes), size);
+        }
+
+        // Double hashing over the two halves of a 64-bit FNV-1a hash
+        private int probe(long hash, int i) {
+            int combined = (int) hash + i * (int) (hash >>> 32);
+            return Math.floorMod(combined, size);
+        }
+
+        private static long hash(String orderId) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < orderId.length(); i++) {
+                hash ^= orderId.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+    }
+}
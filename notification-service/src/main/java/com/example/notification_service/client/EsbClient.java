@@ -0,0 +1,16 @@
+package com.example.notification_service.client;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+
+import java.util.Map;
+
+@FeignClient(name = "esb-service") // The ESB's spring.application.name
+public interface EsbClient {
+
+    // Items of an order whose ORDER_CREATED event only carried itemsRef
+    @GetMapping("/orders/{orderId}/items")
+    ResponseEntity<Map<String, Object>> getOrderItems(@PathVariable("orderId") String orderId);
+}
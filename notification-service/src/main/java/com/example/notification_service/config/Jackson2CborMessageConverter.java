@@ -0,0 +1,69 @@
+package com.example.notification_service.config;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractMessageConverter;
+import org.springframework.amqp.support.converter.DefaultJackson2JavaTypeMapper;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.io.IOException;
+
+/**
+ * Reads (and writes) {@code application/cbor} messages; the counterpart of the ESB's converter of
+ * the same name, so order events can be published as CBOR once this service is deployed.
+ * <p>
+ * Only types from the trusted packages below are instantiated from a message's __TypeId__ header;
+ * order events are plain maps. Keep in step with the ESB's copy (the services share no library).
+ */
+public class Jackson2CborMessageConverter extends AbstractMessageConverter {
+
+    public static final String CONTENT_TYPE_CBOR = "application/cbor";
+
+    private final ObjectMapper cborMapper;
+    private final DefaultJackson2JavaTypeMapper typeMapper = new DefaultJackson2JavaTypeMapper();
+
+    public Jackson2CborMessageConverter() {
+        this(new CBORMapper());
+    }
+
+    public Jackson2CborMessageConverter(ObjectMapper cborMapper) {
+        this.cborMapper = cborMapper;
+        // Events are maps of JSON values; any other __TypeId__ is refused rather than instantiated
+        this.typeMapper.setTrustedPackages("java.util", "java.lang");
+    }
+
+    @Override
+    protected Message createMessage(Object object, MessageProperties messageProperties) {
+        byte[] body;
+        try {
+            body = cborMapper.writeValueAsBytes(object);
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to convert Message content", e);
+        }
+        messageProperties.setContentType(CONTENT_TYPE_CBOR);
+        messageProperties.setContentLength(body.length);
+        typeMapper.fromJavaType(cborMapper.constructType(object.getClass()), messageProperties);
+        return new Message(body, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) throws MessageConversionException {
+        MessageProperties properties = message.getMessageProperties();
+        String contentType = properties == null ? null : properties.getContentType();
+        if (contentType == null || !contentType.startsWith(CONTENT_TYPE_CBOR)) {
+            // Same as the JSON converter: content it does not understand is returned as is
+            return message.getBody();
+        }
+        JavaType type = properties.getHeaders().containsKey(typeMapper.getClassIdFieldName())
+                ? typeMapper.toJavaType(properties)
+                : cborMapper.constructType(Object.class);
+        try {
+            return cborMapper.readValue(message.getBody(), type);
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to convert Message content", e);
+        }
+    }
+}
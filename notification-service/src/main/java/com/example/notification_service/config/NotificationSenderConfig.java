@@ -0,0 +1,28 @@
+package com.example.notification_service.config;
+
+import com.example.notification_service.notification.NotificationChannel;
+import com.example.notification_service.notification.NotificationSender;
+import com.example.notification_service.notification.SimulatedNotificationSender;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Simulated providers until real email / SMS / push integrations exist; replace a bean to plug one in
+@Configuration
+public class NotificationSenderConfig {
+
+    @Bean
+    public NotificationSender emailSender(@Value("${notification.simulated-latency-ms.email:1000}") long latencyMs) {
+        return new SimulatedNotificationSender(NotificationChannel.EMAIL, latencyMs);
+    }
+
+    @Bean
+    public NotificationSender smsSender(@Value("${notification.simulated-latency-ms.sms:500}") long latencyMs) {
+        return new SimulatedNotificationSender(NotificationChannel.SMS, latencyMs);
+    }
+
+    @Bean
+    public NotificationSender pushSender(@Value("${notification.simulated-latency-ms.push:300}") long latencyMs) {
+        return new SimulatedNotificationSender(NotificationChannel.PUSH, latencyMs);
+    }
+}
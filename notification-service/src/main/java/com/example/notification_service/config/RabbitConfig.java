@@ -1,18 +1,25 @@
 package com.example.notification_service.config;
 
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.QueueBuilder;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class RabbitConfig {
+    // Listeners decode JSON or CBOR by the message's content type; anything else is treated as JSON
     @Bean
-    public Jackson2JsonMessageConverter messageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public ContentTypeDelegatingMessageConverter messageConverter() {
+        Jackson2JsonMessageConverter json = new Jackson2JsonMessageConverter();
+        ContentTypeDelegatingMessageConverter converter = new ContentTypeDelegatingMessageConverter(json);
+        converter.addDelegate(MessageProperties.CONTENT_TYPE_JSON, json);
+        converter.addDelegate(Jackson2CborMessageConverter.CONTENT_TYPE_CBOR, new Jackson2CborMessageConverter());
+        return converter;
     }
 
     @Bean
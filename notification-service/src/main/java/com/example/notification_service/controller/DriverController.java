@@ -10,6 +10,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/driver")
@@ -46,6 +47,31 @@ public class DriverController {
         }
     }
 
+    // Active and recently completed orders from memory, older completed ones from the archive
+    @GetMapping("/orders/{orderId}")
+    public ResponseEntity<Map<String, Object>> getOrder(@PathVariable String orderId) {
+        try {
+            Optional<Map<String, Object>> order = driverOrderService.findOrder(orderId);
+
+            Map<String, Object> response = new HashMap<>();
+            if (order.isEmpty()) {
+                response.put("success", false);
+                response.put("error", "Order not found: " + orderId);
+                return ResponseEntity.status(404).body(response);
+            }
+            response.put("success", true);
+            response.put("order", order.get());
+            response.put("source", "notification-service");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("Error getting order: ", e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(500).body(errorResponse);
+        }
+    }
+
     @PutMapping("/orders/{orderId}/status")
     public ResponseEntity<Map<String, Object>> updateOrderStatus(
             @PathVariable String orderId,
@@ -65,4 +91,29 @@ public class DriverController {
             return ResponseEntity.status(500).body(errorResponse);
         }
     }
-}
\ No newline at end of file
+
+    // Same body as the ROS vehicle location update: {"lat": ..., "lng": ...}
+    @PutMapping("/{driverId}/location")
+    public ResponseEntity<Map<String, Object>> updateDriverLocation(
+            @PathVariable String driverId,
+            @RequestBody Map<String, Object> location) {
+
+        Map<String, Object> response = new HashMap<>();
+        if (!(location.get("lat") instanceof Number lat) || !(location.get("lng") instanceof Number lng)) {
+            response.put("success", false);
+            response.put("error", "Missing coordinates");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        if (!driverOrderService.updateDriverLocation(driverId, lat.doubleValue(), lng.doubleValue())) {
+            response.put("success", false);
+            response.put("error", "Driver not found: " + driverId);
+            return ResponseEntity.status(404).body(response);
+        }
+
+        response.put("success", true);
+        response.put("driverId", driverId);
+        response.put("location", location);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.notification_service.notification;
+
+/**
+ * One message to deliver on one channel.
+ */
+public record Notification(NotificationChannel channel, String orderId, String message) {
+}
@@ -0,0 +1,7 @@
+package com.example.notification_service.notification;
+
+public enum NotificationChannel {
+    EMAIL,
+    SMS,
+    PUSH
+}
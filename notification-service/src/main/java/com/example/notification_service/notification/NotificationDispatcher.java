@@ -0,0 +1,106 @@
+package com.example.notification_service.notification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands notifications to their channel's {@link NotificationSender} on a separate bounded pool per
+ * channel, so RabbitMQ listeners only enqueue and a slow channel does not hold up the others.
+ * When a channel's queue is full the calling listener delivers the notification itself, which slows
+ * consumption from the broker instead of growing memory.
+ * Queued notifications are in memory only and are lost if the service stops abruptly.
+ */
+@Component
+public class NotificationDispatcher implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private final Map<NotificationChannel, NotificationSender> senders = new EnumMap<>(NotificationChannel.class);
+    private final Map<NotificationChannel, ThreadPoolExecutor> workers = new EnumMap<>(NotificationChannel.class);
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public NotificationDispatcher(List<NotificationSender> senders,
+                                  @Value("${notification.dispatch.workers-per-channel:4}") int workersPerChannel,
+                                  @Value("${notification.dispatch.queue-capacity:10000}") int queueCapacity) {
+        for (NotificationSender sender : senders) {
+            if (this.senders.put(sender.channel(), sender) != null) {
+                throw new IllegalStateException("More than one NotificationSender for " + sender.channel());
+            }
+            workers.put(sender.channel(), new ThreadPoolExecutor(workersPerChannel, workersPerChannel,
+                    0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                    threadFactory(sender.channel()), new ThreadPoolExecutor.CallerRunsPolicy()));
+        }
+        logger.info("Notification dispatcher started for {} with {} workers each", this.senders.keySet(),
+                workersPerChannel);
+    }
+
+    public void dispatch(Notification notification) {
+        ThreadPoolExecutor executor = workers.get(notification.channel());
+        if (executor == null) {
+            logger.warn("No sender for {}, dropping notification for order {}", notification.channel(),
+                    notification.orderId());
+            failed.incrementAndGet();
+            return;
+        }
+        executor.execute(() -> deliver(notification));
+    }
+
+    /** Notifications waiting for a worker, all channels. */
+    public int pending() {
+        return workers.values().stream().mapToInt(executor -> executor.getQueue().size()).sum();
+    }
+
+    public long delivered() {
+        return delivered.get();
+    }
+
+    public long failed() {
+        return failed.get();
+    }
+
+    // Lets queued notifications go out before the context closes
+    @Override
+    public void destroy() throws InterruptedException {
+        workers.values().forEach(ThreadPoolExecutor::shutdown);
+        for (ThreadPoolExecutor executor : workers.values()) {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private void deliver(Notification notification) {
+        try {
+            senders.get(notification.channel()).send(notification);
+            delivered.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed.incrementAndGet();
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            logger.error("❌ Failed to send {} notification for order {}: ", notification.channel(),
+                    notification.orderId(), e);
+        }
+    }
+
+    private static ThreadFactory threadFactory(NotificationChannel channel) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "notify-" + channel.name().toLowerCase() + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.notification_service.notification;
+
+/**
+ * Delivers notifications on one channel (an email provider, an SMS gateway, a push service).
+ * Implementations are Spring beans picked up by {@link NotificationDispatcher}, one per channel.
+ * send runs on the channel's worker threads and may block for as long as the provider takes.
+ */
+public interface NotificationSender {
+
+    NotificationChannel channel();
+
+    void send(Notification notification) throws Exception;
+}
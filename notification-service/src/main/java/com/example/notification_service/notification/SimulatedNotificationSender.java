@@ -0,0 +1,31 @@
+package com.example.notification_service.notification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stand-in for a real provider: waits for a fixed latency, then logs the message.
+ */
+public class SimulatedNotificationSender implements NotificationSender {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimulatedNotificationSender.class);
+
+    private final NotificationChannel channel;
+    private final long latencyMs;
+
+    public SimulatedNotificationSender(NotificationChannel channel, long latencyMs) {
+        this.channel = channel;
+        this.latencyMs = latencyMs;
+    }
+
+    @Override
+    public NotificationChannel channel() {
+        return channel;
+    }
+
+    @Override
+    public void send(Notification notification) throws InterruptedException {
+        Thread.sleep(latencyMs);
+        logger.info("✅ {} SENT for order {}: {}", channel, notification.orderId(), notification.message());
+    }
+}
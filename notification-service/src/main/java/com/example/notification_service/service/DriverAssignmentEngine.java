@@ -0,0 +1,87 @@
+package com.example.notification_service.service;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+
+/**
+ * Picks the driver with the fewest active orders, skipping drivers at their capacity; ties go to the
+ * lowest driver id. Drivers are kept in an ordered set keyed by load, so assign and release are
+ * O(log drivers). Both run under one short lock, which keeps load counts exact however many
+ * listener threads assign at once.
+ */
+public class DriverAssignmentEngine {
+
+    private static final Comparator<Load> LEAST_LOADED = Comparator
+            .comparingInt(Load::activeOrders)
+            .thenComparing(Load::driverId);
+
+    private final int maxActiveOrdersPerDriver;
+    private final TreeSet<Load> byLoad = new TreeSet<>(LEAST_LOADED);
+    private final Map<String, Integer> activeOrders = new HashMap<>();
+
+    public DriverAssignmentEngine(Collection<String> driverIds, int maxActiveOrdersPerDriver) {
+        this.maxActiveOrdersPerDriver = maxActiveOrdersPerDriver;
+        for (String driverId : driverIds) {
+            if (activeOrders.putIfAbsent(driverId, 0) == null) {
+                byLoad.add(new Load(0, driverId));
+            }
+        }
+    }
+
+    /** Takes one unit of capacity from the least-loaded driver; empty when every driver is full. */
+    public synchronized Optional<String> assign() {
+        Load least = byLoad.isEmpty() ? null : byLoad.first();
+        if (least == null || least.activeOrders() >= maxActiveOrdersPerDriver) {
+            return Optional.empty();
+        }
+        setLoad(least.driverId(), least.activeOrders() + 1);
+        return Optional.of(least.driverId());
+    }
+
+    /** Takes one unit of this driver's capacity; false when the driver is full or unknown. */
+    public synchronized boolean tryAssign(String driverId) {
+        Integer active = activeOrders.get(driverId);
+        if (active == null || active >= maxActiveOrdersPerDriver) {
+            return false;
+        }
+        setLoad(driverId, active + 1);
+        return true;
+    }
+
+    public synchronized boolean isKnown(String driverId) {
+        return activeOrders.containsKey(driverId);
+    }
+
+    /** An order of this driver was delivered, cancelled or reassigned. */
+    public synchronized void release(String driverId) {
+        Integer active = activeOrders.get(driverId);
+        if (active != null && active > 0) {
+            setLoad(driverId, active - 1);
+        }
+    }
+
+    /** A finished order of this driver became active again; counted even beyond capacity. */
+    public synchronized void reacquire(String driverId) {
+        Integer active = activeOrders.get(driverId);
+        if (active != null) {
+            setLoad(driverId, active + 1);
+        }
+    }
+
+    public synchronized int activeOrders(String driverId) {
+        return activeOrders.getOrDefault(driverId, 0);
+    }
+
+    private void setLoad(String driverId, int active) {
+        byLoad.remove(new Load(activeOrders.get(driverId), driverId));
+        activeOrders.put(driverId, active);
+        byLoad.add(new Load(active, driverId));
+    }
+
+    private record Load(int activeOrders, String driverId) {
+    }
+}
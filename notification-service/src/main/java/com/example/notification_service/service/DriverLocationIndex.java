@@ -0,0 +1,151 @@
+package com.example.notification_service.service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Last known driver positions on a fixed lat/lng grid. A nearest-driver lookup scans rings of
+ * cells outward from the query's cell. A candidate is offered only once no unscanned ring can
+ * hold a closer driver, so a lookup touches the cells near the pickup, not every driver.
+ * Distances are great-circle kilometres. Positions older than the maximum age are treated as
+ * unknown and dropped when a lookup comes across them, so drivers that stopped reporting (went
+ * off shift, lost signal) are not offered from where they were last seen.
+ */
+public class DriverLocationIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    private final double cellDegrees;
+    private final double maxDistanceKm;
+    private final long maxAgeMs;
+    private final LongSupplier clock;
+    private final Map<String, Position> positions = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> driversByCell = new ConcurrentHashMap<>();
+
+    public DriverLocationIndex(double cellDegrees, double maxDistanceKm, long maxAgeMs) {
+        this(cellDegrees, maxDistanceKm, maxAgeMs, System::currentTimeMillis);
+    }
+
+    DriverLocationIndex(double cellDegrees, double maxDistanceKm, long maxAgeMs, LongSupplier clock) {
+        this.cellDegrees = cellDegrees;
+        this.maxDistanceKm = maxDistanceKm;
+        this.maxAgeMs = maxAgeMs;
+        this.clock = clock;
+    }
+
+    public void update(String driverId, double lat, double lng) {
+        Position position = new Position(lat, lng, cellOf(lat, lng), clock.getAsLong());
+        positions.compute(driverId, (id, previous) -> {
+            if (previous != null && previous.cell() != position.cell()) {
+                Set<String> cell = driversByCell.get(previous.cell());
+                if (cell != null) {
+                    cell.remove(id);
+                }
+            }
+            driversByCell.computeIfAbsent(position.cell(), key -> ConcurrentHashMap.newKeySet()).add(id);
+            return position;
+        });
+    }
+
+    /**
+     * Offers located drivers within the maximum distance to {@code claim}, nearest first, and
+     * returns the first one it accepts.
+     */
+    public Optional<String> nearest(double lat, double lng, Predicate<String> claim) {
+        int row = (int) Math.floor(lat / cellDegrees);
+        int col = (int) Math.floor(lng / cellDegrees);
+        // Kilometres per cell along its shorter side: longitude cells narrow towards the poles, so
+        // take the narrowest within reach of the query
+        double farthestLat = Math.min(89.0, Math.abs(lat) + maxDistanceKm / KM_PER_DEGREE + cellDegrees);
+        double cellKm = cellDegrees * KM_PER_DEGREE * Math.cos(Math.toRadians(farthestLat));
+        int maxRing = (int) Math.ceil(maxDistanceKm / cellKm);
+
+        long reportedSince = clock.getAsLong() - maxAgeMs;
+        PriorityQueue<Candidate> pending = new PriorityQueue<>((a, b) -> Double.compare(a.distanceKm(), b.distanceKm()));
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int r = row - ring; r <= row + ring; r++) {
+                boolean edgeRow = r == row - ring || r == row + ring;
+                for (int c = col - ring; c <= col + ring; c += edgeRow ? 1 : 2 * ring) {
+                    collect(cellKey(r, c), lat, lng, reportedSince, pending);
+                    if (ring == 0) {
+                        break;
+                    }
+                }
+            }
+            // Nothing outside the scanned rings is closer than this
+            double unscannedKm = ring * cellKm;
+            while (!pending.isEmpty() && pending.peek().distanceKm() <= unscannedKm) {
+                String driverId = pending.poll().driverId();
+                if (claim.test(driverId)) {
+                    return Optional.of(driverId);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private void collect(long cellKey, double lat, double lng, long reportedSince, PriorityQueue<Candidate> pending) {
+        Set<String> cell = driversByCell.get(cellKey);
+        if (cell == null) {
+            return;
+        }
+        for (String driverId : cell) {
+            Position position = positions.get(driverId);
+            if (position != null && position.reportedAt() < reportedSince) {
+                evict(driverId, position);
+                continue;
+            }
+            // Skips the old cell of a driver that is moving, so each driver is offered once
+            if (position != null && position.cell() == cellKey) {
+                double distanceKm = distanceKm(lat, lng, position.lat(), position.lng());
+                if (distanceKm <= maxDistanceKm) {
+                    pending.add(new Candidate(distanceKm, driverId));
+                }
+            }
+        }
+    }
+
+    // Leaves the driver alone if a newer position came in meanwhile
+    private void evict(String driverId, Position stale) {
+        positions.computeIfPresent(driverId, (id, current) -> {
+            if (current != stale) {
+                return current;
+            }
+            Set<String> cell = driversByCell.get(current.cell());
+            if (cell != null) {
+                cell.remove(id);
+            }
+            return null;
+        });
+    }
+
+    private long cellOf(double lat, double lng) {
+        return cellKey((int) Math.floor(lat / cellDegrees), (int) Math.floor(lng / cellDegrees));
+    }
+
+    private static long cellKey(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+
+    // Haversine, as in the ROS stand-in's calculate_distance
+    static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double deltaLat = Math.toRadians(lat2 - lat1);
+        double deltaLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(deltaLng / 2) * Math.sin(deltaLng / 2);
+        return EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    private record Position(double lat, double lng, long cell, long reportedAt) {
+    }
+
+    private record Candidate(double distanceKm, String driverId) {
+    }
+}
@@ -1,98 +1,217 @@
 package com.example.notification_service.service;
 
+import com.example.notification_service.archive.OrderArchive;
+import com.example.notification_service.client.EsbClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
 
 @Service
 public class DriverOrderService {
 
     private static final Logger logger = LoggerFactory.getLogger(DriverOrderService.class);
 
-    // In-memory storage for orders (in production, use a database)
+    // Orders written to the archive per flush during a sweep
+    private static final int ARCHIVE_BATCH_SIZE = 1000;
+
+    // Newest assignment first, like the driver portal lists them
+    private static final Comparator<ActiveOrder> NEWEST_FIRST = Comparator
+            .comparingLong(ActiveOrder::assignedAt).reversed()
+            .thenComparing(ActiveOrder::orderId);
+
+    // In-memory storage for active orders and recently completed ones; completed orders move to the
+    // archive once their grace period is over, so memory tracks the active set rather than history
     private final Map<String, Map<String, Object>> allOrders = new ConcurrentHashMap<>();
     private final Map<String, String> orderDriverAssignments = new ConcurrentHashMap<>();
 
-    // Available drivers (in production, fetch from database/service)
-    private final List<String> availableDrivers = Arrays.asList("DRIVER001", "DRIVER002", "DRIVER003");
-    private int currentDriverIndex = 0;
+    // Secondary index: each driver's active (not delivered or cancelled) orders, newest assignment first.
+    // Written inside allOrders.compute for the order, so updates to one order are serialized while
+    // different orders are processed in parallel; read without locking.
+    private final Map<String, NavigableSet<ActiveOrder>> activeOrdersByDriver = new ConcurrentHashMap<>();
+
+    // Orders left unassigned because every driver was full, oldest first; offered again whenever a
+    // driver frees up. May hold ids that were assigned or cancelled since, which are skipped.
+    private final Queue<String> unassignedOrders = new ConcurrentLinkedQueue<>();
+
+    // Drivers, their load and last reported positions (in production, fetch from database/service)
+    private final DriverAssignmentEngine assignmentEngine;
+    private final DriverLocationIndex locationIndex;
+
+    // Null keeps completed orders in memory (tests, benchmarks)
+    private final OrderArchive orderArchive;
+    private final long archiveGracePeriodMs;
+
+    // Resolves itemsRef of orders whose event did not carry the items inline; null leaves them unresolved
+    private final EsbClient esbClient;
+
+    public DriverOrderService() {
+        this(Arrays.asList("DRIVER001", "DRIVER002", "DRIVER003"));
+    }
+
+    public DriverOrderService(List<String> availableDrivers) {
+        this(availableDrivers, Integer.MAX_VALUE);
+    }
+
+    public DriverOrderService(List<String> availableDrivers, int maxActiveOrdersPerDriver) {
+        this(availableDrivers, maxActiveOrdersPerDriver, 0.01, 25.0, Long.MAX_VALUE, null, 0, null);
+    }
+
+    @Autowired
+    public DriverOrderService(@Value("${notification.drivers.ids:DRIVER001,DRIVER002,DRIVER003}") List<String> availableDrivers,
+                              @Value("${notification.drivers.max-active-orders:20}") int maxActiveOrdersPerDriver,
+                              @Value("${notification.drivers.location-cell-degrees:0.01}") double locationCellDegrees,
+                              @Value("${notification.drivers.max-pickup-distance-km:25}") double maxPickupDistanceKm,
+                              @Value("${notification.drivers.location-max-age-ms:300000}") long locationMaxAgeMs,
+                              OrderArchive orderArchive,
+                              @Value("${notification.archive.grace-period-ms:3600000}") long archiveGracePeriodMs,
+                              EsbClient esbClient) {
+        this.assignmentEngine = new DriverAssignmentEngine(availableDrivers, maxActiveOrdersPerDriver);
+        this.locationIndex = new DriverLocationIndex(locationCellDegrees, maxPickupDistanceKm, locationMaxAgeMs);
+        this.orderArchive = orderArchive;
+        this.archiveGracePeriodMs = archiveGracePeriodMs;
+        this.esbClient = esbClient;
+    }
 
     public void processNewOrder(Map<String, Object> orderData) {
         try {
             String orderId = (String) orderData.get("orderId");
             logger.info("Processing new order for driver assignment: {}", orderId);
 
-            // Auto-assign driver (round-robin)
-            String assignedDriver = assignDriverToOrder(orderId);
+            // Drivers need the item list; large orders only reference it, so fetch it before storing the order
+            List<Map<String, Object>> items = orderData.get("items") == null ? resolveItems(orderId, orderData) : null;
+
+            Map<String, Object> driverOrder = allOrders.compute(orderId, (id, previous) -> {
+                // An order processed again gives up its earlier assignment first
+                if (previous != null) {
+                    unindex(previous);
+                    if (holdsDriver(previous)) {
+                        assignmentEngine.release((String) previous.get("assignedDriver"));
+                    }
+                }
 
-            // Enhance order data for driver
-            Map<String, Object> driverOrder = new HashMap<>(orderData);
-            driverOrder.put("assignedDriver", assignedDriver);
-            driverOrder.put("driverStatus", "assigned");
-            driverOrder.put("assignedAt", System.currentTimeMillis());
+                // Auto-assign the nearest driver with capacity left, else the least-loaded one
+                String assignedDriver = assignDriverToOrder(id, orderData);
 
-            // Store the order
-            allOrders.put(orderId, driverOrder);
+                // Enhance order data for driver
+                Map<String, Object> order = new HashMap<>(orderData);
+                if (items != null) {
+                    order.put("items", items);
+                }
+                order.put("assignedDriver", assignedDriver);
+                order.put("driverStatus", assignedDriver != null ? "assigned" : "unassigned");
+                order.put("assignedAt", System.currentTimeMillis());
+                index(order);
+                return order;
+            });
 
-            logger.info("Order {} assigned to driver: {}", orderId, assignedDriver);
+            if (driverOrder.get("assignedDriver") != null) {
+                logger.info("Order {} assigned to driver: {}", orderId, driverOrder.get("assignedDriver"));
+            } else {
+                logger.warn("No driver has capacity for order {}; queued until one frees up", orderId);
+                unassignedOrders.add(orderId);
+            }
+            // Re-processing may have freed the order's earlier driver
+            offerUnassignedOrders();
 
         } catch (Exception e) {
             logger.error("Error processing new order: ", e);
         }
     }
 
+    // The same ORDER_CREATED event arrives on more than one queue; the second copy reuses the fetched items
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> resolveItems(String orderId, Map<String, Object> orderData) {
+        if (orderData.get("itemsRef") == null) {
+            return null;
+        }
+        Map<String, Object> known = allOrders.get(orderId);
+        if (known != null && known.get("items") instanceof List<?> knownItems) {
+            return (List<Map<String, Object>>) knownItems;
+        }
+        if (esbClient == null) {
+            return null;
+        }
+        try {
+            ResponseEntity<Map<String, Object>> response = esbClient.getOrderItems(orderId);
+            Map<String, Object> body = response.getBody();
+            if (body != null && body.get("items") instanceof List<?> fetched) {
+                return (List<Map<String, Object>>) fetched;
+            }
+            logger.warn("ESB returned no items for order {}", orderId);
+        } catch (Exception e) {
+            logger.warn("Could not fetch items of order {} from the ESB: {}", orderId, e.getMessage());
+        }
+        return null;
+    }
+
     public void updateOrderFromQueue(Map<String, Object> orderUpdate) {
         try {
             String orderId = (String) orderUpdate.get("orderId");
             String newStatus = (String) orderUpdate.get("status");
 
-            if (allOrders.containsKey(orderId)) {
-                Map<String, Object> order = allOrders.get(orderId);
+            Map<String, Object> updated = allOrders.computeIfPresent(orderId, (id, order) -> {
                 order.put("status", newStatus);
                 order.put("lastUpdated", System.currentTimeMillis());
 
                 // Map backend status to driver-friendly status
-                String driverStatus = mapToDriverStatus(newStatus);
-                order.put("driverStatus", driverStatus);
+                changeDriverStatus(order, mapToDriverStatus(newStatus));
+                return order;
+            });
 
-                logger.info("Updated order {} status to: {} (driver status: {})", orderId, newStatus, driverStatus);
+            if (updated != null) {
+                logger.info("Updated order {} status to: {} (driver status: {})", orderId, newStatus, updated.get("driverStatus"));
+                offerUnassignedOrders();
             }
         } catch (Exception e) {
             logger.error("Error updating order from queue: ", e);
         }
     }
 
+    // O(k) in the driver's active orders, served from the index instead of scanning every order
     public List<Map<String, Object>> getOrdersForDriver(String driverId) {
-        return allOrders.values().stream()
-                .filter(order -> driverId.equals(order.get("assignedDriver")))
-                .filter(order -> !isOrderCompleted((String) order.get("driverStatus")))
-                .sorted((a, b) -> Long.compare(
-                        (Long) b.getOrDefault("assignedAt", 0L),
-                        (Long) a.getOrDefault("assignedAt", 0L)))
-                .collect(Collectors.toList());
+        NavigableSet<ActiveOrder> active = activeOrdersByDriver.get(driverId);
+        if (active == null) {
+            return new ArrayList<>();
+        }
+        List<Map<String, Object>> orders = new ArrayList<>(active.size());
+        for (ActiveOrder entry : active) {
+            Map<String, Object> order = allOrders.get(entry.orderId());
+            if (order != null) {
+                orders.add(order);
+            }
+        }
+        return orders;
     }
 
     public Map<String, Object> updateOrderStatus(String orderId, String newStatus, String driverId) {
         Map<String, Object> response = new HashMap<>();
 
         try {
-            Map<String, Object> order = allOrders.get(orderId);
-            if (order == null) {
-                throw new RuntimeException("Order not found: " + orderId);
-            }
+            allOrders.compute(orderId, (id, order) -> {
+                if (order == null) {
+                    throw new RuntimeException("Order not found: " + orderId);
+                }
 
-            if (!driverId.equals(order.get("assignedDriver"))) {
-                throw new RuntimeException("Order not assigned to this driver");
-            }
+                if (!driverId.equals(order.get("assignedDriver"))) {
+                    throw new RuntimeException("Order not assigned to this driver");
+                }
 
-            // Update order status
-            order.put("driverStatus", newStatus);
-            order.put("lastUpdated", System.currentTimeMillis());
-            order.put("lastUpdatedBy", driverId);
+                // Update order status
+                changeDriverStatus(order, newStatus);
+                order.put("lastUpdated", System.currentTimeMillis());
+                order.put("lastUpdatedBy", driverId);
+                return order;
+            });
 
             response.put("success", true);
             response.put("orderId", orderId);
@@ -101,6 +220,7 @@ public class DriverOrderService {
             response.put("message", "Order status updated successfully");
 
             logger.info("Driver {} updated order {} to status: {}", driverId, orderId, newStatus);
+            offerUnassignedOrders();
 
         } catch (Exception e) {
             response.put("success", false);
@@ -111,14 +231,81 @@ public class DriverOrderService {
         return response;
     }
 
-    private String assignDriverToOrder(String orderId) {
-        String driver = availableDrivers.get(currentDriverIndex);
-        currentDriverIndex = (currentDriverIndex + 1) % availableDrivers.size();
+    // Drivers report where they are; unknown drivers are ignored
+    public boolean updateDriverLocation(String driverId, double lat, double lng) {
+        if (!assignmentEngine.isKnown(driverId)) {
+            return false;
+        }
+        locationIndex.update(driverId, lat, lng);
+        return true;
+    }
 
-        orderDriverAssignments.put(orderId, driver);
+    // Null when every driver is at capacity. Orders without pickup coordinates, or with no located
+    // driver within reach, go to the least-loaded driver.
+    private String assignDriverToOrder(String orderId, Map<String, Object> orderData) {
+        String driver = null;
+        if (orderData.get("pickupLat") instanceof Number lat && orderData.get("pickupLng") instanceof Number lng) {
+            driver = locationIndex.nearest(lat.doubleValue(), lng.doubleValue(), assignmentEngine::tryAssign).orElse(null);
+        }
+        if (driver == null) {
+            driver = assignmentEngine.assign().orElse(null);
+        }
+        if (driver != null) {
+            orderDriverAssignments.put(orderId, driver);
+        }
         return driver;
     }
 
+    // Assigns queued orders, oldest first, until every driver is full again. Runs after the compute that
+    // released a driver, never inside one, since it computes other orders of the same map.
+    private void offerUnassignedOrders() {
+        String orderId;
+        while ((orderId = unassignedOrders.peek()) != null) {
+            boolean[] driversFull = {false};
+            allOrders.computeIfPresent(orderId, (id, order) -> {
+                if (order.get("assignedDriver") != null || isOrderCompleted((String) order.get("driverStatus"))) {
+                    return order;
+                }
+                String driver = assignDriverToOrder(id, order);
+                if (driver == null) {
+                    driversFull[0] = true;
+                    return order;
+                }
+                order.put("assignedDriver", driver);
+                if ("unassigned".equals(order.get("driverStatus"))) {
+                    order.put("driverStatus", "assigned");
+                }
+                order.put("assignedAt", System.currentTimeMillis());
+                index(order);
+                logger.info("Queued order {} assigned to driver: {}", id, driver);
+                return order;
+            });
+            if (driversFull[0]) {
+                return;
+            }
+            unassignedOrders.remove(orderId);
+        }
+    }
+
+    // Moves the order between the index and the driver's load as it leaves or re-enters an active status
+    private void changeDriverStatus(Map<String, Object> order, String driverStatus) {
+        boolean wasActive = holdsDriver(order);
+        unindex(order);
+        order.put("driverStatus", driverStatus);
+        index(order);
+        if (isOrderCompleted(driverStatus)) {
+            order.putIfAbsent("completedAt", System.currentTimeMillis());
+        } else {
+            order.remove("completedAt");
+        }
+        boolean active = holdsDriver(order);
+        if (wasActive && !active) {
+            assignmentEngine.release((String) order.get("assignedDriver"));
+        } else if (!wasActive && active) {
+            assignmentEngine.reacquire((String) order.get("assignedDriver"));
+        }
+    }
+
     private String mapToDriverStatus(String backendStatus) {
         if (backendStatus == null)
             return "assigned";
@@ -142,10 +329,125 @@ public class DriverOrderService {
         }
     }
 
+    private void index(Map<String, Object> order) {
+        if (!holdsDriver(order)) {
+            return;
+        }
+        activeOrdersByDriver
+                .computeIfAbsent((String) order.get("assignedDriver"), driver -> new ConcurrentSkipListSet<>(NEWEST_FIRST))
+                .add(ActiveOrder.of(order));
+    }
+
+    private void unindex(Map<String, Object> order) {
+        if (order == null) {
+            return;
+        }
+        NavigableSet<ActiveOrder> active = order.get("assignedDriver") == null
+                ? null : activeOrdersByDriver.get((String) order.get("assignedDriver"));
+        if (active != null) {
+            active.remove(ActiveOrder.of(order));
+        }
+    }
+
+    private record ActiveOrder(long assignedAt, String orderId) {
+
+        static ActiveOrder of(Map<String, Object> order) {
+            return new ActiveOrder((Long) order.getOrDefault("assignedAt", 0L), (String) order.get("orderId"));
+        }
+    }
+
+    // Assigned and not yet delivered or cancelled
+    private boolean holdsDriver(Map<String, Object> order) {
+        return order.get("assignedDriver") != null && !isOrderCompleted((String) order.get("driverStatus"));
+    }
+
     private boolean isOrderCompleted(String driverStatus) {
         return "delivered".equals(driverStatus) || "cancelled".equals(driverStatus);
     }
 
+    // An order in memory, else its archived copy (marked "archived")
+    public Optional<Map<String, Object>> findOrder(String orderId) throws IOException {
+        Map<String, Object> order = allOrders.get(orderId);
+        if (order != null) {
+            return Optional.of(order);
+        }
+        if (orderArchive == null) {
+            return Optional.empty();
+        }
+        return orderArchive.find(orderId).map(archived -> {
+            archived.put("archived", true);
+            return archived;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${notification.archive.sweep-interval-ms:60000}")
+    public void archiveCompletedOrders() {
+        archiveCompletedOrders(System.currentTimeMillis());
+    }
+
+    // Moves orders delivered or cancelled more than the grace period before now to the archive
+    public int archiveCompletedOrders(long now) {
+        if (orderArchive == null) {
+            return 0;
+        }
+        int archived = 0;
+        try {
+            List<Map<String, Object>> batch = new ArrayList<>();
+            for (String orderId : allOrders.keySet()) {
+                // Copied inside compute, so the archived copy is consistent
+                allOrders.computeIfPresent(orderId, (id, order) -> {
+                    if (isArchivable(order, now)) {
+                        batch.add(new HashMap<>(order));
+                    }
+                    return order;
+                });
+                if (batch.size() >= ARCHIVE_BATCH_SIZE) {
+                    archived += archive(batch, now);
+                    batch.clear();
+                }
+            }
+            archived += archive(batch, now);
+        } catch (IOException e) {
+            // Orders not yet archived stay in memory and are retried on the next sweep
+            logger.error("Error archiving completed orders: ", e);
+        }
+        if (archived > 0) {
+            logger.info("Archived {} completed orders; {} orders in memory", archived, allOrders.size());
+        }
+        return archived;
+    }
+
+    // Orders leave memory only once the batch is durable, and only if unchanged since they were copied;
+    // one updated meanwhile stays, and its newer copy is archived by a later sweep
+    private int archive(List<Map<String, Object>> batch, long now) throws IOException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        for (Map<String, Object> order : batch) {
+            orderArchive.append(order);
+        }
+        orderArchive.flush();
+
+        int removed = 0;
+        for (Map<String, Object> copy : batch) {
+            String orderId = (String) copy.get("orderId");
+            boolean[] unchanged = {false};
+            allOrders.computeIfPresent(orderId, (id, order) -> {
+                unchanged[0] = order.equals(copy) && isArchivable(order, now);
+                return unchanged[0] ? null : order;
+            });
+            if (unchanged[0]) {
+                orderDriverAssignments.remove(orderId);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private boolean isArchivable(Map<String, Object> order, long now) {
+        return order.get("completedAt") instanceof Long completedAt && now - completedAt >= archiveGracePeriodMs;
+    }
+
     // Get all orders for debugging
     public Map<String, Map<String, Object>> getAllOrders() {
         return new HashMap<>(allOrders);
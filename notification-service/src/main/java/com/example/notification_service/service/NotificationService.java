@@ -1,5 +1,8 @@
 package com.example.notification_service.service;
 
+import com.example.notification_service.notification.Notification;
+import com.example.notification_service.notification.NotificationChannel;
+import com.example.notification_service.notification.NotificationDispatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
@@ -16,6 +19,9 @@ public class NotificationService {
     @Autowired
     private DriverOrderService driverOrderService;
 
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
     @RabbitListener(queues = "order.notifications.queue")
     public void handleOrderCreated(Map<String, Object> orderEvent) {
         logger.info("🔔 Received order notification event: {}", orderEvent);
@@ -70,66 +76,55 @@ public class NotificationService {
         }
     }
 
+    // The send* methods only enqueue; NotificationDispatcher delivers on per-channel workers,
+    // so a listener acks as soon as its notifications are queued.
     private void sendOrderConfirmationNotification(String orderId, String clientId, String deliveryAddress,
             Map<String, Object> orderDetails) {
-        logger.info("📧 Sending order confirmation notification for order {} to client {}", orderId, clientId);
-
-        try {
-            Thread.sleep(2000); // Simulate notification processing time
-
-            logger.info("✅ EMAIL SENT: Order {} confirmed for client {}", orderId, clientId);
-            logger.info("📱 SMS SENT: Your package will be delivered to {}", deliveryAddress);
-            logger.info("🔔 PUSH NOTIFICATION: Order {} is being processed", orderId);
-
-        } catch (InterruptedException e) {
-            logger.error("❌ Failed to send notification for order: {}", orderId, e);
-        }
+        logger.info("📧 Queueing order confirmation notification for order {} to client {}", orderId, clientId);
+
+        notificationDispatcher.dispatch(new Notification(NotificationChannel.EMAIL, orderId,
+                String.format("Order %s confirmed for client %s", orderId, clientId)));
+        notificationDispatcher.dispatch(new Notification(NotificationChannel.SMS, orderId,
+                String.format("Your package will be delivered to %s", deliveryAddress)));
+        notificationDispatcher.dispatch(new Notification(NotificationChannel.PUSH, orderId,
+                String.format("Order %s is being processed", orderId)));
     }
 
     private void sendOrderStatusUpdateNotification(String orderId, String newStatus, String system,
             Map<String, Object> statusDetails) {
-        logger.info("📨 Sending status update notification for order {} - new status: {}", orderId, newStatus);
-
-        try {
-            Thread.sleep(1000); // Simulate notification processing
-
-            logger.info("✅ STATUS UPDATE EMAIL: Order {} status changed to {} in {}", orderId, newStatus, system);
-            logger.info("📱 STATUS UPDATE SMS: Your order {} is now {}", orderId, newStatus);
-            logger.info("🔔 STATUS UPDATE PUSH: Order {} - {}", orderId, newStatus);
-
-        } catch (InterruptedException e) {
-            logger.error("❌ Failed to send status update notification for order: {}", orderId, e);
-        }
+        logger.info("📨 Queueing status update notification for order {} - new status: {}", orderId, newStatus);
+
+        notificationDispatcher.dispatch(new Notification(NotificationChannel.EMAIL, orderId,
+                String.format("Order %s status changed to %s in %s", orderId, newStatus, system)));
+        notificationDispatcher.dispatch(new Notification(NotificationChannel.SMS, orderId,
+                String.format("Your order %s is now %s", orderId, newStatus)));
+        notificationDispatcher.dispatch(new Notification(NotificationChannel.PUSH, orderId,
+                String.format("Order %s - %s", orderId, newStatus)));
     }
 
     private void sendOrderCancellationNotification(String orderId, Map<String, Object> cancellationDetails) {
-        logger.info("📧 Sending order cancellation notification for order {}", orderId);
-
-        try {
-            Thread.sleep(1500); // Simulate notification processing time
-
-            Object cancellationResultObj = cancellationDetails.get("cancellationResult");
-            Map<String, Object> cancellationResult = null;
-            if (cancellationResultObj instanceof Map<?, ?>) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> temp = (Map<String, Object>) cancellationResultObj;
-                cancellationResult = temp;
-            }
-
-            logger.info("✅ CANCELLATION EMAIL SENT: Order {} has been cancelled successfully", orderId);
-            logger.info(
-                    "📱 CANCELLATION SMS SENT: Your order {} has been cancelled. Refund will be processed within 3-5 business days",
-                    orderId);
-            logger.info("🔔 CANCELLATION PUSH NOTIFICATION: Order {} cancellation confirmed", orderId);
-
-            if (cancellationResult != null) {
-                logger.info("📋 CMS Cancellation: {}", cancellationResult.get("cmsResult"));
-                logger.info("🛣️ ROS Cancellation: {}", cancellationResult.get("rosResult"));
-                logger.info("📦 WMS Cancellation: {}", cancellationResult.get("wmsResult"));
-            }
-
-        } catch (InterruptedException e) {
-            logger.error("❌ Failed to send cancellation notification for order: {}", orderId, e);
+        logger.info("📧 Queueing order cancellation notification for order {}", orderId);
+
+        Object cancellationResultObj = cancellationDetails.get("cancellationResult");
+        Map<String, Object> cancellationResult = null;
+        if (cancellationResultObj instanceof Map<?, ?>) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> temp = (Map<String, Object>) cancellationResultObj;
+            cancellationResult = temp;
+        }
+
+        notificationDispatcher.dispatch(new Notification(NotificationChannel.EMAIL, orderId,
+                String.format("Order %s has been cancelled successfully", orderId)));
+        notificationDispatcher.dispatch(new Notification(NotificationChannel.SMS, orderId,
+                String.format("Your order %s has been cancelled. Refund will be processed within 3-5 business days",
+                        orderId)));
+        notificationDispatcher.dispatch(new Notification(NotificationChannel.PUSH, orderId,
+                String.format("Order %s cancellation confirmed", orderId)));
+
+        if (cancellationResult != null) {
+            logger.info("📋 CMS Cancellation: {}", cancellationResult.get("cmsResult"));
+            logger.info("🛣️ ROS Cancellation: {}", cancellationResult.get("rosResult"));
+            logger.info("📦 WMS Cancellation: {}", cancellationResult.get("wmsResult"));
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,129 @@
+package com.example.notification_service.archive;
+
+import com.example.notification_service.service.DriverOrderService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderArchiveTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void completedOrders_ShouldLeaveMemoryAfterGracePeriodAndStayQueryable() throws Exception {
+        OrderArchive archive = new OrderArchive(dir.toString(), false, 4096);
+        DriverOrderService service = new DriverOrderService(List.of("DRIVER001", "DRIVER002"), 100, 0.01, 25.0,
+                300_000, archive, 1000, null);
+
+        // Continuous load: each round 50 orders come in and the previous round's orders are delivered
+        int peak = 0;
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 50; i++) {
+                service.processNewOrder(Map.of("orderId", "ORD" + round + "-" + i));
+                if (round > 0) {
+                    service.updateOrderFromQueue(Map.of("orderId", "ORD" + (round - 1) + "-" + i, "status", "DELIVERED"));
+                }
+            }
+            service.archiveCompletedOrders(System.currentTimeMillis() + 1000);
+            peak = Math.max(peak, service.getAllOrders().size());
+        }
+
+        // Only the round in flight stays in memory
+        assertEquals(50, peak);
+        assertEquals(50, service.getAllOrders().size());
+        Map<String, Object> archived = service.findOrder("ORD3-7").orElseThrow();
+        assertEquals("delivered", archived.get("driverStatus"));
+        assertEquals(true, archived.get("archived"));
+        assertTrue(service.findOrder("ORD19-7").isPresent());
+        assertEquals(Optional.empty(), service.findOrder("ORD99-1"));
+        // Small segments roll
+        try (var files = Files.list(dir)) {
+            assertTrue(files.count() > 1);
+        }
+        archive.destroy();
+    }
+
+    @Test
+    void failedFlush_ShouldKeepOrdersInMemoryUntilALaterSweepArchivesThem() throws Exception {
+        boolean[] failFlush = {true};
+        OrderArchive archive = new OrderArchive(dir.toString(), true, 1 << 20) {
+            @Override
+            public synchronized void flush() throws IOException {
+                if (failFlush[0]) {
+                    throw new IOException("disk full");
+                }
+                super.flush();
+            }
+        };
+        DriverOrderService service = new DriverOrderService(List.of("DRIVER001"), 100, 0.01, 25.0,
+                300_000, archive, 1000, null);
+        service.processNewOrder(Map.of("orderId", "ORD1"));
+        service.updateOrderFromQueue(Map.of("orderId", "ORD1", "status", "DELIVERED"));
+
+        assertEquals(0, service.archiveCompletedOrders(System.currentTimeMillis() + 1000));
+        assertTrue(service.getAllOrders().containsKey("ORD1"));
+
+        failFlush[0] = false;
+        assertEquals(1, service.archiveCompletedOrders(System.currentTimeMillis() + 1000));
+        assertFalse(service.getAllOrders().containsKey("ORD1"));
+        assertEquals("delivered", service.findOrder("ORD1").orElseThrow().get("driverStatus"));
+        archive.destroy();
+    }
+
+    @Test
+    void find_ShouldScanOnlyTheCurrentSegmentAndSegmentsWhoseFilterMatches() throws Exception {
+        OrderArchive archive = new OrderArchive(dir.toString(), false, 1024);
+        for (int i = 0; i < 200; i++) {
+            archive.append(Map.of("orderId", "ORD" + i, "driverStatus", "delivered"));
+        }
+        archive.flush();
+        List<Path> candidates = archive.candidateSegments("ORD5");
+        assertTrue(candidates.size() <= 3);
+        assertEquals(Optional.of("ORD5"), archive.find("ORD5").map(order -> order.get("orderId")));
+        // Unknown ids mostly scan just the current segment; filters have about 1% false positives
+        int scanned = 0;
+        for (int i = 0; i < 100; i++) {
+            scanned += archive.candidateSegments("MISSING" + i).size();
+        }
+        assertTrue(scanned < 150);
+        archive.destroy();
+
+        // Filters are saved with their segments; a missing one is rebuilt on open
+        Files.delete(dir.resolve("orders-000001.bloom"));
+        OrderArchive reopened = new OrderArchive(dir.toString(), false, 1024);
+        assertEquals(candidates, reopened.candidateSegments("ORD5"));
+        assertEquals("delivered", reopened.find("ORD0").orElseThrow().get("driverStatus"));
+        assertEquals("delivered", reopened.find("ORD199").orElseThrow().get("driverStatus"));
+        reopened.destroy();
+    }
+
+    @Test
+    void reopen_ShouldDropTornTailAndKeepEarlierOrders() throws Exception {
+        OrderArchive archive = new OrderArchive(dir.toString(), true, 1 << 20);
+        archive.append(Map.of("orderId", "ORD1", "driverStatus", "delivered"));
+        archive.flush();
+        archive.destroy();
+        Files.writeString(dir.resolve("orders-000001.ndjson"), "{\"orderId\":\"ORD2\",\"dri", StandardOpenOption.APPEND);
+
+        OrderArchive reopened = new OrderArchive(dir.toString(), true, 1 << 20);
+        reopened.append(Map.of("orderId", "ORD3", "driverStatus", "cancelled"));
+        reopened.flush();
+
+        assertEquals("delivered", reopened.find("ORD1").orElseThrow().get("driverStatus"));
+        assertEquals(Optional.empty(), reopened.find("ORD2"));
+        assertEquals("cancelled", reopened.find("ORD3").orElseThrow().get("driverStatus"));
+        reopened.destroy();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.notification_service.benchmark;
+
+import com.example.notification_service.service.DriverLocationIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nearest-driver lookup for a random pickup point with drivers spread over greater Colombo (about
+ * 30 x 20 km). nearestWhenHalfAreBusy declines about half the drivers, as if they were at capacity. Location
+ * updates are measured separately. Run like {@link DriverOrdersBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DriverLocationIndexBenchmark {
+
+    @Param({"1000", "10000"})
+    int drivers;
+
+    private DriverLocationIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new DriverLocationIndex(0.01, 25.0, Long.MAX_VALUE);
+        for (int i = 0; i < drivers; i++) {
+            index.update("DRIVER" + i, randomLat(), randomLng());
+        }
+    }
+
+    @Benchmark
+    public Optional<String> nearest() {
+        return index.nearest(randomLat(), randomLng(), driver -> true);
+    }
+
+    @Benchmark
+    public Optional<String> nearestWhenHalfAreBusy() {
+        return index.nearest(randomLat(), randomLng(), driver -> driver.hashCode() % 2 == 0);
+    }
+
+    @Benchmark
+    public void update() {
+        index.update("DRIVER" + ThreadLocalRandom.current().nextInt(drivers), randomLat(), randomLng());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DriverLocationIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static double randomLat() {
+        return 6.80 + ThreadLocalRandom.current().nextDouble() * 0.27;
+    }
+
+    private static double randomLng() {
+        return 79.83 + ThreadLocalRandom.current().nextDouble() * 0.18;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.notification_service.benchmark;
+
+import com.example.notification_service.service.DriverOrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * One driver-portal poll (getOrdersForDriver) served from the per-driver index, against the full scan,
+ * filter and sort DriverOrderService did before, over the same orders. A fifth of the orders are delivered.
+ *
+ * Not a unit test; run after mvn test-compile with the test classpath, e.g.
+ * java -cp target/test-classes:target/classes:$(test classpath) org.openjdk.jmh.Main DriverOrdersBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DriverOrdersBenchmark {
+
+    @Param({"100000"})
+    int orders;
+
+    @Param({"500"})
+    int drivers;
+
+    private DriverOrderService service;
+    private Map<String, Map<String, Object>> allOrders;
+    private List<String> driverIds;
+
+    @Setup
+    public void setUp() {
+        driverIds = new ArrayList<>();
+        for (int i = 0; i < drivers; i++) {
+            driverIds.add(String.format("DRIVER%04d", i));
+        }
+        service = new DriverOrderService(driverIds);
+        for (int i = 0; i < orders; i++) {
+            service.processNewOrder(Map.of("orderId", "ORD" + i, "clientId", "CLIENT001",
+                    "deliveryAddress", "45 Galle Road, Colombo 03"));
+            if (i % 5 == 0) {
+                service.updateOrderFromQueue(Map.of("orderId", "ORD" + i, "status", "DELIVERED"));
+            }
+        }
+        allOrders = service.getAllOrders();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> indexed() {
+        return service.getOrdersForDriver(randomDriver());
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> fullScan() {
+        return legacyGetOrdersForDriver(randomDriver());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DriverOrdersBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private String randomDriver() {
+        return driverIds.get(ThreadLocalRandom.current().nextInt(driverIds.size()));
+    }
+
+    private List<Map<String, Object>> legacyGetOrdersForDriver(String driverId) {
+        return allOrders.values().stream()
+                .filter(order -> driverId.equals(order.get("assignedDriver")))
+                .filter(order -> !"delivered".equals(order.get("driverStatus"))
+                        && !"cancelled".equals(order.get("driverStatus")))
+                .sorted((a, b) -> Long.compare(
+                        (Long) b.getOrDefault("assignedAt", 0L),
+                        (Long) a.getOrDefault("assignedAt", 0L)))
+                .collect(Collectors.toList());
+    }
+}
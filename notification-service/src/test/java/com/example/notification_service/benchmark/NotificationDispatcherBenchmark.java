@@ -0,0 +1,106 @@
+package com.example.notification_service.benchmark;
+
+import com.example.notification_service.notification.NotificationChannel;
+import com.example.notification_service.notification.NotificationDispatcher;
+import com.example.notification_service.notification.NotificationSender;
+import com.example.notification_service.notification.SimulatedNotificationSender;
+import com.example.notification_service.service.DriverOrderService;
+import com.example.notification_service.service.NotificationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order-created events through NotificationService with simulated-latency senders on every channel:
+ * listenerDrain is how long the listener takes to hand a batch of events to the dispatcher, delivery
+ * how long until every notification of the batch was sent. Before the dispatcher the listener slept
+ * for every send, so a batch took events x channels x latency-ms either way.
+ *
+ * Not a unit test; run after mvn test-compile with the test classpath, e.g.
+ * java -cp target/test-classes:target/classes:$(test classpath) org.openjdk.jmh.Main NotificationDispatcherBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotificationDispatcherBenchmark {
+
+    @Param({"200"})
+    int events;
+
+    @Param({"20"})
+    long latencyMs;
+
+    @Param({"8"})
+    int workersPerChannel;
+
+    private NotificationDispatcher dispatcher;
+    private NotificationService notificationService;
+    private long dispatched;
+
+    @Setup
+    public void setUp() {
+        dispatcher = new NotificationDispatcher(Arrays.stream(NotificationChannel.values())
+                .<NotificationSender>map(channel -> new SimulatedNotificationSender(channel, latencyMs))
+                .toList(), workersPerChannel, 10_000);
+        notificationService = new NotificationService();
+        ReflectionTestUtils.setField(notificationService, "driverOrderService", new DriverOrderService());
+        ReflectionTestUtils.setField(notificationService, "notificationDispatcher", dispatcher);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        dispatcher.destroy();
+    }
+
+    // Lets the previous batch go out so the next listenerDrain starts on empty queues
+    @TearDown(Level.Invocation)
+    public void awaitDelivered() throws InterruptedException {
+        while (dispatcher.delivered() + dispatcher.failed() < dispatched) {
+            Thread.sleep(1);
+        }
+    }
+
+    @Benchmark
+    public void listenerDrain() {
+        publishBatch();
+    }
+
+    @Benchmark
+    public void delivery() throws InterruptedException {
+        publishBatch();
+        awaitDelivered();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(NotificationDispatcherBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private void publishBatch() {
+        for (int i = 0; i < events; i++) {
+            notificationService.handleOrderCreated(Map.of("eventType", "ORDER_CREATED", "orderId", "ORD" + i,
+                    "clientId", "CLIENT001", "deliveryAddress", "45 Galle Road, Colombo 03"));
+        }
+        dispatched += (long) events * NotificationChannel.values().length;
+    }
+}
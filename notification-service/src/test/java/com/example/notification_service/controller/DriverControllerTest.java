@@ -0,0 +1,64 @@
+package com.example.notification_service.controller;
+
+import com.example.notification_service.client.EsbClient;
+import com.example.notification_service.service.DriverOrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class DriverControllerTest {
+
+    private EsbClient esbClient;
+    private DriverOrderService driverOrderService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        esbClient = mock(EsbClient.class);
+        driverOrderService = new DriverOrderService(List.of("DRIVER001"), 20, 0.01, 25.0, 300_000, null, 0, esbClient);
+        DriverController driverController = new DriverController();
+        ReflectionTestUtils.setField(driverController, "driverOrderService", driverOrderService);
+        mockMvc = MockMvcBuilders.standaloneSetup(driverController).build();
+    }
+
+    @Test
+    void getDriverOrders_OrderEventWithItemsRef_ShouldShowTheItems() throws Exception {
+        when(esbClient.getOrderItems("ORD1")).thenReturn(ResponseEntity.ok(Map.of("orderId", "ORD1",
+                "items", List.of(Map.of("itemId", "ITEM1", "description", "Rice 5kg", "quantity", 12)))));
+
+        // A large order's ORDER_CREATED event, as the ESB publishes it: items only by reference,
+        // delivered once on the notifications queue and once on the lifecycle queue
+        Map<String, Object> event = new HashMap<>();
+        event.put("schemaVersion", 2);
+        event.put("eventType", "ORDER_CREATED");
+        event.put("orderId", "ORD1");
+        event.put("recipientName", "Nimal Perera");
+        event.put("deliveryAddress", "12 Galle Road, Colombo");
+        event.put("totalItems", 12);
+        event.put("itemsRef", "/orders/ORD1/items");
+        driverOrderService.processNewOrder(event);
+        driverOrderService.processNewOrder(event);
+
+        mockMvc.perform(get("/api/driver/DRIVER001/orders"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders[0].recipientName").value("Nimal Perera"))
+                .andExpect(jsonPath("$.orders[0].items[0].description").value("Rice 5kg"))
+                .andExpect(jsonPath("$.orders[0].items[0].quantity").value(12));
+        verify(esbClient, times(1)).getOrderItems("ORD1");
+    }
+}
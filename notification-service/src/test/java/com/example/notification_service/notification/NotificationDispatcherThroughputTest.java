@@ -0,0 +1,83 @@
+package com.example.notification_service.notification;
+
+import com.example.notification_service.service.DriverOrderService;
+import com.example.notification_service.service.NotificationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The listener hands events to the dispatcher and returns without waiting for any send; every
+// notification is still delivered. Timings are in benchmark.NotificationDispatcherBenchmark.
+class NotificationDispatcherThroughputTest {
+
+    private static final int EVENTS = 200;
+    private static final int WORKERS_PER_CHANNEL = 8;
+    private static final int CHANNELS = NotificationChannel.values().length;
+
+    private final CountDownLatch sendersReleased = new CountDownLatch(1);
+    private final CountDownLatch allSent = new CountDownLatch(EVENTS * CHANNELS);
+    private NotificationDispatcher dispatcher;
+    private NotificationService notificationService;
+
+    @BeforeEach
+    void setUp() {
+        List<NotificationSender> senders = List.of(
+                blockingSender(NotificationChannel.EMAIL),
+                blockingSender(NotificationChannel.SMS),
+                blockingSender(NotificationChannel.PUSH));
+        dispatcher = new NotificationDispatcher(senders, WORKERS_PER_CHANNEL, 10_000);
+        notificationService = new NotificationService();
+        ReflectionTestUtils.setField(notificationService, "driverOrderService", new DriverOrderService());
+        ReflectionTestUtils.setField(notificationService, "notificationDispatcher", dispatcher);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        sendersReleased.countDown();
+        dispatcher.destroy();
+    }
+
+    @Test
+    void listeners_ShouldNotWaitForSendsAndEverythingIsDelivered() throws Exception {
+        for (int i = 0; i < EVENTS; i++) {
+            notificationService.handleOrderCreated(Map.of("eventType", "ORDER_CREATED", "orderId", "ORD" + i,
+                    "clientId", "CLIENT001", "deliveryAddress", "123 Main St"));
+        }
+
+        // Every sender is still blocked, yet the listener got through all events: each channel's
+        // workers hold one notification apiece and the rest wait in the queue
+        assertEquals(EVENTS * CHANNELS, allSent.getCount());
+        assertEquals(0, dispatcher.delivered());
+        assertEquals((EVENTS - WORKERS_PER_CHANNEL) * CHANNELS, dispatcher.pending());
+
+        sendersReleased.countDown();
+        assertTrue(allSent.await(30, TimeUnit.SECONDS));
+        dispatcher.destroy();
+        assertEquals(EVENTS * (long) CHANNELS, dispatcher.delivered());
+        assertEquals(0, dispatcher.failed());
+    }
+
+    private NotificationSender blockingSender(NotificationChannel channel) {
+        return new NotificationSender() {
+            @Override
+            public NotificationChannel channel() {
+                return channel;
+            }
+
+            @Override
+            public void send(Notification notification) throws Exception {
+                sendersReleased.await();
+                allSent.countDown();
+            }
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.notification_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DriverAssignmentEngineTest {
+
+    @Test
+    void assign_ShouldPickLeastLoadedDriverWithinCapacity() {
+        DriverAssignmentEngine engine = new DriverAssignmentEngine(List.of("DRIVER001", "DRIVER002"), 2);
+
+        assertEquals(Optional.of("DRIVER001"), engine.assign());
+        assertEquals(Optional.of("DRIVER002"), engine.assign());
+        engine.release("DRIVER001");
+        assertEquals(Optional.of("DRIVER001"), engine.assign());
+        assertEquals(Optional.of("DRIVER001"), engine.assign());
+        assertEquals(Optional.of("DRIVER002"), engine.assign());
+        assertEquals(Optional.empty(), engine.assign());
+
+        // A reactivated order counts even past capacity
+        engine.reacquire("DRIVER002");
+        assertEquals(3, engine.activeOrders("DRIVER002"));
+    }
+
+    @Test
+    void assign_ConcurrentListeners_ShouldNeverExceedCapacity() throws Exception {
+        int drivers = 50;
+        int capacity = 100;
+        int threads = 32;
+        int attemptsPerThread = 200;
+        List<String> driverIds = new ArrayList<>();
+        for (int i = 0; i < drivers; i++) {
+            driverIds.add("DRIVER" + i);
+        }
+        DriverAssignmentEngine engine = new DriverAssignmentEngine(driverIds, capacity);
+        Map<String, AtomicInteger> assigned = new ConcurrentHashMap<>();
+        AtomicInteger rejected = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    engine.assign().ifPresentOrElse(
+                            driver -> assigned.computeIfAbsent(driver, d -> new AtomicInteger()).incrementAndGet(),
+                            rejected::incrementAndGet);
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        // 6400 attempts for 5000 slots: every slot filled exactly once
+        assertEquals(threads * attemptsPerThread - drivers * capacity, rejected.get());
+        assertEquals(drivers, assigned.size());
+        for (String driver : driverIds) {
+            assertEquals(capacity, assigned.get(driver).get());
+            assertEquals(capacity, engine.activeOrders(driver));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.notification_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DriverLocationIndexTest {
+
+    @Test
+    void nearest_ShouldMatchBruteForceAcrossCells() {
+        DriverLocationIndex index = new DriverLocationIndex(0.01, 25.0, Long.MAX_VALUE);
+        Map<String, double[]> positions = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            double lat = 6.8 + random.nextDouble() * 0.3;
+            double lng = 79.8 + random.nextDouble() * 0.2;
+            positions.put("DRIVER" + i, new double[] { lat, lng });
+            index.update("DRIVER" + i, lat, lng);
+        }
+        // Moves are re-filed under their new cell
+        for (int i = 0; i < 200; i++) {
+            double lat = 6.8 + random.nextDouble() * 0.3;
+            double lng = 79.8 + random.nextDouble() * 0.2;
+            positions.put("DRIVER" + i, new double[] { lat, lng });
+            index.update("DRIVER" + i, lat, lng);
+        }
+
+        for (int q = 0; q < 200; q++) {
+            double lat = 6.8 + random.nextDouble() * 0.3;
+            double lng = 79.8 + random.nextDouble() * 0.2;
+            assertEquals(Optional.of(bruteForceNearest(positions, lat, lng)), index.nearest(lat, lng, driver -> true));
+        }
+    }
+
+    @Test
+    void nearest_ShouldSkipDriversThatAreNotClaimedAndRespectMaxDistance() {
+        DriverLocationIndex index = new DriverLocationIndex(0.01, 5.0, Long.MAX_VALUE);
+        index.update("FORT", 6.9319, 79.8478);
+        index.update("COLOMBO", 6.9271, 79.8612);
+        index.update("KANDY", 7.2906, 80.6337);
+
+        // Query next to Colombo Fort
+        assertEquals(Optional.of("FORT"), index.nearest(6.9320, 79.8480, driver -> true));
+        assertEquals(Optional.of("COLOMBO"), index.nearest(6.9320, 79.8480, driver -> !driver.equals("FORT")));
+        // Kandy is over 5 km away
+        assertEquals(Optional.empty(), index.nearest(6.9320, 79.8480, driver -> driver.equals("KANDY")));
+    }
+
+    @Test
+    void nearest_ShouldSkipPositionsOlderThanMaxAge() {
+        AtomicLong now = new AtomicLong(1_000_000);
+        DriverLocationIndex index = new DriverLocationIndex(0.01, 5.0, 60_000, now::get);
+        index.update("FORT", 6.9319, 79.8478);
+        now.addAndGet(30_000);
+        index.update("COLOMBO", 6.9271, 79.8612);
+
+        // FORT stopped reporting over a minute ago; COLOMBO reported half a minute ago
+        now.addAndGet(45_000);
+        assertEquals(Optional.of("COLOMBO"), index.nearest(6.9320, 79.8480, driver -> true));
+
+        // A fresh report makes FORT a candidate again
+        index.update("FORT", 6.9319, 79.8478);
+        assertEquals(Optional.of("FORT"), index.nearest(6.9320, 79.8480, driver -> true));
+
+        now.addAndGet(120_000);
+        assertEquals(Optional.empty(), index.nearest(6.9320, 79.8480, driver -> true));
+    }
+
+    private static String bruteForceNearest(Map<String, double[]> positions, double lat, double lng) {
+        String best = null;
+        double bestKm = Double.MAX_VALUE;
+        for (Map.Entry<String, double[]> entry : positions.entrySet()) {
+            double km = DriverLocationIndex.distanceKm(lat, lng, entry.getValue()[0], entry.getValue()[1]);
+            if (km < bestKm) {
+                bestKm = km;
+                best = entry.getKey();
+            }
+        }
+        return best;
+    }
+}
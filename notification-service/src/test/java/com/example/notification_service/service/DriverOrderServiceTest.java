@@ -0,0 +1,109 @@
+package com.example.notification_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DriverOrderServiceTest {
+
+    private final DriverOrderService service = new DriverOrderService(List.of("DRIVER001", "DRIVER002"));
+
+    @Test
+    void getOrdersForDriver_ShouldListActiveOrdersNewestFirst() throws InterruptedException {
+        for (int i = 1; i <= 4; i++) {
+            service.processNewOrder(Map.of("orderId", "ORD" + i));
+            Thread.sleep(2);
+        }
+
+        // Least-loaded, ties to the lower id: ORD1 and ORD3 go to DRIVER001
+        assertEquals(List.of("ORD3", "ORD1"), orderIds(service.getOrdersForDriver("DRIVER001")));
+        assertEquals(List.of("ORD4", "ORD2"), orderIds(service.getOrdersForDriver("DRIVER002")));
+        assertTrue(service.getOrdersForDriver("DRIVER999").isEmpty());
+    }
+
+    @Test
+    void completedOrders_ShouldLeaveTheDriversList() throws InterruptedException {
+        service.processNewOrder(Map.of("orderId", "ORD1"));
+        service.processNewOrder(Map.of("orderId", "ORD2"));
+        service.processNewOrder(Map.of("orderId", "ORD3"));
+
+        service.updateOrderStatus("ORD1", "delivered", "DRIVER001");
+        service.updateOrderFromQueue(Map.of("orderId", "ORD3", "status", "CANCELLED"));
+        assertTrue(service.getOrdersForDriver("DRIVER001").isEmpty());
+
+        // Back to an active status from the backend
+        service.updateOrderFromQueue(Map.of("orderId", "ORD3", "status", "LOADED"));
+        assertEquals(List.of("ORD3"), orderIds(service.getOrdersForDriver("DRIVER001")));
+        assertEquals("in_transit", service.getOrdersForDriver("DRIVER001").get(0).get("driverStatus"));
+
+        // Re-processing ORD2 frees DRIVER002 before assigning again, so it stays there; ORD4 breaks the 1-1 tie to DRIVER001
+        service.processNewOrder(Map.of("orderId", "ORD2"));
+        Thread.sleep(2);
+        service.processNewOrder(Map.of("orderId", "ORD4"));
+        assertEquals(List.of("ORD2"), orderIds(service.getOrdersForDriver("DRIVER002")));
+        assertEquals(List.of("ORD4", "ORD3"), orderIds(service.getOrdersForDriver("DRIVER001")));
+    }
+
+    @Test
+    void processNewOrder_ShouldRespectDriverCapacity() {
+        DriverOrderService limited = new DriverOrderService(List.of("DRIVER001", "DRIVER002"), 1);
+        limited.processNewOrder(Map.of("orderId", "ORD1"));
+        limited.processNewOrder(Map.of("orderId", "ORD2"));
+        limited.processNewOrder(Map.of("orderId", "ORD3"));
+        assertEquals("unassigned", limited.getAllOrders().get("ORD3").get("driverStatus"));
+
+        // Delivering ORD1 frees DRIVER001 for the order that waited, not for the next new one
+        limited.updateOrderStatus("ORD1", "delivered", "DRIVER001");
+        limited.processNewOrder(Map.of("orderId", "ORD4"));
+        assertEquals(List.of("ORD3"), orderIds(limited.getOrdersForDriver("DRIVER001")));
+        assertEquals("assigned", limited.getAllOrders().get("ORD3").get("driverStatus"));
+        assertEquals("unassigned", limited.getAllOrders().get("ORD4").get("driverStatus"));
+    }
+
+    @Test
+    void unassignedOrders_ShouldBeOfferedOldestFirstWhenADriverFreesUp() {
+        DriverOrderService limited = new DriverOrderService(List.of("DRIVER001"), 1);
+        for (int i = 1; i <= 4; i++) {
+            limited.processNewOrder(Map.of("orderId", "ORD" + i));
+        }
+
+        // ORD2 is cancelled while it waits, so it is skipped
+        limited.updateOrderFromQueue(Map.of("orderId", "ORD2", "status", "CANCELLED"));
+        limited.updateOrderFromQueue(Map.of("orderId", "ORD1", "status", "DELIVERED"));
+        assertEquals(List.of("ORD3"), orderIds(limited.getOrdersForDriver("DRIVER001")));
+        assertEquals("cancelled", limited.getAllOrders().get("ORD2").get("driverStatus"));
+        assertEquals("unassigned", limited.getAllOrders().get("ORD4").get("driverStatus"));
+
+        limited.updateOrderStatus("ORD3", "delivered", "DRIVER001");
+        assertEquals(List.of("ORD4"), orderIds(limited.getOrdersForDriver("DRIVER001")));
+    }
+
+    @Test
+    void processNewOrder_WithPickupCoordinates_ShouldPreferNearestDriverWithCapacity() {
+        DriverOrderService located = new DriverOrderService(List.of("DRIVER001", "DRIVER002", "DRIVER003"), 1);
+        located.updateDriverLocation("DRIVER001", 6.9271, 79.8612);
+        located.updateDriverLocation("DRIVER002", 6.9319, 79.8478);
+        assertFalse(located.updateDriverLocation("DRIVER999", 6.9, 79.8));
+
+        Map<String, Object> nearFort = Map.of("orderId", "ORD1", "pickupLat", 6.9320, "pickupLng", 79.8480);
+        located.processNewOrder(nearFort);
+        assertEquals("DRIVER002", located.getAllOrders().get("ORD1").get("assignedDriver"));
+
+        // DRIVER002 is full, so the next-nearest located driver gets it
+        located.processNewOrder(Map.of("orderId", "ORD2", "pickupLat", 6.9320, "pickupLng", 79.8480));
+        assertEquals("DRIVER001", located.getAllOrders().get("ORD2").get("assignedDriver"));
+
+        // No located driver left: falls back to the least-loaded one
+        located.processNewOrder(Map.of("orderId", "ORD3", "pickupLat", 6.9320, "pickupLng", 79.8480));
+        assertEquals("DRIVER003", located.getAllOrders().get("ORD3").get("assignedDriver"));
+    }
+
+    private static List<Object> orderIds(List<Map<String, Object>> orders) {
+        return orders.stream().map(order -> order.get("orderId")).toList();
+    }
+}
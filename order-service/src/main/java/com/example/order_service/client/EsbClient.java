@@ -55,8 +55,11 @@ public interface EsbClient {
     @DeleteMapping("/orders/cancel")
     ResponseEntity<Map<String, Object>> cancelOrder(@RequestParam("orderId") String orderId);
 
-    // Get all orders for a specific client
+    // Get one page of orders for a specific client; cursor is the previous page's nextCursor
     @GetMapping("/clients/{clientId}/orders")
-    ResponseEntity<Map<String, Object>> getOrdersByClient(@PathVariable("clientId") String clientId);
+    ResponseEntity<Map<String, Object>> getOrdersByClient(
+            @PathVariable("clientId") String clientId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "pageSize", required = false) Integer pageSize);
 
 }
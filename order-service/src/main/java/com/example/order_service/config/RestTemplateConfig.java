@@ -1,14 +1,92 @@
 package com.example.order_service.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class RestTemplateConfig {
 
+    @Value("${order-service.http.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${order-service.http.max-connections-per-route:20}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${order-service.http.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${order-service.http.read-timeout-ms:10000}")
+    private long readTimeoutMs;
+
+    @Value("${order-service.http.lease-timeout-ms:1000}")
+    private long leaseTimeoutMs;
+
+    @Value("${order-service.http.keep-alive-ms:30000}")
+    private long keepAliveMs;
+
+    // Keep-alive connection pool shared by the RestTemplate and the Feign clients (feign-hc5 picks up this bean).
+    // Lease wait / duration / timeouts under order-service.http.pool.lease.*
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager httpConnectionManager(MeterRegistry meterRegistry) {
+        MeteredPoolingConnectionManager connectionManager =
+                new MeteredPoolingConnectionManager("order-service", meterRegistry);
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        connectionManager.setDefaultSocketConfig(SocketConfig.custom()
+                .setSoTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .setTcpNoDelay(true)
+                .build());
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build());
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager httpConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(httpConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(leaseTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build())
+                // Honour the server's Keep-Alive header but never keep an idle connection longer than configured
+                .setKeepAliveStrategy((response, context) -> {
+                    TimeValue serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return TimeValue.ofMilliseconds(Math.min(serverKeepAlive.toMilliseconds(), keepAliveMs));
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(keepAliveMs))
+                .build();
+    }
+
+    // Pool size / leased / pending gauges under httpcomponents.httpclient.pool.*
+    @Bean
+    public MeterBinder httpConnectionPoolMetrics(PoolingHttpClientConnectionManager httpConnectionManager) {
+        return (MeterRegistry registry) ->
+                new PoolingHttpClientConnectionManagerMetricsBinder(httpConnectionManager, "order-service")
+                        .bindTo(registry);
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(CloseableHttpClient httpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
     }
 }
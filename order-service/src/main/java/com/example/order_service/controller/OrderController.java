@@ -4,6 +4,7 @@ import com.example.order_service.client.EsbClient;
 import com.example.order_service.model.CreateOrderRequest;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 // import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -33,6 +34,9 @@ public class OrderController {
     @Autowired
     private EsbClient esbClient;
 
+    @Value("${order-service.client-orders.page-size:100}")
+    private int defaultPageSize;
+
     @PostMapping
     public ResponseEntity<Map<String, Object>> createOrder(@RequestBody CreateOrderRequest request) {
         logger.info("Order Service received request: {}", request);
@@ -53,6 +57,10 @@ public class OrderController {
             esbRequest.put("notes", request.getNotes());
             esbRequest.put("totalWeight", request.getTotalWeight());
             esbRequest.put("totalItems", request.getTotalItems());
+            if (request.getPickupLat() != null && request.getPickupLng() != null) {
+                esbRequest.put("pickupLat", request.getPickupLat());
+                esbRequest.put("pickupLng", request.getPickupLng());
+            }
 
             // Generate package details from items
             String packageDetails = generatePackageDetails(request.getItems());
@@ -407,13 +415,17 @@ public class OrderController {
         return details.toString();
     }
 
+    // Paged: responses carry nextCursor, to be passed back as cursor until it is null
     @GetMapping("/client/{clientId}")
-    public ResponseEntity<Map<String, Object>> getOrdersByClient(@PathVariable String clientId) {
+    public ResponseEntity<Map<String, Object>> getOrdersByClient(@PathVariable String clientId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "pageSize", required = false) Integer pageSize) {
         logger.info("Order Service received request to get all orders for client: {}", clientId);
 
         try {
             // Call ESB to get orders from all systems
-            ResponseEntity<Map<String, Object>> esbResponse = esbClient.getOrdersByClient(clientId);
+            ResponseEntity<Map<String, Object>> esbResponse = esbClient.getOrdersByClient(clientId, cursor,
+                    pageSize != null ? pageSize : defaultPageSize);
             Map<String, Object> responseBody = esbResponse.getBody();
 
             // Add Order Service metadata
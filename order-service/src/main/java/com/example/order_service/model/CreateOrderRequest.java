@@ -12,6 +12,9 @@ public class CreateOrderRequest {
     private String recipientPhone;
     private List<OrderItem> items;
     private String notes;
+    // Optional pickup coordinates; with them the order goes to the nearest driver
+    private Double pickupLat;
+    private Double pickupLng;
 
     // Default constructor
     public CreateOrderRequest() {
@@ -90,6 +93,22 @@ public class CreateOrderRequest {
         this.notes = notes;
     }
 
+    public Double getPickupLat() {
+        return pickupLat;
+    }
+
+    public void setPickupLat(Double pickupLat) {
+        this.pickupLat = pickupLat;
+    }
+
+    public Double getPickupLng() {
+        return pickupLng;
+    }
+
+    public void setPickupLng(Double pickupLng) {
+        this.pickupLng = pickupLng;
+    }
+
     // Helper method to calculate total weight
     public double getTotalWeight() {
         return items != null ? items.stream().mapToDouble(item -> item.getWeightKg() * item.getQuantity()).sum() : 0.0;
@@ -52,6 +52,9 @@ packages = {
 
 orders = {}
 
+# Largest page GetOrdersByClient serves when the caller asks for pagination
+MAX_ORDERS_PAGE_SIZE = 500
+
 
 def create_soap_response(body_content):
     """Create SOAP envelope response"""
@@ -114,6 +117,8 @@ def soap_endpoint():
             return handle_get_package_order_info(soap_body)
         elif operation == "GetOrdersByClient":
             return handle_get_orders_by_client(soap_body)
+        elif operation == "GetOrderItems":
+            return handle_get_order_items(soap_body)
         else:
             return create_soap_fault(f"Unknown operation: {operation}"), 400
     except Exception as e:
@@ -576,27 +581,58 @@ def handle_get_orders_by_client(soap_body):
             return create_soap_fault("Missing ClientId in GetOrdersByClient request"), 400
 
         client_id = client_id_elem.text.strip()
+
+        # Optional cursor pagination: PageSize caps the orders returned, Cursor is the
+        # NextCursor of the previous page. Without PageSize every order is returned.
+        page_size_elem = soap_body.find("cms:PageSize", NAMESPACES)
+        if page_size_elem is None:
+            page_size_elem = soap_body.find("PageSize")
+        cursor_elem = soap_body.find("cms:Cursor", NAMESPACES)
+        if cursor_elem is None:
+            cursor_elem = soap_body.find("Cursor")
+
+        page_size = None
+        if page_size_elem is not None and page_size_elem.text:
+            try:
+                page_size = int(page_size_elem.text.strip())
+            except ValueError:
+                return create_soap_fault("Invalid PageSize in GetOrdersByClient request"), 400
+            if page_size < 1 or page_size > MAX_ORDERS_PAGE_SIZE:
+                return create_soap_fault(
+                    f"PageSize must be between 1 and {MAX_ORDERS_PAGE_SIZE}"), 400
+        cursor = cursor_elem.text.strip() if cursor_elem is not None and cursor_elem.text else None
+        if cursor is not None and cursor not in orders:
+            return create_soap_fault("Invalid Cursor in GetOrdersByClient request"), 400
+
         print(f"[CMS] Looking for orders for client: {client_id}")
         print(f"[CMS] Available orders: {list(orders.keys())}")
 
-        # Filter orders by client_id
+        # Filter orders by client_id, resuming after the cursor (orders keep insertion order)
         client_orders = []
+        next_cursor = ""
+        skipping = cursor is not None
         for order_id, order_data in orders.items():
-            print(
-                f"[CMS] Checking order {order_id}: client_id = {order_data.get('client_id')}")
-            if order_data.get("client_id") == client_id:
-                client_orders.append({
-                    "orderId": order_data.get("external_order_id", order_id),
-                    "internalOrderId": order_id,
-                    "status": order_data.get("status", "PENDING"),
-                    "createdAt": order_data.get("created_at", ""),
-                    "recipientName": order_data.get("recipient_name", ""),
-                    "recipientAddress": order_data.get("recipient_address", ""),
-                    "recipientPhone": order_data.get("recipient_phone", ""),
-                    "billingAmount": order_data.get("billing_amount", 0.0),
-                    "packageDetails": order_data.get("package_details", ""),
-                    "items": order_data.get("items", [])  # ADD THIS LINE
-                })
+            if skipping:
+                skipping = order_id != cursor
+                continue
+            if order_data.get("client_id") != client_id:
+                continue
+            if page_size is not None and len(client_orders) == page_size:
+                # Another order exists beyond this page
+                next_cursor = client_orders[-1]["internalOrderId"]
+                break
+            client_orders.append({
+                "orderId": order_data.get("external_order_id", order_id),
+                "internalOrderId": order_id,
+                "status": order_data.get("status", "PENDING"),
+                "createdAt": order_data.get("created_at", ""),
+                "recipientName": order_data.get("recipient_name", ""),
+                "recipientAddress": order_data.get("recipient_address", ""),
+                "recipientPhone": order_data.get("recipient_phone", ""),
+                "billingAmount": order_data.get("billing_amount", 0.0),
+                "packageDetails": order_data.get("package_details", ""),
+                "items": order_data.get("items", [])  # ADD THIS LINE
+            })
 
         print(
             f"[CMS] Found {len(client_orders)} orders for client {client_id}")
@@ -604,17 +640,7 @@ def handle_get_orders_by_client(soap_body):
         # Build SOAP response with orders INCLUDING ITEMS
         orders_xml = ""
         for order in client_orders:
-            # Build items XML
-            items_xml = ""
-            items_data = order.get("items", [])
-            for item in items_data:
-                items_xml += f"""
-                    <cms:Item>
-                        <cms:ItemId>{item.get('itemId', '')}</cms:ItemId>
-                        <cms:Description>{item.get('description', '')}</cms:Description>
-                        <cms:Quantity>{item.get('quantity', 0)}</cms:Quantity>
-                        <cms:WeightKg>{item.get('weightKg', 0.0)}</cms:WeightKg>
-                    </cms:Item>"""
+            items_xml = build_items_xml(order.get("items", []))
 
             orders_xml += f"""
             <cms:Order>
@@ -637,6 +663,7 @@ def handle_get_orders_by_client(soap_body):
             <cms:TotalOrders>{len(client_orders)}</cms:TotalOrders>
             <cms:Orders>{orders_xml}
             </cms:Orders>
+            <cms:NextCursor>{next_cursor}</cms:NextCursor>
             <cms:Timestamp>{datetime.now().isoformat()}</cms:Timestamp>
         </cms:GetOrdersByClientResponse>"""
 
@@ -662,6 +689,66 @@ def handle_get_orders_by_client(soap_body):
         return create_soap_fault(f"Error getting orders for client: {str(e)}"), 500
 
 
+def build_items_xml(items_data):
+    """cms:Item elements for an order's items"""
+    items_xml = ""
+    for item in items_data:
+        items_xml += f"""
+                    <cms:Item>
+                        <cms:ItemId>{item.get('itemId', '')}</cms:ItemId>
+                        <cms:Description>{item.get('description', '')}</cms:Description>
+                        <cms:Quantity>{item.get('quantity', 0)}</cms:Quantity>
+                        <cms:WeightKg>{item.get('weightKg', 0.0)}</cms:WeightKg>
+                    </cms:Item>"""
+    return items_xml
+
+
+def handle_get_order_items(soap_body):
+    """Handle order items request - OrderId may be the internal or the external order id"""
+    try:
+        order_id_elem = soap_body.find("cms:OrderId", NAMESPACES)
+        if order_id_elem is None:
+            order_id_elem = soap_body.find("OrderId")
+
+        if order_id_elem is None or not order_id_elem.text:
+            return create_soap_fault("Missing OrderId in GetOrderItems request"), 400
+
+        order_id = order_id_elem.text.strip()
+        internal_order_id = order_id if order_id in orders else None
+        if internal_order_id is None:
+            for candidate_id, order_data in orders.items():
+                if order_data.get("external_order_id") == order_id:
+                    internal_order_id = candidate_id
+                    break
+        if internal_order_id is None:
+            return create_soap_fault("Order not found"), 404
+
+        order = orders[internal_order_id]
+        response_body = f"""
+        <cms:GetOrderItemsResponse>
+            <cms:Order>
+                <cms:OrderId>{order.get('external_order_id', internal_order_id)}</cms:OrderId>
+                <cms:InternalOrderId>{internal_order_id}</cms:InternalOrderId>
+                <cms:PackageDetails>{order.get('package_details', '')}</cms:PackageDetails>
+                <cms:Items>{build_items_xml(order.get('items', []))}
+                </cms:Items>
+            </cms:Order>
+        </cms:GetOrderItemsResponse>"""
+
+        response = Response(
+            create_soap_response(response_body),
+            mimetype="text/xml",
+            headers={"SOAPAction": "GetOrderItemsResponse"},
+        )
+
+        print(f"[CMS] Items requested for order: {order_id}")
+        return response
+
+    except Exception as e:
+        print(f"[CMS] ERROR in handle_get_order_items: {str(e)}")
+        return create_soap_fault(f"Error getting order items: {str(e)}"), 500
+
+
 def create_soap_fault(error_message):
     """Create SOAP fault response"""
     fault_body = f"""
@@ -306,6 +306,35 @@ def cancel_route_by_order():
         return jsonify({"status": "error", "message": f"Cancellation failed: {str(e)}"}), 500
 
 
+@app.route("/api/v1/routes/status/batch", methods=["POST"])
+def get_route_statuses():
+    """Route status for many orders at once (for ESB dashboard enrichment)"""
+    try:
+        data = request.get_json()
+        order_ids = data.get("order_ids") if data else None
+        if not isinstance(order_ids, list):
+            return jsonify({"status": "error", "message": "Missing order_ids list"}), 400
+
+        # One pass over the routes instead of one lookup per order
+        wanted = set(order_ids)
+        statuses = {}
+        for route in routes.values():
+            for stop in route.get("optimized_stops", []):
+                order_id = stop.get("order_id")
+                if order_id in wanted:
+                    statuses[order_id] = {
+                        "route_id": route["route_id"],
+                        "status": route["status"],
+                    }
+
+        not_found = [order_id for order_id in order_ids if order_id not in statuses]
+        print(f"[ROS] Route status batch: {len(statuses)}/{len(order_ids)} orders routed")
+
+        return jsonify({"success": True, "statuses": statuses, "not_found": not_found})
+    except Exception as e:
+        return jsonify({"status": "error", "message": f"Status lookup failed: {str(e)}"}), 500
+
+
 @app.route("/api/v1/vehicles/<vehicle_id>/location", methods=["PUT"])
 def update_vehicle_location(vehicle_id):
     """Update vehicle location"""
@@ -24,6 +24,10 @@ MESSAGE_TYPES = {
     "WAREHOUSE_STATUS_RESP": 0x07,
     "WMS_CANCEL_PACKAGE_REQ": 0x10,
     "WMS_CANCEL_PACKAGE_RESP": 0x11,
+    "PACKAGE_BATCH_RECEIVED": 0x20,
+    "PACKAGE_BATCH_RESP": 0x21,
+    "PACKAGE_BATCH_STATUS_REQ": 0x22,
+    "PACKAGE_BATCH_STATUS_RESP": 0x23,
     "HEARTBEAT": 0x08,
     "ERROR": 0xFF,
 }
@@ -52,6 +56,9 @@ class WMSServer:
             "C": {"capacity": 200, "current": 45, "packages": []},
         }
         self.running = False
+        # request_id of the message being processed on the current connection thread,
+        # echoed back in the response so clients can pipeline requests
+        self.request_context = threading.local()
 
         # Initialize some sample packages
         self._initialize_sample_data()
@@ -185,6 +192,7 @@ class WMSServer:
 
     def process_message(self, client_socket, message_type, payload_data):
         """Process incoming messages based on type"""
+        self.request_context.request_id = self.extract_request_id(payload_data)
         try:
             message_name = REVERSE_MESSAGE_TYPES.get(message_type, "UNKNOWN")
             print(f"[WMS] Processing message: {message_name}")
@@ -195,6 +203,12 @@ class WMSServer:
             elif message_type == MESSAGE_TYPES["PACKAGE_RECEIVED"]:
                 self.handle_package_received(client_socket, payload_data)
 
+            elif message_type == MESSAGE_TYPES["PACKAGE_BATCH_RECEIVED"]:
+                self.handle_package_batch_received(client_socket, payload_data)
+
+            elif message_type == MESSAGE_TYPES["PACKAGE_BATCH_STATUS_REQ"]:
+                self.handle_package_batch_status_request(client_socket, payload_data)
+
             elif message_type == MESSAGE_TYPES["PACKAGE_PROCESSED"]:
                 self.handle_package_processed(client_socket, payload_data)
 
@@ -218,6 +232,23 @@ class WMSServer:
 
         except Exception as e:
             self.send_error(client_socket, f"Message processing error: {str(e)}")
+        finally:
+            self.request_context.request_id = None
+
+    def extract_request_id(self, payload_data):
+        """Return the request_id of a JSON payload, if any"""
+        try:
+            data = json.loads(payload_data.decode("utf-8"))
+            return data.get("request_id") if isinstance(data, dict) else None
+        except Exception:
+            return None
+
+    def with_request_id(self, data):
+        """Echo the current request_id into a response payload"""
+        request_id = getattr(self.request_context, "request_id", None)
+        if request_id is not None and "request_id" not in data:
+            data = dict(data, request_id=request_id)
+        return data
 
     def handle_package_status_request(self, client_socket, payload_data):
         """Handle package status request"""
@@ -320,6 +351,123 @@ class WMSServer:
         except Exception as e:
             self.send_error(client_socket, f"Package received error: {str(e)}")
 
+    def handle_package_batch_received(self, client_socket, payload_data):
+        """Handle many package received notifications in one message"""
+        try:
+            data = json.loads(payload_data.decode("utf-8"))
+            packages = data.get("packages")
+
+            if not isinstance(packages, list):
+                self.send_error(client_socket, "Missing packages list")
+                return
+
+            required_fields = [
+                "package_id",
+                "order_id",
+                "client_id",
+                "weight",
+                "dimensions",
+            ]
+            results = []
+            stored = []
+
+            for pkg in packages:
+                missing = [field for field in required_fields if field not in pkg]
+                if missing:
+                    results.append(
+                        {
+                            "package_id": pkg.get("package_id"),
+                            "order_id": pkg.get("order_id"),
+                            "status": "REJECTED",
+                            "error": f"Missing required field: {missing[0]}",
+                        }
+                    )
+                    continue
+
+                assigned_zone = min(
+                    self.warehouse_zones.keys(),
+                    key=lambda z: self.warehouse_zones[z]["current"],
+                )
+
+                package_record = {
+                    "package_id": pkg["package_id"],
+                    "order_id": pkg["order_id"],
+                    "client_id": pkg["client_id"],
+                    "status": PackageStatus.RECEIVED.value,
+                    "zone": assigned_zone,
+                    "weight": pkg["weight"],
+                    "dimensions": pkg["dimensions"],
+                    "received_at": datetime.now().isoformat(),
+                    "special_handling": pkg.get("special_handling", False),
+                    "last_updated": datetime.now().isoformat(),
+                }
+
+                self.packages[pkg["package_id"]] = package_record
+                self.warehouse_zones[assigned_zone]["current"] += 1
+                self.warehouse_zones[assigned_zone]["packages"].append(pkg["package_id"])
+                stored.append(package_record)
+
+                results.append(
+                    {
+                        "package_id": pkg["package_id"],
+                        "order_id": pkg["order_id"],
+                        "status": "RECEIVED",
+                        "assigned_zone": assigned_zone,
+                    }
+                )
+
+            response_data = {
+                "received": len(stored),
+                "rejected": len(results) - len(stored),
+                "results": results,
+            }
+
+            self.send_response(
+                client_socket, MESSAGE_TYPES["PACKAGE_BATCH_RESP"], response_data
+            )
+            print(f"[WMS] Package batch received: {len(stored)}/{len(packages)} stored")
+
+            for package_record in stored:
+                self.broadcast_package_update(package_record)
+
+        except Exception as e:
+            self.send_error(client_socket, f"Package batch error: {str(e)}")
+
+    def handle_package_batch_status_request(self, client_socket, payload_data):
+        """Handle package status lookup for many orders in one message"""
+        try:
+            data = json.loads(payload_data.decode("utf-8"))
+            order_ids = data.get("order_ids")
+
+            if not isinstance(order_ids, list):
+                self.send_error(client_socket, "Missing order_ids list")
+                return
+
+            # One pass over the packages instead of one request per order
+            wanted = set(order_ids)
+            statuses = {}
+            for package_info in self.packages.values():
+                order_id = package_info["order_id"]
+                if order_id in wanted:
+                    statuses[order_id] = {
+                        "package_id": package_info["package_id"],
+                        "status": package_info["status"],
+                        "zone": package_info["zone"],
+                    }
+
+            response_data = {
+                "statuses": statuses,
+                "not_found": [order_id for order_id in order_ids if order_id not in statuses],
+            }
+
+            self.send_response(
+                client_socket, MESSAGE_TYPES["PACKAGE_BATCH_STATUS_RESP"], response_data
+            )
+            print(f"[WMS] Package status batch: {len(statuses)}/{len(order_ids)} orders found")
+
+        except Exception as e:
+            self.send_error(client_socket, f"Package status batch error: {str(e)}")
+
     def handle_package_processed(self, client_socket, payload_data):
         """Handle package processed notification"""
         try:
@@ -508,7 +656,7 @@ class WMSServer:
     def send_response(self, client_socket, message_type, data):
         """Send response to client"""
         try:
-            payload = json.dumps(data).encode("utf-8")
+            payload = json.dumps(self.with_request_id(data)).encode("utf-8")
             header = struct.pack("!II", message_type, len(payload))
             client_socket.send(header + payload)
 
@@ -522,7 +670,7 @@ class WMSServer:
                 "error": error_message,
                 "timestamp": datetime.now().isoformat(),
             }
-            payload = json.dumps(error_data).encode("utf-8")
+            payload = json.dumps(self.with_request_id(error_data)).encode("utf-8")
             header = struct.pack("!II", MESSAGE_TYPES["ERROR"], len(payload))
             client_socket.send(header + payload)
 